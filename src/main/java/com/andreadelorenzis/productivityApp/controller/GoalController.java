@@ -1,22 +1,35 @@
 package com.andreadelorenzis.productivityApp.controller;
 
+import com.andreadelorenzis.productivityApp.dto.CursorPage;
 import com.andreadelorenzis.productivityApp.dto.DecompositionRequestDTO;
 import com.andreadelorenzis.productivityApp.dto.DecompositionResponseDTO;
 import com.andreadelorenzis.productivityApp.dto.GoalDTO;
+import com.andreadelorenzis.productivityApp.dto.GoalProgressSeriesDTO;
 import com.andreadelorenzis.productivityApp.dto.GoalResponseDTO;
+import com.andreadelorenzis.productivityApp.repository.GoalFilter;
 import com.andreadelorenzis.productivityApp.service.GoalService;
+import com.andreadelorenzis.productivityApp.service.ResourceVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -24,10 +37,16 @@ import java.util.List;
 @Tag(name = "Goals", description = "API endpoints for managing goals")
 public class GoalController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
     private final GoalService goalService;
+    private final ResourceVersion resourceVersion;
+    private final JsonMapper jsonMapper;
 
-    public GoalController(GoalService goalService) {
+    public GoalController(GoalService goalService, ResourceVersion resourceVersion, JsonMapper jsonMapper) {
         this.goalService = goalService;
+        this.resourceVersion = resourceVersion;
+        this.jsonMapper = jsonMapper;
     }
 
     @PostMapping
@@ -43,26 +62,108 @@ public class GoalController {
     }
 
     @GetMapping
-    @Operation(summary = "List all goals", description = "Retrieve all active (non-deleted) goals")
+    @Operation(summary = "List all goals", description = "Retrieve all active (non-deleted) goals, optionally filtered by status, deadline range, importance and difficulty and sorted by importance, deadline, created or name; "
+            + "filtering and sorting run in the database. "
+            + "Passing limit (and then the X-Next-Cursor value as cursor) pages through the unfiltered goals by importance, then newest first")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved goals", content = @Content(mediaType = "application/json", schema = @Schema(implementation = GoalResponseDTO.class)))
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved goals", content = @Content(mediaType = "application/json", schema = @Schema(implementation = GoalResponseDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter, sort, cursor or limit, or paging combined with a filter", content = @Content(mediaType = "application/json"))
     })
-    public ResponseEntity<List<GoalResponseDTO>> list() {
+    public ResponseEntity<List<GoalResponseDTO>> list(
+            @Parameter(description = "Filter goals by status ID") @RequestParam(required = false) Long statusId,
+            @Parameter(description = "Earliest deadline (inclusive, ISO date-time)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime deadlineFrom,
+            @Parameter(description = "Latest deadline (inclusive, ISO date-time)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime deadlineTo,
+            @Parameter(description = "Minimum importance (1-5)") @RequestParam(required = false) Integer minImportance,
+            @Parameter(description = "Maximum importance (1-5)") @RequestParam(required = false) Integer maxImportance,
+            @Parameter(description = "Minimum difficulty (1-5)") @RequestParam(required = false) Integer minDifficulty,
+            @Parameter(description = "Maximum difficulty (1-5)") @RequestParam(required = false) Integer maxDifficulty,
+            @Parameter(description = "Sort by importance (default), deadline, created or name") @RequestParam(required = false) String sort,
+            @Parameter(description = "asc or desc; defaults to the sort's natural direction (most important, soonest, newest, A-Z first)") @RequestParam(required = false) String direction,
+            @Parameter(description = "Cursor returned in X-Next-Cursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (1-200); enables paging") @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        if (request.checkNotModified(resourceVersion.currentTag())) {
+            return null;
+        }
+        GoalFilter filter = new GoalFilter(statusId, deadlineFrom, deadlineTo, minImportance, maxImportance,
+                minDifficulty, maxDifficulty);
+        boolean sorted = sort != null || direction != null;
+
+        if (cursor != null || limit != null) {
+            if (!filter.isEmpty() || sorted) {
+                throw new IllegalArgumentException("Paging is only supported on the unfiltered goal listing");
+            }
+            CursorPage<GoalResponseDTO> page = goalService.listGoalsPage(cursor,
+                    limit != null ? limit : DEFAULT_PAGE_SIZE);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        }
+        if (!filter.isEmpty() || sorted) {
+            return ResponseEntity.ok(goalService.listGoals(filter, sort, direction));
+        }
         return ResponseEntity.ok(goalService.listGoals());
     }
 
+    @GetMapping(params = "stream=true")
+    @Operation(summary = "Stream all goals", description = "Same goals as the unfiltered listing, in the order of the paged listing (importance, newest first). "
+            + "Rows are read through a database cursor and written to the response as they arrive, so memory use does not grow with the number of goals")
+    @Parameter(name = "stream", in = ParameterIn.QUERY, required = true, description = "Must be true", schema = @Schema(type = "boolean"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed goals", content = @Content(mediaType = "application/json", schema = @Schema(implementation = GoalResponseDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match")
+    })
+    public ResponseEntity<StreamingResponseBody> streamGoals(WebRequest request) {
+        if (request.checkNotModified(resourceVersion.currentTag())) {
+            return null;
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = jsonMapper.createGenerator(out)) {
+                json.writeStartArray();
+                goalService.streamGoals(json::writePOJO);
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get a goal by ID", description = "Retrieve a single goal by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Goal found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = GoalResponseDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Goal not found", content = @Content(mediaType = "application/json"))
     })
     public ResponseEntity<GoalResponseDTO> get(
-            @Parameter(description = "Goal ID") @PathVariable Long id) {
+            @Parameter(description = "Goal ID") @PathVariable Long id,
+            WebRequest request) {
+        if (request.checkNotModified(resourceVersion.currentTag())) {
+            return null;
+        }
         GoalResponseDTO r = goalService.getGoal(id);
         return ResponseEntity.ok(r);
     }
 
+    @GetMapping("/{id}/progress-series")
+    @Operation(summary = "Get the burn-down series of a goal", description = "Retrieve the actual and ideal progress of a goal at the end of each day or week (from Monday) overlapping from..to (at most "
+            + GoalService.MAX_SERIES_POINTS + " points), read from pre-aggregated progress buckets. "
+            + "Progress logged in the last few seconds may not be included yet")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Series computed", content = @Content(mediaType = "application/json", schema = @Schema(implementation = GoalProgressSeriesDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid or too long date range, or unknown granularity", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "Goal not found", content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<GoalProgressSeriesDTO> getProgressSeries(
+            @Parameter(description = "Goal ID") @PathVariable Long id,
+            @Parameter(description = "First day of the range (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day of the range (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "day (default) or week") @RequestParam(required = false) String granularity) {
+        return ResponseEntity.ok(goalService.getProgressSeries(id, from, to, granularity));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update a goal (full replacement)", description = "Update an entire goal with all fields")
     @ApiResponses(value = {
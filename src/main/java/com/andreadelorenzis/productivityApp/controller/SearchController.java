@@ -0,0 +1,64 @@
+package com.andreadelorenzis.productivityApp.controller;
+
+import com.andreadelorenzis.productivityApp.dto.NameSuggestionDTO;
+import com.andreadelorenzis.productivityApp.dto.SearchResultsDTO;
+import com.andreadelorenzis.productivityApp.service.GoalService;
+import com.andreadelorenzis.productivityApp.service.NameAutocompleteIndex;
+import com.andreadelorenzis.productivityApp.service.TaskService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+@Tag(name = "Search", description = "Text search across tasks and goals")
+public class SearchController {
+
+    private final TaskService taskService;
+    private final GoalService goalService;
+    private final NameAutocompleteIndex autocompleteIndex;
+
+    public SearchController(TaskService taskService, GoalService goalService,
+            NameAutocompleteIndex autocompleteIndex) {
+        this.taskService = taskService;
+        this.goalService = goalService;
+        this.autocompleteIndex = autocompleteIndex;
+    }
+
+    @GetMapping
+    @Operation(summary = "Search tasks and goals", description = "Case-insensitive search of task name and description and of goal name, description and reason. "
+            + "Each list is ranked (name equal to the text, name starting with it, name containing it, other fields) and holds at most limit results")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search completed", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SearchResultsDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Missing or too long search text, or limit out of range", content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<SearchResultsDTO> search(
+            @Parameter(description = "Text to look for (at most 100 characters)") @RequestParam String q,
+            @Parameter(description = "Maximum results per type (1-50)") @RequestParam(required = false, defaultValue = "20") int limit) {
+        return ResponseEntity.ok(new SearchResultsDTO(q, taskService.searchTasks(q, limit), goalService.searchGoals(q, limit)));
+    }
+
+    @GetMapping("/autocomplete")
+    @Operation(summary = "Autocomplete task and goal names", description = "Active tasks and goals whose name starts with prefix, ignoring case, "
+            + "highest goal importance first and then by name. Served from memory, for type-ahead on every keystroke")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggestions found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = NameSuggestionDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Missing or too long prefix, or limit out of range", content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<List<NameSuggestionDTO>> autocomplete(
+            @Parameter(description = "Start of the name (at most 100 characters)") @RequestParam String prefix,
+            @Parameter(description = "Maximum suggestions (1-50)") @RequestParam(required = false, defaultValue = "10") int limit) {
+        return ResponseEntity.ok(autocompleteIndex.suggest(prefix, limit));
+    }
+}
@@ -1,21 +1,36 @@
 package com.andreadelorenzis.productivityApp.controller;
 
+import com.andreadelorenzis.productivityApp.dto.AgendaDTO;
+import com.andreadelorenzis.productivityApp.dto.CursorPage;
+import com.andreadelorenzis.productivityApp.dto.TaskBulkUpdateDTO;
+import com.andreadelorenzis.productivityApp.dto.TaskCompletionDTO;
 import com.andreadelorenzis.productivityApp.dto.TaskDTO;
+import com.andreadelorenzis.productivityApp.dto.TaskProgressEntryDTO;
+import com.andreadelorenzis.productivityApp.dto.TaskProgressResultDTO;
 import com.andreadelorenzis.productivityApp.dto.TaskProgressUpdateDTO;
 import com.andreadelorenzis.productivityApp.dto.TaskResponseDTO;
+import com.andreadelorenzis.productivityApp.service.ResourceVersion;
 import com.andreadelorenzis.productivityApp.service.TaskService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -23,10 +38,16 @@ import java.util.List;
 @Tag(name = "Tasks", description = "API endpoints for managing tasks and recurring habits")
 public class TaskController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
     private final TaskService taskService;
+    private final ResourceVersion resourceVersion;
+    private final JsonMapper jsonMapper;
 
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, ResourceVersion resourceVersion, JsonMapper jsonMapper) {
         this.taskService = taskService;
+        this.resourceVersion = resourceVersion;
+        this.jsonMapper = jsonMapper;
     }
 
     @PostMapping
@@ -41,16 +62,56 @@ public class TaskController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    @PostMapping("/bulk")
+    @Operation(summary = "Create many tasks at once", description = "Creates up to " + TaskService.MAX_BULK_TASKS + " tasks in one transaction, all or none; an error names the position of the first invalid task (tasks[i])")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Tasks created, in request order", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TaskResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input in one of the tasks, or too many tasks", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "Goal or Frequency of one of the tasks not found", content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<List<TaskResponseDTO>> createTasks(@RequestBody List<TaskDTO> dtos) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(taskService.createTasks(dtos));
+    }
+
+    @PutMapping("/bulk")
+    @Operation(summary = "Update many tasks at once (full replacement)", description = "Replaces up to " + TaskService.MAX_BULK_TASKS + " tasks, identified by id, in one transaction, all or none; an error names the position of the first invalid task (tasks[i])")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tasks updated, in request order", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TaskResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input in one of the tasks, a task listed twice, or too many tasks", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "Task, Goal, or Frequency of one of the tasks not found", content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<List<TaskResponseDTO>> updateTasks(@RequestBody List<TaskBulkUpdateDTO> dtos) {
+        return ResponseEntity.ok(taskService.updateTasks(dtos));
+    }
+
     @GetMapping
-    @Operation(summary = "List all tasks", description = "Retrieve all active (non-deleted) tasks with optional filtering by frequency, goal, or search term")
+    @Operation(summary = "List all tasks", description = "Retrieve all active (non-deleted) tasks with optional filtering by frequency, goal, or search term. "
+            + "Passing limit (and then the X-Next-Cursor value as cursor) pages through the unfiltered listing in the same order; listPosition is then the position across all pages and taskOrder is not set")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved tasks", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TaskResponseDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit, or paging combined with a filter", content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "404", description = "Goal not found when filtering by goalId", content = @Content(mediaType = "application/json"))
     })
     public ResponseEntity<List<TaskResponseDTO>> listTasks(
             @Parameter(description = "Filter tasks by frequency ID") @RequestParam(required = false) Long frequencyId,
             @Parameter(description = "Filter tasks by goal ID") @RequestParam(required = false) Long goalId,
-            @Parameter(description = "Search tasks by name (partial match)") @RequestParam(required = false) String search) {
+            @Parameter(description = "Search tasks by name (partial match, ignoring case)") @RequestParam(required = false) String search,
+            @Parameter(description = "Cursor returned in X-Next-Cursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (1-200); enables paging") @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+
+        if (request.checkNotModified(resourceVersion.currentTag())) {
+            return null;
+        }
+        if (cursor != null || limit != null) {
+            if (frequencyId != null || goalId != null || (search != null && !search.isBlank())) {
+                throw new IllegalArgumentException("Paging is only supported on the unfiltered task listing");
+            }
+            CursorPage<TaskResponseDTO> page = taskService.listTasksPage(cursor,
+                    limit != null ? limit : DEFAULT_PAGE_SIZE);
+            return withNextCursor(page);
+        }
 
         List<TaskResponseDTO> tasks;
 
@@ -67,22 +128,95 @@ public class TaskController {
         return ResponseEntity.ok(tasks);
     }
 
+    @GetMapping(params = "stream=true")
+    @Operation(summary = "Stream all tasks", description = "Same tasks as the unfiltered listing, in the listing order (urgent, goal importance, newest first); listPosition is the position in that order and taskOrder is not set. "
+            + "Rows are read through a database cursor and written to the response as they arrive, so memory use does not grow with the number of tasks")
+    @Parameter(name = "stream", in = ParameterIn.QUERY, required = true, description = "Must be true", schema = @Schema(type = "boolean"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed tasks", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TaskResponseDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match")
+    })
+    public ResponseEntity<StreamingResponseBody> streamTasks(WebRequest request) {
+        if (request.checkNotModified(resourceVersion.currentTag())) {
+            return null;
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = jsonMapper.createGenerator(out)) {
+                json.writeStartArray();
+                taskService.streamTasks(json::writePOJO);
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @GetMapping("/due-today")
     @Operation(summary = "Get tasks due today", description = "Retrieve tasks that are scheduled for today based on frequency and clamping rules")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved tasks", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TaskResponseDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match")
+    })
     public ResponseEntity<List<TaskResponseDTO>> getTasksDueToday(
-            @Parameter(description = "Whether to include one-time tasks in the result") @RequestParam(required = false, defaultValue = "false") boolean includeOneTimeTasks) {
+            @Parameter(description = "Whether to include one-time tasks in the result") @RequestParam(required = false, defaultValue = "false") boolean includeOneTimeTasks,
+            WebRequest request) {
+        if (request.checkNotModified(resourceVersion.currentTag())) {
+            return null;
+        }
         List<TaskResponseDTO> tasks = taskService.getTasksDueToday(includeOneTimeTasks);
         return ResponseEntity.ok(tasks);
     }
 
+    @GetMapping("/agenda")
+    @Operation(summary = "Get the agenda for a date range", description = "Retrieve the tasks due on each day between from and to (inclusive, at most 366 days), using the same frequency and clamping rules as due-today")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Agenda computed", content = @Content(mediaType = "application/json", schema = @Schema(implementation = AgendaDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid or too long date range", content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<AgendaDTO> getAgenda(
+            @Parameter(description = "First day of the range (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day of the range (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Whether to include one-time tasks on every day") @RequestParam(required = false, defaultValue = "false") boolean includeOneTimeTasks) {
+        return ResponseEntity.ok(taskService.getAgenda(from, to, includeOneTimeTasks));
+    }
+
+    @GetMapping("/completions")
+    @Operation(summary = "Get the completions of a day", description = "Retrieve every task occurrence completed for the given day, by task ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Completions retrieved", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TaskCompletionDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Missing date", content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<List<TaskCompletionDTO>> getCompletionsOn(
+            @Parameter(description = "Day of the occurrences (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(taskService.getCompletionsOn(date));
+    }
+
+    @GetMapping("/{id}/completions")
+    @Operation(summary = "Get the completion history of a task", description = "Retrieve the occurrences of a task completed between from and to (inclusive), oldest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Completions retrieved", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TaskCompletionDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid date range", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "Task not found", content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<List<TaskCompletionDTO>> getCompletions(
+            @Parameter(description = "Task ID") @PathVariable Long id,
+            @Parameter(description = "First day of the range (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day of the range (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(taskService.getCompletions(id, from, to));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get a task by ID", description = "Retrieve a single task by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Task found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TaskResponseDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Task not found", content = @Content(mediaType = "application/json"))
     })
     public ResponseEntity<TaskResponseDTO> getTask(
-            @Parameter(description = "Task ID") @PathVariable Long id) {
+            @Parameter(description = "Task ID") @PathVariable Long id,
+            WebRequest request) {
+        if (request.checkNotModified(resourceVersion.currentTag())) {
+            return null;
+        }
         TaskResponseDTO task = taskService.getTask(id);
         return ResponseEntity.ok(task);
     }
@@ -151,6 +285,38 @@ public class TaskController {
         return ResponseEntity.ok(uncompleted);
     }
 
+    @PostMapping("/bulk/complete")
+    @Operation(summary = "Mark many tasks as completed", description = "Completes up to " + TaskService.MAX_BULK_TASKS + " tasks, given as a list of ids, in one transaction, all or none; same result as calling /{id}/complete for each")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tasks marked as completed, in request order", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TaskResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Missing id, a task listed twice, or too many tasks", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "One of the tasks not found", content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<List<TaskResponseDTO>> completeTasks(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(taskService.completeTasks(ids));
+    }
+
+    @PostMapping("/bulk/uncomplete")
+    @Operation(summary = "Mark many tasks as uncompleted", description = "Uncompletes up to " + TaskService.MAX_BULK_TASKS + " tasks, given as a list of ids, in one transaction, all or none; same result as calling /{id}/uncomplete for each")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tasks marked as uncompleted, in request order", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TaskResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Missing id, a task listed twice, or too many tasks", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "One of the tasks not found", content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<List<TaskResponseDTO>> uncompleteTasks(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(taskService.uncompleteTasks(ids));
+    }
+
+    @PostMapping("/streaks/rebuild")
+    @Operation(summary = "Rebuild task streaks", description = "Recomputes the current and longest streak of every active task from its completion history; a repair operation, streaks are otherwise kept up to date as tasks are completed")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Streaks rebuilt")
+    })
+    public ResponseEntity<Void> rebuildStreaks() {
+        taskService.rebuildStreaks();
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/{id}/progress")
     @Operation(summary = "Add time-based progress to a task", description = "Updates a task's progress based on a quantity in seconds, converting to the goal's unit")
     @ApiResponses(value = {
@@ -165,6 +331,17 @@ public class TaskController {
         return ResponseEntity.ok(updated);
     }
 
+    @PostMapping("/progress/batch")
+    @Operation(summary = "Add progress to many tasks at once", description = "Applies buffered progress entries (taskId, quantity, timestamp) in one transaction, in timestamp order per task. Returns one result per entry, in request order; an entry that fails does not stop the others")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Entries processed", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TaskProgressResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "No entries, or more than " + TaskService.MAX_PROGRESS_BATCH, content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<List<TaskProgressResultDTO>> addProgressBatch(
+            @RequestBody List<TaskProgressEntryDTO> entries) {
+        return ResponseEntity.ok(taskService.addTaskProgressBatch(entries));
+    }
+
     @PatchMapping("/{id}/urgent")
     @Operation(summary = "Set task urgency", description = "Toggle the urgent status of a task")
     @ApiResponses(value = {
@@ -177,4 +354,12 @@ public class TaskController {
         TaskResponseDTO updated = taskService.setToUrgent(id, urgent);
         return ResponseEntity.ok(updated);
     }
+
+    private static <T> ResponseEntity<List<T>> withNextCursor(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
 }
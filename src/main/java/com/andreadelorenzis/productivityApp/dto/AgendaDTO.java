@@ -0,0 +1,49 @@
+package com.andreadelorenzis.productivityApp.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class AgendaDTO {
+
+    private LocalDate from;
+    private LocalDate to;
+    // Every task due at least once in the range, in listing order
+    private List<TaskResponseDTO> tasks;
+    // Ids of the tasks due on each day of the range, in the same order
+    private List<AgendaDayDTO> days;
+
+    public AgendaDTO() {
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public List<TaskResponseDTO> getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(List<TaskResponseDTO> tasks) {
+        this.tasks = tasks;
+    }
+
+    public List<AgendaDayDTO> getDays() {
+        return days;
+    }
+
+    public void setDays(List<AgendaDayDTO> days) {
+        this.days = days;
+    }
+}
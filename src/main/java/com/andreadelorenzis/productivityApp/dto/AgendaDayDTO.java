@@ -0,0 +1,34 @@
+package com.andreadelorenzis.productivityApp.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class AgendaDayDTO {
+
+    private LocalDate date;
+    private List<Long> taskIds;
+
+    public AgendaDayDTO() {
+    }
+
+    public AgendaDayDTO(LocalDate date, List<Long> taskIds) {
+        this.date = date;
+        this.taskIds = taskIds;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public List<Long> getTaskIds() {
+        return taskIds;
+    }
+
+    public void setTaskIds(List<Long> taskIds) {
+        this.taskIds = taskIds;
+    }
+}
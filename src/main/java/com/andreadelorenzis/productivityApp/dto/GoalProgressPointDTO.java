@@ -0,0 +1,59 @@
+package com.andreadelorenzis.productivityApp.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class GoalProgressPointDTO {
+
+    // First day of the bucket
+    private LocalDate start;
+    // Progress at the end of the bucket; null before the goal's history starts or after today
+    private BigDecimal actualProgress;
+    // Where the goal should be by the end of the bucket
+    private BigDecimal idealProgress;
+    // Progress logged through tasks during the bucket; null where actualProgress is
+    private BigDecimal delta;
+
+    public GoalProgressPointDTO() {
+    }
+
+    public GoalProgressPointDTO(LocalDate start, BigDecimal actualProgress, BigDecimal idealProgress,
+            BigDecimal delta) {
+        this.start = start;
+        this.actualProgress = actualProgress;
+        this.idealProgress = idealProgress;
+        this.delta = delta;
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public void setStart(LocalDate start) {
+        this.start = start;
+    }
+
+    public BigDecimal getActualProgress() {
+        return actualProgress;
+    }
+
+    public void setActualProgress(BigDecimal actualProgress) {
+        this.actualProgress = actualProgress;
+    }
+
+    public BigDecimal getIdealProgress() {
+        return idealProgress;
+    }
+
+    public void setIdealProgress(BigDecimal idealProgress) {
+        this.idealProgress = idealProgress;
+    }
+
+    public BigDecimal getDelta() {
+        return delta;
+    }
+
+    public void setDelta(BigDecimal delta) {
+        this.delta = delta;
+    }
+}
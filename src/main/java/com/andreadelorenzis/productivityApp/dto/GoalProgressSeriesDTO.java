@@ -0,0 +1,67 @@
+package com.andreadelorenzis.productivityApp.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class GoalProgressSeriesDTO {
+
+    private Long goalId;
+    // "day" or "week"
+    private String granularity;
+    private LocalDate from;
+    private LocalDate to;
+    // One per bucket overlapping the range, oldest first
+    private List<GoalProgressPointDTO> points;
+
+    public GoalProgressSeriesDTO() {
+    }
+
+    public GoalProgressSeriesDTO(Long goalId, String granularity, LocalDate from, LocalDate to,
+            List<GoalProgressPointDTO> points) {
+        this.goalId = goalId;
+        this.granularity = granularity;
+        this.from = from;
+        this.to = to;
+        this.points = points;
+    }
+
+    public Long getGoalId() {
+        return goalId;
+    }
+
+    public void setGoalId(Long goalId) {
+        this.goalId = goalId;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public List<GoalProgressPointDTO> getPoints() {
+        return points;
+    }
+
+    public void setPoints(List<GoalProgressPointDTO> points) {
+        this.points = points;
+    }
+}
@@ -0,0 +1,53 @@
+package com.andreadelorenzis.productivityApp.dto;
+
+public class NameSuggestionDTO {
+
+    // "task" or "goal"
+    private String type;
+    private Long id;
+    private String name;
+    // Importance of the goal (of the task's goal for tasks), -1 when there is none
+    private int importance;
+
+    public NameSuggestionDTO() {
+    }
+
+    public NameSuggestionDTO(String type, Long id, String name, int importance) {
+        this.type = type;
+        this.id = id;
+        this.name = name;
+        this.importance = importance;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getImportance() {
+        return importance;
+    }
+
+    public void setImportance(int importance) {
+        this.importance = importance;
+    }
+}
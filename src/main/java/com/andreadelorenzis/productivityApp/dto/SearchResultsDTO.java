@@ -0,0 +1,45 @@
+package com.andreadelorenzis.productivityApp.dto;
+
+import java.util.List;
+
+public class SearchResultsDTO {
+
+    private String query;
+    // Most relevant first: name equal to the query, name starting with it,
+    // name containing it, then matches in the other text fields
+    private List<TaskResponseDTO> tasks;
+    private List<GoalResponseDTO> goals;
+
+    public SearchResultsDTO() {
+    }
+
+    public SearchResultsDTO(String query, List<TaskResponseDTO> tasks, List<GoalResponseDTO> goals) {
+        this.query = query;
+        this.tasks = tasks;
+        this.goals = goals;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public List<TaskResponseDTO> getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(List<TaskResponseDTO> tasks) {
+        this.tasks = tasks;
+    }
+
+    public List<GoalResponseDTO> getGoals() {
+        return goals;
+    }
+
+    public void setGoals(List<GoalResponseDTO> goals) {
+        this.goals = goals;
+    }
+}
@@ -0,0 +1,21 @@
+package com.andreadelorenzis.productivityApp.dto;
+
+/**
+ * One task of a bulk update: the fields of {@link TaskDTO} plus the id of
+ * the task they replace.
+ */
+public class TaskBulkUpdateDTO extends TaskDTO {
+
+    private Long id;
+
+    public TaskBulkUpdateDTO() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+}
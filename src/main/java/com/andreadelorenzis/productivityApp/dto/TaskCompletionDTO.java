@@ -0,0 +1,55 @@
+package com.andreadelorenzis.productivityApp.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class TaskCompletionDTO {
+
+    private Long taskId;
+    private LocalDate occurrenceDate;
+    private BigDecimal quantity;
+    private LocalDateTime completedAt;
+
+    public TaskCompletionDTO() {
+    }
+
+    public TaskCompletionDTO(Long taskId, LocalDate occurrenceDate, BigDecimal quantity, LocalDateTime completedAt) {
+        this.taskId = taskId;
+        this.occurrenceDate = occurrenceDate;
+        this.quantity = quantity;
+        this.completedAt = completedAt;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public LocalDate getOccurrenceDate() {
+        return occurrenceDate;
+    }
+
+    public void setOccurrenceDate(LocalDate occurrenceDate) {
+        this.occurrenceDate = occurrenceDate;
+    }
+
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(BigDecimal quantity) {
+        this.quantity = quantity;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -0,0 +1,44 @@
+package com.andreadelorenzis.productivityApp.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class TaskProgressEntryDTO {
+
+    private Long taskId;
+    private BigDecimal quantity;
+    private LocalDateTime timestamp;
+
+    public TaskProgressEntryDTO() {
+    }
+
+    public TaskProgressEntryDTO(Long taskId, BigDecimal quantity, LocalDateTime timestamp) {
+        this.taskId = taskId;
+        this.quantity = quantity;
+        this.timestamp = timestamp;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(BigDecimal quantity) {
+        this.quantity = quantity;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,60 @@
+package com.andreadelorenzis.productivityApp.dto;
+
+public class TaskProgressResultDTO {
+
+    private int index;
+    private Long taskId;
+    private boolean applied;
+    private String error;
+
+    public TaskProgressResultDTO() {
+    }
+
+    public static TaskProgressResultDTO applied(int index, Long taskId) {
+        TaskProgressResultDTO result = new TaskProgressResultDTO();
+        result.setIndex(index);
+        result.setTaskId(taskId);
+        result.setApplied(true);
+        return result;
+    }
+
+    public static TaskProgressResultDTO failed(int index, Long taskId, String error) {
+        TaskProgressResultDTO result = new TaskProgressResultDTO();
+        result.setIndex(index);
+        result.setTaskId(taskId);
+        result.setError(error);
+        return result;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public void setApplied(boolean applied) {
+        this.applied = applied;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
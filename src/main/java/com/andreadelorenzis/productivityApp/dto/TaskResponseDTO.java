@@ -15,7 +15,10 @@ public class TaskResponseDTO {
     private String goalName;
     private String goalUnitCode;
     private String goalUnitName;
+    // Rank in the base order (goal importance, newest first), ignoring urgency
     private Integer taskOrder;
+    // Position in the paged or streamed listing, across all pages
+    private Integer listPosition;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime completedAt;
@@ -25,6 +28,8 @@ public class TaskResponseDTO {
     private LocalDateTime deletedAt;
     private List<Integer> selectedDays;
     private boolean urgent;
+    private int currentStreak;
+    private int longestStreak;
 
     public TaskResponseDTO() {
     }
@@ -109,6 +114,14 @@ public class TaskResponseDTO {
         this.taskOrder = taskOrder;
     }
 
+    public Integer getListPosition() {
+        return listPosition;
+    }
+
+    public void setListPosition(Integer listPosition) {
+        this.listPosition = listPosition;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -180,4 +193,20 @@ public class TaskResponseDTO {
     public void setUrgent(boolean urgent) {
         this.urgent = urgent;
     }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public void setCurrentStreak(int currentStreak) {
+        this.currentStreak = currentStreak;
+    }
+
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    public void setLongestStreak(int longestStreak) {
+        this.longestStreak = longestStreak;
+    }
 }
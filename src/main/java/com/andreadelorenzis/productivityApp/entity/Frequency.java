@@ -4,8 +4,10 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
 import jakarta.persistence.Table;
 import jakarta.persistence.Column;
+import jakarta.persistence.Transient;
 
 @Entity
 @Table(name = "frequency")
@@ -18,11 +20,20 @@ public class Frequency {
     @Column(nullable = false, unique = true)
     private String name;
 
+    // Resolved from the name once, not on every use
+    @Transient
+    private FrequencyKind kind = FrequencyKind.UNKNOWN;
+
     public Frequency() {
     }
 
     public Frequency(String name) {
-        this.name = name;
+        setName(name);
+    }
+
+    @PostLoad
+    void bindKind() {
+        kind = FrequencyKind.of(name);
     }
 
     public Long getId() {
@@ -39,5 +50,10 @@ public class Frequency {
 
     public void setName(String name) {
         this.name = name;
+        bindKind();
+    }
+
+    public FrequencyKind getKind() {
+        return kind;
     }
 }
@@ -0,0 +1,353 @@
+package com.andreadelorenzis.productivityApp.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The recurrence rules behind a frequency name, resolved once when a
+ * {@link Frequency} or a listing row is loaded. Each kind decides when a task
+ * is due, which of its selected days it keeps, and how occurrences are
+ * counted between two dates; a new recurrence kind is added here.
+ *
+ * The due rules must stay in sync with TaskRepository.findTasksDueOn, which
+ * evaluates them in SQL through the mask query findTasksDueToday.
+ */
+public enum FrequencyKind {
+
+    ONE_TIME("one-time") {
+        @Override
+        public boolean isDue(TaskSchedule schedule, int dayOfWeek, int dayOfMonth, boolean isLastDayOfMonth,
+                int dayOfYear, boolean isLastDayOfYear, boolean includeOneTimeTasks) {
+            return includeOneTimeTasks;
+        }
+
+        @Override
+        long countOccurrences(LocalDateTime start, LocalDateTime end, long daysBetween) {
+            return 1;
+        }
+
+        @Override
+        LocalDateTime plusOccurrences(LocalDateTime start, long n) {
+            return start.plusDays(n);
+        }
+    },
+
+    DAILY("daily") {
+        @Override
+        public boolean isDue(TaskSchedule schedule, int dayOfWeek, int dayOfMonth, boolean isLastDayOfMonth,
+                int dayOfYear, boolean isLastDayOfYear, boolean includeOneTimeTasks) {
+            return true;
+        }
+
+        @Override
+        public LocalDate lastDueOnOrBefore(TaskSchedule schedule, LocalDate date) {
+            return date;
+        }
+
+        @Override
+        public LocalDate nextDueAfter(TaskSchedule schedule, LocalDate date) {
+            return date.plusDays(1);
+        }
+
+        @Override
+        long countOccurrences(LocalDateTime start, LocalDateTime end, long daysBetween) {
+            return daysBetween;
+        }
+
+        @Override
+        LocalDateTime plusOccurrences(LocalDateTime start, long n) {
+            return start.plusDays(n);
+        }
+    },
+
+    WEEKLY("weekly") {
+        @Override
+        public boolean isDue(TaskSchedule schedule, int dayOfWeek, int dayOfMonth, boolean isLastDayOfMonth,
+                int dayOfYear, boolean isLastDayOfYear, boolean includeOneTimeTasks) {
+            return schedule.hasWeekDay(dayOfWeek);
+        }
+
+        @Override
+        public LocalDate lastDueOnOrBefore(TaskSchedule schedule, LocalDate date) {
+            int dayOfWeek = date.getDayOfWeek().getValue();
+            int day = schedule.lastWeekDayUpTo(dayOfWeek);
+            if (day > 0) {
+                return date.minusDays(dayOfWeek - day);
+            }
+            day = schedule.lastWeekDayUpTo(TaskSchedule.MAX_WEEK_DAY);
+            return day > 0 ? date.minusDays(dayOfWeek + TaskSchedule.MAX_WEEK_DAY - day) : null;
+        }
+
+        @Override
+        public LocalDate nextDueAfter(TaskSchedule schedule, LocalDate date) {
+            int dayOfWeek = date.getDayOfWeek().getValue();
+            int day = schedule.firstWeekDayFrom(dayOfWeek + 1);
+            if (day > 0) {
+                return date.plusDays(day - dayOfWeek);
+            }
+            day = schedule.firstWeekDayFrom(1);
+            return day > 0 ? date.plusDays(TaskSchedule.MAX_WEEK_DAY - dayOfWeek + day) : null;
+        }
+
+        @Override
+        public List<Integer> selectedDays(TaskSchedule schedule) {
+            return schedule.getWeekDays();
+        }
+
+        @Override
+        public void setSelectedDays(TaskSchedule schedule, Collection<Integer> days) {
+            schedule.setWeekDays(days);
+        }
+
+        @Override
+        long countOccurrences(LocalDateTime start, LocalDateTime end, long daysBetween) {
+            return daysBetween / 7;
+        }
+
+        @Override
+        LocalDateTime plusOccurrences(LocalDateTime start, long n) {
+            return start.plusWeeks(n);
+        }
+    },
+
+    MONTHLY("monthly") {
+        // Days past the end of a short month fall on its last day
+        @Override
+        public boolean isDue(TaskSchedule schedule, int dayOfWeek, int dayOfMonth, boolean isLastDayOfMonth,
+                int dayOfYear, boolean isLastDayOfYear, boolean includeOneTimeTasks) {
+            return schedule.hasMonthDay(dayOfMonth)
+                    || (isLastDayOfMonth && schedule.hasMonthDayAfter(dayOfMonth));
+        }
+
+        @Override
+        public LocalDate lastDueOnOrBefore(TaskSchedule schedule, LocalDate date) {
+            int dayOfMonth = date.getDayOfMonth();
+            if (dayOfMonth == date.lengthOfMonth() && schedule.hasMonthDayAfter(dayOfMonth)) {
+                return date;
+            }
+            int day = schedule.lastMonthDayUpTo(dayOfMonth);
+            if (day > 0) {
+                return date.withDayOfMonth(day);
+            }
+            // The last selected day of the previous month, clamped to its end
+            LocalDate previous = date.withDayOfMonth(1).minusMonths(1);
+            day = schedule.lastMonthDayUpTo(TaskSchedule.MAX_MONTH_DAY);
+            return day > 0 ? previous.withDayOfMonth(Math.min(day, previous.lengthOfMonth())) : null;
+        }
+
+        @Override
+        public LocalDate nextDueAfter(TaskSchedule schedule, LocalDate date) {
+            int dayOfMonth = date.getDayOfMonth();
+            int length = date.lengthOfMonth();
+            int day = schedule.firstMonthDayFrom(dayOfMonth + 1);
+            if (day > 0 && dayOfMonth < length) {
+                return date.withDayOfMonth(Math.min(day, length));
+            }
+            LocalDate next = date.withDayOfMonth(1).plusMonths(1);
+            day = schedule.firstMonthDayFrom(1);
+            return day > 0 ? next.withDayOfMonth(Math.min(day, next.lengthOfMonth())) : null;
+        }
+
+        @Override
+        public List<Integer> selectedDays(TaskSchedule schedule) {
+            return schedule.getMonthDays();
+        }
+
+        @Override
+        public void setSelectedDays(TaskSchedule schedule, Collection<Integer> days) {
+            schedule.setMonthDays(days);
+        }
+
+        @Override
+        long countOccurrences(LocalDateTime start, LocalDateTime end, long daysBetween) {
+            return ChronoUnit.MONTHS.between(start, end);
+        }
+
+        @Override
+        LocalDateTime plusOccurrences(LocalDateTime start, long n) {
+            return start.plusMonths(n);
+        }
+    },
+
+    YEARLY("yearly") {
+        // Day 366 falls on 31 December of a non-leap year
+        @Override
+        public boolean isDue(TaskSchedule schedule, int dayOfWeek, int dayOfMonth, boolean isLastDayOfMonth,
+                int dayOfYear, boolean isLastDayOfYear, boolean includeOneTimeTasks) {
+            return schedule.hasYearDay(dayOfYear)
+                    || (isLastDayOfYear && schedule.hasYearDayAfter(dayOfYear));
+        }
+
+        @Override
+        public LocalDate lastDueOnOrBefore(TaskSchedule schedule, LocalDate date) {
+            int dayOfYear = date.getDayOfYear();
+            if (dayOfYear == date.lengthOfYear() && schedule.hasYearDayAfter(dayOfYear)) {
+                return date;
+            }
+            int day = schedule.lastYearDayUpTo(dayOfYear);
+            if (day > 0) {
+                return date.withDayOfYear(day);
+            }
+            // The last selected day of the previous year, clamped to its end
+            LocalDate previous = date.withDayOfYear(1).minusYears(1);
+            day = schedule.lastYearDayUpTo(TaskSchedule.MAX_YEAR_DAY);
+            return day > 0 ? previous.withDayOfYear(Math.min(day, previous.lengthOfYear())) : null;
+        }
+
+        @Override
+        public LocalDate nextDueAfter(TaskSchedule schedule, LocalDate date) {
+            int dayOfYear = date.getDayOfYear();
+            int length = date.lengthOfYear();
+            int day = schedule.firstYearDayFrom(dayOfYear + 1);
+            if (day > 0 && dayOfYear < length) {
+                return date.withDayOfYear(Math.min(day, length));
+            }
+            LocalDate next = date.withDayOfYear(1).plusYears(1);
+            day = schedule.firstYearDayFrom(1);
+            return day > 0 ? next.withDayOfYear(Math.min(day, next.lengthOfYear())) : null;
+        }
+
+        @Override
+        public List<Integer> selectedDays(TaskSchedule schedule) {
+            return schedule.getYearDays();
+        }
+
+        @Override
+        public void setSelectedDays(TaskSchedule schedule, Collection<Integer> days) {
+            schedule.setYearDays(days);
+        }
+
+        @Override
+        long countOccurrences(LocalDateTime start, LocalDateTime end, long daysBetween) {
+            return ChronoUnit.YEARS.between(start, end);
+        }
+
+        @Override
+        LocalDateTime plusOccurrences(LocalDateTime start, long n) {
+            return start.plusYears(n);
+        }
+    },
+
+    /** Seeded, but without recurrence rules: never due and no fixed occurrences. */
+    CUSTOM("custom"),
+
+    /** Any frequency name not listed above; treated like {@link #CUSTOM}. */
+    UNKNOWN(null);
+
+    private static final Map<String, FrequencyKind> BY_NAME = new HashMap<>();
+
+    static {
+        for (FrequencyKind kind : values()) {
+            if (kind.frequencyName != null) {
+                BY_NAME.put(kind.frequencyName, kind);
+            }
+        }
+    }
+
+    private final String frequencyName;
+
+    FrequencyKind(String frequencyName) {
+        this.frequencyName = frequencyName;
+    }
+
+    /** The kind of the frequency called {@code name} (as seeded), UNKNOWN for any other name. */
+    public static FrequencyKind of(String name) {
+        if (name == null) {
+            return UNKNOWN;
+        }
+        return BY_NAME.getOrDefault(name, UNKNOWN);
+    }
+
+    /** The frequency name this kind is bound to, null for UNKNOWN. */
+    public String getFrequencyName() {
+        return frequencyName;
+    }
+
+    /**
+     * Whether a task with this frequency and {@code schedule} is due on the day
+     * described by the arguments.
+     */
+    public boolean isDue(TaskSchedule schedule, int dayOfWeek, int dayOfMonth, boolean isLastDayOfMonth,
+            int dayOfYear, boolean isLastDayOfYear, boolean includeOneTimeTasks) {
+        return false;
+    }
+
+    /** Whether a recurring task with this frequency and {@code schedule} is due on {@code date}. */
+    public boolean isDueOn(TaskSchedule schedule, LocalDate date) {
+        return isDue(schedule, date.getDayOfWeek().getValue(), date.getDayOfMonth(),
+                date.getDayOfMonth() == date.lengthOfMonth(), date.getDayOfYear(),
+                date.getDayOfYear() == date.lengthOfYear(), false);
+    }
+
+    /**
+     * The last day on or before {@code date} a recurring task is due, null
+     * when it never is (one-time tasks, or no selected days). Agrees with
+     * isDueOn, but jumps to the nearest selected day in the schedule's
+     * bitmask instead of testing one day at a time.
+     */
+    public LocalDate lastDueOnOrBefore(TaskSchedule schedule, LocalDate date) {
+        return null;
+    }
+
+    /** The first day after {@code date} a recurring task is due, null when it never is. */
+    public LocalDate nextDueAfter(TaskSchedule schedule, LocalDate date) {
+        return null;
+    }
+
+    /** The selected days this kind keeps in {@code schedule}; empty when it has none. */
+    public List<Integer> selectedDays(TaskSchedule schedule) {
+        return new ArrayList<>();
+    }
+
+    /** Stores {@code days} in {@code schedule}; ignored by kinds without selected days. */
+    public void setSelectedDays(TaskSchedule schedule, Collection<Integer> days) {
+    }
+
+    public boolean hasFixedOccurrences() {
+        return this != CUSTOM && this != UNKNOWN;
+    }
+
+    /**
+     * Occurrences between the days of {@code from} and {@code to}, 0 when
+     * {@code to} is not after {@code from}.
+     *
+     * @throws IllegalArgumentException if this kind has no fixed occurrences
+     */
+    public long occurrencesBetween(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from.truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime end = to.truncatedTo(ChronoUnit.DAYS);
+
+        long daysBetween = ChronoUnit.DAYS.between(start, end);
+        if (daysBetween <= 0) {
+            return 0;
+        }
+        return countOccurrences(start, end, daysBetween);
+    }
+
+    /**
+     * The day of the {@code n}-th occurrence after the day of {@code from}.
+     *
+     * @throws IllegalArgumentException if this kind has no fixed occurrences
+     */
+    public LocalDateTime nthOccurrence(LocalDateTime from, long n) {
+        return plusOccurrences(from.truncatedTo(ChronoUnit.DAYS), n);
+    }
+
+    long countOccurrences(LocalDateTime start, LocalDateTime end, long daysBetween) {
+        throw noFixedOccurrences();
+    }
+
+    LocalDateTime plusOccurrences(LocalDateTime start, long n) {
+        throw noFixedOccurrences();
+    }
+
+    private IllegalArgumentException noFixedOccurrences() {
+        return new IllegalArgumentException("Unsupported frequency: " + (frequencyName != null ? frequencyName : name()));
+    }
+}
@@ -7,10 +7,13 @@ import jakarta.persistence.Id;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Column;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.Version;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -18,11 +21,18 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "goals", indexes = { @Index(name = "idx_goals_name", columnList = "name") })
+@Table(name = "goals", indexes = {
+        @Index(name = "idx_goals_name", columnList = "name"),
+        @Index(name = "idx_goals_status_deadline", columnList = "status_id, deadline"),
+        @Index(name = "idx_goals_deadline", columnList = "deadline"),
+        @Index(name = "idx_goals_deleted_at", columnList = "deleted_at")
+})
 public class Goal {
 
+    // Pooled sequence, as for Task, so goal inserts can be batched too
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "goals_seq")
+    @SequenceGenerator(name = "goals_seq", sequenceName = "goals_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -77,6 +87,12 @@ public class Goal {
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
 
+    // Checked by every entity update; GoalRepository.addProgress bumps it too
+    @Version
+    @Column(name = "version", nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
     @PrePersist
     public void prePersistDefaults() {
         if (currentProgress == null) {
@@ -216,4 +232,8 @@ public class Goal {
         this.deletedAt = deletedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
 }
@@ -0,0 +1,91 @@
+package com.andreadelorenzis.productivityApp.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.Index;
+import jakarta.persistence.Id;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.SequenceGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A goal's progress over one day or week: the sum of the progress events
+ * folded in that bucket and the goal's folded progress at the end of it, as
+ * of the last fold (unclamped, like Goal.currentProgress). Buckets are written by GoalProgressRollup while the
+ * compactor folds events, so burn-down series are read from here and never
+ * from progress_events. A bucket with no events has no row; its progress is
+ * the one of the latest bucket before it.
+ */
+@Entity
+@Table(name = "goal_progress_buckets", indexes = {
+        @Index(name = "uk_goal_progress_buckets_goal_start", columnList = "goal_id, granularity, bucket_start",
+                unique = true)
+})
+public class GoalProgressBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "goal_progress_buckets_seq")
+    @SequenceGenerator(name = "goal_progress_buckets_seq", sequenceName = "goal_progress_buckets_seq",
+            allocationSize = 50)
+    private Long id;
+
+    @Column(name = "goal_id", nullable = false)
+    private Long goalId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 8)
+    private ProgressGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDate bucketStart;
+
+    @Column(name = "delta", nullable = false, precision = 19, scale = 4)
+    private BigDecimal delta;
+
+    @Column(name = "progress", nullable = false, precision = 19, scale = 4)
+    private BigDecimal progress;
+
+    // Constructors
+    public GoalProgressBucket() {
+    }
+
+    public GoalProgressBucket(Long goalId, ProgressGranularity granularity, LocalDate bucketStart, BigDecimal delta,
+            BigDecimal progress) {
+        this.goalId = goalId;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.delta = delta;
+        this.progress = progress;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getGoalId() {
+        return goalId;
+    }
+
+    public ProgressGranularity getGranularity() {
+        return granularity;
+    }
+
+    public LocalDate getBucketStart() {
+        return bucketStart;
+    }
+
+    public BigDecimal getDelta() {
+        return delta;
+    }
+
+    public BigDecimal getProgress() {
+        return progress;
+    }
+}
@@ -0,0 +1,101 @@
+package com.andreadelorenzis.productivityApp.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.Index;
+import jakarta.persistence.Id;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Column;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.PrePersist;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One change to a goal's progress, appended by TaskService instead of
+ * updating the goal row. The compactor adds unfolded events to
+ * Goal.currentProgress in batches and stamps them with folded_at; until
+ * then reads add them on top. Events are never updated otherwise, so the
+ * table is the goal's progress history.
+ */
+@Entity
+@Table(name = "progress_events", indexes = {
+        @Index(name = "idx_progress_events_goal_folded", columnList = "goal_id, folded_at"),
+        @Index(name = "idx_progress_events_folded", columnList = "folded_at, id")
+})
+public class ProgressEvent {
+
+    // A pooled sequence, not IDENTITY, so a batch of events is inserted in
+    // JDBC batches instead of one round trip each
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "progress_events_seq")
+    @SequenceGenerator(name = "progress_events_seq", sequenceName = "progress_events_seq", allocationSize = 50)
+    private Long id;
+
+    // Plain ids, not associations: appending must not load the task or goal
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Column(name = "goal_id", nullable = false)
+    private Long goalId;
+
+    @Column(name = "delta", nullable = false, precision = 19, scale = 4)
+    private BigDecimal delta;
+
+    // When the progress was made: the client's timestamp for buffered
+    // entries, otherwise when the event was appended
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "folded_at")
+    private LocalDateTime foldedAt;
+
+    @PrePersist
+    public void prePersistDefaults() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    // Constructors
+    public ProgressEvent() {
+    }
+
+    public ProgressEvent(Long taskId, Long goalId, BigDecimal delta) {
+        this.taskId = taskId;
+        this.goalId = goalId;
+        this.delta = delta;
+    }
+
+    public ProgressEvent(Long taskId, Long goalId, BigDecimal delta, LocalDateTime createdAt) {
+        this(taskId, goalId, delta);
+        this.createdAt = createdAt;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public Long getGoalId() {
+        return goalId;
+    }
+
+    public BigDecimal getDelta() {
+        return delta;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getFoldedAt() {
+        return foldedAt;
+    }
+}
@@ -0,0 +1,59 @@
+package com.andreadelorenzis.productivityApp.entity;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * The bucket sizes goal progress is rolled up into. Weeks start on Monday,
+ * like the weekly period reset.
+ */
+public enum ProgressGranularity {
+
+    DAY {
+        @Override
+        public LocalDate bucketStart(LocalDate day) {
+            return day;
+        }
+
+        @Override
+        public LocalDate next(LocalDate bucketStart) {
+            return bucketStart.plusDays(1);
+        }
+    },
+
+    WEEK {
+        @Override
+        public LocalDate bucketStart(LocalDate day) {
+            return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+
+        @Override
+        public LocalDate next(LocalDate bucketStart) {
+            return bucketStart.plusWeeks(1);
+        }
+    };
+
+    /**
+     * The granularity called {@code name} (any case), DAY when null.
+     *
+     * @throws IllegalArgumentException for any other name
+     */
+    public static ProgressGranularity of(String name) {
+        if (name == null || name.isBlank()) {
+            return DAY;
+        }
+        try {
+            return valueOf(name.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown granularity: " + name);
+        }
+    }
+
+    /** First day of the bucket holding {@code day}. */
+    public abstract LocalDate bucketStart(LocalDate day);
+
+    /** First day of the bucket after the one starting on {@code bucketStart}. */
+    public abstract LocalDate next(LocalDate bucketStart);
+}
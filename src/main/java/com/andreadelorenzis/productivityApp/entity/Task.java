@@ -7,29 +7,52 @@ import jakarta.persistence.Id;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Column;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
-
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Version;
+import jakarta.persistence.PreUpdate;
+
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
-import jakarta.persistence.ElementCollection;
-import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Embedded;
 
 @Entity
 @Table(name = "tasks", indexes = {
         @Index(name = "idx_tasks_name", columnList = "name"),
         @Index(name = "idx_tasks_goal_id", columnList = "goal_id"),
-        @Index(name = "idx_tasks_deleted_at", columnList = "deleted_at")
+        @Index(name = "idx_tasks_deleted_at", columnList = "deleted_at"),
+        @Index(name = "idx_tasks_listing", columnList = "urgent DESC, goal_importance DESC, created_at DESC, id DESC")
 })
+// Everything TaskService.toResponse and the listing order read, so list
+// queries load it in the same statement instead of one select per task
+@NamedEntityGraph(name = Task.LISTING_GRAPH, attributeNodes = {
+        @NamedAttributeNode("frequency"),
+        @NamedAttributeNode(value = "goal", subgraph = "goal")
+}, subgraphs = @NamedSubgraph(name = "goal", attributeNodes = {
+        @NamedAttributeNode("unit"),
+        @NamedAttributeNode("status")
+}))
 public class Task {
 
+    public static final String LISTING_GRAPH = "Task.listing";
+
+    /** Listing rank of tasks without a goal (or whose goal has no importance). */
+    public static final int NO_GOAL_IMPORTANCE = -1;
+
+    // Pooled sequence: ids are handed out 50 at a time without a round trip
+    // each, and inserts can be JDBC-batched (IDENTITY rules both out)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -66,26 +89,34 @@ public class Task {
     @Column(name = "progress", precision = 19, scale = 4)
     private BigDecimal progress;
 
+    // When progress last took a new value. PeriodRollover compares it with
+    // the period start; updatedAt would move with any unrelated write
+    @Column(name = "progress_changed_at")
+    private LocalDateTime progressChangedAt;
+
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
 
+    // Checked by every entity update, so concurrent edits are retried, not lost
+    @Version
+    @Column(name = "version", nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
     @Column(name = "urgent", nullable = false)
     private boolean urgent = false;
 
-    @ElementCollection
-    @CollectionTable(name = "task_week_days", joinColumns = @JoinColumn(name = "task_id"))
-    @Column(name = "weekday")
-    private Set<Integer> weekDays = new HashSet<>();
+    @Embedded
+    private TaskSchedule schedule = new TaskSchedule();
 
-    @ElementCollection
-    @CollectionTable(name = "task_month_days", joinColumns = @JoinColumn(name = "task_id"))
-    @Column(name = "day_of_month")
-    private Set<Integer> monthDays = new HashSet<>();
+    @Embedded
+    private TaskStreak streak = new TaskStreak();
 
-    @ElementCollection
-    @CollectionTable(name = "task_year_days", joinColumns = @JoinColumn(name = "task_id"))
-    @Column(name = "day_of_year")
-    private Set<Integer> yearDays = new HashSet<>();
+    // Copy of goal.importance so the listing order can be served from the
+    // idx_tasks_listing index; kept in sync here and by GoalService
+    @Column(name = "goal_importance", nullable = false)
+    @ColumnDefault("-1")
+    private int goalImportance = NO_GOAL_IMPORTANCE;
 
     // Constructors
     public Task() {
@@ -135,6 +166,17 @@ public class Task {
 
     public void setGoal(Goal goal) {
         this.goal = goal;
+        syncGoalImportance();
+    }
+
+    public int getGoalImportance() {
+        return goalImportance;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void syncGoalImportance() {
+        goalImportance = goal != null && goal.getImportance() != null ? goal.getImportance() : NO_GOAL_IMPORTANCE;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -182,39 +224,56 @@ public class Task {
     }
 
     public void setProgress(BigDecimal progress) {
+        setProgress(progress, LocalDateTime.now());
+    }
+
+    /** Sets progress, stamping progressChangedAt with {@code at} if the value changes. */
+    public void setProgress(BigDecimal progress, LocalDateTime at) {
+        boolean changed = this.progress == null || progress == null
+                ? this.progress != progress
+                : this.progress.compareTo(progress) != 0;
+        if (changed) {
+            progressChangedAt = at;
+        }
         this.progress = progress;
     }
 
-    public LocalDateTime getDeletedAt() {
-        return deletedAt;
+    public LocalDateTime getProgressChangedAt() {
+        return progressChangedAt;
     }
 
-    public void setDeletedAt(LocalDateTime deletedAt) {
-        this.deletedAt = deletedAt;
+    public void setProgressChangedAt(LocalDateTime progressChangedAt) {
+        this.progressChangedAt = progressChangedAt;
     }
 
-    public Set<Integer> getWeekDays() {
-        return weekDays;
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
     }
 
-    public void setWeekDays(Set<Integer> weekDays) {
-        this.weekDays = weekDays;
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
     }
 
-    public Set<Integer> getMonthDays() {
-        return monthDays;
+    public Long getVersion() {
+        return version;
     }
 
-    public void setMonthDays(Set<Integer> monthDays) {
-        this.monthDays = monthDays;
+    public TaskSchedule getSchedule() {
+        if (schedule == null) {
+            schedule = new TaskSchedule();
+        }
+        return schedule;
     }
 
-    public Set<Integer> getYearDays() {
-        return yearDays;
+    public void setSchedule(TaskSchedule schedule) {
+        this.schedule = schedule;
     }
 
-    public void setYearDays(Set<Integer> yearDays) {
-        this.yearDays = yearDays;
+    public TaskStreak getStreak() {
+        if (streak == null) {
+            streak = new TaskStreak();
+        }
+        return streak;
     }
 
     public boolean isUrgent() {
@@ -0,0 +1,88 @@
+package com.andreadelorenzis.productivityApp.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.Index;
+import jakarta.persistence.Id;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Column;
+import jakarta.persistence.SequenceGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One completed occurrence of a task: the day it was completed for, how
+ * much was done and when. Task.completedAt only holds the current
+ * occurrence; these rows keep the earlier ones. On PostgreSQL the table is
+ * partitioned by month of occurrence_date (see 008_task_completions.sql),
+ * so every read is bounded by that date.
+ */
+@Entity
+@Table(name = "task_completions", indexes = {
+        @Index(name = "uk_task_completions_task_date", columnList = "task_id, occurrence_date", unique = true),
+        @Index(name = "idx_task_completions_date", columnList = "occurrence_date, task_id")
+})
+public class TaskCompletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_completions_seq")
+    @SequenceGenerator(name = "task_completions_seq", sequenceName = "task_completions_seq", allocationSize = 50)
+    private Long id;
+
+    // A plain id like ProgressEvent: history outlives soft-deleted tasks and
+    // recording it must not load them
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "occurrence_date", nullable = false)
+    private LocalDate occurrenceDate;
+
+    @Column(name = "quantity", precision = 19, scale = 4)
+    private BigDecimal quantity;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+
+    // Constructors
+    public TaskCompletion() {
+    }
+
+    public TaskCompletion(Long taskId, LocalDate occurrenceDate, BigDecimal quantity, LocalDateTime completedAt) {
+        this.taskId = taskId;
+        this.occurrenceDate = occurrenceDate;
+        this.quantity = quantity;
+        this.completedAt = completedAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public LocalDate getOccurrenceDate() {
+        return occurrenceDate;
+    }
+
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(BigDecimal quantity) {
+        this.quantity = quantity;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -0,0 +1,326 @@
+package com.andreadelorenzis.productivityApp.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Selected days of a recurring task, stored as bitmasks on the tasks row.
+ * Day {@code d} is bit {@code d - 1}: weekdays (1 = Monday) use 7 bits, days
+ * of the month 31 bits, and days of the year a 366-bit map split over six
+ * 64-bit words.
+ */
+@Embeddable
+public class TaskSchedule {
+
+    public static final int MAX_WEEK_DAY = 7;
+    public static final int MAX_MONTH_DAY = 31;
+    public static final int MAX_YEAR_DAY = 366;
+
+    private static final int YEAR_WORDS = 6;
+
+    @Column(name = "week_days_mask", nullable = false)
+    @ColumnDefault("0")
+    private int weekDays;
+
+    @Column(name = "month_days_mask", nullable = false)
+    @ColumnDefault("0")
+    private int monthDays;
+
+    @Column(name = "year_days_mask_0", nullable = false)
+    @ColumnDefault("0")
+    private long yearDays0;
+
+    @Column(name = "year_days_mask_1", nullable = false)
+    @ColumnDefault("0")
+    private long yearDays1;
+
+    @Column(name = "year_days_mask_2", nullable = false)
+    @ColumnDefault("0")
+    private long yearDays2;
+
+    @Column(name = "year_days_mask_3", nullable = false)
+    @ColumnDefault("0")
+    private long yearDays3;
+
+    @Column(name = "year_days_mask_4", nullable = false)
+    @ColumnDefault("0")
+    private long yearDays4;
+
+    @Column(name = "year_days_mask_5", nullable = false)
+    @ColumnDefault("0")
+    private long yearDays5;
+
+    public TaskSchedule() {
+    }
+
+    /**
+     * Builds the schedule of days that match {@code date}: its weekday, its day
+     * of the month and of the year, plus every later day when {@code date} is
+     * the last day of its month or year (so day 31 clamps to 30 April, and day
+     * 366 to 31 December of a non-leap year). A task is due on {@code date} when
+     * its own masks intersect these.
+     */
+    public static TaskSchedule matching(LocalDate date) {
+        TaskSchedule probe = new TaskSchedule();
+
+        probe.weekDays = 1 << (date.getDayOfWeek().getValue() - 1);
+
+        int dayOfMonth = date.getDayOfMonth();
+        probe.monthDays = 1 << (dayOfMonth - 1);
+        if (dayOfMonth == date.lengthOfMonth()) {
+            for (int d = dayOfMonth + 1; d <= MAX_MONTH_DAY; d++) {
+                probe.monthDays |= 1 << (d - 1);
+            }
+        }
+
+        int dayOfYear = date.getDayOfYear();
+        probe.setYearBit(dayOfYear);
+        if (dayOfYear == date.lengthOfYear()) {
+            for (int d = dayOfYear + 1; d <= MAX_YEAR_DAY; d++) {
+                probe.setYearBit(d);
+            }
+        }
+        return probe;
+    }
+
+    public boolean hasWeekDay(int dayOfWeek) {
+        return dayOfWeek >= 1 && dayOfWeek <= MAX_WEEK_DAY && (weekDays & (1 << (dayOfWeek - 1))) != 0;
+    }
+
+    public boolean hasMonthDay(int dayOfMonth) {
+        return dayOfMonth >= 1 && dayOfMonth <= MAX_MONTH_DAY && (monthDays & (1 << (dayOfMonth - 1))) != 0;
+    }
+
+    /** Whether any selected day of the month is strictly after {@code dayOfMonth}. */
+    public boolean hasMonthDayAfter(int dayOfMonth) {
+        return dayOfMonth < MAX_MONTH_DAY && (monthDays >>> dayOfMonth) != 0;
+    }
+
+    public boolean hasYearDay(int dayOfYear) {
+        if (dayOfYear < 1 || dayOfYear > MAX_YEAR_DAY) {
+            return false;
+        }
+        int bit = dayOfYear - 1;
+        return (yearWord(bit >>> 6) & (1L << (bit & 63))) != 0;
+    }
+
+    /** Whether any selected day of the year is strictly after {@code dayOfYear}. */
+    public boolean hasYearDayAfter(int dayOfYear) {
+        if (dayOfYear >= MAX_YEAR_DAY) {
+            return false;
+        }
+        // Bits from index dayOfYear upwards stand for days dayOfYear + 1 and later
+        int word = dayOfYear >>> 6;
+        if ((yearWord(word) >>> (dayOfYear & 63)) != 0) {
+            return true;
+        }
+        for (int w = word + 1; w < YEAR_WORDS; w++) {
+            if (yearWord(w) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The last selected weekday on or before {@code dayOfWeek}, 0 when there is none. */
+    public int lastWeekDayUpTo(int dayOfWeek) {
+        return lastDayUpTo(weekDays, dayOfWeek);
+    }
+
+    /** The first selected weekday on or after {@code dayOfWeek}, 0 when there is none. */
+    public int firstWeekDayFrom(int dayOfWeek) {
+        return firstDayFrom(weekDays, dayOfWeek);
+    }
+
+    /** The last selected day of the month on or before {@code dayOfMonth}, 0 when there is none. */
+    public int lastMonthDayUpTo(int dayOfMonth) {
+        return lastDayUpTo(monthDays, dayOfMonth);
+    }
+
+    /** The first selected day of the month on or after {@code dayOfMonth}, 0 when there is none. */
+    public int firstMonthDayFrom(int dayOfMonth) {
+        return firstDayFrom(monthDays, dayOfMonth);
+    }
+
+    /** The last selected day of the year on or before {@code dayOfYear}, 0 when there is none. */
+    public int lastYearDayUpTo(int dayOfYear) {
+        int bit = Math.min(dayOfYear, MAX_YEAR_DAY) - 1;
+        if (bit < 0) {
+            return 0;
+        }
+        int word = bit >>> 6;
+        long bits = yearWord(word) & (-1L >>> (63 - (bit & 63)));
+        while (bits == 0) {
+            if (--word < 0) {
+                return 0;
+            }
+            bits = yearWord(word);
+        }
+        return (word << 6) + 64 - Long.numberOfLeadingZeros(bits);
+    }
+
+    /** The first selected day of the year on or after {@code dayOfYear}, 0 when there is none. */
+    public int firstYearDayFrom(int dayOfYear) {
+        int bit = Math.max(dayOfYear, 1) - 1;
+        if (bit >= MAX_YEAR_DAY) {
+            return 0;
+        }
+        int word = bit >>> 6;
+        long bits = yearWord(word) & (-1L << (bit & 63));
+        while (bits == 0) {
+            if (++word == YEAR_WORDS) {
+                return 0;
+            }
+            bits = yearWord(word);
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits) + 1;
+    }
+
+    public void clear() {
+        weekDays = 0;
+        monthDays = 0;
+        yearDays0 = yearDays1 = yearDays2 = yearDays3 = yearDays4 = yearDays5 = 0L;
+    }
+
+    public List<Integer> getWeekDays() {
+        List<Integer> days = new ArrayList<>(Integer.bitCount(weekDays));
+        for (int d = 1; d <= MAX_WEEK_DAY; d++) {
+            if (hasWeekDay(d)) {
+                days.add(d);
+            }
+        }
+        return days;
+    }
+
+    public void setWeekDays(Collection<Integer> days) {
+        int mask = 0;
+        for (Integer d : days) {
+            checkDay(d, MAX_WEEK_DAY, "day of week");
+            mask |= 1 << (d - 1);
+        }
+        this.weekDays = mask;
+    }
+
+    public List<Integer> getMonthDays() {
+        List<Integer> days = new ArrayList<>(Integer.bitCount(monthDays));
+        for (int d = 1; d <= MAX_MONTH_DAY; d++) {
+            if (hasMonthDay(d)) {
+                days.add(d);
+            }
+        }
+        return days;
+    }
+
+    public void setMonthDays(Collection<Integer> days) {
+        int mask = 0;
+        for (Integer d : days) {
+            checkDay(d, MAX_MONTH_DAY, "day of month");
+            mask |= 1 << (d - 1);
+        }
+        this.monthDays = mask;
+    }
+
+    public List<Integer> getYearDays() {
+        List<Integer> days = new ArrayList<>();
+        for (int d = 1; d <= MAX_YEAR_DAY; d++) {
+            if (hasYearDay(d)) {
+                days.add(d);
+            }
+        }
+        return days;
+    }
+
+    public void setYearDays(Collection<Integer> days) {
+        yearDays0 = yearDays1 = yearDays2 = yearDays3 = yearDays4 = yearDays5 = 0L;
+        for (Integer d : days) {
+            checkDay(d, MAX_YEAR_DAY, "day of year");
+            setYearBit(d);
+        }
+    }
+
+    public int getWeekDaysMask() {
+        return weekDays;
+    }
+
+    public int getMonthDaysMask() {
+        return monthDays;
+    }
+
+    /** Returns word {@code index} (0-5) of the day-of-year bitmap. */
+    public long getYearDaysWord(int index) {
+        return yearWord(index);
+    }
+
+    private void setYearBit(int dayOfYear) {
+        int bit = dayOfYear - 1;
+        long value = 1L << (bit & 63);
+        switch (bit >>> 6) {
+            case 0:
+                yearDays0 |= value;
+                break;
+            case 1:
+                yearDays1 |= value;
+                break;
+            case 2:
+                yearDays2 |= value;
+                break;
+            case 3:
+                yearDays3 |= value;
+                break;
+            case 4:
+                yearDays4 |= value;
+                break;
+            default:
+                yearDays5 |= value;
+        }
+    }
+
+    private long yearWord(int index) {
+        switch (index) {
+            case 0:
+                return yearDays0;
+            case 1:
+                return yearDays1;
+            case 2:
+                return yearDays2;
+            case 3:
+                return yearDays3;
+            case 4:
+                return yearDays4;
+            case 5:
+                return yearDays5;
+            default:
+                throw new IndexOutOfBoundsException("Year bitmap word " + index);
+        }
+    }
+
+    // Days are bit d - 1 of a mask of at most 31 days
+    private static int lastDayUpTo(int mask, int day) {
+        if (day < 1) {
+            return 0;
+        }
+        int bits = day >= Integer.SIZE ? mask : mask & ((1 << day) - 1);
+        return Integer.SIZE - Integer.numberOfLeadingZeros(bits);
+    }
+
+    private static int firstDayFrom(int mask, int day) {
+        if (day >= Integer.SIZE) {
+            return 0;
+        }
+        int bits = day <= 1 ? mask : mask & (-1 << (day - 1));
+        return bits == 0 ? 0 : Integer.numberOfTrailingZeros(bits) + 1;
+    }
+
+    private static void checkDay(Integer day, int max, String label) {
+        if (day == null || day < 1 || day > max) {
+            throw new IllegalArgumentException("Invalid " + label + ": " + day);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.andreadelorenzis.productivityApp.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Current and longest run of consecutive occurrences a recurring task was
+ * completed for, stored on the tasks row and moved forward one completion at
+ * a time. An occurrence is a day the task is due (FrequencyKind.isDueOn,
+ * selected days and clamping included) and stays open until the next one, so
+ * a completion counts for the last due day on or before it.
+ *
+ * The current run survives while the occurrence after the last completed
+ * one can still be completed; {@code brokenOn} is the first day it no longer
+ * can, so reading the streak never evaluates the schedule.
+ */
+@Embeddable
+public class TaskStreak {
+
+    @Column(name = "streak_current", nullable = false)
+    @ColumnDefault("0")
+    private int currentLength;
+
+    @Column(name = "streak_longest", nullable = false)
+    @ColumnDefault("0")
+    private int longestLength;
+
+    // Due day of the last occurrence in the current run
+    @Column(name = "streak_last_occurrence")
+    private LocalDate lastOccurrence;
+
+    @Column(name = "streak_broken_on")
+    private LocalDate brokenOn;
+
+    public TaskStreak() {
+    }
+
+    /** The current run as of {@code today}: 0 once an occurrence was missed. */
+    public int getCurrentLength(LocalDate today) {
+        return brokenOn != null && today.isBefore(brokenOn) ? currentLength : 0;
+    }
+
+    public int getLongestLength() {
+        return longestLength;
+    }
+
+    public LocalDate getLastOccurrence() {
+        return lastOccurrence;
+    }
+
+    public LocalDate getBrokenOn() {
+        return brokenOn;
+    }
+
+    /**
+     * Counts a completion made on {@code day}: extends the run when it covers
+     * the occurrence right after the last one, starts a new run otherwise,
+     * and changes nothing when that occurrence is already counted.
+     */
+    public void recordCompletion(FrequencyKind kind, TaskSchedule schedule, LocalDate day) {
+        Step step = Step.of(kind, schedule, day);
+        if (step == null || step.occurrence().equals(lastOccurrence)) {
+            return;
+        }
+
+        boolean continues = currentLength > 0 && lastOccurrence != null && lastOccurrence.equals(step.previous());
+        currentLength = continues ? currentLength + 1 : 1;
+        longestLength = Math.max(longestLength, currentLength);
+        lastOccurrence = step.occurrence();
+        brokenOn = step.brokenOn();
+    }
+
+    /** Rebuilds both runs from every completion day of the task, oldest first. */
+    public void recompute(FrequencyKind kind, TaskSchedule schedule, List<LocalDate> completionDays) {
+        currentLength = 0;
+        longestLength = 0;
+        lastOccurrence = null;
+        brokenOn = null;
+        for (LocalDate day : completionDays) {
+            recordCompletion(kind, schedule, day);
+        }
+    }
+
+    /**
+     * What a completion made on a day means for any streak of one schedule:
+     * the occurrence it counts for, the occurrence before it (a run ending
+     * there continues) and the day a run ending on it breaks. Depends only on
+     * the schedule, so TaskRepository.recordStreakCompletion applies it to
+     * every task sharing one in a single statement.
+     */
+    public record Step(LocalDate occurrence, LocalDate previous, LocalDate brokenOn) {
+
+        /** The step for a completion on {@code day}, null when it counts for no occurrence. */
+        public static Step of(FrequencyKind kind, TaskSchedule schedule, LocalDate day) {
+            LocalDate occurrence = kind.lastDueOnOrBefore(schedule, day);
+            if (occurrence == null) {
+                return null;
+            }
+            LocalDate next = kind.nextDueAfter(schedule, occurrence);
+            return new Step(occurrence, kind.lastDueOnOrBefore(schedule, occurrence.minusDays(1)),
+                    next != null ? kind.nextDueAfter(schedule, next) : null);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.andreadelorenzis.productivityApp.event;
+
+/**
+ * Published by GoalService whenever a goal is created, modified or deleted.
+ * Listeners run after the surrounding transaction commits.
+ */
+public class GoalChangedEvent {
+
+    private final Long goalId;
+
+    public GoalChangedEvent(Long goalId) {
+        this.goalId = goalId;
+    }
+
+    public Long getGoalId() {
+        return goalId;
+    }
+}
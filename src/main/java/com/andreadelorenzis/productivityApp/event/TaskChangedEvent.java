@@ -0,0 +1,44 @@
+package com.andreadelorenzis.productivityApp.event;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published by TaskService whenever tasks are created, modified or deleted,
+ * and by PeriodRollover when recurring tasks start a new period;
+ * a bulk operation publishes one event for all of its tasks. Listeners run
+ * after the surrounding transaction commits.
+ */
+public class TaskChangedEvent {
+
+    private final List<Long> taskIds;
+
+    public TaskChangedEvent(Long taskId) {
+        this.taskIds = List.of(taskId);
+    }
+
+    public TaskChangedEvent(Collection<Long> taskIds) {
+        this.taskIds = List.copyOf(taskIds);
+    }
+
+    /**
+     * Progress, completion or streaks of any number of tasks were reset in
+     * place by a period rollover. No task is listed: nothing else about them
+     * changed.
+     */
+    public static TaskChangedEvent progressReset() {
+        return new TaskChangedEvent(List.of());
+    }
+
+    /** The changed task of a single-task event. */
+    public Long getTaskId() {
+        if (taskIds.size() != 1) {
+            throw new IllegalStateException("Event covers " + taskIds.size() + " tasks");
+        }
+        return taskIds.get(0);
+    }
+
+    public List<Long> getTaskIds() {
+        return taskIds;
+    }
+}
@@ -0,0 +1,9 @@
+package com.andreadelorenzis.productivityApp.repository;
+
+import java.time.LocalDate;
+
+/**
+ * A day one task was completed on.
+ */
+public record CompletionDayRow(Long taskId, LocalDate day) {
+}
@@ -0,0 +1,10 @@
+package com.andreadelorenzis.productivityApp.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The summed progress deltas of one goal on one day.
+ */
+public record GoalDayDeltaRow(Long goalId, LocalDate day, BigDecimal delta) {
+}
@@ -0,0 +1,9 @@
+package com.andreadelorenzis.productivityApp.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * The summed progress deltas of one goal.
+ */
+public record GoalDeltaRow(Long goalId, BigDecimal delta) {
+}
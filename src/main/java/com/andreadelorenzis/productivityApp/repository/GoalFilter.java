@@ -0,0 +1,23 @@
+package com.andreadelorenzis.productivityApp.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional conditions on the active goals; a null field does not filter.
+ * The bounds are inclusive.
+ */
+public record GoalFilter(
+        Long statusId,
+        LocalDateTime deadlineFrom,
+        LocalDateTime deadlineTo,
+        Integer minImportance,
+        Integer maxImportance,
+        Integer minDifficulty,
+        Integer maxDifficulty) {
+
+    public static final GoalFilter NONE = new GoalFilter(null, null, null, null, null, null, null);
+
+    public boolean isEmpty() {
+        return equals(NONE);
+    }
+}
@@ -0,0 +1,14 @@
+package com.andreadelorenzis.productivityApp.repository;
+
+import java.util.List;
+
+/**
+ * Filtered goal listing, built from only the conditions that are set so the
+ * database can pick the index that fits them (idx_goals_status_deadline,
+ * idx_goals_deadline, idx_goals_listing).
+ */
+public interface GoalFilterRepository {
+
+    /** The active goals matching {@code filter}, in {@code sort} order. */
+    List<GoalListRow> findActive(GoalFilter filter, GoalSort sort, boolean ascending);
+}
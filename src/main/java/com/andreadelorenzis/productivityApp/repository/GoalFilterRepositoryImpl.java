@@ -0,0 +1,43 @@
+package com.andreadelorenzis.productivityApp.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class GoalFilterRepositoryImpl implements GoalFilterRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<GoalListRow> findActive(GoalFilter filter, GoalSort sort, boolean ascending) {
+        StringBuilder jpql = new StringBuilder(GoalRepository.LIST_ROW_SELECT).append("WHERE g.deletedAt IS NULL");
+        Map<String, Object> params = new LinkedHashMap<>();
+
+        condition(jpql, params, "s.id =", "statusId", filter.statusId());
+        condition(jpql, params, "g.deadline >=", "deadlineFrom", filter.deadlineFrom());
+        condition(jpql, params, "g.deadline <=", "deadlineTo", filter.deadlineTo());
+        condition(jpql, params, "g.importance >=", "minImportance", filter.minImportance());
+        condition(jpql, params, "g.importance <=", "maxImportance", filter.maxImportance());
+        condition(jpql, params, "g.difficulty >=", "minDifficulty", filter.minDifficulty());
+        condition(jpql, params, "g.difficulty <=", "maxDifficulty", filter.maxDifficulty());
+
+        jpql.append(" ORDER BY ").append(sort.orderBy(ascending));
+
+        TypedQuery<GoalListRow> query = entityManager.createQuery(jpql.toString(), GoalListRow.class);
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    private static void condition(StringBuilder jpql, Map<String, Object> params, String test, String name,
+            Object value) {
+        if (value != null) {
+            jpql.append(" AND ").append(test).append(" :").append(name);
+            params.put(name, value);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.andreadelorenzis.productivityApp.repository;
+
+import com.andreadelorenzis.productivityApp.entity.Goal;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a goal shown in listings, with the unit and status joined
+ * in. Selected directly by the list queries, so listing never hydrates Goal
+ * entities.
+ */
+public record GoalListRow(
+        Long id,
+        String name,
+        String description,
+        String unitCode,
+        String unitName,
+        BigDecimal targetQuantity,
+        BigDecimal currentProgress,
+        LocalDateTime deadline,
+        Integer difficulty,
+        Integer importance,
+        String reason,
+        String reward,
+        String punishment,
+        Long statusId,
+        String statusName,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime completedAt) {
+
+    public static GoalListRow of(Goal goal) {
+        return new GoalListRow(
+                goal.getId(),
+                goal.getName(),
+                goal.getDescription(),
+                goal.getUnit() != null ? goal.getUnit().getCode() : null,
+                goal.getUnit() != null ? goal.getUnit().getName() : null,
+                goal.getTargetQuantity(),
+                goal.getCurrentProgress(),
+                goal.getDeadline(),
+                goal.getDifficulty(),
+                goal.getImportance(),
+                goal.getReason(),
+                goal.getReward(),
+                goal.getPunishment(),
+                goal.getStatus() != null ? goal.getStatus().getId() : null,
+                goal.getStatus() != null ? goal.getStatus().getName() : null,
+                goal.getCreatedAt(),
+                goal.getUpdatedAt(),
+                goal.getCompletedAt());
+    }
+
+    public GoalListRow withCurrentProgress(BigDecimal currentProgress) {
+        return new GoalListRow(id, name, description, unitCode, unitName, targetQuantity, currentProgress, deadline,
+                difficulty, importance, reason, reward, punishment, statusId, statusName, createdAt, updatedAt,
+                completedAt);
+    }
+}
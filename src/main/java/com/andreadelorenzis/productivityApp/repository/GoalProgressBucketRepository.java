@@ -0,0 +1,100 @@
+package com.andreadelorenzis.productivityApp.repository;
+
+import com.andreadelorenzis.productivityApp.entity.GoalProgressBucket;
+import com.andreadelorenzis.productivityApp.entity.ProgressGranularity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface GoalProgressBucketRepository extends JpaRepository<GoalProgressBucket, Long> {
+
+    /**
+     * Adds {@code delta} to the bucket and to its closing progress; returns 0
+     * when the bucket has no row yet.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+                UPDATE GoalProgressBucket b
+                SET b.delta = b.delta + :delta, b.progress = b.progress + :delta
+                WHERE b.goalId = :goalId AND b.granularity = :granularity AND b.bucketStart = :bucketStart
+            """)
+    int addDelta(@Param("goalId") Long goalId, @Param("granularity") ProgressGranularity granularity,
+            @Param("bucketStart") LocalDate bucketStart, @Param("delta") BigDecimal delta);
+
+    /**
+     * Adds {@code delta} to the closing progress of every bucket of the goal
+     * starting after {@code after}: progress folded into an earlier bucket
+     * carries over to all the later ones.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+                UPDATE GoalProgressBucket b
+                SET b.progress = b.progress + :delta
+                WHERE b.goalId = :goalId AND b.granularity = :granularity AND b.bucketStart > :after
+            """)
+    int shiftAfter(@Param("goalId") Long goalId, @Param("granularity") ProgressGranularity granularity,
+            @Param("after") LocalDate after, @Param("delta") BigDecimal delta);
+
+    /** Sets the closing progress of the bucket; returns 0 when it has no row yet. */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+                UPDATE GoalProgressBucket b
+                SET b.progress = :progress
+                WHERE b.goalId = :goalId AND b.granularity = :granularity AND b.bucketStart = :bucketStart
+            """)
+    int setProgress(@Param("goalId") Long goalId, @Param("granularity") ProgressGranularity granularity,
+            @Param("bucketStart") LocalDate bucketStart, @Param("progress") BigDecimal progress);
+
+    /** The goal's buckets starting between {@code from} and {@code to} (inclusive), oldest first. */
+    @Query("""
+                SELECT b FROM GoalProgressBucket b
+                WHERE b.goalId = :goalId AND b.granularity = :granularity
+                  AND b.bucketStart BETWEEN :from AND :to
+                ORDER BY b.bucketStart
+            """)
+    List<GoalProgressBucket> findBetween(@Param("goalId") Long goalId,
+            @Param("granularity") ProgressGranularity granularity,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /** The goal's latest buckets starting before {@code before}, newest first. */
+    @Query("""
+                SELECT b FROM GoalProgressBucket b
+                WHERE b.goalId = :goalId AND b.granularity = :granularity AND b.bucketStart < :before
+                ORDER BY b.bucketStart DESC
+            """)
+    List<GoalProgressBucket> findLatestBefore(@Param("goalId") Long goalId,
+            @Param("granularity") ProgressGranularity granularity,
+            @Param("before") LocalDate before, Limit limit);
+
+    /**
+     * Closing progress of the goal's latest bucket starting before
+     * {@code before}, if any. Read as a value, so it reflects the bulk
+     * updates above even for buckets loaded earlier in the transaction.
+     */
+    @Query("""
+                SELECT b.progress FROM GoalProgressBucket b
+                WHERE b.goalId = :goalId AND b.granularity = :granularity AND b.bucketStart < :before
+                ORDER BY b.bucketStart DESC
+            """)
+    List<BigDecimal> findProgressBefore(@Param("goalId") Long goalId,
+            @Param("granularity") ProgressGranularity granularity,
+            @Param("before") LocalDate before, Limit limit);
+
+    /** Opening progress of the goal's earliest bucket starting after {@code after}, if any. */
+    @Query("""
+                SELECT b.progress - b.delta FROM GoalProgressBucket b
+                WHERE b.goalId = :goalId AND b.granularity = :granularity AND b.bucketStart > :after
+                ORDER BY b.bucketStart
+            """)
+    List<BigDecimal> findOpeningAfter(@Param("goalId") Long goalId,
+            @Param("granularity") ProgressGranularity granularity,
+            @Param("after") LocalDate after, Limit limit);
+}
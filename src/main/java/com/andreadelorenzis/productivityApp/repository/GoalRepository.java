@@ -1,8 +1,135 @@
 package com.andreadelorenzis.productivityApp.repository;
 
 import com.andreadelorenzis.productivityApp.entity.Goal;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface GoalRepository extends JpaRepository<Goal, Long> {
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+public interface GoalRepository extends JpaRepository<Goal, Long>, GoalFilterRepository {
+
+    /**
+     * A goal's progress: the compacted value plus its progress events not yet
+     * folded in, never below zero. One expression, so the two parts are read
+     * in the same statement and a concurrent fold cannot be seen half done.
+     */
+    String CURRENT_PROGRESS = """
+            greatest(g.currentProgress + coalesce((
+                SELECT sum(e.delta) FROM ProgressEvent e WHERE e.goalId = g.id AND e.foldedAt IS NULL), 0), 0)""";
+
+    /** Select list and joins of the {@link GoalListRow} queries (the unit is optional). */
+    String LIST_ROW_SELECT = """
+            SELECT new com.andreadelorenzis.productivityApp.repository.GoalListRow(
+                g.id, g.name, g.description, u.code, u.name, g.targetQuantity,
+            """ + CURRENT_PROGRESS + ", " + """
+                g.deadline, g.difficulty, g.importance, g.reason, g.reward, g.punishment, s.id, s.name,
+                g.createdAt, g.updatedAt, g.completedAt)
+            FROM Goal g
+            JOIN g.status s
+            LEFT JOIN g.unit u
+            """;
+
+    @Query("SELECT " + CURRENT_PROGRESS + " FROM Goal g WHERE g.id = :id")
+    BigDecimal findCurrentProgress(@Param("id") Long id);
+
+    /**
+     * Adds {@code delta} (possibly negative) to the goal's progress in one
+     * statement. Used by the progress compactor to fold events. Not clamped:
+     * the stored value may go below zero and only {@link #CURRENT_PROGRESS}
+     * clamps the running total, so how events are split into batches never
+     * changes what is read. Bumps the version, so an entity update that read
+     * the goal before this fails instead of overwriting it.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+                UPDATE VERSIONED Goal g
+                SET g.currentProgress = g.currentProgress + :delta
+                WHERE g.id = :id
+            """)
+    int addProgress(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    /** The goal's compacted progress alone, without its unfolded events and unclamped. */
+    @Query("SELECT g.currentProgress FROM Goal g WHERE g.id = :id")
+    BigDecimal findFoldedProgress(@Param("id") Long id);
+
+    @Query(LIST_ROW_SELECT + "WHERE g.deletedAt IS NULL ORDER BY g.id")
+    List<GoalListRow> findAllActive();
+
+    /** Select list of the {@link NameRow} queries; no importance ranks as -1, like a task without a goal. */
+    String NAME_ROW_SELECT = """
+            SELECT new com.andreadelorenzis.productivityApp.repository.NameRow(g.id, g.name, coalesce(g.importance, -1))
+            FROM Goal g
+            """;
+
+    @Query(NAME_ROW_SELECT + "WHERE g.deletedAt IS NULL")
+    List<NameRow> findAllNameRows();
+
+    @Query(NAME_ROW_SELECT + "WHERE g.id = :id AND g.deletedAt IS NULL")
+    Optional<NameRow> findNameRowById(@Param("id") Long id);
+
+    /**
+     * First page of the active goals: most important first (no importance
+     * ranks as 0), newest first, id as the tie-breaker.
+     */
+    @Query(LIST_ROW_SELECT + """
+                WHERE g.deletedAt IS NULL
+                ORDER BY coalesce(g.importance, 0) DESC, g.createdAt DESC, g.id DESC
+            """)
+    List<GoalListRow> findActivePage(Limit limit);
+
+    /** Page of active goals strictly after the given position in listing order. */
+    @Query(LIST_ROW_SELECT + """
+                WHERE g.deletedAt IS NULL
+                  AND (coalesce(g.importance, 0), g.createdAt, g.id) < (:importance, :createdAt, :id)
+                ORDER BY coalesce(g.importance, 0) DESC, g.createdAt DESC, g.id DESC
+            """)
+    List<GoalListRow> findActivePageAfter(
+            @Param("importance") int importance,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Limit limit);
+
+    /**
+     * All active goals in listing order, read through a forward-only cursor.
+     * Must be consumed (and closed) inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TaskRepository.STREAM_FETCH_SIZE))
+    @Query(LIST_ROW_SELECT + """
+                WHERE g.deletedAt IS NULL
+                ORDER BY coalesce(g.importance, 0) DESC, g.createdAt DESC, g.id DESC
+            """)
+    Stream<GoalListRow> streamActive();
+
+    /**
+     * Active goals whose name, description or reason contains the search
+     * text, best matches first: name equal to the text, name starting with
+     * it, name containing it, then description or reason only.
+     */
+    @Query(LIST_ROW_SELECT + """
+                WHERE g.deletedAt IS NULL
+                  AND (lower(g.name) LIKE :contains ESCAPE '\\'
+                    OR lower(g.description) LIKE :contains ESCAPE '\\'
+                    OR lower(g.reason) LIKE :contains ESCAPE '\\')
+                ORDER BY CASE
+                    WHEN lower(g.name) = :exact THEN 0
+                    WHEN lower(g.name) LIKE :prefix ESCAPE '\\' THEN 1
+                    WHEN lower(g.name) LIKE :contains ESCAPE '\\' THEN 2
+                    ELSE 3 END,
+                  coalesce(g.importance, 0) DESC, g.createdAt DESC, g.id DESC
+            """)
+    List<GoalListRow> search(
+            @Param("exact") String exact,
+            @Param("prefix") String prefix,
+            @Param("contains") String contains,
+            Limit limit);
 }
@@ -0,0 +1,54 @@
+package com.andreadelorenzis.productivityApp.repository;
+
+import java.util.Locale;
+
+/**
+ * The orders the goal listing can be sorted in. Each names its natural
+ * direction (most important, soonest deadline, newest, A to Z) and ends
+ * with the id, so equal keys still sort the same way every time.
+ */
+public enum GoalSort {
+
+    IMPORTANCE("coalesce(g.importance, 0)", false),
+    DEADLINE("g.deadline", true),
+    CREATED("g.createdAt", false),
+    NAME("lower(g.name)", true);
+
+    private final String expression;
+    private final boolean ascendingByDefault;
+
+    GoalSort(String expression, boolean ascendingByDefault) {
+        this.expression = expression;
+        this.ascendingByDefault = ascendingByDefault;
+    }
+
+    /**
+     * The sort called {@code name} (any case), IMPORTANCE when null.
+     *
+     * @throws IllegalArgumentException for any other name
+     */
+    public static GoalSort of(String name) {
+        if (name == null || name.isBlank()) {
+            return IMPORTANCE;
+        }
+        try {
+            return valueOf(name.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort: " + name);
+        }
+    }
+
+    public boolean isAscendingByDefault() {
+        return ascendingByDefault;
+    }
+
+    /** The JPQL ORDER BY list, without the keyword. */
+    String orderBy(boolean ascending) {
+        String direction = ascending ? " ASC" : " DESC";
+        if (this == IMPORTANCE) {
+            // Same tie-breakers as the paged listing
+            return expression + direction + ", g.createdAt" + direction + ", g.id" + direction;
+        }
+        return expression + direction + ", g.id" + direction;
+    }
+}
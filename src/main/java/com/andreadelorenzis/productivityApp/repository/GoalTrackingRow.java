@@ -0,0 +1,14 @@
+package com.andreadelorenzis.productivityApp.repository;
+
+import com.andreadelorenzis.productivityApp.entity.FrequencyKind;
+
+/**
+ * The frequency of the task tracking a goal: its oldest active task.
+ */
+public record GoalTrackingRow(Long goalId, FrequencyKind frequencyKind) {
+
+    // Used by the queries, which select the frequency name
+    public GoalTrackingRow(Long goalId, String frequencyName) {
+        this(goalId, FrequencyKind.of(frequencyName));
+    }
+}
@@ -0,0 +1,8 @@
+package com.andreadelorenzis.productivityApp.repository;
+
+/**
+ * Name of an active task or goal and the importance it is ranked by: the
+ * goal's importance, or -1 when there is none.
+ */
+public record NameRow(Long id, String name, int importance) {
+}
@@ -0,0 +1,11 @@
+package com.andreadelorenzis.productivityApp.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Where the current period of each recurring frequency started. A null
+ * frequency id matches no task.
+ */
+public record PeriodStarts(Long dailyId, LocalDateTime dayStart, Long weeklyId, LocalDateTime weekStart,
+        Long monthlyId, LocalDateTime monthStart, Long yearlyId, LocalDateTime yearStart) {
+}
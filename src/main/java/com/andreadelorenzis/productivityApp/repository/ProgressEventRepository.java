@@ -0,0 +1,45 @@
+package com.andreadelorenzis.productivityApp.repository;
+
+import com.andreadelorenzis.productivityApp.entity.ProgressEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProgressEventRepository extends JpaRepository<ProgressEvent, Long> {
+
+    /** Ids of the oldest unfolded events. */
+    @Query("SELECT e.id FROM ProgressEvent e WHERE e.foldedAt IS NULL ORDER BY e.id")
+    List<Long> findPendingIds(Limit limit);
+
+    /**
+     * Stamps the given events as folded; returns how many were still
+     * unfolded, fewer than requested when another compactor took some.
+     */
+    @Modifying
+    @Query("UPDATE ProgressEvent e SET e.foldedAt = :now WHERE e.id IN :ids AND e.foldedAt IS NULL")
+    int markFolded(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /** Stamps every unfolded event of the goal as folded, without adding them anywhere. */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProgressEvent e SET e.foldedAt = :now WHERE e.goalId = :goalId AND e.foldedAt IS NULL")
+    int discardPending(@Param("goalId") Long goalId, @Param("now") LocalDateTime now);
+
+    /** The summed deltas of the given events per goal and day they were appended, by goal then day. */
+    @Query("""
+                SELECT new com.andreadelorenzis.productivityApp.repository.GoalDayDeltaRow(
+                    e.goalId, cast(e.createdAt AS LocalDate), sum(e.delta))
+                FROM ProgressEvent e
+                WHERE e.id IN :ids
+                GROUP BY e.goalId, cast(e.createdAt AS LocalDate)
+                ORDER BY e.goalId, cast(e.createdAt AS LocalDate)
+            """)
+    List<GoalDayDeltaRow> sumByGoalAndDay(@Param("ids") Collection<Long> ids);
+}
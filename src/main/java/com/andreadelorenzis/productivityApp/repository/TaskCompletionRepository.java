@@ -0,0 +1,75 @@
+package com.andreadelorenzis.productivityApp.repository;
+
+import com.andreadelorenzis.productivityApp.entity.TaskCompletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Every query but findDaysByTasks is bounded by occurrence_date, so on
+ * PostgreSQL it only touches the monthly partitions of that range.
+ */
+@Repository
+public interface TaskCompletionRepository extends JpaRepository<TaskCompletion, Long> {
+
+    @Query("""
+                SELECT c FROM TaskCompletion c
+                WHERE c.taskId = :taskId AND c.occurrenceDate BETWEEN :from AND :to
+                ORDER BY c.occurrenceDate
+            """)
+    List<TaskCompletion> findByTaskBetween(@Param("taskId") Long taskId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @Query("SELECT c FROM TaskCompletion c WHERE c.occurrenceDate = :date ORDER BY c.taskId")
+    List<TaskCompletion> findByDate(@Param("date") LocalDate date);
+
+    @Query("""
+                SELECT c FROM TaskCompletion c
+                WHERE c.taskId IN :taskIds AND c.occurrenceDate BETWEEN :from AND :to
+            """)
+    List<TaskCompletion> findByTasksBetween(@Param("taskIds") Collection<Long> taskIds,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Every completion day of the tasks, oldest first per task. Reads all
+     * partitions, through the (task_id, occurrence_date) index: only used
+     * to rebuild streaks.
+     */
+    @Query("""
+                SELECT new com.andreadelorenzis.productivityApp.repository.CompletionDayRow(c.taskId, c.occurrenceDate)
+                FROM TaskCompletion c
+                WHERE c.taskId IN :taskIds
+                ORDER BY c.taskId, c.occurrenceDate
+            """)
+    List<CompletionDayRow> findDaysByTasks(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM TaskCompletion c WHERE c.taskId IN :taskIds AND c.occurrenceDate = :date")
+    int deleteByTasksOn(@Param("taskIds") Collection<Long> taskIds, @Param("date") LocalDate date);
+
+    /**
+     * Removes the occurrence each task is currently completed for, the day
+     * of its completedAt; run before the tasks are uncompleted.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+                DELETE FROM TaskCompletion c
+                WHERE c.taskId IN :taskIds
+                  AND c.occurrenceDate = (SELECT cast(t.completedAt AS LocalDate) FROM Task t WHERE t.id = c.taskId)
+            """)
+    int deleteCurrentOccurrences(@Param("taskIds") Collection<Long> taskIds);
+
+    /**
+     * Creates any missing monthly partition from the month of
+     * {@code firstMonth} through {@code months} months later, with the
+     * function migration 008 defines. PostgreSQL only.
+     */
+    @Query(value = "SELECT count(*) FROM create_task_completion_partitions(:firstMonth, :months)", nativeQuery = true)
+    long createPartitions(@Param("firstMonth") LocalDate firstMonth, @Param("months") int months);
+}
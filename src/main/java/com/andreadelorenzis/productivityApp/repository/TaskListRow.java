@@ -0,0 +1,76 @@
+package com.andreadelorenzis.productivityApp.repository;
+
+import com.andreadelorenzis.productivityApp.entity.FrequencyKind;
+import com.andreadelorenzis.productivityApp.entity.Goal;
+import com.andreadelorenzis.productivityApp.entity.Task;
+import com.andreadelorenzis.productivityApp.entity.TaskSchedule;
+import com.andreadelorenzis.productivityApp.entity.TaskStreak;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a task shown in listings, with the frequency, goal and unit
+ * names joined in. Selected directly by the list queries, so listing never
+ * hydrates Task entities.
+ */
+public record TaskListRow(
+        Long id,
+        String name,
+        String description,
+        Long frequencyId,
+        String frequencyName,
+        Long goalId,
+        String goalName,
+        String goalUnitCode,
+        String goalUnitName,
+        int goalImportance,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime completedAt,
+        BigDecimal quantity,
+        BigDecimal overflowQuantity,
+        BigDecimal progress,
+        LocalDateTime deletedAt,
+        boolean urgent,
+        TaskSchedule schedule,
+        TaskStreak streak,
+        FrequencyKind frequencyKind) {
+
+    /** Used by the queries; the frequency kind is resolved from its name. */
+    public TaskListRow(Long id, String name, String description, Long frequencyId, String frequencyName,
+            Long goalId, String goalName, String goalUnitCode, String goalUnitName, int goalImportance,
+            LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime completedAt, BigDecimal quantity,
+            BigDecimal overflowQuantity, BigDecimal progress, LocalDateTime deletedAt, boolean urgent,
+            TaskSchedule schedule, TaskStreak streak) {
+        this(id, name, description, frequencyId, frequencyName, goalId, goalName, goalUnitCode, goalUnitName,
+                goalImportance, createdAt, updatedAt, completedAt, quantity, overflowQuantity, progress, deletedAt,
+                urgent, schedule, streak, FrequencyKind.of(frequencyName));
+    }
+
+    public static TaskListRow of(Task task) {
+        Goal goal = task.getGoal();
+        return new TaskListRow(
+                task.getId(),
+                task.getName(),
+                task.getDescription(),
+                task.getFrequency() != null ? task.getFrequency().getId() : null,
+                task.getFrequency() != null ? task.getFrequency().getName() : null,
+                goal != null ? goal.getId() : null,
+                goal != null ? goal.getName() : null,
+                goal != null && goal.getUnit() != null ? goal.getUnit().getCode() : null,
+                goal != null && goal.getUnit() != null ? goal.getUnit().getName() : null,
+                goal != null && goal.getImportance() != null ? goal.getImportance() : Task.NO_GOAL_IMPORTANCE,
+                task.getCreatedAt(),
+                task.getUpdatedAt(),
+                task.getCompletedAt(),
+                task.getQuantity(),
+                task.getOverflowQuantity(),
+                task.getProgress(),
+                task.getDeletedAt(),
+                task.isUrgent(),
+                task.getSchedule(),
+                task.getStreak(),
+                task.getFrequency() != null ? task.getFrequency().getKind() : FrequencyKind.UNKNOWN);
+    }
+}
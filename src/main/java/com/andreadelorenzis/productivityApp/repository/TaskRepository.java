@@ -1,74 +1,368 @@
 package com.andreadelorenzis.productivityApp.repository;
 
 import com.andreadelorenzis.productivityApp.entity.Task;
+import com.andreadelorenzis.productivityApp.entity.TaskSchedule;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
 
-    @Query("SELECT t FROM Task t WHERE t.deletedAt IS NULL ORDER BY t.createdAt DESC")
-    List<Task> findAllActive();
+    /** Rows fetched per round trip by the streaming queries. */
+    String STREAM_FETCH_SIZE = "500";
 
+    /** Most ids passed to one {@code IN} list by the bulk lookups. */
+    int ID_CHUNK_SIZE = 1000;
+
+    /** Select list and joins of the {@link TaskListRow} queries (goal and unit are optional). */
+    String LIST_ROW_SELECT = """
+            SELECT new com.andreadelorenzis.productivityApp.repository.TaskListRow(
+                t.id, t.name, t.description, f.id, f.name, g.id, g.name, u.code, u.name, t.goalImportance,
+                t.createdAt, t.updatedAt, t.completedAt, t.quantity, t.overflowQuantity, t.progress,
+                t.deletedAt, t.urgent, t.schedule, t.streak)
+            FROM Task t
+            JOIN t.frequency f
+            LEFT JOIN t.goal g
+            LEFT JOIN g.unit u
+            """;
+
+    @Query(LIST_ROW_SELECT + "WHERE t.deletedAt IS NULL ORDER BY t.createdAt DESC, t.id DESC")
+    List<TaskListRow> findAllActive();
+
+    /**
+     * First page of the active tasks in listing order: urgent first, then goal
+     * importance, newest first, id as the tie-breaker (see idx_tasks_listing).
+     */
+    @Query(LIST_ROW_SELECT + """
+                WHERE t.deletedAt IS NULL
+                ORDER BY t.urgent DESC, t.goalImportance DESC, t.createdAt DESC, t.id DESC
+            """)
+    List<TaskListRow> findActivePage(Limit limit);
+
+    /** Page of active tasks strictly after the given position in listing order. */
+    @Query(LIST_ROW_SELECT + """
+                WHERE t.deletedAt IS NULL
+                  AND (t.urgent, t.goalImportance, t.createdAt, t.id)
+                      < (:urgent, :goalImportance, :createdAt, :id)
+                ORDER BY t.urgent DESC, t.goalImportance DESC, t.createdAt DESC, t.id DESC
+            """)
+    List<TaskListRow> findActivePageAfter(
+            @Param("urgent") boolean urgent,
+            @Param("goalImportance") int goalImportance,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Limit limit);
+
+    /**
+     * All active tasks in listing order, read through a forward-only cursor.
+     * Must be consumed (and closed) inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(LIST_ROW_SELECT + """
+                WHERE t.deletedAt IS NULL
+                ORDER BY t.urgent DESC, t.goalImportance DESC, t.createdAt DESC, t.id DESC
+            """)
+    Stream<TaskListRow> streamActive();
+
+    @Modifying
+    @Query("UPDATE Task t SET t.goalImportance = :goalImportance WHERE t.goal.id = :goalId")
+    int updateGoalImportance(@Param("goalId") Long goalId, @Param("goalImportance") int goalImportance);
+
+    @EntityGraph(Task.LISTING_GRAPH)
     @Query("SELECT t FROM Task t WHERE t.goal.id = :goalId AND t.deletedAt IS NULL")
     List<Task> findByGoalId(@Param("goalId") Long goalId);
 
-    @Query("SELECT t FROM Task t WHERE t.frequency.name != 'one-time' AND t.deletedAt IS NULL ORDER BY t.name ASC")
-    List<Task> findAllHabits();
+    /**
+     * The tracking frequency of each of the given goals that has an active
+     * task, in one query; goals without one are left out.
+     */
+    @Query("""
+                SELECT new com.andreadelorenzis.productivityApp.repository.GoalTrackingRow(t.goal.id, f.name)
+                FROM Task t JOIN t.frequency f
+                WHERE t.id IN (
+                    SELECT min(t2.id) FROM Task t2
+                    WHERE t2.goal.id IN :goalIds AND t2.deletedAt IS NULL
+                    GROUP BY t2.goal.id)
+            """)
+    List<GoalTrackingRow> findTrackingFrequencies(@Param("goalIds") Collection<Long> goalIds);
+
+    @Query(LIST_ROW_SELECT + "WHERE g.id = :goalId AND t.deletedAt IS NULL")
+    List<TaskListRow> findRowsByGoalId(@Param("goalId") Long goalId);
 
-    @Query("SELECT t FROM Task t WHERE t.frequency.name = 'one-time' AND t.deletedAt IS NULL ORDER BY t.name ASC")
-    List<Task> findAllOneTimeTasks();
+    @Query(LIST_ROW_SELECT + "WHERE f.name != 'one-time' AND t.deletedAt IS NULL ORDER BY t.name ASC")
+    List<TaskListRow> findAllHabits();
 
+    @Query(LIST_ROW_SELECT + "WHERE f.name = 'one-time' AND t.deletedAt IS NULL ORDER BY t.name ASC")
+    List<TaskListRow> findAllOneTimeTasks();
+
+    @Query(LIST_ROW_SELECT + """
+                WHERE f.id = :frequencyId AND t.deletedAt IS NULL
+                ORDER BY t.urgent DESC, g.importance DESC NULLS LAST, t.createdAt DESC
+            """)
+    List<TaskListRow> findTasksByFrequency(@Param("frequencyId") Long frequencyId);
+
+    @Query(LIST_ROW_SELECT + "WHERE t.id IN :ids AND t.deletedAt IS NULL")
+    List<TaskListRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(Task.LISTING_GRAPH)
+    @Query("SELECT t FROM Task t WHERE t.id IN :ids AND t.deletedAt IS NULL")
+    List<Task> findActiveByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(Task.LISTING_GRAPH)
+    @Query("SELECT t FROM Task t WHERE t.id BETWEEN :fromId AND :toId AND t.deletedAt IS NULL")
+    List<Task> findActiveByIdBetween(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Query("SELECT t.id FROM Task t WHERE t.id IN :ids AND t.deletedAt IS NULL")
+    List<Long> findActiveIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT min(t.id) FROM Task t")
+    Long findMinId();
+
+    @Query("SELECT max(t.id) FROM Task t")
+    Long findMaxId();
+
+    /**
+     * Starts a new period for the recurring tasks with ids from fromId to toId
+     * whose completion (or, when not completed, last progress change) falls
+     * before the start of their frequency's current period; rows written
+     * before progressChangedAt existed fall back to updatedAt. Completion is
+     * cleared and
+     * progress goes back to zero, keeping what exceeded the quantity up to
+     * overflowQuantity. Tasks already in their current period do not match,
+     * so running it again changes nothing. Returns how many tasks were reset.
+     * Every other condition sits in the period start CASE, where no index
+     * applies, so each chunk is a primary key range scan.
+     */
+    @Modifying
+    @Query("""
+                UPDATE VERSIONED Task t
+                SET t.progress = CASE WHEN t.progress IS NULL THEN NULL
+                                      WHEN t.quantity IS NOT NULL AND t.overflowQuantity > 0
+                                           AND t.progress > t.quantity
+                                      THEN least(t.progress - t.quantity, t.overflowQuantity)
+                                      ELSE 0 END,
+                    t.progressChangedAt = CASE WHEN t.progress IS NULL THEN t.progressChangedAt ELSE :now END,
+                    t.completedAt = NULL,
+                    t.updatedAt = :now
+                WHERE t.id BETWEEN :fromId AND :toId
+                  AND (t.completedAt IS NOT NULL OR t.progress <> 0)
+                  AND coalesce(t.completedAt, t.progressChangedAt, t.updatedAt) < CASE
+                          WHEN t.deletedAt IS NOT NULL THEN NULL
+                          WHEN t.frequency.id = :#{#periods.dailyId} THEN :#{#periods.dayStart}
+                          WHEN t.frequency.id = :#{#periods.weeklyId} THEN :#{#periods.weekStart}
+                          WHEN t.frequency.id = :#{#periods.monthlyId} THEN :#{#periods.monthStart}
+                          WHEN t.frequency.id = :#{#periods.yearlyId} THEN :#{#periods.yearStart}
+                      END
+            """)
+    int rollOver(@Param("fromId") long fromId, @Param("toId") long toId,
+            @Param("periods") PeriodStarts periods, @Param("now") LocalDateTime now);
+
+    /**
+     * Zeroes the stored current streak of the tasks with ids from fromId to
+     * toId that missed an occurrence before {@code today}. Reads already
+     * treat those streaks as broken (TaskStreak.getCurrentLength); this keeps
+     * the column in step. Returns how many streaks were zeroed.
+     */
+    @Modifying
     @Query("""
-                SELECT t
+                UPDATE VERSIONED Task t
+                SET t.streak.currentLength = 0
+                WHERE t.id BETWEEN :fromId AND :toId
+                  AND t.streak.currentLength > 0
+                  AND t.streak.brokenOn <= :today
+            """)
+    int breakStreaks(@Param("fromId") long fromId, @Param("toId") long toId, @Param("today") LocalDate today);
+
+    /**
+     * What completing (or uncompleting) the given tasks adds to (or takes
+     * from) each goal: the task quantity, or one for tasks without one.
+     */
+    @Query("""
+                SELECT new com.andreadelorenzis.productivityApp.repository.GoalDeltaRow(t.goal.id,
+                        sum(coalesce(t.quantity, 1)))
                 FROM Task t
-                LEFT JOIN t.goal g
-                WHERE t.frequency.id = :frequencyId AND t.deletedAt IS NULL
-                ORDER BY t.urgent DESC, g.importance DESC NULLS LAST, t.createdAt DESC
+                WHERE t.id IN :ids AND t.deletedAt IS NULL AND t.goal IS NOT NULL
+                GROUP BY t.goal.id
+            """)
+    List<GoalDeltaRow> sumCompletionQuantityByGoal(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Marks the tasks completed at {@code now}, filling progress up to the
+     * quantity where there is one. Returns how many tasks were updated.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+                UPDATE VERSIONED Task t
+                SET t.completedAt = :now, t.updatedAt = :now,
+                    t.progress = CASE WHEN t.quantity IS NULL THEN t.progress ELSE t.quantity END,
+                    t.progressChangedAt = CASE WHEN t.quantity IS NULL THEN t.progressChangedAt ELSE :now END
+                WHERE t.id IN :ids AND t.deletedAt IS NULL
             """)
-    List<Task> findTasksByFrequency(@Param("frequencyId") Long frequencyId);
+    int completeAll(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /** Clears completion of the tasks, resetting progress where there is a quantity. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+                UPDATE VERSIONED Task t
+                SET t.completedAt = NULL, t.updatedAt = :now,
+                    t.progress = CASE WHEN t.quantity IS NULL THEN t.progress ELSE 0 END,
+                    t.progressChangedAt = CASE WHEN t.quantity IS NULL THEN t.progressChangedAt ELSE :now END
+                WHERE t.id IN :ids AND t.deletedAt IS NULL
+            """)
+    int uncompleteAll(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * TaskStreak.recordCompletion for tasks that share one schedule, as a
+     * single statement: {@code previous}, {@code occurrence} and
+     * {@code brokenOn} are the TaskStreak.Step of the completion. Tasks that
+     * already counted the occurrence are left alone.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+                UPDATE VERSIONED Task t
+                SET t.streak.currentLength = CASE
+                        WHEN t.streak.currentLength > 0 AND t.streak.lastOccurrence = :previous
+                        THEN t.streak.currentLength + 1 ELSE 1 END,
+                    t.streak.longestLength = greatest(t.streak.longestLength, CASE
+                        WHEN t.streak.currentLength > 0 AND t.streak.lastOccurrence = :previous
+                        THEN t.streak.currentLength + 1 ELSE 1 END),
+                    t.streak.lastOccurrence = :occurrence,
+                    t.streak.brokenOn = :brokenOn
+                WHERE t.id IN :ids AND t.deletedAt IS NULL
+                  AND (t.streak.lastOccurrence IS NULL OR t.streak.lastOccurrence <> :occurrence)
+            """)
+    int recordStreakCompletion(@Param("ids") Collection<Long> ids, @Param("occurrence") LocalDate occurrence,
+            @Param("previous") LocalDate previous, @Param("brokenOn") LocalDate brokenOn);
+
+    /** Select list of the {@link TaskScheduleRow} queries. */
+    String SCHEDULE_ROW_SELECT = """
+            SELECT new com.andreadelorenzis.productivityApp.repository.TaskScheduleRow(
+                t.id, t.frequency.name, t.schedule)
+            FROM Task t
+            """;
 
+    @Query(SCHEDULE_ROW_SELECT + "WHERE t.deletedAt IS NULL")
+    List<TaskScheduleRow> findAllScheduleRows();
+
+    /** Select list of the {@link NameRow} queries; the importance is that of the task's goal. */
+    String NAME_ROW_SELECT = """
+            SELECT new com.andreadelorenzis.productivityApp.repository.NameRow(t.id, t.name, t.goalImportance)
+            FROM Task t
+            """;
+
+    @Query(NAME_ROW_SELECT + "WHERE t.deletedAt IS NULL")
+    List<NameRow> findAllNameRows();
+
+    @Query(NAME_ROW_SELECT + "WHERE t.id = :id AND t.deletedAt IS NULL")
+    Optional<NameRow> findNameRowById(@Param("id") Long id);
+
+    @Query(NAME_ROW_SELECT + "WHERE t.id IN :ids AND t.deletedAt IS NULL")
+    List<NameRow> findNameRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(NAME_ROW_SELECT + "WHERE t.goal.id = :goalId AND t.deletedAt IS NULL")
+    List<NameRow> findNameRowsByGoalId(@Param("goalId") Long goalId);
+
+    @Query(SCHEDULE_ROW_SELECT + "WHERE t.id = :id AND t.deletedAt IS NULL")
+    Optional<TaskScheduleRow> findScheduleRowById(@Param("id") Long id);
+
+    @Query(SCHEDULE_ROW_SELECT + "WHERE t.id IN :ids AND t.deletedAt IS NULL")
+    List<TaskScheduleRow> findScheduleRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(Task.LISTING_GRAPH)
     @Query("SELECT t FROM Task t WHERE t.completedAt IS NOT NULL AND t.deletedAt IS NULL")
     List<Task> findAllCompleted();
 
-    @Query("SELECT t FROM Task t WHERE t.name LIKE %:name% AND t.deletedAt IS NULL")
-    List<Task> searchByName(@Param("name") String name);
-
-    /*
-     * @Query("""
-     * SELECT DISTINCT t, g.importance
-     * FROM Task t
-     * LEFT JOIN t.goal g
-     * LEFT JOIN t.weekDays wd
-     * LEFT JOIN t.monthDays md
-     * LEFT JOIN t.yearDays yd
-     * WHERE t.deletedAt IS NULL AND (
-     * (t.frequency.name = 'one-time' AND :includeOneTimeTasks = true) OR
-     * (t.frequency.name = 'daily') OR
-     * (t.frequency.name = 'weekly' AND wd = :dayOfWeek) OR
-     * (t.frequency.name = 'monthly' AND (md = :dayOfMonth OR (:isLastDayOfMonth =
-     * true AND md > :dayOfMonth))) OR
-     * (t.frequency.name = 'yearly' AND (yd = :dayOfYear OR (:isLastDayOfYear = true
-     * AND yd > :dayOfYear)))
-     * )
-     * ORDER BY t.urgent DESC, g.importance DESC NULLS LAST, t.createdAt DESC
-     * """)
-     * List<Object[]> findTasksDueToday(
-     * 
-     * @Param("dayOfWeek") int dayOfWeek,
-     * 
-     * @Param("dayOfMonth") int dayOfMonth,
-     * 
-     * @Param("isLastDayOfMonth") boolean isLastDayOfMonth,
-     * 
-     * @Param("dayOfYear") int dayOfYear,
-     * 
-     * @Param("isLastDayOfYear") boolean isLastDayOfYear,
-     * 
-     * @Param("includeOneTimeTasks") boolean includeOneTimeTasks);
+    /** Active tasks whose lower-cased name matches {@code pattern} (a LIKE pattern). */
+    @Query(LIST_ROW_SELECT + "WHERE lower(t.name) LIKE :pattern ESCAPE '\\' AND t.deletedAt IS NULL")
+    List<TaskListRow> searchByName(@Param("pattern") String pattern);
+
+    /**
+     * Active tasks whose name or description contains the search text, best
+     * matches first: name equal to the text, name starting with it, name
+     * containing it, then description only. Both contains conditions are
+     * served by trigram indexes on Postgres.
+     */
+    @Query(LIST_ROW_SELECT + """
+                WHERE t.deletedAt IS NULL
+                  AND (lower(t.name) LIKE :contains ESCAPE '\\'
+                       OR lower(t.description) LIKE :contains ESCAPE '\\')
+                ORDER BY CASE
+                    WHEN lower(t.name) = :exact THEN 0
+                    WHEN lower(t.name) LIKE :prefix ESCAPE '\\' THEN 1
+                    WHEN lower(t.name) LIKE :contains ESCAPE '\\' THEN 2
+                    ELSE 3 END,
+                  t.goalImportance DESC, t.createdAt DESC, t.id DESC
+            """)
+    List<TaskListRow> search(
+            @Param("exact") String exact,
+            @Param("prefix") String prefix,
+            @Param("contains") String contains,
+            Limit limit);
+
+    /**
+     * Tasks due on the day described by the given masks, as built by
+     * {@link com.andreadelorenzis.productivityApp.entity.TaskSchedule#matching}.
+     * A task matches when its selected days intersect the masks, which already
+     * include the last-day-of-month/year clamping.
+     */
+    @Query(LIST_ROW_SELECT + """
+                WHERE t.deletedAt IS NULL AND (
+                    (f.name = 'one-time' AND :includeOneTimeTasks = true) OR
+                    (f.name = 'daily') OR
+                    (f.name = 'weekly' AND bitand(t.schedule.weekDays, cast(:weekDays as Integer)) <> 0) OR
+                    (f.name = 'monthly' AND bitand(t.schedule.monthDays, cast(:monthDays as Integer)) <> 0) OR
+                    (f.name = 'yearly' AND (
+                        bitand(t.schedule.yearDays0, cast(:yearDays0 as Long)) <> 0 OR
+                        bitand(t.schedule.yearDays1, cast(:yearDays1 as Long)) <> 0 OR
+                        bitand(t.schedule.yearDays2, cast(:yearDays2 as Long)) <> 0 OR
+                        bitand(t.schedule.yearDays3, cast(:yearDays3 as Long)) <> 0 OR
+                        bitand(t.schedule.yearDays4, cast(:yearDays4 as Long)) <> 0 OR
+                        bitand(t.schedule.yearDays5, cast(:yearDays5 as Long)) <> 0))
+                )
+                ORDER BY t.createdAt DESC
+            """)
+    List<TaskListRow> findTasksDueToday(
+            @Param("weekDays") int weekDays,
+            @Param("monthDays") int monthDays,
+            @Param("yearDays0") long yearDays0,
+            @Param("yearDays1") long yearDays1,
+            @Param("yearDays2") long yearDays2,
+            @Param("yearDays3") long yearDays3,
+            @Param("yearDays4") long yearDays4,
+            @Param("yearDays5") long yearDays5,
+            @Param("includeOneTimeTasks") boolean includeOneTimeTasks);
+
+    /**
+     * Tasks due on {@code date}: findTasksDueToday with the masks of
+     * TaskSchedule.matching. The due rules of FrequencyKind and
+     * TaskService.isTaskDue must agree with this query.
      */
+    default List<TaskListRow> findTasksDueOn(LocalDate date, boolean includeOneTimeTasks) {
+        TaskSchedule probe = TaskSchedule.matching(date);
+        return findTasksDueToday(
+                probe.getWeekDaysMask(),
+                probe.getMonthDaysMask(),
+                probe.getYearDaysWord(0),
+                probe.getYearDaysWord(1),
+                probe.getYearDaysWord(2),
+                probe.getYearDaysWord(3),
+                probe.getYearDaysWord(4),
+                probe.getYearDaysWord(5),
+                includeOneTimeTasks);
+    }
 }
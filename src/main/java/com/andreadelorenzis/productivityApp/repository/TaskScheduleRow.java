@@ -0,0 +1,15 @@
+package com.andreadelorenzis.productivityApp.repository;
+
+import com.andreadelorenzis.productivityApp.entity.FrequencyKind;
+import com.andreadelorenzis.productivityApp.entity.TaskSchedule;
+
+/**
+ * Just the scheduling columns of an active task.
+ */
+public record TaskScheduleRow(Long id, FrequencyKind frequencyKind, TaskSchedule schedule) {
+
+    // Used by the queries, which select the frequency name
+    public TaskScheduleRow(Long id, String frequencyName, TaskSchedule schedule) {
+        this(id, FrequencyKind.of(frequencyName), schedule);
+    }
+}
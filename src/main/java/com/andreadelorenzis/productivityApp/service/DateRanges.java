@@ -0,0 +1,22 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import java.time.LocalDate;
+
+/**
+ * The from..to check shared by the date-range reads (agenda, completions,
+ * goal progress series), so they reject bad ranges with the same messages.
+ */
+final class DateRanges {
+
+    private DateRanges() {
+    }
+
+    static void check(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Both from and to are required");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.dto.TaskResponseDTO;
+import com.andreadelorenzis.productivityApp.event.GoalChangedEvent;
+import com.andreadelorenzis.productivityApp.event.TaskChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the computed due-today listing per (date, includeOneTimeTasks).
+ * Every committed task or goal write bumps a generation counter; entries
+ * computed under an older generation are never served, so a listing that was
+ * being computed while a write committed cannot be cached stale.
+ */
+@Component
+public class DueTodayCache {
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public DueTodayCache(MeterRegistry meterRegistry) {
+        this.hits = Counter.builder("tasks.due_today.cache.requests").tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("tasks.due_today.cache.requests").tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("tasks.due_today.cache.evictions").register(meterRegistry);
+        Gauge.builder("tasks.due_today.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    public List<TaskResponseDTO> get(LocalDate date, boolean includeOneTimeTasks,
+            Supplier<List<TaskResponseDTO>> loader) {
+        Key key = new Key(date, includeOneTimeTasks);
+        long current = generation.get();
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.generation == current) {
+            hits.increment();
+            return entry.tasks;
+        }
+
+        misses.increment();
+        List<TaskResponseDTO> tasks = List.copyOf(loader.get());
+        entries.put(key, new Entry(current, tasks));
+        return tasks;
+    }
+
+    /** Drops listings computed for days before {@code today}. */
+    public void evictBefore(LocalDate today) {
+        Iterator<Key> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().date.isBefore(today)) {
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        int size = entries.size();
+        entries.clear();
+        evictions.increment(size);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        invalidateAll();
+    }
+
+    // Goal name, unit and importance appear in (and order) the task listing
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGoalChanged(GoalChangedEvent event) {
+        invalidateAll();
+    }
+
+    private record Key(LocalDate date, boolean includeOneTimeTasks) {
+    }
+
+    private record Entry(long generation, List<TaskResponseDTO> tasks) {
+    }
+}
@@ -1,7 +1,6 @@
 package com.andreadelorenzis.productivityApp.service;
 
 import com.andreadelorenzis.productivityApp.dto.FrequencyDTO;
-import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,14 +9,14 @@ import java.util.stream.Collectors;
 @Service
 public class FrequencyService {
 
-    private final FrequencyRepository frequencyRepository;
+    private final ReferenceDataRegistry referenceData;
 
-    public FrequencyService(FrequencyRepository frequencyRepository) {
-        this.frequencyRepository = frequencyRepository;
+    public FrequencyService(ReferenceDataRegistry referenceData) {
+        this.referenceData = referenceData;
     }
 
     public List<FrequencyDTO> getAllFrequencies() {
-        return frequencyRepository.findAll().stream()
+        return referenceData.getFrequencies().stream()
                 .map(frequency -> new FrequencyDTO(
                         frequency.getId(),
                         frequency.getName()))
@@ -0,0 +1,78 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.entity.GoalProgressBucket;
+import com.andreadelorenzis.productivityApp.entity.ProgressGranularity;
+import com.andreadelorenzis.productivityApp.repository.GoalProgressBucketRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Keeps the daily and weekly progress buckets of goals up to date. Both
+ * writes run in the caller's transaction after it has updated the goal row,
+ * so writers of the same goal's buckets are serialized by that row's lock
+ * and a bucket is inserted at most once.
+ */
+@Component
+public class GoalProgressRollup {
+
+    private final GoalProgressBucketRepository buckets;
+
+    public GoalProgressRollup(GoalProgressBucketRepository buckets) {
+        this.buckets = buckets;
+    }
+
+    /**
+     * Adds folded progress deltas, by day, to the goal's buckets.
+     * {@code progress} is the goal's folded progress once they were added,
+     * unclamped like the stored closing progress; reads clamp it at zero.
+     * Events keep the day they were made on, so a fold may reach back before
+     * buckets that already exist: each day then closes at the progress
+     * before it plus its delta, and the delta carries over to every later
+     * day and week.
+     */
+    public void recordFolded(Long goalId, BigDecimal progress, SortedMap<LocalDate, BigDecimal> deltas) {
+        // Only needed when the goal has no bucket around a day at all
+        BigDecimal running = progress.subtract(deltas.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add));
+        for (Map.Entry<LocalDate, BigDecimal> day : deltas.entrySet()) {
+            running = running.add(day.getValue());
+            for (ProgressGranularity granularity : ProgressGranularity.values()) {
+                LocalDate start = granularity.bucketStart(day.getKey());
+                buckets.shiftAfter(goalId, granularity, start, day.getValue());
+                if (buckets.addDelta(goalId, granularity, start, day.getValue()) == 0) {
+                    buckets.save(new GoalProgressBucket(goalId, granularity, start, day.getValue(),
+                            closing(goalId, granularity, start, day.getValue(), running)));
+                }
+            }
+        }
+    }
+
+    /** Sets the goal's progress at the end of {@code day}, without counting it as a delta. */
+    public void recordProgress(Long goalId, LocalDate day, BigDecimal progress) {
+        for (ProgressGranularity granularity : ProgressGranularity.values()) {
+            LocalDate start = granularity.bucketStart(day);
+            if (buckets.setProgress(goalId, granularity, start, progress) == 0) {
+                buckets.save(new GoalProgressBucket(goalId, granularity, start, BigDecimal.ZERO, progress));
+            }
+        }
+    }
+
+    /**
+     * Closing progress of a new bucket holding {@code delta}: the closing
+     * progress of the bucket before it plus the delta. Without one, the
+     * progress the next bucket opens with (the delta is already carried over
+     * to it), or {@code running}, the goal's progress as of the bucket.
+     */
+    private BigDecimal closing(Long goalId, ProgressGranularity granularity, LocalDate start, BigDecimal delta,
+            BigDecimal running) {
+        return buckets.findProgressBefore(goalId, granularity, start, Limit.of(1)).stream()
+                .findFirst()
+                .map(previous -> previous.add(delta))
+                .or(() -> buckets.findOpeningAfter(goalId, granularity, start, Limit.of(1)).stream().findFirst())
+                .orElse(running);
+    }
+}
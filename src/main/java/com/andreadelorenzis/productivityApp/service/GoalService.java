@@ -1,46 +1,83 @@
 package com.andreadelorenzis.productivityApp.service;
 
+import com.andreadelorenzis.productivityApp.dto.CursorPage;
 import com.andreadelorenzis.productivityApp.dto.GoalDTO;
+import com.andreadelorenzis.productivityApp.dto.GoalProgressPointDTO;
+import com.andreadelorenzis.productivityApp.dto.GoalProgressSeriesDTO;
 import com.andreadelorenzis.productivityApp.dto.GoalResponseDTO;
 import com.andreadelorenzis.productivityApp.dto.DecompositionRequestDTO;
 import com.andreadelorenzis.productivityApp.dto.DecompositionResponseDTO;
 import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.FrequencyKind;
 import com.andreadelorenzis.productivityApp.entity.Goal;
+import com.andreadelorenzis.productivityApp.entity.GoalProgressBucket;
 import com.andreadelorenzis.productivityApp.entity.GoalStatus;
+import com.andreadelorenzis.productivityApp.entity.ProgressGranularity;
 import com.andreadelorenzis.productivityApp.entity.Unit;
+import com.andreadelorenzis.productivityApp.event.GoalChangedEvent;
 import com.andreadelorenzis.productivityApp.exception.ResourceNotFoundException;
-import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalFilter;
+import com.andreadelorenzis.productivityApp.repository.GoalListRow;
+import com.andreadelorenzis.productivityApp.repository.GoalProgressBucketRepository;
 import com.andreadelorenzis.productivityApp.repository.GoalRepository;
-import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
-import com.andreadelorenzis.productivityApp.repository.UnitRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalSort;
+import com.andreadelorenzis.productivityApp.repository.GoalTrackingRow;
+import com.andreadelorenzis.productivityApp.repository.ProgressEventRepository;
 import com.andreadelorenzis.productivityApp.repository.TaskRepository;
 import com.andreadelorenzis.productivityApp.entity.Task;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.util.stream.Collectors;
 
 @Service
 public class GoalService {
 
+    // Goals per tracking-task query and per streamed batch
+    private static final int BATCH_SIZE = 200;
+
+    /** Most buckets a progress series may span. */
+    public static final int MAX_SERIES_POINTS = 2000;
+
     private final GoalRepository goalRepository;
-    private final GoalStatusRepository statusRepository;
-    private final UnitRepository unitRepository;
-    private final FrequencyRepository frequencyRepository;
+    private final ProgressEventRepository progressEvents;
+    private final GoalProgressBucketRepository progressBuckets;
+    private final GoalProgressRollup rollup;
+    private final ReferenceDataRegistry referenceData;
     private final TaskRepository taskRepository;
-
-    public GoalService(GoalRepository goalRepository, GoalStatusRepository statusRepository,
-            UnitRepository unitRepository, FrequencyRepository frequencyRepository, TaskRepository taskRepository) {
+    private final IdealProgressCache idealProgressCache;
+    private final OptimisticRetry retry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public GoalService(GoalRepository goalRepository, ProgressEventRepository progressEvents,
+            GoalProgressBucketRepository progressBuckets, GoalProgressRollup rollup,
+            ReferenceDataRegistry referenceData, TaskRepository taskRepository,
+            IdealProgressCache idealProgressCache, OptimisticRetry retry,
+            ApplicationEventPublisher eventPublisher) {
         this.goalRepository = goalRepository;
-        this.statusRepository = statusRepository;
-        this.unitRepository = unitRepository;
-        this.frequencyRepository = frequencyRepository;
+        this.progressEvents = progressEvents;
+        this.progressBuckets = progressBuckets;
+        this.rollup = rollup;
+        this.referenceData = referenceData;
         this.taskRepository = taskRepository;
+        this.idealProgressCache = idealProgressCache;
+        this.retry = retry;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -52,7 +89,7 @@ public class GoalService {
         goal.setDescription(dto.getDescription());
 
         if (dto.getUnitCode() != null) {
-            Unit unit = unitRepository.findByCode(dto.getUnitCode())
+            Unit unit = referenceData.findUnitByCode(dto.getUnitCode())
                     .orElseThrow(() -> new ResourceNotFoundException("Unit not found: " + dto.getUnitCode()));
             goal.setUnit(unit);
         }
@@ -70,14 +107,83 @@ public class GoalService {
         goal.setStatus(status);
 
         Goal saved = goalRepository.save(goal);
+        rollup.recordProgress(saved.getId(), LocalDate.now(), saved.getCurrentProgress());
+        eventPublisher.publishEvent(new GoalChangedEvent(saved.getId()));
         return toResponse(saved);
     }
 
     public List<GoalResponseDTO> listGoals() {
-        return goalRepository.findAll().stream()
-                .filter(g -> g.getDeletedAt() == null)
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(goalRepository.findAllActive());
+    }
+
+    /**
+     * The active goals matching {@code filter}, sorted by {@code sort}
+     * (importance when null) in {@code direction} ("asc" or "desc", the
+     * sort's natural direction when null). Filtering and sorting run in the
+     * database.
+     */
+    public List<GoalResponseDTO> listGoals(GoalFilter filter, String sort, String direction) {
+        validateFilter(filter);
+        GoalSort goalSort = GoalSort.of(sort);
+        return toResponses(goalRepository.findActive(filter, goalSort, isAscending(goalSort, direction)));
+    }
+
+    /**
+     * One page of the active goals, most important first, then newest first.
+     */
+    public CursorPage<GoalResponseDTO> listGoalsPage(String cursor, int limit) {
+        KeysetCursor.checkLimit(limit);
+
+        List<GoalListRow> goals;
+        if (cursor == null || cursor.isBlank()) {
+            goals = goalRepository.findActivePage(Limit.of(limit + 1));
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor, 3);
+            goals = goalRepository.findActivePageAfter(after.intAt(0), after.dateTimeAt(1), after.longAt(2),
+                    Limit.of(limit + 1));
+        }
+
+        // One extra row tells whether there is a next page
+        boolean hasMore = goals.size() > limit;
+        List<GoalListRow> page = hasMore ? goals.subList(0, limit) : goals;
+
+        String nextCursor = null;
+        if (hasMore) {
+            GoalListRow last = page.get(page.size() - 1);
+            nextCursor = KeysetCursor.encode(last.importance() != null ? last.importance() : 0, last.createdAt(),
+                    last.id());
+        }
+        return new CursorPage<>(toResponses(page), nextCursor);
+    }
+
+    /**
+     * Passes every active goal to {@code sink} in the same order as
+     * {@link #listGoalsPage}, reading them through a cursor so memory use
+     * stays flat however many goals there are.
+     */
+    @Transactional(readOnly = true)
+    public void streamGoals(Consumer<GoalResponseDTO> sink) {
+        try (Stream<GoalListRow> goals = goalRepository.streamActive()) {
+            Iterator<GoalListRow> it = goals.iterator();
+            List<GoalListRow> batch = new ArrayList<>(BATCH_SIZE);
+            while (it.hasNext()) {
+                batch.add(it.next());
+                if (batch.size() == BATCH_SIZE || !it.hasNext()) {
+                    toResponses(batch).forEach(sink);
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * At most {@code limit} active goals whose name, description or reason
+     * contains {@code query}, ignoring case, most relevant first.
+     */
+    public List<GoalResponseDTO> searchGoals(String query, int limit) {
+        SearchTerm term = SearchTerm.of(query);
+        SearchTerm.checkLimit(limit);
+        return toResponses(goalRepository.search(term.exact(), term.prefix(), term.contains(), Limit.of(limit)));
     }
 
     public GoalResponseDTO getGoal(Long id) {
@@ -87,66 +193,162 @@ public class GoalService {
         return toResponse(g);
     }
 
-    @Transactional
-    public GoalResponseDTO updateGoal(Long id, GoalDTO dto) {
-        validateBusinessRules(dto);
+    /**
+     * The goal's actual and ideal progress for each day or week (from
+     * Monday) overlapping from..to, read from its progress buckets. Progress
+     * logged in the last few seconds may not be folded into them yet.
+     */
+    public GoalProgressSeriesDTO getProgressSeries(Long id, LocalDate from, LocalDate to, String granularity) {
+        DateRanges.check(from, to);
+        ProgressGranularity bucketSize = ProgressGranularity.of(granularity);
+        List<LocalDate> starts = new ArrayList<>();
+        for (LocalDate start = bucketSize.bucketStart(from); !start.isAfter(to); start = bucketSize.next(start)) {
+            if (starts.size() == MAX_SERIES_POINTS) {
+                throw new IllegalArgumentException("At most " + MAX_SERIES_POINTS + " points are allowed");
+            }
+            starts.add(start);
+        }
 
-        Goal g = goalRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Goal not found"));
-        if (g.getDeletedAt() != null)
-            throw new ResourceNotFoundException("Goal not found");
+        Goal goal = goalRepository.findById(id)
+                .filter(g -> g.getDeletedAt() == null)
+                .orElseThrow(() -> new ResourceNotFoundException("Goal not found"));
+        GoalListRow row = GoalListRow.of(goal);
+        FrequencyKind tracking = taskRepository.findTrackingFrequencies(List.of(id)).stream()
+                .findFirst()
+                .map(GoalTrackingRow::frequencyKind)
+                .orElse(null);
+
+        // Buckets without events have no row and carry the progress before them forward
+        Map<LocalDate, GoalProgressBucket> buckets = progressBuckets
+                .findBetween(id, bucketSize, starts.get(0), to).stream()
+                .collect(Collectors.toMap(GoalProgressBucket::getBucketStart, Function.identity()));
+        BigDecimal progress = progressBuckets.findLatestBefore(id, bucketSize, starts.get(0), Limit.of(1)).stream()
+                .findFirst()
+                .map(GoalProgressBucket::getProgress)
+                .orElse(null);
+
+        LocalDate today = LocalDate.now();
+        List<GoalProgressPointDTO> points = new ArrayList<>(starts.size());
+        for (LocalDate start : starts) {
+            GoalProgressBucket bucket = buckets.get(start);
+            BigDecimal delta = progress != null ? BigDecimal.ZERO : null;
+            if (bucket != null) {
+                progress = bucket.getProgress();
+                delta = bucket.getDelta();
+            }
+            BigDecimal ideal = calculateIdealProgress(row, tracking, bucketSize.next(start).atStartOfDay());
+            boolean future = start.isAfter(today);
+            BigDecimal actual = future || progress == null ? null : progress.max(BigDecimal.ZERO);
+            points.add(new GoalProgressPointDTO(start, actual, ideal, future ? null : delta));
+        }
+        return new GoalProgressSeriesDTO(id, bucketSize.name().toLowerCase(Locale.ROOT), from, to, points);
+    }
 
-        g.setName(dto.getName());
-        g.setDescription(dto.getDescription());
+    public GoalResponseDTO updateGoal(Long id, GoalDTO dto) {
+        return retry.execute(() -> {
+            validateBusinessRules(dto);
 
-        if (dto.getUnitCode() != null) {
-            Unit unit = unitRepository.findByCode(dto.getUnitCode())
-                    .orElseThrow(() -> new ResourceNotFoundException("Unit not found: " + dto.getUnitCode()));
-            g.setUnit(unit);
-        }
+            Goal g = goalRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Goal not found"));
+            if (g.getDeletedAt() != null)
+                throw new ResourceNotFoundException("Goal not found");
 
-        g.setTargetQuantity(dto.getTargetQuantity());
-        if (dto.getCurrentProgress() != null)
-            g.setCurrentProgress(dto.getCurrentProgress());
-        g.setDeadline(dto.getDeadline());
-        g.setDifficulty(dto.getDifficulty());
-        g.setImportance(dto.getImportance());
-        g.setReason(dto.getReason());
-        g.setReward(dto.getReward());
-        g.setPunishment(dto.getPunishment());
+            g.setName(dto.getName());
+            g.setDescription(dto.getDescription());
 
-        if (dto.getStatusId() != null) {
-            GoalStatus status = statusRepository.findById(dto.getStatusId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Status not found"));
-            g.setStatus(status);
-            if ("completed".equalsIgnoreCase(status.getName())) {
-                g.setCompletedAt(LocalDateTime.now());
-            } else if (g.getCompletedAt() != null) {
-                g.setCompletedAt(null);
+            if (dto.getUnitCode() != null) {
+                Unit unit = referenceData.findUnitByCode(dto.getUnitCode())
+                        .orElseThrow(() -> new ResourceNotFoundException("Unit not found: " + dto.getUnitCode()));
+                g.setUnit(unit);
             }
-        }
 
-        Goal saved = goalRepository.save(g);
-        return toResponse(saved);
+            g.setTargetQuantity(dto.getTargetQuantity());
+            if (dto.getCurrentProgress() != null) {
+                // An explicit value replaces whatever was still waiting to be folded
+                progressEvents.discardPending(g.getId(), LocalDateTime.now());
+                g.setCurrentProgress(dto.getCurrentProgress());
+            }
+            g.setDeadline(dto.getDeadline());
+            g.setDifficulty(dto.getDifficulty());
+            g.setImportance(dto.getImportance());
+            g.setReason(dto.getReason());
+            g.setReward(dto.getReward());
+            g.setPunishment(dto.getPunishment());
+
+            if (dto.getStatusId() != null) {
+                GoalStatus status = referenceData.findGoalStatus(dto.getStatusId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Status not found"));
+                g.setStatus(status);
+                if ("completed".equalsIgnoreCase(status.getName())) {
+                    g.setCompletedAt(LocalDateTime.now());
+                } else if (g.getCompletedAt() != null) {
+                    g.setCompletedAt(null);
+                }
+            }
+
+            Goal saved = goalRepository.save(g);
+            if (dto.getCurrentProgress() != null) {
+                // Flushes the goal update first, which takes the row lock the rollup relies on
+                rollup.recordProgress(saved.getId(), LocalDate.now(), saved.getCurrentProgress());
+            }
+            taskRepository.updateGoalImportance(saved.getId(),
+                    saved.getImportance() != null ? saved.getImportance() : Task.NO_GOAL_IMPORTANCE);
+            eventPublisher.publishEvent(new GoalChangedEvent(saved.getId()));
+            return toResponse(saved);
+        });
     }
 
-    @Transactional
     public void deleteGoal(Long id) {
-        Goal g = goalRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Goal not found"));
-        if (g.getDeletedAt() != null)
-            return;
-        g.setDeletedAt(LocalDateTime.now());
-        goalRepository.save(g);
+        retry.run(() -> {
+            Goal g = goalRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Goal not found"));
+            if (g.getDeletedAt() != null)
+                return;
+            g.setDeletedAt(LocalDateTime.now());
+            goalRepository.save(g);
+            eventPublisher.publishEvent(new GoalChangedEvent(g.getId()));
+        });
     }
 
     private GoalStatus determineStatusForCreate(GoalDTO dto) {
         if (dto.getStatusId() != null) {
-            return statusRepository.findById(dto.getStatusId())
+            return referenceData.findGoalStatus(dto.getStatusId())
                     .orElseThrow(() -> new ResourceNotFoundException("Status not found"));
         }
-        return statusRepository.findByName("active")
+        return referenceData.findGoalStatusByName("active")
                 .orElseThrow(() -> new ResourceNotFoundException("Default status 'active' missing"));
     }
 
+    private static void validateFilter(GoalFilter filter) {
+        if (filter.deadlineFrom() != null && filter.deadlineTo() != null
+                && filter.deadlineFrom().isAfter(filter.deadlineTo())) {
+            throw new IllegalArgumentException("deadlineFrom must not be after deadlineTo");
+        }
+        checkRange("minImportance", filter.minImportance(), "maxImportance", filter.maxImportance());
+        checkRange("minDifficulty", filter.minDifficulty(), "maxDifficulty", filter.maxDifficulty());
+    }
+
+    private static void checkRange(String minName, Integer min, String maxName, Integer max) {
+        if ((min != null && (min < 1 || min > 5)) || (max != null && (max < 1 || max > 5))) {
+            throw new IllegalArgumentException(minName + " and " + maxName + " must be between 1 and 5");
+        }
+        if (min != null && max != null && min > max) {
+            throw new IllegalArgumentException(minName + " must not be greater than " + maxName);
+        }
+    }
+
+    private static boolean isAscending(GoalSort sort, String direction) {
+        if (direction == null || direction.isBlank()) {
+            return sort.isAscendingByDefault();
+        }
+        switch (direction.strip().toLowerCase(Locale.ROOT)) {
+            case "asc":
+                return true;
+            case "desc":
+                return false;
+            default:
+                throw new IllegalArgumentException("direction must be asc or desc");
+        }
+    }
+
     private void validateBusinessRules(GoalDTO dto) {
         if (dto.getTargetQuantity() != null && dto.getTargetQuantity().compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("target_quantity must be positive");
@@ -166,18 +368,19 @@ public class GoalService {
         Goal goal = goalRepository.findById(request.getGoalId())
                 .orElseThrow(() -> new ResourceNotFoundException("Goal not found"));
 
-        Frequency frequency = frequencyRepository.findById(request.getFrequencyId())
+        Frequency frequency = referenceData.findFrequency(request.getFrequencyId())
                 .orElseThrow(() -> new ResourceNotFoundException("Frequency not found"));
 
         DecompositionResponseDTO response = new DecompositionResponseDTO();
 
-        if (goal.getCurrentProgress().compareTo(goal.getTargetQuantity()) >= 0 ||
+        BigDecimal currentProgress = currentProgress(goal);
+        if (currentProgress.compareTo(goal.getTargetQuantity()) >= 0 ||
                 !goal.getStatus().getName().equalsIgnoreCase("Active")) {
             response.setRequiredQuantity(BigDecimal.ZERO);
             return response;
         }
 
-        BigDecimal targetRemaining = goal.getTargetQuantity().subtract(goal.getCurrentProgress());
+        BigDecimal targetRemaining = goal.getTargetQuantity().subtract(currentProgress);
         LocalDateTime now = LocalDateTime.now();
 
         if (now.isAfter(goal.getDeadline())) {
@@ -185,7 +388,7 @@ public class GoalService {
             return response;
         }
 
-        long occurrencesRemaining = countOccurrences(frequency, now, goal.getDeadline());
+        long occurrencesRemaining = frequency.getKind().occurrencesBetween(now, goal.getDeadline());
 
         if (occurrencesRemaining <= 0) {
             throw new IllegalArgumentException("No occurrences left for this frequency before the deadline");
@@ -201,7 +404,7 @@ public class GoalService {
             response.setFeasible(isFeasible);
 
             BigDecimal neededOccurrences = targetRemaining.divide(request.getQuantity(), 0, RoundingMode.CEILING);
-            LocalDateTime suggestedDeadline = dateOfNthOccurrence(frequency, now, neededOccurrences.longValue());
+            LocalDateTime suggestedDeadline = frequency.getKind().nthOccurrence(now, neededOccurrences.longValue());
             response.setSuggestedDeadline(suggestedDeadline);
             if (totalContribution.abs().compareTo(targetRemaining) != 0) {
                 BigDecimal shortfall = targetRemaining.subtract(totalContribution);
@@ -212,120 +415,98 @@ public class GoalService {
         return response;
     }
 
-    private long countOccurrences(Frequency frequency, LocalDateTime from, LocalDateTime to) {
-        String freqName = frequency.getName().toLowerCase();
-
-        LocalDateTime start = from.truncatedTo(ChronoUnit.DAYS);
-        LocalDateTime end = to.truncatedTo(ChronoUnit.DAYS);
-
-        long daysBetween = ChronoUnit.DAYS.between(start, end);
-
-        if (daysBetween <= 0)
-            return 0;
+    private GoalResponseDTO toResponse(Goal g) {
+        return toResponses(List.of(GoalListRow.of(g).withCurrentProgress(currentProgress(g)))).get(0);
+    }
 
-        switch (freqName) {
-            case "daily":
-                return daysBetween;
-            case "weekly":
-                return daysBetween / 7;
-            case "monthly":
-                return ChronoUnit.MONTHS.between(start, end);
-            case "yearly":
-                return ChronoUnit.YEARS.between(start, end);
-            case "one-time":
-                return 1;
-            default:
-                throw new UnsupportedOperationException("Unsupported frequency: " + freqName);
-        }
+    /** The goal's compacted progress plus its unfolded progress events, like the listing queries. */
+    private BigDecimal currentProgress(Goal g) {
+        return goalRepository.findCurrentProgress(g.getId());
     }
 
-    private LocalDateTime dateOfNthOccurrence(Frequency frequency, LocalDateTime from, long n) {
-        String freqName = frequency.getName().toLowerCase();
-        LocalDateTime start = from.truncatedTo(ChronoUnit.DAYS);
-
-        switch (freqName) {
-            case "daily":
-                return start.plusDays(n);
-            case "weekly":
-                return start.plusWeeks(n);
-            case "monthly":
-                return start.plusMonths(n);
-            case "yearly":
-                return start.plusYears(n);
-            case "one-time":
-                return start.plusDays(n);
-            default:
-                throw new UnsupportedOperationException("Unsupported frequency: " + freqName);
+    private List<GoalResponseDTO> toResponses(List<GoalListRow> goals) {
+        Map<Long, BigDecimal> idealProgress = idealProgressCache.getAll(goals, LocalDate.now(),
+                this::calculateIdealProgress);
+        List<GoalResponseDTO> responses = new ArrayList<>(goals.size());
+        for (GoalListRow g : goals) {
+            responses.add(toResponse(g, idealProgress.get(g.id())));
         }
+        return responses;
     }
 
-    private GoalResponseDTO toResponse(Goal g) {
+    private GoalResponseDTO toResponse(GoalListRow g, BigDecimal idealProgress) {
         GoalResponseDTO r = new GoalResponseDTO();
-        r.setId(g.getId());
-        r.setName(g.getName());
-        r.setDescription(g.getDescription());
-
-        if (g.getUnit() != null) {
-            r.setUnitCode(g.getUnit().getCode());
-            r.setUnitName(g.getUnit().getName());
-        }
-
-        r.setTargetQuantity(g.getTargetQuantity());
-        r.setCurrentProgress(g.getCurrentProgress());
-        r.setDeadline(g.getDeadline());
-        r.setDifficulty(g.getDifficulty());
-        r.setImportance(g.getImportance());
-        r.setReason(g.getReason());
-        r.setReward(g.getReward());
-        r.setPunishment(g.getPunishment());
-        if (g.getStatus() != null) {
-            r.setStatusId(g.getStatus().getId());
-            r.setStatusName(g.getStatus().getName());
-        }
-        r.setCreatedAt(g.getCreatedAt());
-        r.setUpdatedAt(g.getUpdatedAt());
-        r.setCompletedAt(g.getCompletedAt());
-
-        r.setIdealProgress(calculateIdealProgress(g));
+        r.setId(g.id());
+        r.setName(g.name());
+        r.setDescription(g.description());
+        r.setUnitCode(g.unitCode());
+        r.setUnitName(g.unitName());
+        r.setTargetQuantity(g.targetQuantity());
+        r.setCurrentProgress(g.currentProgress());
+        r.setDeadline(g.deadline());
+        r.setDifficulty(g.difficulty());
+        r.setImportance(g.importance());
+        r.setReason(g.reason());
+        r.setReward(g.reward());
+        r.setPunishment(g.punishment());
+        r.setStatusId(g.statusId());
+        r.setStatusName(g.statusName());
+        r.setCreatedAt(g.createdAt());
+        r.setUpdatedAt(g.updatedAt());
+        r.setCompletedAt(g.completedAt());
+
+        r.setIdealProgress(idealProgress);
         return r;
     }
 
-    private BigDecimal calculateIdealProgress(Goal goal) {
-        List<Task> tasks = taskRepository.findByGoalId(goal.getId()).stream()
-                .filter(t -> t.getDeletedAt() == null)
-                .collect(Collectors.toList());
+    /** Ideal progress of each goal, by id, looking up their tracking tasks in batches. */
+    private Map<Long, BigDecimal> calculateIdealProgress(List<GoalListRow> goals) {
+        // Base calculation on the first active task tracking each goal
+        Map<Long, FrequencyKind> tracking = new HashMap<>();
+        for (int from = 0; from < goals.size(); from += BATCH_SIZE) {
+            List<Long> ids = goals.subList(from, Math.min(from + BATCH_SIZE, goals.size())).stream()
+                    .map(GoalListRow::id)
+                    .collect(Collectors.toList());
+            for (GoalTrackingRow row : taskRepository.findTrackingFrequencies(ids)) {
+                tracking.put(row.goalId(), row.frequencyKind());
+            }
+        }
 
-        if (tasks.isEmpty()) {
-            return BigDecimal.ZERO;
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BigDecimal> result = new HashMap<>();
+        for (GoalListRow goal : goals) {
+            result.put(goal.id(), calculateIdealProgress(goal, tracking.get(goal.id()), now));
         }
+        return result;
+    }
 
-        // Base calculation on the first active task tracking this goal
-        Task task = tasks.get(0);
-        if (task.getFrequency() == null) {
+    private BigDecimal calculateIdealProgress(GoalListRow goal, FrequencyKind frequency, LocalDateTime now) {
+        // No tracking task, or no fixed schedule to measure progress against
+        if (frequency == null || !frequency.hasFixedOccurrences()) {
             return BigDecimal.ZERO;
         }
 
-        long occurrences = countOccurrences(task.getFrequency(), goal.getCreatedAt(), goal.getDeadline());
+        long occurrences = frequency.occurrencesBetween(goal.createdAt(), goal.deadline());
         if (occurrences <= 0) {
             return BigDecimal.ZERO;
         }
 
-        LocalDateTime referenceDate = LocalDateTime.now();
-        if (referenceDate.isAfter(goal.getDeadline())) {
-            referenceDate = goal.getDeadline();
+        LocalDateTime referenceDate = now;
+        if (referenceDate.isAfter(goal.deadline())) {
+            referenceDate = goal.deadline();
         }
 
-        long pastOccurrences = countOccurrences(task.getFrequency(), goal.getCreatedAt(), referenceDate);
+        long pastOccurrences = frequency.occurrencesBetween(goal.createdAt(), referenceDate);
         if (pastOccurrences < 0)
             pastOccurrences = 0;
 
         // idealQuantity = goal.target / occurrences
-        BigDecimal idealQuantity = goal.getTargetQuantity().divide(BigDecimal.valueOf(occurrences), 4,
+        BigDecimal idealQuantity = goal.targetQuantity().divide(BigDecimal.valueOf(occurrences), 4,
                 RoundingMode.HALF_UP);
         BigDecimal idealProgress = idealQuantity.multiply(BigDecimal.valueOf(pastOccurrences));
 
-        if (idealProgress.compareTo(goal.getTargetQuantity()) > 0) {
-            idealProgress = goal.getTargetQuantity();
+        if (idealProgress.compareTo(goal.targetQuantity()) > 0) {
+            idealProgress = goal.targetQuantity();
         }
 
         return idealProgress;
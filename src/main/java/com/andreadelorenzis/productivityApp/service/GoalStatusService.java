@@ -1,7 +1,6 @@
 package com.andreadelorenzis.productivityApp.service;
 
 import com.andreadelorenzis.productivityApp.dto.GoalStatusDTO;
-import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,14 +9,14 @@ import java.util.stream.Collectors;
 @Service
 public class GoalStatusService {
 
-    private final GoalStatusRepository goalStatusRepository;
+    private final ReferenceDataRegistry referenceData;
 
-    public GoalStatusService(GoalStatusRepository goalStatusRepository) {
-        this.goalStatusRepository = goalStatusRepository;
+    public GoalStatusService(ReferenceDataRegistry referenceData) {
+        this.referenceData = referenceData;
     }
 
     public List<GoalStatusDTO> getAllGoalStatuses() {
-        return goalStatusRepository.findAll().stream()
+        return referenceData.getGoalStatuses().stream()
                 .map(status -> new GoalStatusDTO(
                         status.getId(),
                         status.getName()))
@@ -0,0 +1,109 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.event.GoalChangedEvent;
+import com.andreadelorenzis.productivityApp.event.TaskChangedEvent;
+import com.andreadelorenzis.productivityApp.repository.GoalListRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Memoizes each goal's ideal progress for the day. An entry is served only
+ * for the day it was computed on and while the goal's creation date,
+ * deadline and target are unchanged; every committed task write bumps a
+ * generation counter (it may change which task tracks a goal), and entries
+ * computed under an older generation are never served.
+ */
+@Component
+public class IdealProgressCache {
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public IdealProgressCache(MeterRegistry meterRegistry) {
+        this.hits = Counter.builder("goals.ideal_progress.cache.requests").tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("goals.ideal_progress.cache.requests").tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("goals.ideal_progress.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * The ideal progress of each of {@code goals} on {@code today}, by goal id;
+     * {@code loader} is called once, with the goals that are not cached.
+     */
+    public Map<Long, BigDecimal> getAll(List<GoalListRow> goals, LocalDate today,
+            Function<List<GoalListRow>, Map<Long, BigDecimal>> loader) {
+        long current = generation.get();
+        Map<Long, BigDecimal> result = new HashMap<>();
+        List<GoalListRow> missing = new ArrayList<>();
+
+        for (GoalListRow goal : goals) {
+            Entry entry = entries.get(goal.id());
+            if (entry != null && entry.matches(goal, today, current)) {
+                result.put(goal.id(), entry.idealProgress);
+            } else {
+                missing.add(goal);
+            }
+        }
+        hits.increment(result.size());
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        misses.increment(missing.size());
+        Map<Long, BigDecimal> loaded = loader.apply(missing);
+        for (GoalListRow goal : missing) {
+            BigDecimal idealProgress = loaded.get(goal.id());
+            entries.put(goal.id(), new Entry(current, today, goal.createdAt(), goal.deadline(),
+                    goal.targetQuantity(), idealProgress));
+            result.put(goal.id(), idealProgress);
+        }
+        return result;
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        invalidateAll();
+    }
+
+    // Changed inputs are caught by the entry check; this only frees the memory
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGoalChanged(GoalChangedEvent event) {
+        entries.remove(event.getGoalId());
+    }
+
+    private record Entry(long generation, LocalDate day, LocalDateTime createdAt, LocalDateTime deadline,
+            BigDecimal targetQuantity, BigDecimal idealProgress) {
+
+        boolean matches(GoalListRow goal, LocalDate today, long currentGeneration) {
+            return generation == currentGeneration
+                    && day.equals(today)
+                    && Objects.equals(createdAt, goal.createdAt())
+                    && Objects.equals(deadline, goal.deadline())
+                    && Objects.equals(targetQuantity, goal.targetQuantity());
+        }
+    }
+}
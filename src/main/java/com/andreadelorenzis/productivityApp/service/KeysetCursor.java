@@ -0,0 +1,92 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque pagination cursor: the sort keys of the last row of a page,
+ * URL-safe Base64 encoded. Clients only ever echo it back.
+ */
+final class KeysetCursor {
+
+    static final int MAX_PAGE_SIZE = 200;
+
+    private static final String SEPARATOR = "|";
+
+    private final String[] keys;
+
+    private KeysetCursor(String[] keys) {
+        this.keys = keys;
+    }
+
+    static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    static String encode(Object... keys) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static KeysetCursor decode(String cursor, int expectedKeys) {
+        String[] keys;
+        try {
+            keys = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+        if (keys.length != expectedKeys) {
+            throw invalid();
+        }
+        return new KeysetCursor(keys);
+    }
+
+    long longAt(int index) {
+        try {
+            return Long.parseLong(keys[index]);
+        } catch (NumberFormatException e) {
+            throw invalid();
+        }
+    }
+
+    int intAt(int index) {
+        try {
+            return Integer.parseInt(keys[index]);
+        } catch (NumberFormatException e) {
+            throw invalid();
+        }
+    }
+
+    boolean booleanAt(int index) {
+        switch (keys[index]) {
+            case "true":
+                return true;
+            case "false":
+                return false;
+            default:
+                throw invalid();
+        }
+    }
+
+    LocalDateTime dateTimeAt(int index) {
+        try {
+            return LocalDateTime.parse(keys[index]);
+        } catch (DateTimeParseException e) {
+            throw invalid();
+        }
+    }
+
+    private static IllegalArgumentException invalid() {
+        return new IllegalArgumentException("Invalid cursor");
+    }
+}
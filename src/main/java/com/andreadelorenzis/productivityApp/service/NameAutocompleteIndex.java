@@ -0,0 +1,194 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.dto.NameSuggestionDTO;
+import com.andreadelorenzis.productivityApp.event.GoalChangedEvent;
+import com.andreadelorenzis.productivityApp.event.TaskChangedEvent;
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.NameRow;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory prefix index over the names of all active tasks and goals, for
+ * type-ahead. Names are kept, lower-cased, in one sorted map per importance,
+ * so a lookup walks the importances from the highest down and reads each
+ * prefix range in order until it has enough names: the cost depends on the
+ * number of importances and results, not on the number of names.
+ *
+ * The index is loaded on first use and then kept current from
+ * {@link TaskChangedEvent}s and {@link GoalChangedEvent}s. Lookups never
+ * block; writers are serialised.
+ */
+@Component
+public class NameAutocompleteIndex {
+
+    public static final String TYPE_TASK = "task";
+    public static final String TYPE_GOAL = "goal";
+
+    // Sorts after any character a name can continue with
+    private static final char PREFIX_END = Character.MAX_VALUE;
+
+    private final TaskRepository taskRepository;
+    private final GoalRepository goalRepository;
+
+    private final NavigableMap<Integer, NavigableMap<String, NameSuggestionDTO>> byImportance =
+            new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    // Current key and importance of every indexed task and goal, by "type:id"
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    public NameAutocompleteIndex(TaskRepository taskRepository, GoalRepository goalRepository) {
+        this.taskRepository = taskRepository;
+        this.goalRepository = goalRepository;
+    }
+
+    /**
+     * At most {@code limit} tasks and goals whose name starts with
+     * {@code prefix}, ignoring case: highest importance first, then by name.
+     */
+    public List<NameSuggestionDTO> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("prefix is required");
+        }
+        if (prefix.length() > SearchTerm.MAX_LENGTH) {
+            throw new IllegalArgumentException("prefix must be at most " + SearchTerm.MAX_LENGTH + " characters");
+        }
+        SearchTerm.checkLimit(limit);
+        ensureLoaded();
+
+        String from = normalize(prefix);
+        String to = from + PREFIX_END;
+        List<NameSuggestionDTO> result = new ArrayList<>(limit);
+        for (NavigableMap<String, NameSuggestionDTO> names : byImportance.values()) {
+            for (NameSuggestionDTO suggestion : names.subMap(from, true, to, false).values()) {
+                result.add(suggestion);
+                if (result.size() == limit) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        synchronized (this) {
+            // Not loaded yet: the first load will read the committed state anyway
+            if (!loaded) {
+                return;
+            }
+            Map<Long, NameRow> rows = loadTaskRows(event.getTaskIds());
+            for (Long id : event.getTaskIds()) {
+                NameRow row = rows.get(id);
+                if (row != null) {
+                    put(TYPE_TASK, row);
+                } else {
+                    remove(TYPE_TASK, id);
+                }
+            }
+        }
+    }
+
+    // Committed names of the active ones among the tasks, by id
+    private Map<Long, NameRow> loadTaskRows(List<Long> taskIds) {
+        Map<Long, NameRow> rows = new HashMap<>();
+        if (taskIds.size() == 1) {
+            taskRepository.findNameRowById(taskIds.get(0)).ifPresent(row -> rows.put(row.id(), row));
+            return rows;
+        }
+        for (int from = 0; from < taskIds.size(); from += TaskRepository.ID_CHUNK_SIZE) {
+            List<Long> chunk = taskIds.subList(from, Math.min(from + TaskRepository.ID_CHUNK_SIZE, taskIds.size()));
+            for (NameRow row : taskRepository.findNameRowsByIdIn(chunk)) {
+                rows.put(row.id(), row);
+            }
+        }
+        return rows;
+    }
+
+    // A goal's importance is also the rank of its tasks
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGoalChanged(GoalChangedEvent event) {
+        synchronized (this) {
+            if (!loaded) {
+                return;
+            }
+            Optional<NameRow> row = goalRepository.findNameRowById(event.getGoalId());
+            if (row.isPresent()) {
+                put(TYPE_GOAL, row.get());
+            } else {
+                remove(TYPE_GOAL, event.getGoalId());
+            }
+            for (NameRow task : taskRepository.findNameRowsByGoalId(event.getGoalId())) {
+                put(TYPE_TASK, task);
+            }
+        }
+    }
+
+    /** Discards the index; it is rebuilt from the database on next use. */
+    public synchronized void reload() {
+        loaded = false;
+        ensureLoaded();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            byImportance.clear();
+            slots.clear();
+            for (NameRow row : taskRepository.findAllNameRows()) {
+                put(TYPE_TASK, row);
+            }
+            for (NameRow row : goalRepository.findAllNameRows()) {
+                put(TYPE_GOAL, row);
+            }
+            loaded = true;
+        }
+    }
+
+    private void put(String type, NameRow row) {
+        remove(type, row.id());
+        if (row.name() == null) {
+            return;
+        }
+        // The type and id keep equal names apart
+        String key = normalize(row.name()) + '\0' + type + ':' + row.id();
+        byImportance.computeIfAbsent(row.importance(), i -> new ConcurrentSkipListMap<>())
+                .put(key, new NameSuggestionDTO(type, row.id(), row.name(), row.importance()));
+        slots.put(type + ':' + row.id(), new Slot(row.importance(), key));
+    }
+
+    private void remove(String type, Long id) {
+        Slot slot = slots.remove(type + ':' + id);
+        if (slot != null) {
+            NavigableMap<String, NameSuggestionDTO> names = byImportance.get(slot.importance);
+            if (names != null) {
+                names.remove(slot.key);
+            }
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private record Slot(int importance, String key) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a write in its own transaction and, when it loses an optimistic lock
+ * race (another request updated the same task or goal first), runs it again
+ * on fresh data, up to {@link #MAX_ATTEMPTS} times with a short random pause.
+ *
+ * Inside an existing transaction the write runs once: the stale entities
+ * belong to the caller, so only the caller can retry.
+ */
+@Component
+public class OptimisticRetry {
+
+    static final int MAX_ATTEMPTS = 5;
+
+    private final TransactionOperations transactions;
+
+    public OptimisticRetry(TransactionOperations transactions) {
+        this.transactions = transactions;
+    }
+
+    /**
+     * @throws OptimisticLockingFailureException if every attempt lost the race
+     */
+    public <T> T execute(Supplier<T> write) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return write.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactions.execute(status -> write.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                pause(attempt);
+            }
+        }
+    }
+
+    public void run(Runnable write) {
+        execute(() -> {
+            write.run();
+            return null;
+        });
+    }
+
+    // Random, growing pauses keep the losers from colliding again in step
+    private static void pause(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L << attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying", e);
+        }
+    }
+}
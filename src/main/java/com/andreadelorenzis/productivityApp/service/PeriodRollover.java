@@ -0,0 +1,106 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.event.TaskChangedEvent;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.PeriodStarts;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Resets progress and completion of recurring tasks once their daily,
+ * weekly (from Monday), monthly or yearly period has ended, and zeroes the
+ * streaks that missed an occurrence. Each is one UPDATE per range of
+ * CHUNK_SIZE ids, each committed on its own, and only matches tasks still
+ * holding state from an earlier period: a run that stops halfway leaves
+ * every task either reset or untouched, and the next run (at startup, or
+ * the next midnight) finishes the rest.
+ */
+@Component
+public class PeriodRollover {
+
+    static final int CHUNK_SIZE = 10_000;
+
+    private final TaskRepository taskRepository;
+    private final FrequencyRepository frequencyRepository;
+    private final TransactionOperations transactions;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Counter reset;
+    private final Counter streaksBroken;
+
+    public PeriodRollover(TaskRepository taskRepository, FrequencyRepository frequencyRepository,
+            TransactionOperations transactions, ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
+        this.taskRepository = taskRepository;
+        this.frequencyRepository = frequencyRepository;
+        this.transactions = transactions;
+        this.eventPublisher = eventPublisher;
+        this.reset = Counter.builder("tasks.rollover.reset").register(meterRegistry);
+        this.streaksBroken = Counter.builder("tasks.rollover.streaks_broken").register(meterRegistry);
+    }
+
+    // Catches up on boundaries passed while the application was down
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rollOver(LocalDateTime.now());
+    }
+
+    @Scheduled(cron = "${app.rollover.cron:0 0 0 * * *}")
+    public void rollOverScheduled() {
+        rollOver(LocalDateTime.now());
+    }
+
+    /**
+     * Resets every recurring task whose state belongs to a period that
+     * ended before {@code now}. Runs one at a time in this process.
+     *
+     * @return the number of tasks reset
+     */
+    public synchronized int rollOver(LocalDateTime now) {
+        Long minId = taskRepository.findMinId();
+        Long maxId = taskRepository.findMaxId();
+        if (minId == null) {
+            return 0;
+        }
+
+        LocalDateTime dayStart = now.truncatedTo(ChronoUnit.DAYS);
+        PeriodStarts periods = new PeriodStarts(
+                frequencyId("daily"), dayStart,
+                frequencyId("weekly"), dayStart.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                frequencyId("monthly"), dayStart.withDayOfMonth(1),
+                frequencyId("yearly"), dayStart.withDayOfYear(1));
+
+        int total = 0;
+        int broken = 0;
+        for (long from = minId; from <= maxId; from += CHUNK_SIZE) {
+            long fromId = from;
+            long toId = from + CHUNK_SIZE - 1;
+            total += transactions.execute(status -> taskRepository.rollOver(fromId, toId, periods, now));
+            broken += transactions.execute(status -> taskRepository.breakStreaks(fromId, toId, dayStart.toLocalDate()));
+        }
+
+        reset.increment(total);
+        streaksBroken.increment(broken);
+        if (total > 0 || broken > 0) {
+            eventPublisher.publishEvent(TaskChangedEvent.progressReset());
+        }
+        return total;
+    }
+
+    private Long frequencyId(String name) {
+        return frequencyRepository.findByName(name).map(Frequency::getId).orElse(null);
+    }
+}
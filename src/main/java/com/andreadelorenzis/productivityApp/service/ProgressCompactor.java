@@ -0,0 +1,117 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.repository.GoalDayDeltaRow;
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.ProgressEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Folds progress events into Goal.currentProgress. Each batch runs in one
+ * transaction: the oldest unfolded events are stamped as folded and their
+ * sum per goal is added to the goal row, so readers see either the events
+ * or the folded value, never both or neither. Deltas are folded as they
+ * are and only reads clamp the running total at zero, so the value read is
+ * the same before and after a fold, however the events are batched. The same transaction adds the events to
+ * the goal's daily and weekly progress buckets (see GoalProgressRollup),
+ * by the day each was appended.
+ *
+ * Events are picked by id and stamped before they are summed; a compactor
+ * on another instance that got to some of them first makes this batch roll
+ * back instead of folding them twice.
+ */
+@Component
+public class ProgressCompactor {
+
+    static final int BATCH_SIZE = 500;
+
+    private final ProgressEventRepository progressEvents;
+    private final GoalRepository goalRepository;
+    private final GoalProgressRollup rollup;
+    private final TransactionOperations transactions;
+
+    private final Counter folded;
+    private final Counter conflicts;
+
+    public ProgressCompactor(ProgressEventRepository progressEvents, GoalRepository goalRepository,
+            GoalProgressRollup rollup, TransactionOperations transactions, MeterRegistry meterRegistry) {
+        this.progressEvents = progressEvents;
+        this.goalRepository = goalRepository;
+        this.rollup = rollup;
+        this.transactions = transactions;
+        this.folded = Counter.builder("goals.progress_events.folded").register(meterRegistry);
+        this.conflicts = Counter.builder("goals.progress_events.compaction.conflicts").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.progress.compaction-interval:PT5S}")
+    public void compactScheduled() {
+        try {
+            compact();
+        } catch (OptimisticLockingFailureException e) {
+            // Another instance is compacting; the next run picks up the rest
+            conflicts.increment();
+        }
+    }
+
+    /**
+     * Folds every event that is unfolded when called, batch by batch. Runs
+     * one at a time in this process.
+     *
+     * @return the number of events folded
+     * @throws OptimisticLockingFailureException if another instance folded some of the same events
+     */
+    public synchronized int compact() {
+        int total = 0;
+        int batch;
+        do {
+            batch = transactions.execute(status -> compactBatch());
+            total += batch;
+        } while (batch == BATCH_SIZE);
+        return total;
+    }
+
+    private int compactBatch() {
+        List<Long> ids = progressEvents.findPendingIds(Limit.of(BATCH_SIZE));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        if (progressEvents.markFolded(ids, LocalDateTime.now()) != ids.size()) {
+            throw new OptimisticLockingFailureException("Progress events were folded concurrently");
+        }
+        // Rows come by goal, then day
+        List<GoalDayDeltaRow> rows = progressEvents.sumByGoalAndDay(ids);
+        SortedMap<LocalDate, BigDecimal> days = new TreeMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            GoalDayDeltaRow row = rows.get(i);
+            days.put(row.day(), row.delta());
+            if (i + 1 == rows.size() || !rows.get(i + 1).goalId().equals(row.goalId())) {
+                fold(row.goalId(), days);
+                days.clear();
+            }
+        }
+        folded.increment(ids.size());
+        return ids.size();
+    }
+
+    private void fold(Long goalId, SortedMap<LocalDate, BigDecimal> days) {
+        BigDecimal delta = days.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (goalRepository.addProgress(goalId, delta) == 0) {
+            // The goal row is gone; nothing to roll up either
+            return;
+        }
+        // Read back under the row lock the update took
+        rollup.recordFolded(goalId, goalRepository.findFoldedProgress(goalId), days);
+    }
+}
@@ -0,0 +1,147 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.GoalStatus;
+import com.andreadelorenzis.productivityApp.entity.Unit;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
+import com.andreadelorenzis.productivityApp.repository.UnitRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory copy of the reference tables (frequencies, units and goal
+ * statuses), which are seeded and practically never change. Reads are served
+ * from an immutable snapshot; {@link #refresh()} loads a new one and swaps it
+ * in whole, bumping the version, so a reader never sees a half-loaded mix.
+ *
+ * The snapshot is loaded when the application is ready (or on first use) and
+ * only reloaded through {@link #refresh()}. The entities it hands out are
+ * detached: they may be assigned to tasks and goals, but must not be modified.
+ */
+@Component
+public class ReferenceDataRegistry {
+
+    private final FrequencyRepository frequencyRepository;
+    private final UnitRepository unitRepository;
+    private final GoalStatusRepository statusRepository;
+
+    private volatile Snapshot snapshot;
+
+    public ReferenceDataRegistry(FrequencyRepository frequencyRepository, UnitRepository unitRepository,
+            GoalStatusRepository statusRepository) {
+        this.frequencyRepository = frequencyRepository;
+        this.unitRepository = unitRepository;
+        this.statusRepository = statusRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /** Reloads the reference tables and returns the version of the new snapshot. */
+    public synchronized long refresh() {
+        long version = snapshot != null ? snapshot.version + 1 : 1;
+        snapshot = new Snapshot(version,
+                frequencyRepository.findAll(Sort.by("id")),
+                unitRepository.findAll(Sort.by("id")),
+                statusRepository.findAll(Sort.by("id")));
+        return version;
+    }
+
+    public long getVersion() {
+        return current().version;
+    }
+
+    public List<Frequency> getFrequencies() {
+        return current().frequencies;
+    }
+
+    public Optional<Frequency> findFrequency(Long id) {
+        return lookup(current().frequenciesById, id);
+    }
+
+    public List<Unit> getUnits() {
+        return current().units;
+    }
+
+    public Optional<Unit> findUnitByCode(String code) {
+        return lookup(current().unitsByCode, code);
+    }
+
+    public List<GoalStatus> getGoalStatuses() {
+        return current().statuses;
+    }
+
+    public Optional<GoalStatus> findGoalStatus(Long id) {
+        return lookup(current().statusesById, id);
+    }
+
+    public Optional<GoalStatus> findGoalStatusByName(String name) {
+        return lookup(current().statusesByName, name);
+    }
+
+    // The immutable maps reject null keys
+    private static <K, V> Optional<V> lookup(Map<K, V> map, K key) {
+        return key == null ? Optional.empty() : Optional.ofNullable(map.get(key));
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                refresh();
+            }
+            return snapshot;
+        }
+    }
+
+    private static final class Snapshot {
+
+        final long version;
+        final List<Frequency> frequencies;
+        final Map<Long, Frequency> frequenciesById;
+        final List<Unit> units;
+        final Map<String, Unit> unitsByCode;
+        final List<GoalStatus> statuses;
+        final Map<Long, GoalStatus> statusesById;
+        final Map<String, GoalStatus> statusesByName;
+
+        Snapshot(long version, List<Frequency> frequencies, List<Unit> units, List<GoalStatus> statuses) {
+            this.version = version;
+            this.frequencies = List.copyOf(frequencies);
+            this.units = List.copyOf(units);
+            this.statuses = List.copyOf(statuses);
+
+            Map<Long, Frequency> frequenciesById = new HashMap<>();
+            frequencies.forEach(f -> frequenciesById.put(f.getId(), f));
+            this.frequenciesById = Map.copyOf(frequenciesById);
+
+            Map<String, Unit> unitsByCode = new HashMap<>();
+            units.stream().filter(u -> u.getCode() != null).forEach(u -> unitsByCode.put(u.getCode(), u));
+            this.unitsByCode = Map.copyOf(unitsByCode);
+
+            Map<Long, GoalStatus> statusesById = new HashMap<>();
+            Map<String, GoalStatus> statusesByName = new HashMap<>();
+            statuses.forEach(s -> {
+                statusesById.put(s.getId(), s);
+                if (s.getName() != null) {
+                    statusesByName.put(s.getName(), s);
+                }
+            });
+            this.statusesById = Map.copyOf(statusesById);
+            this.statusesByName = Map.copyOf(statusesByName);
+        }
+    }
+}
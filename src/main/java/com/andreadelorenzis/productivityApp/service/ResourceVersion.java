@@ -0,0 +1,49 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.event.GoalChangedEvent;
+import com.andreadelorenzis.productivityApp.event.TaskChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cheap version of everything the task and goal GETs return, used as their
+ * ETag so an unchanged poll is answered with 304 before anything is loaded.
+ * Every committed task or goal write bumps a counter; the tag also carries
+ * the reference data version and today's date (due-today and ideal progress
+ * change with the day), plus a token of this process so tags handed out
+ * before a restart never match.
+ *
+ * Callers take the tag before loading: a write that commits in between makes
+ * the next poll miss, never serves stale data as current.
+ */
+@Component
+public class ResourceVersion {
+
+    private final String instance = Long.toString(UUID.randomUUID().getMostSignificantBits() & Long.MAX_VALUE, 36);
+    private final AtomicLong writes = new AtomicLong();
+    private final ReferenceDataRegistry referenceData;
+
+    public ResourceVersion(ReferenceDataRegistry referenceData) {
+        this.referenceData = referenceData;
+    }
+
+    /** The current ETag value, unquoted. */
+    public String currentTag() {
+        return instance + '-' + writes.get() + '-' + referenceData.getVersion() + '-' + LocalDate.now();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        writes.incrementAndGet();
+    }
+
+    // Goal name, unit and importance also appear in the task responses
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGoalChanged(GoalChangedEvent event) {
+        writes.incrementAndGet();
+    }
+}
@@ -0,0 +1,56 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import java.util.Locale;
+
+/**
+ * A user search string turned into the lower-case LIKE patterns of the
+ * search queries, with the LIKE wildcards escaped so they match literally.
+ * The trigram indexes (db/migration/003_search_trigram_indexes.sql) serve
+ * the contains pattern.
+ */
+final class SearchTerm {
+
+    static final int MAX_LENGTH = 100;
+    static final int MAX_RESULTS = 50;
+
+    private final String exact;
+    private final String prefix;
+    private final String contains;
+
+    private SearchTerm(String exact, String prefix, String contains) {
+        this.exact = exact;
+        this.prefix = prefix;
+        this.contains = contains;
+    }
+
+    static SearchTerm of(String query) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search text is required");
+        }
+        String text = query.strip().toLowerCase(Locale.ROOT);
+        if (text.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Search text must be at most " + MAX_LENGTH + " characters");
+        }
+        String escaped = text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return new SearchTerm(text, escaped + "%", "%" + escaped + "%");
+    }
+
+    static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_RESULTS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_RESULTS);
+        }
+    }
+
+    /** The lower-cased text itself, for equality with a lower-cased name. */
+    String exact() {
+        return exact;
+    }
+
+    String prefix() {
+        return prefix;
+    }
+
+    String contains() {
+        return contains;
+    }
+}
@@ -0,0 +1,75 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.repository.TaskCompletionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+
+/**
+ * Keeps the monthly partitions of task_completions ahead of the calendar.
+ * Migration 008 creates them for 24 months only; without this job new rows
+ * would then land in task_completions_default, and a default partition
+ * holding rows of a month blocks creating that month's partition. At
+ * startup and on the first of every month it creates whatever is missing
+ * up to {@code app.completions.partition-months} months ahead. Other
+ * databases don't partition the table, so there it does nothing.
+ */
+@Component
+public class TaskCompletionPartitions {
+
+    private final TaskCompletionRepository completions;
+    private final TransactionOperations transactions;
+    private final DataSource dataSource;
+    private final int monthsAhead;
+
+    public TaskCompletionPartitions(TaskCompletionRepository completions, TransactionOperations transactions,
+            DataSource dataSource, @Value("${app.completions.partition-months:24}") int monthsAhead) {
+        this.completions = completions;
+        this.transactions = transactions;
+        this.dataSource = dataSource;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        createPartitions(LocalDate.now());
+    }
+
+    @Scheduled(cron = "${app.completions.partition-cron:0 30 0 1 * *}")
+    public void createPartitionsScheduled() {
+        createPartitions(LocalDate.now());
+    }
+
+    /**
+     * Creates the partitions from the month of {@code today} through
+     * monthsAhead months later; existing ones are kept.
+     *
+     * @return whether the database is partitioned, so anything was checked
+     */
+    public boolean createPartitions(LocalDate today) {
+        if (!isPostgres()) {
+            return false;
+        }
+        transactions.executeWithoutResult(status -> completions.createPartitions(today.withDayOfMonth(1), monthsAhead));
+        return true;
+    }
+
+    // Only PostgreSQL runs the migrations that partition the table
+    private boolean isPostgres() {
+        try {
+            return "PostgreSQL".equals(JdbcUtils.extractDatabaseMetaData(dataSource,
+                    DatabaseMetaData::getDatabaseProductName));
+        } catch (MetaDataAccessException e) {
+            return false;
+        }
+    }
+}
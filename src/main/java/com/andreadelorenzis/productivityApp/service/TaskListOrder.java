@@ -0,0 +1,146 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.repository.TaskListRow;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Listing order of tasks. The base order is goal importance DESC, then
+ * createdAt DESC, ties keeping their input order; the view order puts urgent
+ * tasks first and otherwise follows the base order.
+ *
+ * The sort keys are read once into primitive arrays. Rows are bucketed by
+ * importance with a counting sort (importance only takes a handful of
+ * values), and each bucket is merge sorted on the createdAt key; the list
+ * queries already return rows newest first, so that step is usually a single
+ * linear check per bucket.
+ */
+final class TaskListOrder {
+
+    // Wider importance ranges skip the counting sort and merge sort on both keys
+    private static final int MAX_BUCKETS = 64;
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private final int[] importance;
+    private final long[] created;
+
+    private TaskListOrder(int[] importance, long[] created) {
+        this.importance = importance;
+        this.created = created;
+    }
+
+    /** Indices into {@code rows}, in base order. */
+    static int[] baseOrder(List<TaskListRow> rows) {
+        int n = rows.size();
+        int[] importance = new int[n];
+        long[] created = new long[n];
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            TaskListRow row = rows.get(i);
+            importance[i] = row.goalImportance();
+            created[i] = createdKey(row.createdAt());
+            min = Math.min(min, importance[i]);
+            max = Math.max(max, importance[i]);
+        }
+
+        TaskListOrder order = new TaskListOrder(importance, created);
+        int[] indices = new int[n];
+        int[] buffer = new int[n];
+        if (n > 0 && (long) max - min < MAX_BUCKETS) {
+            // Bucket ends, highest importance first
+            int buckets = max - min + 1;
+            int[] ends = new int[buckets + 1];
+            for (int i = 0; i < n; i++) {
+                ends[max - importance[i] + 1]++;
+            }
+            for (int b = 1; b <= buckets; b++) {
+                ends[b] += ends[b - 1];
+            }
+            int[] next = ends.clone();
+            for (int i = 0; i < n; i++) {
+                indices[next[max - importance[i]]++] = i;
+            }
+            for (int b = 0; b < buckets; b++) {
+                order.sort(indices, buffer, ends[b], ends[b + 1]);
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                indices[i] = i;
+            }
+            order.sort(indices, buffer, 0, n);
+        }
+        return indices;
+    }
+
+    /**
+     * For each base rank, the position of that row in the view order: urgent
+     * rows first, each group in base order.
+     */
+    static int[] viewPositions(List<TaskListRow> rows, int[] baseOrder) {
+        int urgent = 0;
+        for (int i = 0; i < baseOrder.length; i++) {
+            if (rows.get(baseOrder[i]).urgent()) {
+                urgent++;
+            }
+        }
+        int[] positions = new int[baseOrder.length];
+        int nextUrgent = 0;
+        int nextOther = urgent;
+        for (int i = 0; i < baseOrder.length; i++) {
+            positions[i] = rows.get(baseOrder[i]).urgent() ? nextUrgent++ : nextOther++;
+        }
+        return positions;
+    }
+
+    // Nanoseconds since the epoch; exact for any timestamp between 1678 and 2262.
+    // A missing timestamp sorts after every other row of its importance.
+    private static long createdKey(LocalDateTime createdAt) {
+        if (createdAt == null) {
+            return Long.MIN_VALUE;
+        }
+        return createdAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + createdAt.getNano();
+    }
+
+    private boolean before(int a, int b) {
+        if (importance[a] != importance[b]) {
+            return importance[a] > importance[b];
+        }
+        return created[a] > created[b];
+    }
+
+    // Stable merge sort of indices[from, to), skipping merges of runs already in order
+    private void sort(int[] indices, int[] buffer, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int index = indices[i];
+                int j = i - 1;
+                while (j >= from && before(index, indices[j])) {
+                    indices[j + 1] = indices[j];
+                    j--;
+                }
+                indices[j + 1] = index;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(indices, buffer, from, mid);
+        sort(indices, buffer, mid, to);
+        if (!before(indices[mid], indices[mid - 1])) {
+            return;
+        }
+
+        System.arraycopy(indices, from, buffer, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right < to && (left >= mid || before(buffer[right], buffer[left]))) {
+                indices[i] = buffer[right++];
+            } else {
+                indices[i] = buffer[left++];
+            }
+        }
+    }
+}
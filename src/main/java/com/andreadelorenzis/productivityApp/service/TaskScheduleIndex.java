@@ -0,0 +1,330 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.entity.FrequencyKind;
+import com.andreadelorenzis.productivityApp.entity.TaskSchedule;
+import com.andreadelorenzis.productivityApp.event.TaskChangedEvent;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskScheduleRow;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory, column-oriented copy of the schedules of all active tasks
+ * (id, frequency kind, week/month masks and the six year-bitmap words in
+ * parallel primitive arrays). Range queries turn every schedule into a bitset
+ * over the days of the range with a handful of OR operations, so a month view
+ * is answered in a single pass over the tasks without touching the database.
+ *
+ * The index is loaded on first use and then kept current from
+ * {@link TaskChangedEvent}s, re-reading the committed schedules of the changed
+ * tasks.
+ */
+@Component
+public class TaskScheduleIndex {
+
+    /** Longest range a single query may cover. */
+    public static final int MAX_RANGE_DAYS = 366;
+
+    private static final int YEAR_WORDS = 6;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final TaskRepository taskRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private FrequencyKind[] kinds = new FrequencyKind[INITIAL_CAPACITY];
+    private int[] weekMasks = new int[INITIAL_CAPACITY];
+    private int[] monthMasks = new int[INITIAL_CAPACITY];
+    private long[] yearWords = new long[INITIAL_CAPACITY * YEAR_WORDS];
+    private int size;
+    private final Map<Long, Integer> slotById = new HashMap<>();
+
+    private volatile boolean loaded;
+
+    public TaskScheduleIndex(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * Returns, for every day from {@code from} to {@code to} inclusive, the ids
+     * of the tasks due on that day under the same rules as
+     * TaskService.isTaskDue. Element {@code i} is the day {@code from + i}.
+     */
+    public long[][] dueTaskIds(LocalDate from, LocalDate to, boolean includeOneTimeTasks) {
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        if (days < 1 || days > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Range must cover between 1 and " + MAX_RANGE_DAYS + " days");
+        }
+        ensureLoaded();
+
+        RangeMasks range = new RangeMasks(from, days);
+        int words = range.words;
+        long[] due = new long[words];
+
+        long[][] result = new long[days][];
+        int[] counts = new int[days];
+        long[][] buffers = new long[days][];
+
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < size; slot++) {
+                if (!range.dueDays(kinds[slot], weekMasks[slot], monthMasks[slot], yearWords,
+                        slot * YEAR_WORDS, includeOneTimeTasks, due)) {
+                    continue;
+                }
+                long id = ids[slot];
+                for (int w = 0; w < words; w++) {
+                    long bits = due[w];
+                    while (bits != 0) {
+                        int day = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        long[] buffer = buffers[day];
+                        if (buffer == null) {
+                            buffer = buffers[day] = new long[16];
+                        } else if (counts[day] == buffer.length) {
+                            buffer = buffers[day] = Arrays.copyOf(buffer, buffer.length * 2);
+                        }
+                        buffer[counts[day]++] = id;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        for (int day = 0; day < days; day++) {
+            result[day] = buffers[day] == null ? new long[0] : Arrays.copyOf(buffers[day], counts[day]);
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        synchronized (this) {
+            // Not loaded yet: the first load will read the committed state anyway
+            if (!loaded) {
+                return;
+            }
+            Map<Long, TaskScheduleRow> rows = loadRows(event.getTaskIds());
+            lock.writeLock().lock();
+            try {
+                for (Long id : event.getTaskIds()) {
+                    TaskScheduleRow row = rows.get(id);
+                    if (row != null) {
+                        put(row);
+                    } else {
+                        remove(id);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Committed schedules of the active ones among the tasks, by id
+    private Map<Long, TaskScheduleRow> loadRows(List<Long> taskIds) {
+        Map<Long, TaskScheduleRow> rows = new HashMap<>();
+        if (taskIds.size() == 1) {
+            taskRepository.findScheduleRowById(taskIds.get(0)).ifPresent(row -> rows.put(row.id(), row));
+            return rows;
+        }
+        for (int from = 0; from < taskIds.size(); from += TaskRepository.ID_CHUNK_SIZE) {
+            List<Long> chunk = taskIds.subList(from, Math.min(from + TaskRepository.ID_CHUNK_SIZE, taskIds.size()));
+            for (TaskScheduleRow row : taskRepository.findScheduleRowsByIdIn(chunk)) {
+                rows.put(row.id(), row);
+            }
+        }
+        return rows;
+    }
+
+    /** Discards the index; it is rebuilt from the database on next use. */
+    public synchronized void reload() {
+        loaded = false;
+        ensureLoaded();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            List<TaskScheduleRow> rows = taskRepository.findAllScheduleRows();
+            lock.writeLock().lock();
+            try {
+                size = 0;
+                slotById.clear();
+                ensureCapacity(rows.size());
+                for (TaskScheduleRow row : rows) {
+                    put(row);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            loaded = true;
+        }
+    }
+
+    private void put(TaskScheduleRow row) {
+        Integer existing = slotById.get(row.id());
+        int slot;
+        if (existing != null) {
+            slot = existing;
+        } else {
+            ensureCapacity(size + 1);
+            slot = size++;
+            slotById.put(row.id(), slot);
+        }
+
+        TaskSchedule schedule = row.schedule() != null ? row.schedule() : new TaskSchedule();
+        ids[slot] = row.id();
+        kinds[slot] = row.frequencyKind();
+        weekMasks[slot] = schedule.getWeekDaysMask();
+        monthMasks[slot] = schedule.getMonthDaysMask();
+        for (int w = 0; w < YEAR_WORDS; w++) {
+            yearWords[slot * YEAR_WORDS + w] = schedule.getYearDaysWord(w);
+        }
+    }
+
+    private void remove(Long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        // Move the last row into the freed slot to keep the columns dense
+        int last = --size;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            kinds[slot] = kinds[last];
+            weekMasks[slot] = weekMasks[last];
+            monthMasks[slot] = monthMasks[last];
+            System.arraycopy(yearWords, last * YEAR_WORDS, yearWords, slot * YEAR_WORDS, YEAR_WORDS);
+            slotById.put(ids[slot], slot);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        kinds = Arrays.copyOf(kinds, newCapacity);
+        weekMasks = Arrays.copyOf(weekMasks, newCapacity);
+        monthMasks = Arrays.copyOf(monthMasks, newCapacity);
+        yearWords = Arrays.copyOf(yearWords, newCapacity * YEAR_WORDS);
+    }
+
+    /**
+     * For each selectable day (weekday 1-7, day of month 1-31, day of year
+     * 1-366), the bitset of range days it falls on, clamping included.
+     */
+    private static final class RangeMasks {
+
+        final int words;
+        final long[] all;
+        final long[][] byWeekDay = new long[TaskSchedule.MAX_WEEK_DAY + 1][];
+        final long[][] byMonthDay = new long[TaskSchedule.MAX_MONTH_DAY + 1][];
+        final long[][] byYearDay = new long[TaskSchedule.MAX_YEAR_DAY + 1][];
+
+        RangeMasks(LocalDate from, int days) {
+            words = (days + 63) >>> 6;
+            all = new long[words];
+            for (int d = 0; d <= TaskSchedule.MAX_WEEK_DAY; d++) {
+                byWeekDay[d] = new long[words];
+            }
+            for (int d = 0; d <= TaskSchedule.MAX_MONTH_DAY; d++) {
+                byMonthDay[d] = new long[words];
+            }
+            for (int d = 0; d <= TaskSchedule.MAX_YEAR_DAY; d++) {
+                byYearDay[d] = new long[words];
+            }
+
+            LocalDate date = from;
+            for (int i = 0; i < days; i++, date = date.plusDays(1)) {
+                int w = i >>> 6;
+                long bit = 1L << (i & 63);
+                all[w] |= bit;
+                byWeekDay[date.getDayOfWeek().getValue()][w] |= bit;
+
+                int dayOfMonth = date.getDayOfMonth();
+                int lastMonthDay = dayOfMonth == date.lengthOfMonth() ? TaskSchedule.MAX_MONTH_DAY : dayOfMonth;
+                for (int d = dayOfMonth; d <= lastMonthDay; d++) {
+                    byMonthDay[d][w] |= bit;
+                }
+
+                int dayOfYear = date.getDayOfYear();
+                int lastYearDay = dayOfYear == date.lengthOfYear() ? TaskSchedule.MAX_YEAR_DAY : dayOfYear;
+                for (int d = dayOfYear; d <= lastYearDay; d++) {
+                    byYearDay[d][w] |= bit;
+                }
+            }
+        }
+
+        /** Fills {@code out} with the due days of one schedule; returns false if there are none. */
+        boolean dueDays(FrequencyKind kind, int weekMask, int monthMask, long[] yearWords, int yearOffset,
+                boolean includeOneTimeTasks, long[] out) {
+            switch (kind) {
+                case DAILY:
+                    System.arraycopy(all, 0, out, 0, words);
+                    return true;
+                case ONE_TIME:
+                    if (!includeOneTimeTasks) {
+                        return false;
+                    }
+                    System.arraycopy(all, 0, out, 0, words);
+                    return true;
+                case WEEKLY:
+                    return orSelected(weekMask, byWeekDay, out);
+                case MONTHLY:
+                    return orSelected(monthMask, byMonthDay, out);
+                case YEARLY:
+                    boolean any = false;
+                    Arrays.fill(out, 0L);
+                    for (int w = 0; w < YEAR_WORDS; w++) {
+                        long mask = yearWords[yearOffset + w];
+                        while (mask != 0) {
+                            int day = (w << 6) + Long.numberOfTrailingZeros(mask) + 1;
+                            mask &= mask - 1;
+                            long[] days = byYearDay[day];
+                            for (int i = 0; i < words; i++) {
+                                out[i] |= days[i];
+                            }
+                            any = true;
+                        }
+                    }
+                    return any;
+                default:
+                    return false;
+            }
+        }
+
+        private boolean orSelected(int mask, long[][] table, long[] out) {
+            Arrays.fill(out, 0L);
+            if (mask == 0) {
+                return false;
+            }
+            while (mask != 0) {
+                int day = Integer.numberOfTrailingZeros(mask) + 1;
+                mask &= mask - 1;
+                long[] days = table[day];
+                for (int i = 0; i < words; i++) {
+                    out[i] |= days[i];
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,15 +1,36 @@
 package com.andreadelorenzis.productivityApp.service;
 
+import com.andreadelorenzis.productivityApp.dto.AgendaDTO;
+import com.andreadelorenzis.productivityApp.dto.AgendaDayDTO;
+import com.andreadelorenzis.productivityApp.dto.CursorPage;
+import com.andreadelorenzis.productivityApp.dto.TaskBulkUpdateDTO;
+import com.andreadelorenzis.productivityApp.dto.TaskCompletionDTO;
 import com.andreadelorenzis.productivityApp.dto.TaskDTO;
+import com.andreadelorenzis.productivityApp.dto.TaskProgressEntryDTO;
+import com.andreadelorenzis.productivityApp.dto.TaskProgressResultDTO;
 import com.andreadelorenzis.productivityApp.dto.TaskProgressUpdateDTO;
 import com.andreadelorenzis.productivityApp.dto.TaskResponseDTO;
 import com.andreadelorenzis.productivityApp.entity.Task;
 import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.FrequencyKind;
 import com.andreadelorenzis.productivityApp.entity.Goal;
+import com.andreadelorenzis.productivityApp.entity.ProgressEvent;
+import com.andreadelorenzis.productivityApp.entity.TaskCompletion;
+import com.andreadelorenzis.productivityApp.entity.TaskSchedule;
+import com.andreadelorenzis.productivityApp.entity.TaskStreak;
+import com.andreadelorenzis.productivityApp.event.TaskChangedEvent;
 import com.andreadelorenzis.productivityApp.exception.ResourceNotFoundException;
+import com.andreadelorenzis.productivityApp.repository.CompletionDayRow;
+import com.andreadelorenzis.productivityApp.repository.GoalDeltaRow;
+import com.andreadelorenzis.productivityApp.repository.TaskListRow;
 import com.andreadelorenzis.productivityApp.repository.TaskRepository;
-import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskScheduleRow;
 import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.ProgressEventRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskCompletionRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,46 +39,116 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
-import java.util.Set;
-import java.util.HashSet;
 import java.util.ArrayList;
-import java.util.stream.Collectors;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class TaskService {
 
+    /** Most entries accepted by one progress batch. */
+    public static final int MAX_PROGRESS_BATCH = 1000;
+
+    /** Most tasks accepted by one bulk create or update. */
+    public static final int MAX_BULK_TASKS = 10_000;
+
     private final TaskRepository taskRepository;
-    private final FrequencyRepository frequencyRepository;
+    private final ReferenceDataRegistry referenceData;
     private final GoalRepository goalRepository;
-
-    public TaskService(TaskRepository taskRepository, FrequencyRepository frequencyRepository,
-            GoalRepository goalRepository) {
+    private final ProgressEventRepository progressEvents;
+    private final TaskCompletionRepository completions;
+    private final DueTodayCache dueTodayCache;
+    private final TaskScheduleIndex scheduleIndex;
+    private final OptimisticRetry retry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TaskService(TaskRepository taskRepository, ReferenceDataRegistry referenceData,
+            GoalRepository goalRepository, ProgressEventRepository progressEvents,
+            TaskCompletionRepository completions, DueTodayCache dueTodayCache, TaskScheduleIndex scheduleIndex,
+            OptimisticRetry retry, ApplicationEventPublisher eventPublisher) {
         this.taskRepository = taskRepository;
-        this.frequencyRepository = frequencyRepository;
+        this.referenceData = referenceData;
         this.goalRepository = goalRepository;
+        this.progressEvents = progressEvents;
+        this.completions = completions;
+        this.dueTodayCache = dueTodayCache;
+        this.scheduleIndex = scheduleIndex;
+        this.retry = retry;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
     public TaskResponseDTO createTask(TaskDTO dto) {
-        validateTaskInput(dto);
+        Frequency frequency = validateTaskInput(dto);
+
+        Task saved = taskRepository.save(buildTask(dto, frequency, this::findGoal));
+        recordOccurrence(saved, null);
+
+        // If task was marked completed in checkAndHandleCompletion, we need to update
+        // goal
+        if (saved.getCompletedAt() != null && saved.getGoal() != null) {
+            updateGoalProgress(saved, true);
+        }
+
+        eventPublisher.publishEvent(new TaskChangedEvent(saved.getId()));
+        return toResponse(saved);
+    }
+
+    /**
+     * Creates all of {@code dtos} in one transaction, or none of them: the
+     * first invalid task fails the whole request, its position in the
+     * message. Each task is validated and built exactly as by createTask;
+     * the goals are loaded once and the inserts go out in JDBC batches.
+     */
+    @Transactional
+    public List<TaskResponseDTO> createTasks(List<TaskDTO> dtos) {
+        checkBulkSize(dtos);
+        Function<Long, Goal> goals = loadGoals(dtos);
 
+        List<Task> tasks = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            TaskDTO dto = dtos.get(i);
+            tasks.add(inBulk(i, () -> buildTask(dto, validateTaskInput(requireBulkItem(dto)), goals)));
+        }
+
+        List<Task> saved = taskRepository.saveAll(tasks);
+        recordOccurrences(saved, Collections.nCopies(saved.size(), null));
+        List<Long> ids = new ArrayList<>(saved.size());
+        for (Task task : saved) {
+            if (task.getCompletedAt() != null && task.getGoal() != null) {
+                updateGoalProgress(task, true);
+            }
+            ids.add(task.getId());
+        }
+
+        eventPublisher.publishEvent(new TaskChangedEvent(ids));
+        return saved.stream().map(this::toResponse).toList();
+    }
+
+    private Task buildTask(TaskDTO dto, Frequency frequency, Function<Long, Goal> goals) {
         Task task = new Task();
         task.setName(dto.getName());
         task.setDescription(dto.getDescription());
-
-        // Validate and set frequency
-        Frequency frequency = frequencyRepository.findById(dto.getFrequencyId())
-                .orElseThrow(() -> new ResourceNotFoundException("Frequency not found"));
         task.setFrequency(frequency);
 
         assignSelectedDays(task, dto);
 
         // Validate and set goal if provided
         if (dto.getGoalId() != null) {
-            Goal goal = goalRepository.findById(dto.getGoalId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Goal not found"));
-            task.setGoal(goal);
+            task.setGoal(goals.apply(dto.getGoalId()));
         }
 
         if (dto.getOverflowQuantity() != null) {
@@ -73,52 +164,129 @@ public class TaskService {
             task.setProgress(dto.getProgress());
             checkAndHandleCompletion(task);
         }
+        return task;
+    }
 
-        Task saved = taskRepository.save(task);
+    public List<TaskResponseDTO> listTasks() {
+        return assignTaskOrderAndSort(taskRepository.findAllActive());
+    }
 
-        // If task was marked completed in checkAndHandleCompletion, we need to update
-        // goal
-        if (saved.getCompletedAt() != null && saved.getGoal() != null) {
-            updateGoalProgress(saved, true);
+    /**
+     * One page of the active tasks, in the same order as {@link #listTasks()}.
+     * The order is served by idx_tasks_listing, so every page costs the same;
+     * listPosition is the task's position in that order across all pages.
+     * taskOrder is left unset: the base rank would need every task ahead of
+     * the page, which keyset paging is there to avoid.
+     */
+    public CursorPage<TaskResponseDTO> listTasksPage(String cursor, int limit) {
+        KeysetCursor.checkLimit(limit);
+
+        int position = 0;
+        List<TaskListRow> tasks;
+        if (cursor == null || cursor.isBlank()) {
+            tasks = taskRepository.findActivePage(Limit.of(limit + 1));
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor, 5);
+            position = after.intAt(0);
+            tasks = taskRepository.findActivePageAfter(after.booleanAt(1), after.intAt(2), after.dateTimeAt(3),
+                    after.longAt(4), Limit.of(limit + 1));
         }
 
-        return toResponse(saved);
+        // One extra row tells whether there is a next page
+        boolean hasMore = tasks.size() > limit;
+        List<TaskListRow> page = hasMore ? tasks.subList(0, limit) : tasks;
+
+        List<TaskResponseDTO> dtos = new ArrayList<>(page.size());
+        for (TaskListRow t : page) {
+            TaskResponseDTO dto = toResponse(t);
+            dto.setListPosition(++position);
+            dtos.add(dto);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            TaskListRow last = page.get(page.size() - 1);
+            nextCursor = KeysetCursor.encode(position, last.urgent(), last.goalImportance(), last.createdAt(),
+                    last.id());
+        }
+        return new CursorPage<>(dtos, nextCursor);
     }
 
-    public List<TaskResponseDTO> listTasks() {
-        return assignTaskOrderAndSort(taskRepository.findAllActive());
+    /**
+     * Passes every active task to {@code sink} in the same order and with the
+     * same listPosition as {@link #listTasksPage}, reading them through a cursor
+     * so memory use stays flat however many tasks there are.
+     */
+    @Transactional(readOnly = true)
+    public void streamTasks(Consumer<TaskResponseDTO> sink) {
+        int position = 0;
+        try (Stream<TaskListRow> tasks = taskRepository.streamActive()) {
+            Iterator<TaskListRow> it = tasks.iterator();
+            while (it.hasNext()) {
+                TaskResponseDTO dto = toResponse(it.next());
+                dto.setListPosition(++position);
+                sink.accept(dto);
+            }
+        }
     }
 
     public List<TaskResponseDTO> getTasksDueToday(boolean includeOneTimeTasks) {
         LocalDate today = LocalDate.now();
+        return dueTodayCache.get(today, includeOneTimeTasks,
+                () -> assignTaskOrderAndSort(taskRepository.findTasksDueOn(today, includeOneTimeTasks)));
+    }
 
-        int dayOfWeek = today.getDayOfWeek().getValue();
-        int dayOfMonth = today.getDayOfMonth();
-        int dayOfYear = today.getDayOfYear();
+    @Scheduled(cron = "0 0 0 * * *")
+    public void refreshTasksDueToday() {
+        dueTodayCache.evictBefore(LocalDate.now());
+        getTasksDueToday(false);
+        getTasksDueToday(true);
+    }
 
-        boolean isLastDayOfMonth = dayOfMonth == today.lengthOfMonth();
-        boolean isLastDayOfYear = dayOfYear == today.lengthOfYear();
+    public AgendaDTO getAgenda(LocalDate from, LocalDate to, boolean includeOneTimeTasks) {
+        DateRanges.check(from, to);
 
-        List<Task> tasks = taskRepository.findAllActive();
+        long[][] dueIds = scheduleIndex.dueTaskIds(from, to, includeOneTimeTasks);
 
-        List<Task> dueTasks = new ArrayList<>();
-        for (Task t : tasks) {
-            boolean isDue = isTaskDue(
-                    t,
-                    dayOfWeek,
-                    dayOfMonth,
-                    isLastDayOfMonth,
-                    dayOfYear,
-                    isLastDayOfYear,
-                    includeOneTimeTasks);
-            if (isDue) {
-                dueTasks.add(t);
+        Set<Long> distinctIds = new HashSet<>();
+        for (long[] ids : dueIds) {
+            for (long id : ids) {
+                distinctIds.add(id);
             }
         }
-        return assignTaskOrderAndSort(dueTasks);
+
+        List<TaskResponseDTO> ordered = assignTaskOrderAndSort(
+                distinctIds.isEmpty() ? new ArrayList<>() : taskRepository.findRowsByIdIn(distinctIds));
+
+        Map<Long, Integer> position = new HashMap<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            position.put(ordered.get(i).getId(), i);
+        }
+
+        List<AgendaDayDTO> days = new ArrayList<>(dueIds.length);
+        for (int i = 0; i < dueIds.length; i++) {
+            List<Long> ids = new ArrayList<>(dueIds[i].length);
+            for (long id : dueIds[i]) {
+                if (position.containsKey(id)) {
+                    ids.add(id);
+                }
+            }
+            ids.sort(Comparator.comparing(position::get));
+            days.add(new AgendaDayDTO(from.plusDays(i), ids));
+        }
+
+        AgendaDTO agenda = new AgendaDTO();
+        agenda.setFrom(from);
+        agenda.setTo(to);
+        agenda.setTasks(ordered);
+        agenda.setDays(days);
+        return agenda;
     }
 
-    private boolean isTaskDue(
+    // Reference implementation of the scheduling rules, kept in sync with
+    // TaskRepository.findTasksDueOn, which evaluates the same rules in SQL
+    // through the mask query findTasksDueToday.
+    static boolean isTaskDue(
             Task task,
             int dayOfWeek,
             int dayOfMonth,
@@ -127,28 +295,8 @@ public class TaskService {
             boolean isLastDayOfYear,
             boolean includeOneTimeTasks) {
 
-        String frequency = task.getFrequency().getName();
-
-        switch (frequency) {
-            case "one-time":
-                return includeOneTimeTasks;
-            case "daily":
-                return true;
-            case "weekly":
-                return Optional.ofNullable(task.getWeekDays())
-                        .orElse(Set.of())
-                        .contains(dayOfWeek);
-            case "monthly":
-                Set<Integer> mdays = Optional.ofNullable(task.getMonthDays()).orElse(Set.of());
-                return mdays.contains(dayOfMonth)
-                        || (isLastDayOfMonth && mdays.stream().anyMatch(d -> d > dayOfMonth));
-            case "yearly":
-                Set<Integer> ydays = Optional.ofNullable(task.getYearDays()).orElse(Set.of());
-                return ydays.contains(dayOfYear)
-                        || (isLastDayOfYear && ydays.stream().anyMatch(d -> d > dayOfYear));
-            default:
-                return false;
-        }
+        return task.getFrequency().getKind().isDue(task.getSchedule(), dayOfWeek, dayOfMonth, isLastDayOfMonth,
+                dayOfYear, isLastDayOfYear, includeOneTimeTasks);
     }
 
     public List<TaskResponseDTO> listTasksByGoal(Long goalId) {
@@ -156,7 +304,7 @@ public class TaskService {
         goalRepository.findById(goalId)
                 .orElseThrow(() -> new ResourceNotFoundException("Goal not found"));
 
-        return assignTaskOrderAndSort(taskRepository.findByGoalId(goalId));
+        return assignTaskOrderAndSort(taskRepository.findRowsByGoalId(goalId));
     }
 
     public List<TaskResponseDTO> listHabits() {
@@ -171,51 +319,41 @@ public class TaskService {
         return assignTaskOrderAndSort(taskRepository.findAllOneTimeTasks());
     }
 
+    /** Active tasks whose name contains {@code name}, ignoring case, in listing order. */
     public List<TaskResponseDTO> searchTasks(String name) {
-        return assignTaskOrderAndSort(taskRepository.searchByName(name));
+        return assignTaskOrderAndSort(taskRepository.searchByName(SearchTerm.of(name).contains()));
     }
 
-    private List<TaskResponseDTO> assignTaskOrderAndSort(List<Task> tasks) {
-        // Base order (importance DESC, created ASC/DESC)
-        tasks.sort((t1, t2) -> {
-            Goal goal1 = t1.getGoal();
-            Goal goal2 = t2.getGoal();
-
-            Integer imp1 = goal1 != null ? goal1.getImportance() : -1;
-            Integer imp2 = goal2 != null ? goal2.getImportance() : -1;
-            int impCompare = imp2.compareTo(imp1); // DESC
-            if (impCompare != 0)
-                return impCompare;
-
-            LocalDateTime cat1 = t1.getCreatedAt();
-            LocalDateTime cat2 = t2.getCreatedAt();
-            if (cat1 != null && cat2 != null) {
-                return cat2.compareTo(cat1); // DESC
-            }
-            return 0;
-        });
-
-        List<TaskResponseDTO> dtos = tasks.stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
-
-        // Assign taskOrder
-        for (int i = 0; i < dtos.size(); i++) {
-            dtos.get(i).setTaskOrder(i + 1);
+    /**
+     * At most {@code limit} active tasks whose name or description contains
+     * {@code query}, ignoring case, most relevant first (see
+     * TaskRepository.search).
+     */
+    public List<TaskResponseDTO> searchTasks(String query, int limit) {
+        SearchTerm term = SearchTerm.of(query);
+        SearchTerm.checkLimit(limit);
+        List<TaskResponseDTO> dtos = new ArrayList<>();
+        for (TaskListRow t : taskRepository.search(term.exact(), term.prefix(), term.contains(), Limit.of(limit))) {
+            dtos.add(toResponse(t));
         }
-
-        // Final view order: urgency trumps the base rank
-        dtos.sort((a, b) -> {
-            if (a.isUrgent() && !b.isUrgent())
-                return -1;
-            if (!a.isUrgent() && b.isUrgent())
-                return 1;
-            return a.getTaskOrder().compareTo(b.getTaskOrder());
-        });
-
         return dtos;
     }
 
+    // taskOrder is the rank in the base order (importance DESC, createdAt DESC);
+    // urgent tasks are listed first. See TaskListOrder.
+    private List<TaskResponseDTO> assignTaskOrderAndSort(List<TaskListRow> tasks) {
+        int[] order = TaskListOrder.baseOrder(tasks);
+        int[] positions = TaskListOrder.viewPositions(tasks, order);
+
+        TaskResponseDTO[] view = new TaskResponseDTO[order.length];
+        for (int rank = 0; rank < order.length; rank++) {
+            TaskResponseDTO dto = toResponse(tasks.get(order[rank]));
+            dto.setTaskOrder(rank + 1);
+            view[positions[rank]] = dto;
+        }
+        return new ArrayList<>(Arrays.asList(view));
+    }
+
     public TaskResponseDTO getTask(Long id) {
         Task task = taskRepository.findById(id)
                 .filter(t -> t.getDeletedAt() == null)
@@ -223,29 +361,126 @@ public class TaskService {
         return toResponse(task);
     }
 
-    @Transactional
+    /** Completed occurrences of the task from through to (inclusive), oldest first. */
+    public List<TaskCompletionDTO> getCompletions(Long taskId, LocalDate from, LocalDate to) {
+        DateRanges.check(from, to);
+        if (!taskRepository.existsById(taskId)) {
+            throw new ResourceNotFoundException("Task not found");
+        }
+        return completions.findByTaskBetween(taskId, from, to).stream().map(TaskService::toResponse).toList();
+    }
+
+    /** Every task completion recorded for {@code date}, by task id. */
+    public List<TaskCompletionDTO> getCompletionsOn(LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("date is required");
+        }
+        return completions.findByDate(date).stream().map(TaskService::toResponse).toList();
+    }
+
     public TaskResponseDTO updateTask(Long id, TaskDTO dto) {
-        validateTaskInput(dto);
+        return retry.execute(() -> {
+            Frequency frequency = validateTaskInput(dto);
 
-        Task task = taskRepository.findById(id)
-                .filter(t -> t.getDeletedAt() == null)
-                .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
+            Task task = taskRepository.findById(id)
+                    .filter(t -> t.getDeletedAt() == null)
+                    .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
+
+            Recurrence recurrence = Recurrence.of(task);
+            LocalDateTime previouslyCompletedAt = applyUpdate(task, dto, frequency, this::findGoal);
+
+            Task saved = taskRepository.save(task);
+            recordCompletionChange(saved, previouslyCompletedAt != null);
+            recordOccurrence(saved, previouslyCompletedAt);
+            if (!recurrence.equals(Recurrence.of(saved))) {
+                recomputeStreaks(List.of(saved));
+            }
+
+            eventPublisher.publishEvent(new TaskChangedEvent(saved.getId()));
+            return toResponse(saved);
+        });
+    }
+
+    /**
+     * Updates all of {@code dtos} in one transaction, or none of them, each
+     * exactly as by updateTask. The tasks and goals are loaded in bulk and
+     * the updates go out in JDBC batches; a task may appear only once.
+     */
+    public List<TaskResponseDTO> updateTasks(List<TaskBulkUpdateDTO> dtos) {
+        checkBulkSize(dtos);
+
+        return retry.execute(() -> {
+            Set<Long> ids = new HashSet<>();
+            for (int i = 0; i < dtos.size(); i++) {
+                TaskBulkUpdateDTO dto = dtos.get(i);
+                inBulk(i, () -> {
+                    if (requireBulkItem(dto).getId() == null) {
+                        throw new IllegalArgumentException("Task id is required");
+                    }
+                    if (!ids.add(dto.getId())) {
+                        throw new IllegalArgumentException("Task " + dto.getId() + " appears more than once");
+                    }
+                    return null;
+                });
+            }
+
+            Map<Long, Task> tasks = new HashMap<>();
+            List<Long> idList = new ArrayList<>(ids);
+            for (List<Long> chunk : idChunks(idList)) {
+                for (Task task : taskRepository.findActiveByIdIn(chunk)) {
+                    tasks.put(task.getId(), task);
+                }
+            }
+            Function<Long, Goal> goals = loadGoals(dtos);
+
+            List<Task> updated = new ArrayList<>(dtos.size());
+            LocalDateTime[] previouslyCompletedAt = new LocalDateTime[dtos.size()];
+            Recurrence[] recurrences = new Recurrence[dtos.size()];
+            for (int i = 0; i < dtos.size(); i++) {
+                TaskBulkUpdateDTO dto = dtos.get(i);
+                int index = i;
+                updated.add(inBulk(i, () -> {
+                    Frequency frequency = validateTaskInput(dto);
+                    Task task = tasks.get(dto.getId());
+                    if (task == null) {
+                        throw new ResourceNotFoundException("Task not found");
+                    }
+                    recurrences[index] = Recurrence.of(task);
+                    previouslyCompletedAt[index] = applyUpdate(task, dto, frequency, goals);
+                    return task;
+                }));
+            }
+
+            List<Task> saved = taskRepository.saveAll(updated);
+            for (int i = 0; i < saved.size(); i++) {
+                recordCompletionChange(saved.get(i), previouslyCompletedAt[i] != null);
+            }
+            recordOccurrences(saved, Arrays.asList(previouslyCompletedAt));
+            List<Task> rescheduled = new ArrayList<>();
+            for (int i = 0; i < saved.size(); i++) {
+                if (!recurrences[i].equals(Recurrence.of(saved.get(i)))) {
+                    rescheduled.add(saved.get(i));
+                }
+            }
+            recomputeStreaks(rescheduled);
+
+            eventPublisher.publishEvent(new TaskChangedEvent(idList));
+            return saved.stream().map(this::toResponse).toList();
+        });
+    }
 
+    /** Applies {@code dto} to the task; returns its completedAt from before. */
+    private LocalDateTime applyUpdate(Task task, TaskDTO dto, Frequency frequency, Function<Long, Goal> goals) {
         task.setName(dto.getName());
         task.setDescription(dto.getDescription());
 
-        // Update frequency
-        Frequency frequency = frequencyRepository.findById(dto.getFrequencyId())
-                .orElseThrow(() -> new ResourceNotFoundException("Frequency not found"));
         task.setFrequency(frequency);
 
         assignSelectedDays(task, dto);
 
         // Update goal if provided
         if (dto.getGoalId() != null) {
-            Goal goal = goalRepository.findById(dto.getGoalId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Goal not found"));
-            task.setGoal(goal);
+            task.setGoal(goals.apply(dto.getGoalId()));
         } else {
             task.setGoal(null);
         }
@@ -258,7 +493,7 @@ public class TaskService {
             task.setQuantity(dto.getQuantity());
         }
 
-        boolean wasCompleted = task.getCompletedAt() != null;
+        LocalDateTime previouslyCompletedAt = task.getCompletedAt();
 
         if (dto.getProgress() != null) {
             task.setProgress(dto.getProgress());
@@ -266,95 +501,257 @@ public class TaskService {
         }
 
         task.setUrgent(dto.isUrgent());
+        return previouslyCompletedAt;
+    }
 
+    // Handle goal progress update if completion status changed
+    private void recordCompletionChange(Task task, boolean wasCompleted) {
         boolean isCompleted = task.getCompletedAt() != null;
-
-        Task saved = taskRepository.save(task);
-
-        // Handle goal progress update if completion status changed
-        if (saved.getGoal() != null) {
+        if (task.getGoal() != null) {
             if (!wasCompleted && isCompleted) {
-                updateGoalProgress(saved, true);
+                updateGoalProgress(task, true);
             } else if (wasCompleted && !isCompleted) {
-                updateGoalProgress(saved, false);
+                updateGoalProgress(task, false);
             }
         }
+    }
 
-        return toResponse(saved);
+    private Goal findGoal(Long goalId) {
+        return goalRepository.findById(goalId)
+                .orElseThrow(() -> new ResourceNotFoundException("Goal not found"));
     }
 
-    @Transactional
-    public void deleteTask(Long id) {
-        Task task = taskRepository.findById(id)
-                .filter(t -> t.getDeletedAt() == null)
-                .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
+    // The goals the tasks refer to, loaded with one query
+    private Function<Long, Goal> loadGoals(List<? extends TaskDTO> dtos) {
+        Set<Long> goalIds = new HashSet<>();
+        for (TaskDTO dto : dtos) {
+            if (dto != null && dto.getGoalId() != null) {
+                goalIds.add(dto.getGoalId());
+            }
+        }
+        Map<Long, Goal> goals = new HashMap<>();
+        if (!goalIds.isEmpty()) {
+            for (Goal goal : goalRepository.findAllById(goalIds)) {
+                goals.put(goal.getId(), goal);
+            }
+        }
+        return goalId -> {
+            Goal goal = goals.get(goalId);
+            if (goal == null) {
+                throw new ResourceNotFoundException("Goal not found");
+            }
+            return goal;
+        };
+    }
 
-        // Soft delete
-        task.setDeletedAt(LocalDateTime.now());
-        taskRepository.save(task);
+    // Slices of at most ID_CHUNK_SIZE ids, for the IN lists of the bulk queries
+    private static List<List<Long>> idChunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += TaskRepository.ID_CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(from + TaskRepository.ID_CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
     }
 
-    @Transactional
-    public TaskResponseDTO completeTask(Long id) {
-        Task task = taskRepository.findById(id)
-                .filter(t -> t.getDeletedAt() == null)
-                .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
+    private static void checkBulkSize(List<?> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            throw new IllegalArgumentException("At least one task is required");
+        }
+        if (dtos.size() > MAX_BULK_TASKS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_TASKS + " tasks are allowed");
+        }
+    }
 
-        task.setCompletedAt(LocalDateTime.now());
-        if (task.getQuantity() != null) {
-            task.setProgress(task.getQuantity());
+    private static <T extends TaskDTO> T requireBulkItem(T dto) {
+        if (dto == null) {
+            throw new IllegalArgumentException("Task is required");
         }
-        Task saved = taskRepository.save(task);
+        return dto;
+    }
 
-        if (saved.getGoal() != null) {
-            Goal goal = saved.getGoal();
-            BigDecimal quantityToAdd = saved.getQuantity() != null ? saved.getQuantity() : BigDecimal.ONE;
-            goal.setCurrentProgress(goal.getCurrentProgress().add(quantityToAdd));
-            goalRepository.save(goal);
+    // Runs one item of a bulk request, prefixing any error with its position
+    private static <T> T inBulk(int index, Supplier<T> item) {
+        try {
+            return item.get();
+        } catch (ResourceNotFoundException e) {
+            throw new ResourceNotFoundException("tasks[" + index + "]: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("tasks[" + index + "]: " + e.getMessage(), e);
         }
+    }
 
-        return toResponse(saved);
+    public void deleteTask(Long id) {
+        retry.run(() -> {
+            Task task = taskRepository.findById(id)
+                    .filter(t -> t.getDeletedAt() == null)
+                    .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
+
+            // Soft delete
+            task.setDeletedAt(LocalDateTime.now());
+            taskRepository.save(task);
+            eventPublisher.publishEvent(new TaskChangedEvent(task.getId()));
+        });
+    }
+
+    public TaskResponseDTO completeTask(Long id) {
+        return retry.execute(() -> {
+            Task task = taskRepository.findById(id)
+                    .filter(t -> t.getDeletedAt() == null)
+                    .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
+
+            LocalDateTime previouslyCompletedAt = task.getCompletedAt();
+            task.setCompletedAt(LocalDateTime.now());
+            if (task.getQuantity() != null) {
+                task.setProgress(task.getQuantity());
+            }
+            Task saved = taskRepository.save(task);
+            recordOccurrence(saved, previouslyCompletedAt);
+
+            if (saved.getGoal() != null) {
+                BigDecimal quantityToAdd = saved.getQuantity() != null ? saved.getQuantity() : BigDecimal.ONE;
+                recordGoalProgress(saved, quantityToAdd);
+            }
+
+            eventPublisher.publishEvent(new TaskChangedEvent(saved.getId()));
+            return toResponse(saved);
+        });
     }
 
-    @Transactional
     public TaskResponseDTO uncompleteTask(Long id) {
-        Task task = taskRepository.findById(id)
-                .filter(t -> t.getDeletedAt() == null)
-                .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
+        return retry.execute(() -> {
+            Task task = taskRepository.findById(id)
+                    .filter(t -> t.getDeletedAt() == null)
+                    .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
+
+            LocalDateTime previouslyCompletedAt = task.getCompletedAt();
+            task.setCompletedAt(null);
+            if (task.getQuantity() != null) {
+                task.setProgress(BigDecimal.ZERO);
+            }
+            Task saved = taskRepository.save(task);
+            recordOccurrence(saved, previouslyCompletedAt);
 
-        task.setCompletedAt(null);
-        if (task.getQuantity() != null) {
-            task.setProgress(BigDecimal.ZERO);
+            if (saved.getGoal() != null) {
+                BigDecimal quantityToSubtract = saved.getQuantity() != null ? saved.getQuantity() : BigDecimal.ONE;
+                recordGoalProgress(saved, quantityToSubtract.negate());
+            }
+
+            eventPublisher.publishEvent(new TaskChangedEvent(saved.getId()));
+            return toResponse(saved);
+        });
+    }
+
+    /**
+     * Completes all of {@code ids} in one transaction, or none of them, with
+     * the result of one completeTask call each. The tasks are updated by a
+     * single statement and every goal gets one progress event holding the
+     * sum the per-task calls would have added.
+     */
+    public List<TaskResponseDTO> completeTasks(List<Long> ids) {
+        return changeCompletion(ids, true);
+    }
+
+    /**
+     * Uncompletes all of {@code ids}, like completeTasks does for
+     * completeTask. Undoing a completion may shorten any run, so the streaks
+     * of each chunk are rebuilt from the completion history in the same
+     * transaction, their updates going out in JDBC batches.
+     */
+    public List<TaskResponseDTO> uncompleteTasks(List<Long> ids) {
+        return changeCompletion(ids, false);
+    }
+
+    private List<TaskResponseDTO> changeCompletion(List<Long> ids, boolean complete) {
+        checkBulkSize(ids);
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            inBulk(i, () -> {
+                if (id == null) {
+                    throw new IllegalArgumentException("Task id is required");
+                }
+                if (!seen.add(id)) {
+                    throw new IllegalArgumentException("Task " + id + " appears more than once");
+                }
+                return null;
+            });
         }
-        Task saved = taskRepository.save(task);
 
-        if (saved.getGoal() != null) {
-            Goal goal = saved.getGoal();
-            BigDecimal quantityToSubtract = saved.getQuantity() != null ? saved.getQuantity() : BigDecimal.ONE;
-            goal.setCurrentProgress(goal.getCurrentProgress().subtract(quantityToSubtract));
-            // Ensure progress doesn't go below zero
-            if (goal.getCurrentProgress().compareTo(BigDecimal.ZERO) < 0) {
-                goal.setCurrentProgress(BigDecimal.ZERO);
+        return retry.execute(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            Map<Long, BigDecimal> deltas = new LinkedHashMap<>();
+            int updated = 0;
+            for (List<Long> chunk : idChunks(ids)) {
+                for (GoalDeltaRow row : taskRepository.sumCompletionQuantityByGoal(chunk)) {
+                    deltas.merge(row.goalId(), row.delta(), BigDecimal::add);
+                }
+                if (complete) {
+                    // Replaced below by today's completion, as completeTask would update it
+                    completions.deleteByTasksOn(chunk, now.toLocalDate());
+                    updated += taskRepository.completeAll(chunk, now);
+                    recordStreaks(chunk, now.toLocalDate());
+                } else {
+                    completions.deleteCurrentOccurrences(chunk);
+                    updated += taskRepository.uncompleteAll(chunk, now);
+                    recomputeStreaks(taskRepository.findActiveByIdIn(chunk));
+                }
+            }
+            if (updated != ids.size()) {
+                throw firstMissingTask(ids);
             }
-            goalRepository.save(goal);
-        }
 
-        return toResponse(saved);
+            List<ProgressEvent> events = new ArrayList<>(deltas.size());
+            deltas.forEach((goalId, delta) -> events.add(
+                    new ProgressEvent(null, goalId, complete ? delta : delta.negate())));
+            progressEvents.saveAll(events);
+
+            Map<Long, TaskListRow> rows = new HashMap<>();
+            for (List<Long> chunk : idChunks(ids)) {
+                for (TaskListRow row : taskRepository.findRowsByIdIn(chunk)) {
+                    rows.put(row.id(), row);
+                }
+            }
+            if (complete) {
+                completions.saveAll(rows.values().stream()
+                        .map(row -> new TaskCompletion(row.id(), now.toLocalDate(),
+                                occurrenceQuantity(row.progress(), row.quantity()), row.completedAt()))
+                        .toList());
+            }
+
+            eventPublisher.publishEvent(new TaskChangedEvent(ids));
+            return ids.stream().map(id -> toResponse(rows.get(id))).toList();
+        });
+    }
+
+    // Only looked up once the update came up short, so it rolls back with a useful message
+    private ResourceNotFoundException firstMissingTask(List<Long> ids) {
+        Set<Long> found = new HashSet<>();
+        for (List<Long> chunk : idChunks(ids)) {
+            found.addAll(taskRepository.findActiveIdsByIdIn(chunk));
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            if (!found.contains(ids.get(i))) {
+                return new ResourceNotFoundException("tasks[" + i + "]: Task not found");
+            }
+        }
+        return new ResourceNotFoundException("Task not found");
     }
 
-    @Transactional
     public TaskResponseDTO setToUrgent(Long id, boolean urgent) {
-        Task task = taskRepository.findById(id)
-                .filter(t -> t.getDeletedAt() == null)
-                .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
+        return retry.execute(() -> {
+            Task task = taskRepository.findById(id)
+                    .filter(t -> t.getDeletedAt() == null)
+                    .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
 
-        task.setUrgent(urgent);
+            task.setUrgent(urgent);
 
-        Task saved = taskRepository.save(task);
-        return toResponse(saved);
+            Task saved = taskRepository.save(task);
+            eventPublisher.publishEvent(new TaskChangedEvent(saved.getId()));
+            return toResponse(saved);
+        });
     }
 
-    private void validateTaskInput(TaskDTO dto) {
+    private Frequency validateTaskInput(TaskDTO dto) {
         if (dto.getName() == null || dto.getName().isBlank()) {
             throw new IllegalArgumentException("Task name is required");
         }
@@ -363,15 +760,20 @@ public class TaskService {
             throw new IllegalArgumentException("Frequency is required");
         }
 
-        frequencyRepository.findById(dto.getFrequencyId())
+        return referenceData.findFrequency(dto.getFrequencyId())
                 .orElseThrow(() -> new ResourceNotFoundException("Frequency not found"));
     }
 
     private void checkAndHandleCompletion(Task task) {
+        checkAndHandleCompletion(task, LocalDateTime.now());
+    }
+
+    // A task that reaches its quantity counts as completed at {@code at}
+    private void checkAndHandleCompletion(Task task, LocalDateTime at) {
         if (task.getQuantity() != null && task.getProgress() != null) {
             if (task.getProgress().compareTo(task.getQuantity()) >= 0) {
                 if (task.getCompletedAt() == null) {
-                    task.setCompletedAt(LocalDateTime.now());
+                    task.setCompletedAt(at);
                 }
             } else {
                 if (task.getCompletedAt() != null) {
@@ -381,139 +783,401 @@ public class TaskService {
         }
     }
 
-    private void updateGoalProgress(Task task, boolean add) {
-        if (task.getQuantity() != null) {
-            Goal goal = task.getGoal();
-            BigDecimal quantityToUpdate = task.getQuantity();
+    private void recordOccurrence(Task task, LocalDateTime previouslyCompletedAt) {
+        recordOccurrences(List.of(task), Collections.singletonList(previouslyCompletedAt));
+    }
+
+    /**
+     * Keeps the completion history in step with the tasks: one row per task
+     * and day, holding that day's latest completion, and undoing a
+     * completion removes the row of the day it was made. Existing rows are
+     * looked up with one query and the writes go out in JDBC batches.
+     */
+    private void recordOccurrences(List<Task> tasks, List<LocalDateTime> previouslyCompletedAt) {
+        Map<Occurrence, Task> completed = new HashMap<>();
+        Set<Occurrence> undone = new HashSet<>();
+        List<Task> undoneTasks = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            LocalDateTime previous = previouslyCompletedAt.get(i);
+            if (task.getCompletedAt() != null) {
+                completed.put(new Occurrence(task.getId(), task.getCompletedAt().toLocalDate()), task);
+                recordStreak(task, task.getCompletedAt().toLocalDate());
+            } else if (previous != null) {
+                undone.add(new Occurrence(task.getId(), previous.toLocalDate()));
+                undoneTasks.add(task);
+            }
+        }
+        if (completed.isEmpty() && undone.isEmpty()) {
+            return;
+        }
+
+        Set<Long> taskIds = new HashSet<>();
+        LocalDate from = LocalDate.MAX;
+        LocalDate to = LocalDate.MIN;
+        for (Occurrence occurrence : Stream.concat(completed.keySet().stream(), undone.stream()).toList()) {
+            taskIds.add(occurrence.taskId());
+            from = occurrence.date().isBefore(from) ? occurrence.date() : from;
+            to = occurrence.date().isAfter(to) ? occurrence.date() : to;
+        }
+        Map<Occurrence, TaskCompletion> existing = new HashMap<>();
+        for (List<Long> chunk : idChunks(new ArrayList<>(taskIds))) {
+            for (TaskCompletion completion : completions.findByTasksBetween(chunk, from, to)) {
+                existing.put(new Occurrence(completion.getTaskId(), completion.getOccurrenceDate()), completion);
+            }
+        }
 
-            if (add) {
-                goal.setCurrentProgress(goal.getCurrentProgress().add(quantityToUpdate));
+        List<TaskCompletion> added = new ArrayList<>();
+        completed.forEach((occurrence, task) -> {
+            BigDecimal quantity = occurrenceQuantity(task.getProgress(), task.getQuantity());
+            TaskCompletion completion = existing.get(occurrence);
+            if (completion == null) {
+                added.add(new TaskCompletion(task.getId(), occurrence.date(), quantity, task.getCompletedAt()));
             } else {
-                goal.setCurrentProgress(goal.getCurrentProgress().subtract(quantityToUpdate));
-                if (goal.getCurrentProgress().compareTo(BigDecimal.ZERO) < 0) {
-                    goal.setCurrentProgress(BigDecimal.ZERO);
-                }
+                completion.setQuantity(quantity);
+                completion.setCompletedAt(task.getCompletedAt());
             }
-            goalRepository.save(goal);
+        });
+        completions.saveAll(added);
+
+        List<TaskCompletion> removed = undone.stream().map(existing::get).filter(Objects::nonNull).toList();
+        if (!removed.isEmpty()) {
+            completions.deleteAllInBatch(removed);
         }
+        recomputeStreaks(undoneTasks);
     }
 
-    @Transactional
-    public TaskResponseDTO addTaskProgress(Long id, TaskProgressUpdateDTO dto) {
-        Task task = taskRepository.findById(id)
-                .filter(t -> t.getDeletedAt() == null)
-                .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
+    private static void recordStreak(Task task, LocalDate day) {
+        task.getStreak().recordCompletion(Recurrence.of(task).kind(), task.getSchedule(), day);
+    }
 
-        if (task.getGoal() == null) {
-            throw new IllegalArgumentException("Task is not linked to any goal");
+    /**
+     * recordStreak for the tasks {@code ids} completed on {@code day}, without
+     * loading them: tasks sharing a recurrence take the same TaskStreak.Step,
+     * so each distinct recurrence costs one update however many tasks have it.
+     */
+    private void recordStreaks(List<Long> ids, LocalDate day) {
+        Map<Recurrence, List<Long>> idsByRecurrence = new HashMap<>();
+        Map<Recurrence, TaskSchedule> schedules = new HashMap<>();
+        for (TaskScheduleRow row : taskRepository.findScheduleRowsByIdIn(ids)) {
+            TaskSchedule schedule = row.schedule() != null ? row.schedule() : new TaskSchedule();
+            Recurrence recurrence = new Recurrence(row.frequencyKind(), row.frequencyKind().selectedDays(schedule));
+            idsByRecurrence.computeIfAbsent(recurrence, r -> new ArrayList<>()).add(row.id());
+            schedules.putIfAbsent(recurrence, schedule);
         }
+        idsByRecurrence.forEach((recurrence, taskIds) -> {
+            TaskStreak.Step step = TaskStreak.Step.of(recurrence.kind(), schedules.get(recurrence), day);
+            if (step != null) {
+                taskRepository.recordStreakCompletion(taskIds, step.occurrence(), step.previous(), step.brokenOn());
+            }
+        });
+    }
 
-        Goal goal = task.getGoal();
-        if (goal.getUnit() == null) {
-            throw new IllegalArgumentException("Goal does not have a unit");
+    /**
+     * Rebuilds the streaks of {@code tasks} from their completion history,
+     * for changes one completion can't be applied to incrementally: an
+     * undone completion may sit in the middle of the current run, and new
+     * selected days move every occurrence.
+     */
+    private void recomputeStreaks(Collection<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
         }
+        Map<Long, List<LocalDate>> days = new HashMap<>();
+        for (List<Long> chunk : idChunks(tasks.stream().map(Task::getId).toList())) {
+            for (CompletionDayRow row : completions.findDaysByTasks(chunk)) {
+                days.computeIfAbsent(row.taskId(), id -> new ArrayList<>()).add(row.day());
+            }
+        }
+        for (Task task : tasks) {
+            task.getStreak().recompute(Recurrence.of(task).kind(), task.getSchedule(),
+                    days.getOrDefault(task.getId(), List.of()));
+        }
+    }
 
-        if (dto.getQuantity() == null) {
-            throw new IllegalArgumentException("Quantity must be provided");
+    /**
+     * Rebuilds every active task's streaks from its completion history,
+     * TaskRepository.ID_CHUNK_SIZE ids per transaction: the repair path for
+     * streaks that drifted from the history. Returns how many tasks were
+     * rebuilt.
+     */
+    public int rebuildStreaks() {
+        Long minId = taskRepository.findMinId();
+        Long maxId = taskRepository.findMaxId();
+        if (minId == null) {
+            return 0;
         }
 
-        BigDecimal quantityToAdd = dto.getQuantity();
+        int total = 0;
+        for (long from = minId; from <= maxId; from += TaskRepository.ID_CHUNK_SIZE) {
+            long fromId = from;
+            total += retry.execute(() -> {
+                List<Task> tasks = taskRepository.findActiveByIdBetween(fromId,
+                        fromId + TaskRepository.ID_CHUNK_SIZE - 1);
+                recomputeStreaks(tasks);
+                if (!tasks.isEmpty()) {
+                    eventPublisher.publishEvent(new TaskChangedEvent(tasks.stream().map(Task::getId).toList()));
+                }
+                return tasks.size();
+            });
+        }
+        return total;
+    }
 
-        BigDecimal currentProgress = task.getProgress() != null ? task.getProgress() : BigDecimal.ZERO;
-        BigDecimal newProgress = currentProgress.add(quantityToAdd);
+    // What the streak of a task depends on besides its completions
+    private record Recurrence(FrequencyKind kind, List<Integer> selectedDays) {
 
-        if (newProgress.compareTo(BigDecimal.ZERO) < 0) {
-            newProgress = BigDecimal.ZERO;
+        static Recurrence of(Task task) {
+            FrequencyKind kind = task.getFrequency() != null ? task.getFrequency().getKind() : FrequencyKind.UNKNOWN;
+            return new Recurrence(kind, kind.selectedDays(task.getSchedule()));
+        }
+    }
+
+    // What a completed occurrence records as done: the progress, or the
+    // planned quantity for tasks completed without tracking progress
+    private static BigDecimal occurrenceQuantity(BigDecimal progress, BigDecimal quantity) {
+        return progress != null ? progress : quantity;
+    }
+
+    private record Occurrence(Long taskId, LocalDate date) {
+    }
+
+    private void updateGoalProgress(Task task, boolean add) {
+        if (task.getQuantity() != null) {
+            BigDecimal quantityToUpdate = task.getQuantity();
+            recordGoalProgress(task, add ? quantityToUpdate : quantityToUpdate.negate());
         }
+    }
+
+    // Appended, not applied: the compactor folds it into the goal row later,
+    // so parallel progress on one goal never contends for that row
+    private void recordGoalProgress(Task task, BigDecimal delta) {
+        progressEvents.save(new ProgressEvent(task.getId(), task.getGoal().getId(), delta));
+    }
+
+    public TaskResponseDTO addTaskProgress(Long id, TaskProgressUpdateDTO dto) {
+        return retry.execute(() -> {
+            Task task = taskRepository.findById(id)
+                    .filter(t -> t.getDeletedAt() == null)
+                    .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
+
+            if (task.getGoal() == null) {
+                throw new IllegalArgumentException("Task is not linked to any goal");
+            }
+
+            Goal goal = task.getGoal();
+            if (goal.getUnit() == null) {
+                throw new IllegalArgumentException("Goal does not have a unit");
+            }
+
+            if (dto.getQuantity() == null) {
+                throw new IllegalArgumentException("Quantity must be provided");
+            }
 
-        task.setProgress(newProgress);
+            BigDecimal quantityToAdd = dto.getQuantity();
+            LocalDateTime previouslyCompletedAt = task.getCompletedAt();
+            applyProgress(task, quantityToAdd);
 
-        checkAndHandleCompletion(task);
+            Task saved = taskRepository.save(task);
+            recordOccurrence(saved, previouslyCompletedAt);
 
-        Task saved = taskRepository.save(task);
+            recordGoalProgress(saved, quantityToAdd);
 
-        BigDecimal newGoalProgress = goal.getCurrentProgress().add(quantityToAdd);
-        if (newGoalProgress.compareTo(BigDecimal.ZERO) < 0) {
-            newGoalProgress = BigDecimal.ZERO;
+            eventPublisher.publishEvent(new TaskChangedEvent(saved.getId()));
+            return toResponse(saved);
+        });
+    }
+
+    /**
+     * Adds many buffered progress entries in one transaction. Entries are
+     * applied per task in timestamp order (request order for equal or
+     * missing timestamps), exactly like one addTaskProgress call each, but
+     * every affected task is written once, with one progress event per day
+     * its entries were made on. Events and the completions entries cause are
+     * stamped with the entries' timestamps (now when missing or in the
+     * future), so buffered progress lands on the day it was made. An entry
+     * that fails validation is reported in its result and does not stop the
+     * others.
+     */
+    public List<TaskProgressResultDTO> addTaskProgressBatch(List<TaskProgressEntryDTO> entries) {
+        if (entries == null || entries.isEmpty()) {
+            throw new IllegalArgumentException("At least one progress entry is required");
+        }
+        if (entries.size() > MAX_PROGRESS_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_PROGRESS_BATCH + " progress entries are allowed");
         }
-        goal.setCurrentProgress(newGoalProgress);
-        goalRepository.save(goal);
 
-        return toResponse(saved);
+        return retry.execute(() -> {
+            TaskProgressResultDTO[] results = new TaskProgressResultDTO[entries.size()];
+
+            Set<Long> ids = new HashSet<>();
+            for (TaskProgressEntryDTO entry : entries) {
+                if (entry != null && entry.getTaskId() != null) {
+                    ids.add(entry.getTaskId());
+                }
+            }
+            Map<Long, Task> tasks = new HashMap<>();
+            if (!ids.isEmpty()) {
+                for (Task task : taskRepository.findActiveByIdIn(ids)) {
+                    tasks.put(task.getId(), task);
+                }
+            }
+
+            // Valid entries by task, in request order
+            Map<Task, List<Integer>> entriesByTask = new LinkedHashMap<>();
+            for (int i = 0; i < entries.size(); i++) {
+                TaskProgressEntryDTO entry = entries.get(i);
+                Long taskId = entry != null ? entry.getTaskId() : null;
+                String error = validateProgressEntry(entry, tasks.get(taskId));
+                if (error != null) {
+                    results[i] = TaskProgressResultDTO.failed(i, taskId, error);
+                } else {
+                    entriesByTask.computeIfAbsent(tasks.get(taskId), task -> new ArrayList<>()).add(i);
+                }
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<ProgressEvent> events = new ArrayList<>(entriesByTask.size());
+            List<LocalDateTime> previouslyCompletedAt = new ArrayList<>(entriesByTask.size());
+            for (Map.Entry<Task, List<Integer>> byTask : entriesByTask.entrySet()) {
+                Task task = byTask.getKey();
+                List<Integer> indexes = byTask.getValue();
+                previouslyCompletedAt.add(task.getCompletedAt());
+                indexes.sort(Comparator.comparing(i -> entries.get(i).getTimestamp(),
+                        Comparator.nullsLast(Comparator.naturalOrder())));
+
+                // One event per day the task's entries were made on, stamped with the last of them
+                BigDecimal delta = BigDecimal.ZERO;
+                LocalDateTime last = null;
+                for (int i : indexes) {
+                    BigDecimal quantity = entries.get(i).getQuantity();
+                    LocalDateTime timestamp = entries.get(i).getTimestamp();
+                    LocalDateTime at = timestamp == null || timestamp.isAfter(now) ? now : timestamp;
+                    if (last != null && !last.toLocalDate().equals(at.toLocalDate())) {
+                        addProgressEvent(events, task, delta, last);
+                        delta = BigDecimal.ZERO;
+                    }
+                    applyProgress(task, quantity, at);
+                    delta = delta.add(quantity);
+                    last = at;
+                    results[i] = TaskProgressResultDTO.applied(i, task.getId());
+                }
+                addProgressEvent(events, task, delta, last);
+            }
+
+            // Flushed at commit as JDBC batches: one update per task, one insert per event
+            taskRepository.saveAll(entriesByTask.keySet());
+            progressEvents.saveAll(events);
+            recordOccurrences(new ArrayList<>(entriesByTask.keySet()), previouslyCompletedAt);
+
+            if (!entriesByTask.isEmpty()) {
+                eventPublisher.publishEvent(
+                        new TaskChangedEvent(entriesByTask.keySet().stream().map(Task::getId).toList()));
+            }
+            return Arrays.asList(results);
+        });
     }
 
-    private void assignSelectedDays(Task task, TaskDTO dto) {
-        if (task.getWeekDays() != null)
-            task.getWeekDays().clear();
-        else
-            task.setWeekDays(new HashSet<>());
+    // The checks of addTaskProgress, as a message instead of an exception
+    private static String validateProgressEntry(TaskProgressEntryDTO entry, Task task) {
+        if (entry == null || entry.getTaskId() == null) {
+            return "Task id must be provided";
+        }
+        if (task == null) {
+            return "Task not found";
+        }
+        if (task.getGoal() == null) {
+            return "Task is not linked to any goal";
+        }
+        if (task.getGoal().getUnit() == null) {
+            return "Goal does not have a unit";
+        }
+        if (entry.getQuantity() == null) {
+            return "Quantity must be provided";
+        }
+        return null;
+    }
 
-        if (task.getMonthDays() != null)
-            task.getMonthDays().clear();
-        else
-            task.setMonthDays(new HashSet<>());
+    // The goal's share of a task's progress change, made at {@code at}; nothing for no change
+    private static void addProgressEvent(List<ProgressEvent> events, Task task, BigDecimal delta,
+            LocalDateTime at) {
+        if (delta.signum() != 0) {
+            events.add(new ProgressEvent(task.getId(), task.getGoal().getId(), delta, at));
+        }
+    }
 
-        if (task.getYearDays() != null)
-            task.getYearDays().clear();
-        else
-            task.setYearDays(new HashSet<>());
+    private void applyProgress(Task task, BigDecimal quantity) {
+        applyProgress(task, quantity, LocalDateTime.now());
+    }
+
+    // Progress never goes below zero; completion follows the new progress
+    private void applyProgress(Task task, BigDecimal quantity, LocalDateTime at) {
+        BigDecimal currentProgress = task.getProgress() != null ? task.getProgress() : BigDecimal.ZERO;
+        BigDecimal newProgress = currentProgress.add(quantity);
+
+        if (newProgress.compareTo(BigDecimal.ZERO) < 0) {
+            newProgress = BigDecimal.ZERO;
+        }
+
+        task.setProgress(newProgress, at);
+
+        checkAndHandleCompletion(task, at);
+    }
+
+    private void assignSelectedDays(Task task, TaskDTO dto) {
+        TaskSchedule schedule = task.getSchedule();
+        schedule.clear();
 
         if (dto.getSelectedDays() == null || task.getFrequency() == null) {
             return;
         }
 
-        String freqName = task.getFrequency().getName().toLowerCase();
-        if ("weekly".equals(freqName)) {
-            task.getWeekDays().addAll(dto.getSelectedDays());
-        } else if ("monthly".equals(freqName)) {
-            task.getMonthDays().addAll(dto.getSelectedDays());
-        } else if ("yearly".equals(freqName)) {
-            task.getYearDays().addAll(dto.getSelectedDays());
-        }
+        task.getFrequency().getKind().setSelectedDays(schedule, dto.getSelectedDays());
+    }
+
+    private static TaskCompletionDTO toResponse(TaskCompletion completion) {
+        return new TaskCompletionDTO(completion.getTaskId(), completion.getOccurrenceDate(), completion.getQuantity(),
+                completion.getCompletedAt());
     }
 
     private TaskResponseDTO toResponse(Task task) {
+        return toResponse(TaskListRow.of(task));
+    }
+
+    private TaskResponseDTO toResponse(TaskListRow task) {
         TaskResponseDTO dto = new TaskResponseDTO();
-        dto.setId(task.getId());
-        dto.setName(task.getName());
-        dto.setDescription(task.getDescription());
-
-        if (task.getFrequency() != null) {
-            dto.setFrequencyId(task.getFrequency().getId());
-            dto.setFrequencyName(task.getFrequency().getName());
-
-            String freqName = task.getFrequency().getName().toLowerCase();
-            if ("weekly".equals(freqName)) {
-                dto.setSelectedDays(
-                        task.getWeekDays() != null ? new ArrayList<>(task.getWeekDays()) : new ArrayList<>());
-            } else if ("monthly".equals(freqName)) {
-                dto.setSelectedDays(
-                        task.getMonthDays() != null ? new ArrayList<>(task.getMonthDays()) : new ArrayList<>());
-            } else if ("yearly".equals(freqName)) {
-                dto.setSelectedDays(
-                        task.getYearDays() != null ? new ArrayList<>(task.getYearDays()) : new ArrayList<>());
-            } else {
-                dto.setSelectedDays(new ArrayList<>());
-            }
+        dto.setId(task.id());
+        dto.setName(task.name());
+        dto.setDescription(task.description());
+
+        if (task.frequencyName() != null) {
+            dto.setFrequencyId(task.frequencyId());
+            dto.setFrequencyName(task.frequencyName());
+
+            TaskSchedule schedule = task.schedule() != null ? task.schedule() : new TaskSchedule();
+            dto.setSelectedDays(task.frequencyKind().selectedDays(schedule));
         }
 
-        if (task.getGoal() != null) {
-            dto.setGoalId(task.getGoal().getId());
-            dto.setGoalName(task.getGoal().getName());
-            if (task.getGoal().getUnit() != null) {
-                dto.setGoalUnitCode(task.getGoal().getUnit().getCode());
-                dto.setGoalUnitName(task.getGoal().getUnit().getName());
-            }
-        }
-
-        dto.setCreatedAt(task.getCreatedAt());
-        dto.setUpdatedAt(task.getUpdatedAt());
-        dto.setCompletedAt(task.getCompletedAt());
-        dto.setQuantity(task.getQuantity());
-        dto.setOverflowQuantity(task.getOverflowQuantity());
-        dto.setProgress(task.getProgress());
-        dto.setDeletedAt(task.getDeletedAt());
-        dto.setUrgent(task.isUrgent());
+        if (task.goalId() != null) {
+            dto.setGoalId(task.goalId());
+            dto.setGoalName(task.goalName());
+            dto.setGoalUnitCode(task.goalUnitCode());
+            dto.setGoalUnitName(task.goalUnitName());
+        }
+
+        dto.setCreatedAt(task.createdAt());
+        dto.setUpdatedAt(task.updatedAt());
+        dto.setCompletedAt(task.completedAt());
+        dto.setQuantity(task.quantity());
+        dto.setOverflowQuantity(task.overflowQuantity());
+        dto.setProgress(task.progress());
+        dto.setDeletedAt(task.deletedAt());
+        dto.setUrgent(task.urgent());
+
+        if (task.streak() != null) {
+            dto.setCurrentStreak(task.streak().getCurrentLength(LocalDate.now()));
+            dto.setLongestStreak(task.streak().getLongestLength());
+        }
 
         return dto;
     }
@@ -1,7 +1,6 @@
 package com.andreadelorenzis.productivityApp.service;
 
 import com.andreadelorenzis.productivityApp.dto.UnitDTO;
-import com.andreadelorenzis.productivityApp.repository.UnitRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,14 +9,14 @@ import java.util.stream.Collectors;
 @Service
 public class UnitService {
 
-    private final UnitRepository unitRepository;
+    private final ReferenceDataRegistry referenceData;
 
-    public UnitService(UnitRepository unitRepository) {
-        this.unitRepository = unitRepository;
+    public UnitService(ReferenceDataRegistry referenceData) {
+        this.referenceData = referenceData;
     }
 
     public List<UnitDTO> getAllUnits() {
-        return unitRepository.findAll().stream()
+        return referenceData.getUnits().stream()
                 .map(unit -> new UnitDTO(
                         unit.getId(),
                         unit.getCode(),
@@ -0,0 +1,56 @@
+-- Moves the selected days of recurring tasks from the task_week_days,
+-- task_month_days and task_year_days collection tables into bitmask columns
+-- on tasks (day d is bit d - 1; the 366-bit year map is split over six words).
+-- Run once against PostgreSQL before starting the new version.
+
+BEGIN;
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS week_days_mask integer NOT NULL DEFAULT 0;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS month_days_mask integer NOT NULL DEFAULT 0;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS year_days_mask_0 bigint NOT NULL DEFAULT 0;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS year_days_mask_1 bigint NOT NULL DEFAULT 0;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS year_days_mask_2 bigint NOT NULL DEFAULT 0;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS year_days_mask_3 bigint NOT NULL DEFAULT 0;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS year_days_mask_4 bigint NOT NULL DEFAULT 0;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS year_days_mask_5 bigint NOT NULL DEFAULT 0;
+
+UPDATE tasks t
+SET week_days_mask = d.mask
+FROM (SELECT task_id, bit_or(1 << (weekday - 1)) AS mask
+      FROM task_week_days
+      WHERE weekday BETWEEN 1 AND 7
+      GROUP BY task_id) d
+WHERE d.task_id = t.id;
+
+UPDATE tasks t
+SET month_days_mask = d.mask
+FROM (SELECT task_id, bit_or(1 << (day_of_month - 1)) AS mask
+      FROM task_month_days
+      WHERE day_of_month BETWEEN 1 AND 31
+      GROUP BY task_id) d
+WHERE d.task_id = t.id;
+
+UPDATE tasks t
+SET year_days_mask_0 = d.w0,
+    year_days_mask_1 = d.w1,
+    year_days_mask_2 = d.w2,
+    year_days_mask_3 = d.w3,
+    year_days_mask_4 = d.w4,
+    year_days_mask_5 = d.w5
+FROM (SELECT task_id,
+             bit_or(CASE WHEN (day_of_year - 1) / 64 = 0 THEN 1::bigint << ((day_of_year - 1) % 64) ELSE 0 END) AS w0,
+             bit_or(CASE WHEN (day_of_year - 1) / 64 = 1 THEN 1::bigint << ((day_of_year - 1) % 64) ELSE 0 END) AS w1,
+             bit_or(CASE WHEN (day_of_year - 1) / 64 = 2 THEN 1::bigint << ((day_of_year - 1) % 64) ELSE 0 END) AS w2,
+             bit_or(CASE WHEN (day_of_year - 1) / 64 = 3 THEN 1::bigint << ((day_of_year - 1) % 64) ELSE 0 END) AS w3,
+             bit_or(CASE WHEN (day_of_year - 1) / 64 = 4 THEN 1::bigint << ((day_of_year - 1) % 64) ELSE 0 END) AS w4,
+             bit_or(CASE WHEN (day_of_year - 1) / 64 = 5 THEN 1::bigint << ((day_of_year - 1) % 64) ELSE 0 END) AS w5
+      FROM task_year_days
+      WHERE day_of_year BETWEEN 1 AND 366
+      GROUP BY task_id) d
+WHERE d.task_id = t.id;
+
+DROP TABLE task_week_days;
+DROP TABLE task_month_days;
+DROP TABLE task_year_days;
+
+COMMIT;
@@ -0,0 +1,24 @@
+-- Keyset pagination for GET /api/tasks and GET /api/goals.
+-- tasks.goal_importance is a copy of goals.importance (-1 without a goal) so
+-- the task listing order can be read straight from one index.
+-- Run once against PostgreSQL before starting the new version.
+
+BEGIN;
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS goal_importance integer NOT NULL DEFAULT -1;
+
+UPDATE tasks t
+SET goal_importance = coalesce(g.importance, -1)
+FROM goals g
+WHERE g.id = t.goal_id;
+
+DROP INDEX IF EXISTS idx_tasks_listing;
+CREATE INDEX idx_tasks_listing
+    ON tasks (urgent DESC, goal_importance DESC, created_at DESC, id DESC)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_goals_listing
+    ON goals ((coalesce(importance, 0)) DESC, created_at DESC, id DESC)
+    WHERE deleted_at IS NULL;
+
+COMMIT;
@@ -0,0 +1,31 @@
+-- Trigram indexes for GET /api/search and the task search filter.
+-- The search queries match lower(column) LIKE '%text%', which a GIN index
+-- with gin_trgm_ops answers from the trigrams of the text instead of
+-- scanning every row (texts shorter than three characters still scan).
+-- Run once against PostgreSQL before starting the new version.
+
+BEGIN;
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_name_trgm
+    ON tasks USING gin (lower(name) gin_trgm_ops)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_description_trgm
+    ON tasks USING gin (lower(description) gin_trgm_ops)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_goals_name_trgm
+    ON goals USING gin (lower(name) gin_trgm_ops)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_goals_description_trgm
+    ON goals USING gin (lower(description) gin_trgm_ops)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_goals_reason_trgm
+    ON goals USING gin (lower(reason) gin_trgm_ops)
+    WHERE deleted_at IS NULL;
+
+COMMIT;
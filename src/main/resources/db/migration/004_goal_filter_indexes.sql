@@ -0,0 +1,22 @@
+-- Filtered and sorted goal listing (GET /api/goals with status, deadline,
+-- importance, difficulty or sort parameters). Only active goals are ever
+-- listed, so the indexes leave soft-deleted rows out.
+-- Run once against PostgreSQL before starting the new version.
+
+BEGIN;
+
+-- Hibernate may already have created these without the WHERE clause
+DROP INDEX IF EXISTS idx_goals_status_deadline;
+CREATE INDEX idx_goals_status_deadline
+    ON goals (status_id, deadline)
+    WHERE deleted_at IS NULL;
+
+DROP INDEX IF EXISTS idx_goals_deadline;
+CREATE INDEX idx_goals_deadline
+    ON goals (deadline)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_goals_deleted_at
+    ON goals (deleted_at);
+
+COMMIT;
@@ -0,0 +1,30 @@
+-- Append-only log of goal progress changes (task progress, completion and
+-- uncompletion). ProgressCompactor folds unfolded events into
+-- goals.current_progress in batches and stamps them with folded_at.
+-- Run once against PostgreSQL before starting the new version.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS progress_events (
+    id          BIGSERIAL PRIMARY KEY,
+    task_id     BIGINT,
+    goal_id     BIGINT         NOT NULL,
+    delta       NUMERIC(19, 4) NOT NULL,
+    created_at  TIMESTAMP      NOT NULL,
+    folded_at   TIMESTAMP
+);
+
+-- Reads sum each goal's unfolded tail; the compactor scans unfolded events
+-- oldest first. Folded events are only history, so both indexes skip them.
+-- Hibernate may already have created these without the WHERE clause
+DROP INDEX IF EXISTS idx_progress_events_goal_folded;
+CREATE INDEX idx_progress_events_goal_folded
+    ON progress_events (goal_id)
+    WHERE folded_at IS NULL;
+
+DROP INDEX IF EXISTS idx_progress_events_folded;
+CREATE INDEX idx_progress_events_folded
+    ON progress_events (id)
+    WHERE folded_at IS NULL;
+
+COMMIT;
@@ -0,0 +1,16 @@
+-- progress_events ids now come from a pooled sequence (50 ids per call) so
+-- batches of events can be inserted with JDBC batching.
+-- Run once against PostgreSQL before starting the new version.
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS progress_events_seq INCREMENT BY 50;
+
+-- Hibernate hands out the 50 ids up to each value it reads, so start past
+-- every existing id
+SELECT setval('progress_events_seq', (SELECT coalesce(max(id), 0) + 50 FROM progress_events));
+
+ALTER TABLE progress_events ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS progress_events_id_seq;
+
+COMMIT;
@@ -0,0 +1,20 @@
+-- tasks and goals ids now come from pooled sequences (50 ids per call), so
+-- bulk imports can be inserted with JDBC batching.
+-- Run once against PostgreSQL before starting the new version.
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS tasks_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS goals_seq INCREMENT BY 50;
+
+-- Hibernate hands out the 50 ids up to each value it reads, so start past
+-- every existing id
+SELECT setval('tasks_seq', (SELECT coalesce(max(id), 0) + 50 FROM tasks));
+SELECT setval('goals_seq', (SELECT coalesce(max(id), 0) + 50 FROM goals));
+
+ALTER TABLE tasks ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE goals ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS tasks_id_seq;
+DROP SEQUENCE IF EXISTS goals_id_seq;
+
+COMMIT;
@@ -0,0 +1,55 @@
+-- Per-occurrence completion history of tasks, partitioned by month of
+-- occurrence_date so date-bounded reads only scan the months they cover.
+-- Run once against PostgreSQL before starting the new version.
+--
+-- Partitions exist for the current month and the next 24; rows outside
+-- them land in task_completions_default. The application's
+-- TaskCompletionPartitions job extends the range at startup and monthly
+-- (a default partition holding rows of a month blocks creating that
+-- month's partition); by hand:
+--     SELECT create_task_completion_partitions(date_trunc('month', now())::date, 24);
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS task_completions_seq INCREMENT BY 50;
+
+-- Keys of a partitioned table must include the partition column
+CREATE TABLE IF NOT EXISTS task_completions (
+    id               BIGINT         NOT NULL,
+    task_id          BIGINT         NOT NULL,
+    occurrence_date  DATE           NOT NULL,
+    quantity         NUMERIC(19, 4),
+    completed_at     TIMESTAMP      NOT NULL,
+    PRIMARY KEY (id, occurrence_date)
+) PARTITION BY RANGE (occurrence_date);
+
+-- One row per task and day; also serves "task X between A and B"
+CREATE UNIQUE INDEX IF NOT EXISTS uk_task_completions_task_date
+    ON task_completions (task_id, occurrence_date);
+
+-- "Completions on day D" reads a single partition through this one
+CREATE INDEX IF NOT EXISTS idx_task_completions_date
+    ON task_completions (occurrence_date, task_id);
+
+CREATE TABLE IF NOT EXISTS task_completions_default
+    PARTITION OF task_completions DEFAULT;
+
+CREATE OR REPLACE FUNCTION create_task_completion_partitions(first_month DATE, months INT)
+RETURNS VOID AS $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR i IN 0..months LOOP
+        month_start := (date_trunc('month', first_month) + make_interval(months => i))::date;
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF task_completions FOR VALUES FROM (%L) TO (%L)',
+            'task_completions_' || to_char(month_start, 'YYYY_MM'),
+            month_start,
+            (month_start + INTERVAL '1 month')::date);
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_task_completion_partitions(date_trunc('month', now())::date, 24);
+
+COMMIT;
@@ -0,0 +1,13 @@
+-- Current and longest streak of every task, kept on the tasks row so
+-- listings read them without scanning task_completions. They start at zero;
+-- POST /api/tasks/streaks/rebuild fills them in from the completion history.
+-- Run once against PostgreSQL before starting the new version.
+
+BEGIN;
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS streak_current INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS streak_longest INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS streak_last_occurrence DATE;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS streak_broken_on DATE;
+
+COMMIT;
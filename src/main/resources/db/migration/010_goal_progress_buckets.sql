@@ -0,0 +1,37 @@
+-- Daily and weekly (from Monday) progress buckets of goals, written by
+-- ProgressCompactor as it folds progress events and read by
+-- GET /api/goals/{id}/progress-series. History starts here: every active
+-- goal gets a bucket for today, holding its current folded progress.
+-- Run once against PostgreSQL before starting the new version.
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS goal_progress_buckets_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS goal_progress_buckets (
+    id            BIGINT         PRIMARY KEY,
+    goal_id       BIGINT         NOT NULL,
+    granularity   VARCHAR(8)     NOT NULL,
+    bucket_start  DATE           NOT NULL,
+    delta         NUMERIC(19, 4) NOT NULL,
+    progress      NUMERIC(19, 4) NOT NULL
+);
+
+-- One row per goal and bucket; also serves "goal X between A and B" and
+-- "latest bucket of goal X before A"
+CREATE UNIQUE INDEX IF NOT EXISTS uk_goal_progress_buckets_goal_start
+    ON goal_progress_buckets (goal_id, granularity, bucket_start);
+
+INSERT INTO goal_progress_buckets (id, goal_id, granularity, bucket_start, delta, progress)
+SELECT row_number() OVER (ORDER BY g.id, b.granularity), g.id, b.granularity, b.bucket_start, 0, g.current_progress
+FROM goals g
+CROSS JOIN (VALUES ('DAY', current_date),
+                   ('WEEK', date_trunc('week', current_date)::date)) AS b (granularity, bucket_start)
+WHERE g.deleted_at IS NULL
+ON CONFLICT DO NOTHING;
+
+-- Hibernate hands out the 50 ids up to each value it reads, so start past
+-- every seeded id
+SELECT setval('goal_progress_buckets_seq', (SELECT coalesce(max(id), 0) + 50 FROM goal_progress_buckets));
+
+COMMIT;
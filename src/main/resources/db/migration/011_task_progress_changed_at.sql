@@ -0,0 +1,15 @@
+-- When task progress last took a new value, so PeriodRollover no longer
+-- mistakes an unrelated write (rename, urgent flag, streak) in the current
+-- period for progress made in it. Existing rows start from their last write,
+-- which is what the rollover compared until now.
+-- Run once against PostgreSQL before starting the new version.
+
+BEGIN;
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS progress_changed_at TIMESTAMP;
+
+UPDATE tasks
+SET progress_changed_at = updated_at
+WHERE progress IS NOT NULL AND progress_changed_at IS NULL;
+
+COMMIT;
@@ -0,0 +1,184 @@
+package com.andreadelorenzis.productivityApp.benchmark;
+
+import com.andreadelorenzis.productivityApp.controller.TaskController;
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.Goal;
+import com.andreadelorenzis.productivityApp.entity.GoalStatus;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.ServletWebRequest;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Peak live heap while writing GET /api/tasks for 100k tasks, materialized
+ * (List + Jackson) versus streamed (stream=true). The heap is sampled after a
+ * full GC every few MB of JSON written, so the numbers reflect what the
+ * response keeps reachable rather than garbage awaiting collection.
+ *
+ * Run with: mvn test -Dtest=ListingHeapBenchmarkTest -Dbenchmark=true
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:heap-benchmark;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ListingHeapBenchmarkTest {
+
+    private static final int TASKS = 100_000;
+    private static final int GOALS = 50;
+    private static final long SAMPLE_EVERY_BYTES = 4L * 1024 * 1024;
+
+    @Autowired
+    private TaskController taskController;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FrequencyRepository frequencyRepository;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    @Autowired
+    private GoalStatusRepository statusRepository;
+
+    @BeforeAll
+    void seed() {
+        Frequency daily = frequencyRepository.save(new Frequency("daily"));
+        GoalStatus active = statusRepository.save(new GoalStatus("Active"));
+        List<Long> goalIds = new ArrayList<>();
+        for (int i = 0; i < GOALS; i++) {
+            Goal goal = new Goal();
+            goal.setName("Goal " + i);
+            goal.setStatus(active);
+            goal.setImportance(1 + i % 5);
+            goal.setTargetQuantity(new BigDecimal("1000"));
+            goal.setDeadline(LocalDateTime.now().plusYears(1));
+            goalIds.add(goalRepository.save(goal).getId());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            Timestamp createdAt = Timestamp.valueOf(now.minusMinutes(i));
+            rows.add(new Object[] { i + 1L, "Task " + i, "Benchmark task number " + i, daily.getId(),
+                    goalIds.get(i % GOALS), 1 + (i % GOALS) % 5, i % 10 == 0, createdAt, createdAt,
+                    BigDecimal.ZERO, BigDecimal.ONE });
+        }
+        // Ids come from a pooled sequence with no column default; nothing else inserts tasks here
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO tasks (id, name, description, frequency_id, goal_id, goal_importance, urgent,
+                                   created_at, updated_at, progress, quantity)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, rows);
+    }
+
+    @Test
+    void compareMaterializedAndStreamedPeakHeap() throws IOException {
+        // Warm up both paths (class loading, query plans) before measuring
+        measure(false);
+        measure(true);
+
+        Result materialized = measure(false);
+        Result streamed = measure(true);
+
+        System.out.printf("%n%-13s %12s %14s%n", "mode", "bytes", "peak heap (MB)");
+        System.out.printf("%-13s %12d %14.1f%n", "materialized", materialized.bytes, materialized.peakMb());
+        System.out.printf("%-13s %12d %14.1f%n%n", "streamed", streamed.bytes, streamed.peakMb());
+
+        assertTrue(streamed.peakBytes < materialized.peakBytes);
+    }
+
+    private Result measure(boolean streaming) throws IOException {
+        long baseline = liveHeap();
+        SamplingOutputStream out = new SamplingOutputStream(baseline);
+        if (streaming) {
+            taskController.streamTasks(noConditions()).getBody().writeTo(out);
+        } else {
+            jsonMapper.writeValue(out, taskController.listTasks(null, null, null, null, null, noConditions()).getBody());
+        }
+        out.sample();
+        return new Result(out.count, out.peak);
+    }
+
+    private static ServletWebRequest noConditions() {
+        return new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+    }
+
+    private static long liveHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private record Result(long bytes, long peakBytes) {
+        double peakMb() {
+            return peakBytes / (1024.0 * 1024.0);
+        }
+    }
+
+    /** Discards the JSON, sampling live heap above the baseline as it goes. */
+    private static final class SamplingOutputStream extends OutputStream {
+
+        private final long baseline;
+        private long count;
+        private long nextSample = SAMPLE_EVERY_BYTES;
+        private long peak;
+
+        SamplingOutputStream(long baseline) {
+            this.baseline = baseline;
+        }
+
+        @Override
+        public void write(int b) {
+            count++;
+            maybeSample();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+            maybeSample();
+        }
+
+        private void maybeSample() {
+            if (count >= nextSample) {
+                nextSample += SAMPLE_EVERY_BYTES;
+                sample();
+            }
+        }
+
+        void sample() {
+            peak = Math.max(peak, liveHeap() - baseline);
+        }
+    }
+}
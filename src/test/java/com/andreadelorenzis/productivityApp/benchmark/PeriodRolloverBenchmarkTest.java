@@ -0,0 +1,114 @@
+package com.andreadelorenzis.productivityApp.benchmark;
+
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.service.PeriodRollover;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Midnight rollover over 1M tasks spread across the five frequencies, with
+ * every recurring task completed in the previous period. Also times the run
+ * right after, which must find nothing left to reset.
+ *
+ * Run with: mvn test -Dtest=PeriodRolloverBenchmarkTest -Dbenchmark=true
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:rollover-benchmark;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class PeriodRolloverBenchmarkTest {
+
+    private static final int TASKS = 1_000_000;
+    private static final int BATCH = 10_000;
+    private static final String[] FREQUENCIES = { "daily", "weekly", "monthly", "yearly", "one-time" };
+
+    // Monday 1 March 2027: day, week and month all end, the year does not
+    private static final LocalDateTime NOW = LocalDateTime.of(2027, 3, 1, 0, 0);
+
+    @Autowired
+    private PeriodRollover rollover;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FrequencyRepository frequencyRepository;
+
+    private int expectedResets;
+
+    @BeforeAll
+    void seed() {
+        List<Long> frequencyIds = new ArrayList<>();
+        for (String name : FREQUENCIES) {
+            frequencyIds.add(frequencyRepository.save(new Frequency(name)).getId());
+        }
+
+        Timestamp completedAt = Timestamp.valueOf(NOW.minusHours(2));
+        Timestamp createdAt = Timestamp.valueOf(NOW.minusYears(1));
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int i = 0; i < TASKS; i++) {
+            int frequency = i % FREQUENCIES.length;
+            // Yearly tasks are still in their period; one-time tasks never roll over
+            if (frequency < 3) {
+                expectedResets++;
+            }
+            rows.add(new Object[] { i + 1L, "Task " + i, frequencyIds.get(frequency), createdAt, completedAt,
+                    completedAt, new BigDecimal("12"), completedAt, BigDecimal.TEN,
+                    i % 2 == 0 ? BigDecimal.ONE : BigDecimal.ZERO });
+            if (rows.size() == BATCH) {
+                insert(rows);
+                rows.clear();
+            }
+        }
+        insert(rows);
+    }
+
+    private void insert(List<Object[]> rows) {
+        // Ids come from a pooled sequence with no column default; nothing else inserts tasks here
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO tasks (id, name, frequency_id, created_at, updated_at, completed_at,
+                                   progress, progress_changed_at, quantity, overflow_quantity, urgent,
+                                   goal_importance, version)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, FALSE, -1, 0)
+                """, rows);
+    }
+
+    @Test
+    void rollOverOneMillionTasks() {
+        long start = System.nanoTime();
+        int reset = rollover.rollOver(NOW);
+        long rollOverNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int again = rollover.rollOver(NOW);
+        long rerunNanos = System.nanoTime() - start;
+
+        System.out.printf("%n%-8s %10s %10s%n", "run", "reset", "ms");
+        System.out.printf("%-8s %10d %10d%n", "rollover", reset, rollOverNanos / 1_000_000);
+        System.out.printf("%-8s %10d %10d%n%n", "rerun", again, rerunNanos / 1_000_000);
+
+        assertEquals(expectedResets, reset);
+        assertEquals(0, again);
+        // Half of them carry over what exceeded the quantity, capped at 1
+        assertEquals(expectedResets / 2, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM tasks WHERE progress = 1 AND completed_at IS NULL", Integer.class));
+    }
+}
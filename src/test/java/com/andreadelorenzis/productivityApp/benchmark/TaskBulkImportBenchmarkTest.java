@@ -0,0 +1,121 @@
+package com.andreadelorenzis.productivityApp.benchmark;
+
+import com.andreadelorenzis.productivityApp.dto.TaskDTO;
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.Goal;
+import com.andreadelorenzis.productivityApp.entity.GoalStatus;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import com.andreadelorenzis.productivityApp.service.ReferenceDataRegistry;
+import com.andreadelorenzis.productivityApp.service.TaskService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Throughput of importing 10k tasks: one POST /api/tasks per task (a
+ * transaction and an insert each) versus one POST /api/tasks/bulk (pooled
+ * sequence ids, JDBC insert batches, one commit). Each mode imports a
+ * warmup round first; the timed round is reported in tasks per second.
+ *
+ * Run with: mvn test -Dtest=TaskBulkImportBenchmarkTest -Dbenchmark=true
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:import-benchmark;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class TaskBulkImportBenchmarkTest {
+
+    private static final int TASKS = 10_000;
+    private static final int GOALS = 50;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    @Autowired
+    private FrequencyRepository frequencyRepository;
+
+    @Autowired
+    private GoalStatusRepository statusRepository;
+
+    @Autowired
+    private ReferenceDataRegistry referenceData;
+
+    private List<TaskDTO> dtos;
+
+    @BeforeAll
+    void seed() {
+        Frequency weekly = frequencyRepository.save(new Frequency("weekly"));
+        GoalStatus active = statusRepository.save(new GoalStatus("active"));
+        referenceData.refresh();
+        List<Goal> goals = new ArrayList<>();
+        for (int i = 0; i < GOALS; i++) {
+            Goal goal = new Goal();
+            goal.setName("Goal " + i);
+            goal.setStatus(active);
+            goal.setTargetQuantity(new BigDecimal("100"));
+            goal.setDeadline(LocalDateTime.now().plusYears(1));
+            goals.add(goal);
+        }
+        goalRepository.saveAll(goals);
+
+        dtos = new ArrayList<>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            TaskDTO dto = new TaskDTO("Imported " + i, "Row " + i, weekly.getId());
+            dto.setGoalId(goals.get(i % GOALS).getId());
+            dto.setQuantity(new BigDecimal("3"));
+            dto.setSelectedDays(List.of(1 + i % 7, 1 + (i + 3) % 7));
+            dtos.add(dto);
+        }
+    }
+
+    @Test
+    void benchmarkImport() {
+        singleImport();
+        double single = tasksPerSecond(this::singleImport);
+        bulkImport();
+        double bulk = tasksPerSecond(this::bulkImport);
+
+        assertEquals(4L * TASKS, taskRepository.count());
+        System.out.printf("%-10s %16s %16s %8s%n", "tasks", "single tasks/s", "bulk tasks/s", "speedup");
+        System.out.printf("%-10d %16.0f %16.0f %7.1fx%n", TASKS, single, bulk, bulk / single);
+    }
+
+    private void singleImport() {
+        for (TaskDTO dto : dtos) {
+            taskService.createTask(dto);
+        }
+    }
+
+    private void bulkImport() {
+        taskService.createTasks(dtos);
+    }
+
+    private static double tasksPerSecond(Runnable run) {
+        long start = System.nanoTime();
+        run.run();
+        return TASKS / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+}
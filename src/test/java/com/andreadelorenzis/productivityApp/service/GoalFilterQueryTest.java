@@ -0,0 +1,141 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.dto.GoalResponseDTO;
+import com.andreadelorenzis.productivityApp.entity.Goal;
+import com.andreadelorenzis.productivityApp.entity.GoalStatus;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalFilter;
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalProgressBucketRepository;
+import com.andreadelorenzis.productivityApp.repository.ProgressEventRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import com.andreadelorenzis.productivityApp.repository.UnitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The filtered and sorted goal listing: every filter and sort runs in the
+ * query, and soft-deleted goals never match.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class GoalFilterQueryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now().withNano(0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    @Autowired
+    private ProgressEventRepository progressEventRepository;
+
+    @Autowired
+    private GoalProgressBucketRepository progressBucketRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private FrequencyRepository frequencyRepository;
+
+    @Autowired
+    private GoalStatusRepository statusRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    private GoalService goalService;
+    private GoalStatus active;
+
+    @BeforeEach
+    void setUp() {
+        // Each test runs in a transaction already
+        OptimisticRetry retry = new OptimisticRetry(TransactionOperations.withoutTransaction());
+        goalService = new GoalService(goalRepository, progressEventRepository, progressBucketRepository,
+                new GoalProgressRollup(progressBucketRepository),
+                new ReferenceDataRegistry(frequencyRepository, unitRepository, statusRepository), taskRepository,
+                new IdealProgressCache(new SimpleMeterRegistry()), retry, event -> {
+                });
+
+        active = entityManager.persist(new GoalStatus("Active"));
+        GoalStatus paused = entityManager.persist(new GoalStatus("Paused"));
+
+        addGoal("Alpha", active, 10, 5, 1);
+        addGoal("bravo", active, 20, 3, 4);
+        addGoal("Charlie", paused, 5, 4, 2);
+        addGoal("Delta", active, 40, null, null);
+        addGoal("Echo", active, 15, 5, 3).setDeletedAt(NOW);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testListGoals_FiltersByStatusAndDeadline() {
+        assertEquals(List.of("Alpha", "bravo", "Delta"),
+                names(new GoalFilter(active.getId(), null, null, null, null, null, null), "deadline", null));
+        assertEquals(List.of("Alpha", "bravo"),
+                names(new GoalFilter(active.getId(), NOW.plusDays(10), NOW.plusDays(20), null, null, null, null),
+                        "deadline", null));
+    }
+
+    @Test
+    void testListGoals_FiltersByImportanceAndDifficulty() {
+        assertEquals(List.of("Alpha", "Charlie"),
+                names(new GoalFilter(null, null, null, 4, null, null, null), null, null));
+        assertEquals(List.of("Alpha", "Charlie"),
+                names(new GoalFilter(null, null, null, null, null, 1, 2), "name", null));
+    }
+
+    @Test
+    void testListGoals_SortsInEitherDirection() {
+        assertEquals(List.of("Alpha", "bravo", "Charlie", "Delta"), names(GoalFilter.NONE, "NAME", null));
+        assertEquals(List.of("Delta", "Charlie", "bravo", "Alpha"), names(GoalFilter.NONE, "name", "desc"));
+        assertEquals(List.of("Delta", "bravo", "Alpha", "Charlie"), names(GoalFilter.NONE, "deadline", "desc"));
+        assertEquals(List.of("Alpha", "Charlie", "bravo", "Delta"), names(GoalFilter.NONE, null, null));
+    }
+
+    @Test
+    void testListGoals_RejectsInvalidInput() {
+        GoalFilter none = GoalFilter.NONE;
+        assertThrows(IllegalArgumentException.class, () -> goalService.listGoals(none, "priority", null));
+        assertThrows(IllegalArgumentException.class, () -> goalService.listGoals(none, null, "up"));
+        assertThrows(IllegalArgumentException.class, () -> goalService.listGoals(
+                new GoalFilter(null, NOW.plusDays(2), NOW.plusDays(1), null, null, null, null), null, null));
+        assertThrows(IllegalArgumentException.class, () -> goalService.listGoals(
+                new GoalFilter(null, null, null, 4, 2, null, null), null, null));
+        assertThrows(IllegalArgumentException.class, () -> goalService.listGoals(
+                new GoalFilter(null, null, null, null, null, 0, null), null, null));
+    }
+
+    private List<String> names(GoalFilter filter, String sort, String direction) {
+        return goalService.listGoals(filter, sort, direction).stream().map(GoalResponseDTO::getName).toList();
+    }
+
+    private Goal addGoal(String name, GoalStatus status, int deadlineDays, Integer importance, Integer difficulty) {
+        Goal goal = new Goal();
+        goal.setName(name);
+        goal.setStatus(status);
+        goal.setImportance(importance);
+        goal.setDifficulty(difficulty);
+        goal.setTargetQuantity(new BigDecimal("100"));
+        goal.setDeadline(NOW.plusDays(deadlineDays));
+        return entityManager.persist(goal);
+    }
+}
@@ -0,0 +1,120 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.dto.TaskProgressUpdateDTO;
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.Goal;
+import com.andreadelorenzis.productivityApp.entity.GoalStatus;
+import com.andreadelorenzis.productivityApp.entity.Task;
+import com.andreadelorenzis.productivityApp.entity.Unit;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import com.andreadelorenzis.productivityApp.repository.UnitRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Parallel progress on tasks of the same goal: every increment must land on
+ * the goal, none lost to a race, both before and after it is compacted.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:progress-concurrency;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+public class GoalProgressConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int UPDATES_PER_THREAD = 125;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private GoalService goalService;
+
+    @Autowired
+    private ProgressCompactor progressCompactor;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    @Autowired
+    private FrequencyRepository frequencyRepository;
+
+    @Autowired
+    private GoalStatusRepository statusRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @Test
+    void testAddTaskProgress_ParallelIncrementsAllLand() throws Exception {
+        Frequency daily = frequencyRepository.save(new Frequency("daily"));
+        Unit pages = unitRepository.save(new Unit("pg", "Pages"));
+        GoalStatus active = statusRepository.save(new GoalStatus("active"));
+
+        Goal goal = new Goal();
+        goal.setName("Read");
+        goal.setUnit(pages);
+        goal.setStatus(active);
+        goal.setTargetQuantity(new BigDecimal("1000000"));
+        goal.setDeadline(LocalDateTime.now().plusYears(1));
+        goal = goalRepository.save(goal);
+
+        // One task per thread, so the only shared row is the goal
+        List<Long> taskIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Task task = new Task("Task " + i, null);
+            task.setFrequency(daily);
+            task.setGoal(goal);
+            taskIds.add(taskRepository.save(task).getId());
+        }
+
+        TaskProgressUpdateDTO update = new TaskProgressUpdateDTO();
+        update.setQuantity(new BigDecimal("1.5"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long taskId : taskIds) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                        taskService.addTaskProgress(taskId, update);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        BigDecimal expected = new BigDecimal("1.5").multiply(BigDecimal.valueOf(THREADS * UPDATES_PER_THREAD));
+        assertEquals(0, expected.compareTo(goalService.getGoal(goal.getId()).getCurrentProgress()));
+
+        progressCompactor.compact();
+
+        Goal reloaded = goalRepository.findById(goal.getId()).orElseThrow();
+        assertEquals(0, expected.compareTo(reloaded.getCurrentProgress()),
+                "expected " + expected + " but was " + reloaded.getCurrentProgress());
+        assertEquals(0, expected.compareTo(goalService.getGoal(goal.getId()).getCurrentProgress()));
+    }
+}
@@ -0,0 +1,261 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.dto.GoalDTO;
+import com.andreadelorenzis.productivityApp.dto.GoalProgressPointDTO;
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.Goal;
+import com.andreadelorenzis.productivityApp.entity.GoalStatus;
+import com.andreadelorenzis.productivityApp.entity.ProgressEvent;
+import com.andreadelorenzis.productivityApp.entity.Task;
+import com.andreadelorenzis.productivityApp.exception.ResourceNotFoundException;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalProgressBucketRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
+import com.andreadelorenzis.productivityApp.repository.ProgressEventRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import com.andreadelorenzis.productivityApp.repository.UnitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Progress buckets are filled as the compactor folds events and by explicit
+ * progress updates; the burn-down series reads them, carrying progress over
+ * days without events.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class GoalProgressSeriesTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    @Autowired
+    private ProgressEventRepository progressEventRepository;
+
+    @Autowired
+    private GoalProgressBucketRepository progressBucketRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private FrequencyRepository frequencyRepository;
+
+    @Autowired
+    private GoalStatusRepository statusRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    private ProgressCompactor compactor;
+    private GoalService goalService;
+    private GoalStatus active;
+
+    @BeforeEach
+    void setUp() {
+        // Each test runs in a transaction already
+        TransactionOperations transactions = TransactionOperations.withoutTransaction();
+        GoalProgressRollup rollup = new GoalProgressRollup(progressBucketRepository);
+        compactor = new ProgressCompactor(progressEventRepository, goalRepository, rollup, transactions,
+                new SimpleMeterRegistry());
+        goalService = new GoalService(goalRepository, progressEventRepository, progressBucketRepository, rollup,
+                new ReferenceDataRegistry(frequencyRepository, unitRepository, statusRepository), taskRepository,
+                new IdealProgressCache(new SimpleMeterRegistry()), new OptimisticRetry(transactions), event -> {
+                });
+
+        active = entityManager.persist(new GoalStatus("active"));
+    }
+
+    @Test
+    void testSeries_CarriesProgressOverDaysWithoutEvents() {
+        Goal goal = addGoal("10");
+        event(goal, "5", TODAY.minusDays(3));
+        compactor.compact();
+        event(goal, "2", TODAY.minusDays(1));
+        compactor.compact();
+        event(goal, "-1", TODAY);
+        compactor.compact();
+
+        List<GoalProgressPointDTO> points = series(goal, TODAY.minusDays(4), TODAY.plusDays(1), "day");
+
+        assertEquals(6, points.size());
+        assertPoint(null, null, points.get(0));
+        assertPoint("15", "5", points.get(1));
+        assertPoint("15", "0", points.get(2));
+        assertPoint("17", "2", points.get(3));
+        assertPoint("16", "-1", points.get(4));
+        assertPoint(null, null, points.get(5));
+        assertEquals(TODAY.plusDays(1), points.get(5).getStart());
+    }
+
+    @Test
+    void testCompact_SplitsALateFoldByDayAndWeek() {
+        Goal goal = addGoal("10");
+        event(goal, "3", TODAY.minusDays(8));
+        event(goal, "4", TODAY.minusDays(1));
+        event(goal, "-2", TODAY);
+        compactor.compact();
+
+        List<GoalProgressPointDTO> days = series(goal, TODAY.minusDays(8), TODAY, "day");
+        assertPoint("13", "3", days.get(0));
+        assertPoint("17", "4", days.get(7));
+        assertPoint("15", "-2", days.get(8));
+
+        List<GoalProgressPointDTO> weeks = series(goal, TODAY.minusDays(8), TODAY, "week");
+        assertPoint("13", "3", weeks.get(0));
+        assertPoint("15", null, weeks.get(weeks.size() - 1));
+        assertEquals(0, new BigDecimal("5").compareTo(weeks.stream()
+                .map(GoalProgressPointDTO::getDelta)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)));
+        assertEquals(TODAY.getDayOfWeek().getValue() == 1 ? 3 : 2, weeks.size());
+    }
+
+    @Test
+    void testCompact_CarriesABackdatedFoldOverLaterBuckets() {
+        Goal goal = addGoal("10");
+        event(goal, "90", TODAY.minusDays(9));
+        compactor.compact();
+        event(goal, "50", TODAY.minusDays(8));
+        compactor.compact();
+        event(goal, "5", TODAY.minusDays(1));
+        compactor.compact();
+
+        // Made on the first day, folded only now
+        event(goal, "10", TODAY.minusDays(9));
+        compactor.compact();
+
+        List<GoalProgressPointDTO> days = series(goal, TODAY.minusDays(10), TODAY, "day");
+        assertPoint("110", "100", days.get(1));
+        assertPoint("160", "50", days.get(2));
+        assertPoint("165", "5", days.get(9));
+        assertPoint("165", "0", days.get(10));
+        List<GoalProgressPointDTO> weeks = series(goal, TODAY.minusDays(10), TODAY, "week");
+        for (List<GoalProgressPointDTO> points : List.of(days, weeks)) {
+            for (int i = 1; i < points.size(); i++) {
+                if (points.get(i - 1).getActualProgress() != null) {
+                    assertTrue(points.get(i).getActualProgress().compareTo(points.get(i - 1).getActualProgress()) >= 0,
+                            "progress went down on " + points.get(i).getStart());
+                }
+            }
+        }
+        assertPoint("165", null, weeks.get(weeks.size() - 1));
+    }
+
+    @Test
+    void testExplicitProgress_SetsTheBucketWithoutADelta() {
+        Long id = goalService.createGoal(goalDto(null)).getId();
+        assertPoint("0", "0", series(id, TODAY, TODAY, "day").get(0));
+
+        goalService.updateGoal(id, goalDto(new BigDecimal("42")));
+        assertPoint("42", "0", series(id, TODAY, TODAY, "day").get(0));
+
+        progressEventRepository.save(new ProgressEvent(null, id, new BigDecimal("3")));
+        compactor.compact();
+        assertPoint("45", "3", series(id, TODAY, TODAY, "week").get(0));
+    }
+
+    @Test
+    void testSeries_IdealProgressFollowsTheTrackingTask() {
+        Long id = goalService.createGoal(goalDto(null)).getId();
+        Task tracking = new Task("Read", null);
+        tracking.setFrequency(entityManager.persist(new Frequency("daily")));
+        tracking.setGoal(goalRepository.findById(id).orElseThrow());
+        entityManager.persist(tracking);
+
+        List<GoalProgressPointDTO> points = series(id, TODAY, TODAY.plusDays(40), "day");
+
+        for (int i = 1; i < points.size(); i++) {
+            assertTrue(points.get(i).getIdealProgress().compareTo(points.get(i - 1).getIdealProgress()) >= 0);
+        }
+        assertEquals(0, new BigDecimal("30").compareTo(points.get(points.size() - 1).getIdealProgress()));
+    }
+
+    @Test
+    void testSeries_RejectsInvalidRanges() {
+        Long id = addGoal("0").getId();
+
+        assertThrows(IllegalArgumentException.class, () -> goalService.getProgressSeries(id, TODAY, null, "day"));
+        assertThrows(IllegalArgumentException.class,
+                () -> goalService.getProgressSeries(id, TODAY, TODAY.minusDays(1), "day"));
+        assertThrows(IllegalArgumentException.class, () -> goalService.getProgressSeries(id, TODAY, TODAY, "hour"));
+        assertThrows(IllegalArgumentException.class, () -> goalService.getProgressSeries(id, TODAY,
+                TODAY.plusDays(GoalService.MAX_SERIES_POINTS), "day"));
+        assertThrows(ResourceNotFoundException.class,
+                () -> goalService.getProgressSeries(id + 1, TODAY, TODAY, "day"));
+    }
+
+    private List<GoalProgressPointDTO> series(Goal goal, LocalDate from, LocalDate to, String granularity) {
+        return series(goal.getId(), from, to, granularity);
+    }
+
+    private List<GoalProgressPointDTO> series(Long id, LocalDate from, LocalDate to, String granularity) {
+        entityManager.flush();
+        entityManager.clear();
+        return goalService.getProgressSeries(id, from, to, granularity).getPoints();
+    }
+
+    private Goal addGoal(String progress) {
+        Goal goal = new Goal();
+        goal.setName("Reading");
+        goal.setStatus(active);
+        goal.setTargetQuantity(new BigDecimal("1000"));
+        goal.setCurrentProgress(new BigDecimal(progress));
+        goal.setDeadline(LocalDateTime.now().plusMonths(1));
+        return entityManager.persist(goal);
+    }
+
+    private GoalDTO goalDto(BigDecimal progress) {
+        GoalDTO dto = new GoalDTO();
+        dto.setName("Reading");
+        dto.setTargetQuantity(new BigDecimal("30"));
+        dto.setCurrentProgress(progress);
+        dto.setDeadline(LocalDateTime.now().plusDays(30));
+        return dto;
+    }
+
+    // createdAt is stamped by Hibernate on insert
+    private void event(Goal goal, String delta, LocalDate day) {
+        ProgressEvent event = progressEventRepository.saveAndFlush(
+                new ProgressEvent(null, goal.getId(), new BigDecimal(delta)));
+        entityManager.getEntityManager()
+                .createQuery("UPDATE ProgressEvent e SET e.createdAt = :createdAt WHERE e.id = :id")
+                .setParameter("createdAt", day.atTime(12, 0))
+                .setParameter("id", event.getId())
+                .executeUpdate();
+    }
+
+    private static void assertPoint(String actual, String delta, GoalProgressPointDTO point) {
+        assertDecimal(actual, point.getActualProgress(), "actual on " + point.getStart());
+        if (delta != null || actual == null) {
+            assertDecimal(delta, point.getDelta(), "delta on " + point.getStart());
+        }
+    }
+
+    private static void assertDecimal(String expected, BigDecimal value, String message) {
+        if (expected == null) {
+            assertNull(value, message);
+        } else {
+            assertNotNull(value, message);
+            assertEquals(0, new BigDecimal(expected).compareTo(value), message + ": " + value);
+        }
+    }
+}
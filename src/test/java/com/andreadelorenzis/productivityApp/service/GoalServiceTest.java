@@ -2,26 +2,36 @@ package com.andreadelorenzis.productivityApp.service;
 
 import com.andreadelorenzis.productivityApp.dto.DecompositionRequestDTO;
 import com.andreadelorenzis.productivityApp.dto.DecompositionResponseDTO;
+import com.andreadelorenzis.productivityApp.dto.GoalResponseDTO;
 import com.andreadelorenzis.productivityApp.entity.Frequency;
 import com.andreadelorenzis.productivityApp.entity.Goal;
 import com.andreadelorenzis.productivityApp.entity.GoalStatus;
-import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalListRow;
+import com.andreadelorenzis.productivityApp.repository.GoalProgressBucketRepository;
 import com.andreadelorenzis.productivityApp.repository.GoalRepository;
-import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalTrackingRow;
+import com.andreadelorenzis.productivityApp.repository.ProgressEventRepository;
 import com.andreadelorenzis.productivityApp.repository.TaskRepository;
-import com.andreadelorenzis.productivityApp.repository.UnitRepository;
+import com.andreadelorenzis.productivityApp.entity.FrequencyKind;
+import com.andreadelorenzis.productivityApp.event.TaskChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,17 +41,29 @@ public class GoalServiceTest {
     private GoalRepository goalRepository;
 
     @Mock
-    private GoalStatusRepository statusRepository;
+    private ProgressEventRepository progressEventRepository;
 
     @Mock
-    private UnitRepository unitRepository;
+    private GoalProgressBucketRepository progressBucketRepository;
 
     @Mock
-    private FrequencyRepository frequencyRepository;
+    private GoalProgressRollup rollup;
+
+    @Mock
+    private ReferenceDataRegistry referenceData;
 
     @Mock
     private TaskRepository taskRepository;
 
+    @Spy
+    private IdealProgressCache idealProgressCache = new IdealProgressCache(new SimpleMeterRegistry());
+
+    @Spy
+    private OptimisticRetry retry = new OptimisticRetry(TransactionOperations.withoutTransaction());
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private GoalService goalService;
 
@@ -64,6 +86,9 @@ public class GoalServiceTest {
         mockFrequency = new Frequency();
         mockFrequency.setId(1L);
         mockFrequency.setName("daily");
+
+        // No progress waiting to be folded unless a test says otherwise
+        lenient().when(goalRepository.findCurrentProgress(1L)).thenAnswer(i -> mockGoal.getCurrentProgress());
     }
 
     @Test
@@ -76,7 +101,7 @@ public class GoalServiceTest {
         request.setQuantity(new BigDecimal("10"));
 
         when(goalRepository.findById(1L)).thenReturn(Optional.of(mockGoal));
-        when(frequencyRepository.findById(1L)).thenReturn(Optional.of(mockFrequency));
+        when(referenceData.findFrequency(1L)).thenReturn(Optional.of(mockFrequency));
 
         DecompositionResponseDTO response = goalService.decomposeGoal(request);
 
@@ -97,7 +122,7 @@ public class GoalServiceTest {
         request.setFrequencyId(1L);
 
         when(goalRepository.findById(1L)).thenReturn(Optional.of(mockGoal));
-        when(frequencyRepository.findById(1L)).thenReturn(Optional.of(mockFrequency));
+        when(referenceData.findFrequency(1L)).thenReturn(Optional.of(mockFrequency));
 
         DecompositionResponseDTO response = goalService.decomposeGoal(request);
 
@@ -105,6 +130,25 @@ public class GoalServiceTest {
         assertEquals(BigDecimal.ZERO, response.getRequiredQuantity());
     }
 
+    @Test
+    void testDecomposeGoal_CountsProgressNotYetFolded() {
+        mockGoal.setCurrentProgress(new BigDecimal("40"));
+        mockGoal.setDeadline(LocalDateTime.now().plusDays(10));
+
+        DecompositionRequestDTO request = new DecompositionRequestDTO();
+        request.setGoalId(1L);
+        request.setFrequencyId(1L);
+
+        when(goalRepository.findById(1L)).thenReturn(Optional.of(mockGoal));
+        when(referenceData.findFrequency(1L)).thenReturn(Optional.of(mockFrequency));
+        when(goalRepository.findCurrentProgress(1L)).thenReturn(new BigDecimal("100"));
+
+        DecompositionResponseDTO response = goalService.decomposeGoal(request);
+
+        // 40 folded + 60 pending reaches the target
+        assertEquals(BigDecimal.ZERO, response.getRequiredQuantity());
+    }
+
     @Test
     void testDecomposeGoal_DeadlineInPast() {
         mockGoal.setDeadline(LocalDateTime.now().minusDays(1));
@@ -114,7 +158,7 @@ public class GoalServiceTest {
         request.setFrequencyId(1L);
 
         when(goalRepository.findById(1L)).thenReturn(Optional.of(mockGoal));
-        when(frequencyRepository.findById(1L)).thenReturn(Optional.of(mockFrequency));
+        when(referenceData.findFrequency(1L)).thenReturn(Optional.of(mockFrequency));
 
         DecompositionResponseDTO response = goalService.decomposeGoal(request);
 
@@ -134,7 +178,7 @@ public class GoalServiceTest {
         when(goalRepository.findById(1L)).thenReturn(Optional.of(mockGoal));
         mockFrequency.setId(2L);
         mockFrequency.setName("weekly");
-        when(frequencyRepository.findById(2L)).thenReturn(Optional.of(mockFrequency));
+        when(referenceData.findFrequency(2L)).thenReturn(Optional.of(mockFrequency));
 
         assertThrows(IllegalArgumentException.class, () -> {
             goalService.decomposeGoal(request);
@@ -151,7 +195,7 @@ public class GoalServiceTest {
         request.setQuantity(new BigDecimal("10")); // 10 * 5 = 50 != 100
 
         when(goalRepository.findById(1L)).thenReturn(Optional.of(mockGoal));
-        when(frequencyRepository.findById(1L)).thenReturn(Optional.of(mockFrequency));
+        when(referenceData.findFrequency(1L)).thenReturn(Optional.of(mockFrequency));
 
         DecompositionResponseDTO response = goalService.decomposeGoal(request);
 
@@ -160,4 +204,71 @@ public class GoalServiceTest {
         assertFalse(response.getFeasible());
         assertEquals(new BigDecimal("50"), response.getValueShortfall()); // 100 - 50 = 50
     }
+
+    @Test
+    void testDecomposeGoal_CustomFrequencyIsRejected() {
+        mockGoal.setDeadline(LocalDateTime.now().plusDays(10));
+
+        DecompositionRequestDTO request = new DecompositionRequestDTO();
+        request.setGoalId(1L);
+        request.setFrequencyId(4L);
+
+        when(goalRepository.findById(1L)).thenReturn(Optional.of(mockGoal));
+        when(referenceData.findFrequency(4L)).thenReturn(Optional.of(new Frequency("custom")));
+
+        assertThrows(IllegalArgumentException.class, () -> goalService.decomposeGoal(request));
+    }
+
+    @Test
+    void testListGoals_CustomFrequencyTaskHasNoIdealProgress() {
+        mockGoal.setName("Custom goal");
+        mockGoal.setDeadline(LocalDateTime.now().plusDays(5));
+
+        when(goalRepository.findAllActive()).thenReturn(List.of(GoalListRow.of(mockGoal)));
+        when(taskRepository.findTrackingFrequencies(List.of(1L))).thenReturn(List.of(new GoalTrackingRow(1L, "custom")));
+
+        List<GoalResponseDTO> goals = goalService.listGoals();
+
+        assertEquals(BigDecimal.ZERO, goals.get(0).getIdealProgress());
+    }
+
+    @Test
+    void testListGoals_LooksUpTrackingTasksOnceAndMemoizesForTheDay() {
+        mockGoal.setName("Daily goal");
+        mockGoal.setDeadline(LocalDateTime.now().plusDays(10));
+        Goal untracked = new Goal();
+        untracked.setId(2L);
+        untracked.setName("Untracked goal");
+        untracked.setStatus(activeStatus);
+        untracked.setTargetQuantity(new BigDecimal("50"));
+        untracked.setDeadline(LocalDateTime.now().plusDays(10));
+
+        when(goalRepository.findAllActive())
+                .thenReturn(List.of(createdDaysAgo(mockGoal, 10), createdDaysAgo(untracked, 10)));
+        when(taskRepository.findTrackingFrequencies(List.of(1L, 2L)))
+                .thenReturn(List.of(new GoalTrackingRow(1L, FrequencyKind.DAILY)));
+
+        List<GoalResponseDTO> first = goalService.listGoals();
+        List<GoalResponseDTO> second = goalService.listGoals();
+
+        // 10 of 20 daily occurrences have passed
+        assertEquals(0, new BigDecimal("50").compareTo(first.get(0).getIdealProgress()));
+        assertEquals(BigDecimal.ZERO, first.get(1).getIdealProgress());
+        assertEquals(first.get(0).getIdealProgress(), second.get(0).getIdealProgress());
+        verify(taskRepository, times(1)).findTrackingFrequencies(any());
+
+        // A task write may change which task tracks a goal
+        idealProgressCache.onTaskChanged(new TaskChangedEvent(9L));
+        goalService.listGoals();
+        verify(taskRepository, times(2)).findTrackingFrequencies(any());
+    }
+
+    // Goal has no setter for the creation date
+    private static GoalListRow createdDaysAgo(Goal goal, int days) {
+        GoalListRow row = GoalListRow.of(goal);
+        return new GoalListRow(row.id(), row.name(), row.description(), row.unitCode(), row.unitName(),
+                row.targetQuantity(), row.currentProgress(), row.deadline(), row.difficulty(), row.importance(),
+                row.reason(), row.reward(), row.punishment(), row.statusId(), row.statusName(),
+                LocalDateTime.now().minusDays(days), row.updatedAt(), row.completedAt());
+    }
 }
@@ -0,0 +1,247 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.dto.CursorPage;
+import com.andreadelorenzis.productivityApp.dto.GoalDTO;
+import com.andreadelorenzis.productivityApp.dto.GoalResponseDTO;
+import com.andreadelorenzis.productivityApp.dto.TaskResponseDTO;
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.Goal;
+import com.andreadelorenzis.productivityApp.entity.GoalStatus;
+import com.andreadelorenzis.productivityApp.entity.Task;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalProgressBucketRepository;
+import com.andreadelorenzis.productivityApp.repository.ProgressEventRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskCompletionRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import com.andreadelorenzis.productivityApp.repository.UnitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Walking the task and goal listings page by page, or streaming them, must
+ * return exactly the unpaged order, including ties on importance and creation
+ * time.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class ListingKeysetPaginationTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private FrequencyRepository frequencyRepository;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    @Autowired
+    private ProgressEventRepository progressEventRepository;
+
+    @Autowired
+    private GoalProgressBucketRepository progressBucketRepository;
+
+    @Autowired
+    private TaskCompletionRepository taskCompletionRepository;
+
+    @Autowired
+    private GoalStatusRepository statusRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    private TaskService taskService;
+    private GoalService goalService;
+    private final List<Goal> goals = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Each test runs in a transaction already
+        OptimisticRetry retry = new OptimisticRetry(TransactionOperations.withoutTransaction());
+        ReferenceDataRegistry referenceData = new ReferenceDataRegistry(frequencyRepository, unitRepository,
+                statusRepository);
+        taskService = new TaskService(taskRepository, referenceData, goalRepository, progressEventRepository,
+                taskCompletionRepository, new DueTodayCache(new SimpleMeterRegistry()), new TaskScheduleIndex(taskRepository), retry, event -> {
+                });
+        goalService = new GoalService(goalRepository, progressEventRepository, progressBucketRepository,
+                new GoalProgressRollup(progressBucketRepository), referenceData, taskRepository,
+                new IdealProgressCache(new SimpleMeterRegistry()), retry, event -> {
+                });
+
+        Frequency daily = entityManager.persist(new Frequency("daily"));
+        GoalStatus active = entityManager.persist(new GoalStatus("Active"));
+
+        Integer[] importances = { null, 1, 3, 3, 5, null, 2 };
+        for (int i = 0; i < importances.length; i++) {
+            Goal goal = new Goal();
+            goal.setName("Goal " + i);
+            goal.setStatus(active);
+            goal.setImportance(importances[i]);
+            goal.setTargetQuantity(new BigDecimal("100"));
+            goal.setDeadline(LocalDateTime.now().plusMonths(1));
+            goals.add(entityManager.persist(goal));
+        }
+
+        Random random = new Random(7);
+        for (int i = 0; i < 75; i++) {
+            Task task = new Task("Task " + i, null);
+            task.setFrequency(daily);
+            task.setUrgent(random.nextInt(4) == 0);
+            int goal = random.nextInt(goals.size() + 1);
+            task.setGoal(goal < goals.size() ? goals.get(goal) : null);
+            entityManager.persist(task);
+        }
+        Task deleted = new Task("Deleted", null);
+        deleted.setFrequency(daily);
+        deleted.setDeletedAt(LocalDateTime.now());
+        entityManager.persist(deleted);
+        entityManager.flush();
+
+        // Only a few distinct creation times, so the id tie-breaker matters
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE tasks SET created_at = DATEADD('HOUR', MOD(id, 3), CAST(?1 AS TIMESTAMP))")
+                .setParameter(1, BASE).executeUpdate();
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE goals SET created_at = DATEADD('HOUR', MOD(id, 2), CAST(?1 AS TIMESTAMP))")
+                .setParameter(1, BASE).executeUpdate();
+        entityManager.clear();
+    }
+
+    @Test
+    void testListTasksPage_WalksUnpagedOrder() {
+        List<TaskResponseDTO> expected = taskService.listTasks();
+        assertEquals(75, expected.size());
+
+        for (int limit : new int[] { 1, 7, 75, 200 }) {
+            List<TaskResponseDTO> paged = walk(limit, taskService::listTasksPage);
+            assertEquals(ids(expected), ids(paged), "limit " + limit);
+            for (int i = 0; i < paged.size(); i++) {
+                assertEquals(i + 1, paged.get(i).getListPosition());
+            }
+        }
+    }
+
+    @Test
+    void testTaskOrder_IsTheSameRankOnEveryListing() {
+        List<TaskResponseDTO> unpaged = taskService.listTasks();
+        Map<Long, Integer> rank = new HashMap<>();
+        for (TaskResponseDTO task : unpaged) {
+            rank.put(task.getId(), task.getTaskOrder());
+        }
+        // The base rank ignores urgency, so it differs from the listing position
+        assertNotEquals(IntStream.rangeClosed(1, unpaged.size()).boxed().toList(),
+                unpaged.stream().map(TaskResponseDTO::getTaskOrder).toList());
+
+        List<TaskResponseDTO> streamed = new ArrayList<>();
+        taskService.streamTasks(streamed::add);
+        for (List<TaskResponseDTO> listing : List.of(walk(10, taskService::listTasksPage), streamed)) {
+            for (TaskResponseDTO task : listing) {
+                assertTrue(task.getTaskOrder() == null || task.getTaskOrder().equals(rank.get(task.getId())),
+                        "task " + task.getId());
+            }
+        }
+    }
+
+    @Test
+    void testListTasksPage_FollowsGoalImportanceChanges() {
+        Goal goal = goals.get(1);
+        GoalDTO dto = new GoalDTO();
+        dto.setName(goal.getName());
+        dto.setTargetQuantity(goal.getTargetQuantity());
+        dto.setDeadline(goal.getDeadline());
+        dto.setImportance(5);
+        goalService.updateGoal(goal.getId(), dto);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(ids(taskService.listTasks()), ids(walk(10, taskService::listTasksPage)));
+    }
+
+    @Test
+    void testListGoalsPage_OrderedByImportanceThenNewest() {
+        List<GoalResponseDTO> expected = new ArrayList<>(goalService.listGoals());
+        expected.sort(Comparator
+                .comparing((GoalResponseDTO g) -> g.getImportance() != null ? g.getImportance() : 0).reversed()
+                .thenComparing(GoalResponseDTO::getCreatedAt, Comparator.reverseOrder())
+                .thenComparing(GoalResponseDTO::getId, Comparator.reverseOrder()));
+
+        for (int limit : new int[] { 1, 2, 3, 10 }) {
+            List<GoalResponseDTO> paged = walk(limit, goalService::listGoalsPage);
+            assertEquals(expected.stream().map(GoalResponseDTO::getId).toList(),
+                    paged.stream().map(GoalResponseDTO::getId).toList(), "limit " + limit);
+        }
+    }
+
+    @Test
+    void testStreamTasks_MatchesPagedListing() {
+        List<TaskResponseDTO> paged = walk(20, taskService::listTasksPage);
+        List<TaskResponseDTO> streamed = new ArrayList<>();
+        taskService.streamTasks(streamed::add);
+
+        assertEquals(ids(paged), ids(streamed));
+        assertEquals(paged.stream().map(TaskResponseDTO::getListPosition).toList(),
+                streamed.stream().map(TaskResponseDTO::getListPosition).toList());
+    }
+
+    @Test
+    void testStreamGoals_MatchesPagedListing() {
+        List<GoalResponseDTO> paged = walk(3, goalService::listGoalsPage);
+        List<GoalResponseDTO> streamed = new ArrayList<>();
+        goalService.streamGoals(streamed::add);
+
+        assertEquals(paged.stream().map(GoalResponseDTO::getId).toList(),
+                streamed.stream().map(GoalResponseDTO::getId).toList());
+    }
+
+    @Test
+    void testListTasksPage_RejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> taskService.listTasksPage(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> taskService.listTasksPage(null, 201));
+        assertThrows(IllegalArgumentException.class, () -> taskService.listTasksPage("not a cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> goalService.listGoalsPage("Zm9vfGJhcg", 10));
+    }
+
+    private static <T> List<T> walk(int limit, BiFunction<String, Integer, CursorPage<T>> listing) {
+        List<T> all = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<T> page = listing.apply(cursor, limit);
+            assertTrue(page.getItems().size() <= limit);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            assertTrue(++pages <= 1000, "pagination does not terminate");
+        } while (cursor != null);
+        return all;
+    }
+
+    private static List<Long> ids(List<TaskResponseDTO> tasks) {
+        return tasks.stream().map(TaskResponseDTO::getId).toList();
+    }
+}
@@ -0,0 +1,80 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.NameRow;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Latency of NameAutocompleteIndex.suggest over 100k task names and 1k goal
+ * names, for prefixes of one to four characters as typed on each keystroke.
+ * Reports the median, p99 and max of the timed lookups after a warm-up.
+ *
+ * Run with: mvn test -Dtest=NameAutocompleteBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class NameAutocompleteBenchmarkTest {
+
+    private static final int TASKS = 100_000;
+    private static final int GOALS = 1_000;
+    private static final int WARMUP_LOOKUPS = 200_000;
+    private static final int TIMED_LOOKUPS = 100_000;
+    private static final int LIMIT = 10;
+
+    private static final String[] WORDS = { "run", "read", "write", "call", "clean", "cook", "study", "practice",
+            "review", "plan", "walk", "stretch", "meditate", "journal", "water", "pay", "email", "train" };
+
+    @Test
+    void benchmarkSuggest() {
+        Random random = new Random(42);
+        TaskRepository taskRepository = mock(TaskRepository.class);
+        GoalRepository goalRepository = mock(GoalRepository.class);
+        when(taskRepository.findAllNameRows()).thenReturn(rows(TASKS, random));
+        when(goalRepository.findAllNameRows()).thenReturn(rows(GOALS, random));
+
+        NameAutocompleteIndex index = new NameAutocompleteIndex(taskRepository, goalRepository);
+        long loadStart = System.nanoTime();
+        index.suggest("a", LIMIT);
+        double loadMillis = (System.nanoTime() - loadStart) / 1_000_000.0;
+
+        String[] prefixes = new String[TIMED_LOOKUPS];
+        for (int i = 0; i < prefixes.length; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            prefixes[i] = word.substring(0, 1 + random.nextInt(Math.min(4, word.length())));
+        }
+
+        for (int i = 0; i < WARMUP_LOOKUPS; i++) {
+            index.suggest(prefixes[i % prefixes.length], LIMIT);
+        }
+        long[] nanos = new long[TIMED_LOOKUPS];
+        for (int i = 0; i < TIMED_LOOKUPS; i++) {
+            long start = System.nanoTime();
+            int found = index.suggest(prefixes[i], LIMIT).size();
+            nanos[i] = System.nanoTime() - start;
+            assertEquals(LIMIT, found);
+        }
+        Arrays.sort(nanos);
+
+        System.out.printf("load %d names: %.1f ms%n", TASKS + GOALS, loadMillis);
+        System.out.printf("suggest: p50 %.1f us, p99 %.1f us, max %.1f us%n", nanos[TIMED_LOOKUPS / 2] / 1000.0,
+                nanos[TIMED_LOOKUPS * 99 / 100] / 1000.0, nanos[TIMED_LOOKUPS - 1] / 1000.0);
+    }
+
+    private static List<NameRow> rows(int count, Random random) {
+        List<NameRow> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            rows.add(new NameRow((long) i, name, random.nextInt(7) - 1));
+        }
+        return rows;
+    }
+}
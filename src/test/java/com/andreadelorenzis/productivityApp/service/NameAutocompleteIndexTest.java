@@ -0,0 +1,113 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.dto.NameSuggestionDTO;
+import com.andreadelorenzis.productivityApp.event.GoalChangedEvent;
+import com.andreadelorenzis.productivityApp.event.TaskChangedEvent;
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.NameRow;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Prefix lookups over task and goal names, and keeping the index current
+ * from change events without a reload.
+ */
+@ExtendWith(MockitoExtension.class)
+public class NameAutocompleteIndexTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private GoalRepository goalRepository;
+
+    @InjectMocks
+    private NameAutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // Lenient: the argument checks fail before the index loads
+        lenient().when(taskRepository.findAllNameRows()).thenReturn(List.of(
+                new NameRow(1L, "Run 5k", 3),
+                new NameRow(2L, "run intervals", 5),
+                new NameRow(3L, "Read", 5),
+                new NameRow(4L, "Running drills", -1),
+                new NameRow(5L, "Rowing", 3)));
+        lenient().when(goalRepository.findAllNameRows()).thenReturn(List.of(
+                new NameRow(1L, "Run a marathon", 5),
+                new NameRow(2L, "Learn to run", 1)));
+    }
+
+    @Test
+    void testSuggest_PrefixIgnoringCase_ByImportanceThenName() {
+        assertEquals(List.of("goal:Run a marathon", "task:run intervals", "task:Run 5k", "task:Running drills"),
+                names(index.suggest("RUN", 10)));
+    }
+
+    @Test
+    void testSuggest_AppliesLimit() {
+        assertEquals(List.of("task:Read", "goal:Run a marathon"), names(index.suggest("r", 2)));
+    }
+
+    @Test
+    void testSuggest_NoMatch() {
+        assertEquals(List.of(), index.suggest("swim", 10));
+    }
+
+    @Test
+    void testSuggest_RejectsBlankPrefixAndBadLimit() {
+        assertThrows(IllegalArgumentException.class, () -> index.suggest(" ", 10));
+        assertThrows(IllegalArgumentException.class, () -> index.suggest("r", 0));
+        assertThrows(IllegalArgumentException.class, () -> index.suggest("r", SearchTerm.MAX_RESULTS + 1));
+    }
+
+    @Test
+    void testOnTaskChanged_RenamesAndRemoves() {
+        index.suggest("r", 10);
+
+        when(taskRepository.findNameRowById(1L)).thenReturn(Optional.of(new NameRow(1L, "Swim 1k", 3)));
+        index.onTaskChanged(new TaskChangedEvent(1L));
+        when(taskRepository.findNameRowById(2L)).thenReturn(Optional.empty());
+        index.onTaskChanged(new TaskChangedEvent(2L));
+
+        assertEquals(List.of("goal:Run a marathon", "task:Running drills"), names(index.suggest("run", 10)));
+        assertEquals(List.of("task:Swim 1k"), names(index.suggest("sw", 10)));
+        verify(taskRepository, times(1)).findAllNameRows();
+    }
+
+    @Test
+    void testOnGoalChanged_ReranksTheGoalAndItsTasks() {
+        index.suggest("r", 10);
+
+        when(goalRepository.findNameRowById(2L)).thenReturn(Optional.of(new NameRow(2L, "Learn to run", 5)));
+        when(taskRepository.findNameRowsByGoalId(2L)).thenReturn(List.of(new NameRow(4L, "Running drills", 5)));
+        index.onGoalChanged(new GoalChangedEvent(2L));
+
+        assertEquals(List.of("goal:Run a marathon", "task:run intervals", "task:Running drills", "task:Run 5k"),
+                names(index.suggest("run", 10)));
+        assertEquals(List.of("goal:Learn to run"), names(index.suggest("learn", 10)));
+    }
+
+    @Test
+    void testEventsBeforeFirstUse_AreIgnored() {
+        index.onTaskChanged(new TaskChangedEvent(1L));
+
+        verify(taskRepository, never()).findNameRowById(any());
+        assertEquals(1, index.suggest("rea", 10).size());
+    }
+
+    private static List<String> names(List<NameSuggestionDTO> suggestions) {
+        return suggestions.stream().map(s -> s.getType() + ":" + s.getName()).toList();
+    }
+}
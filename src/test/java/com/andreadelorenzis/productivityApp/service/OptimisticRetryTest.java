@@ -0,0 +1,51 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OptimisticRetryTest {
+
+    private final OptimisticRetry retry = new OptimisticRetry(TransactionOperations.withoutTransaction());
+
+    @Test
+    void testExecute_RetriesLostRaces() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("stale");
+            }
+            return "saved";
+        });
+
+        assertEquals("saved", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testExecute_GivesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> retry.run(() -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale");
+        }));
+        assertEquals(OptimisticRetry.MAX_ATTEMPTS, attempts.get());
+    }
+
+    @Test
+    void testExecute_OtherFailuresAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> retry.run(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("invalid");
+        }));
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,203 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.Task;
+import com.andreadelorenzis.productivityApp.event.TaskChangedEvent;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Period rollover: each frequency is reset at its own boundary, overflow is
+ * carried forward up to overflowQuantity, and a second run changes nothing.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class PeriodRolloverTest {
+
+    // Wednesday: the week started on Monday 2 March
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 4, 0, 5);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private FrequencyRepository frequencyRepository;
+
+    private PeriodRollover rollover;
+    private final List<Object> events = new ArrayList<>();
+
+    private Frequency daily;
+    private Frequency weekly;
+    private Frequency monthly;
+    private Frequency yearly;
+    private Frequency oneTime;
+
+    @BeforeEach
+    void setUp() {
+        // Each test runs in a transaction already
+        rollover = newRollover();
+
+        daily = entityManager.persist(new Frequency("daily"));
+        weekly = entityManager.persist(new Frequency("weekly"));
+        monthly = entityManager.persist(new Frequency("monthly"));
+        yearly = entityManager.persist(new Frequency("yearly"));
+        oneTime = entityManager.persist(new Frequency("one-time"));
+    }
+
+    @Test
+    void testRollOver_ResetsEachFrequencyAtItsBoundary() {
+        Task dailyDone = completed(daily, NOW.minusDays(1).withHour(22));
+        Task dailyToday = completed(daily, NOW.minusMinutes(1));
+        Task weeklyDone = completed(weekly, LocalDateTime.of(2026, 3, 1, 18, 0));
+        Task weeklyThisWeek = completed(weekly, LocalDateTime.of(2026, 3, 2, 8, 0));
+        Task monthlyDone = completed(monthly, LocalDateTime.of(2026, 2, 28, 8, 0));
+        Task monthlyThisMonth = completed(monthly, LocalDateTime.of(2026, 3, 1, 8, 0));
+        Task yearlyDone = completed(yearly, LocalDateTime.of(2025, 12, 31, 8, 0));
+        Task yearlyThisYear = completed(yearly, LocalDateTime.of(2026, 1, 2, 8, 0));
+        Task oneTimeDone = completed(oneTime, NOW.minusMonths(2));
+        Task deleted = completed(daily, NOW.minusDays(3));
+        deleted.setDeletedAt(NOW.minusDays(2));
+        entityManager.flush();
+
+        assertEquals(4, rollover.rollOver(NOW));
+        entityManager.clear();
+
+        for (Task task : List.of(dailyDone, weeklyDone, monthlyDone, yearlyDone)) {
+            Task reloaded = reload(task);
+            assertNull(reloaded.getCompletedAt(), reloaded.getFrequency().getName());
+            assertEquals(0, reloaded.getProgress().signum());
+        }
+        for (Task task : List.of(dailyToday, weeklyThisWeek, monthlyThisMonth, yearlyThisYear, oneTimeDone, deleted)) {
+            assertNotNull(reload(task).getCompletedAt(), task.getFrequency().getName());
+        }
+        assertEquals(1, events.size());
+        assertTrue(((TaskChangedEvent) events.get(0)).getTaskIds().isEmpty());
+    }
+
+    @Test
+    void testRollOver_CarriesOverflowUpToOverflowQuantity() {
+        Task capped = completed(daily, NOW.minusDays(1));
+        capped.setProgress(new BigDecimal("15"));
+        capped.setOverflowQuantity(new BigDecimal("3"));
+        Task carried = completed(daily, NOW.minusDays(1));
+        carried.setProgress(new BigDecimal("12"));
+        carried.setOverflowQuantity(new BigDecimal("3"));
+        Task noOverflow = completed(daily, NOW.minusDays(1));
+        noOverflow.setProgress(new BigDecimal("15"));
+        entityManager.flush();
+
+        rollover.rollOver(NOW);
+        entityManager.clear();
+
+        assertEquals(0, new BigDecimal("3").compareTo(reload(capped).getProgress()));
+        assertEquals(0, new BigDecimal("2").compareTo(reload(carried).getProgress()));
+        assertEquals(0, reload(noOverflow).getProgress().signum());
+    }
+
+    @Test
+    void testRollOver_ResetsPartialProgressOfEndedPeriods() {
+        Task yesterday = partial(daily);
+        Task today = partial(daily);
+        entityManager.flush();
+        backdate(yesterday, NOW.minusDays(1));
+        backdate(today, NOW.minusMinutes(1));
+
+        assertEquals(1, rollover.rollOver(NOW));
+        entityManager.clear();
+
+        assertEquals(0, reload(yesterday).getProgress().signum());
+        assertEquals(0, new BigDecimal("4").compareTo(reload(today).getProgress()));
+    }
+
+    @Test
+    void testRollOver_IgnoresWritesThatLeaveProgressAlone() {
+        Task renamed = partial(daily);
+        entityManager.flush();
+        backdate(renamed, NOW.minusDays(1));
+        entityManager.clear();
+
+        // Stamps updatedAt in the current period, progress stays yesterday's
+        Task task = reload(renamed);
+        task.setName("Renamed");
+        task.setUrgent(true);
+        task.setProgress(new BigDecimal("4.00"));
+        entityManager.flush();
+
+        assertEquals(1, rollover.rollOver(NOW));
+        entityManager.clear();
+        assertEquals(0, reload(renamed).getProgress().signum());
+    }
+
+    @Test
+    void testRollOver_IsIdempotent() {
+        Task task = completed(daily, NOW.minusDays(1));
+        entityManager.flush();
+
+        assertEquals(1, rollover.rollOver(NOW));
+        long version = reloadVersion(task);
+        assertEquals(0, rollover.rollOver(NOW));
+        assertEquals(0, rollover.rollOver(NOW.plusHours(3)));
+
+        assertEquals(version, reloadVersion(task));
+        assertEquals(1, events.size());
+        assertEquals(0, newRollover().rollOver(NOW));
+    }
+
+    private PeriodRollover newRollover() {
+        return new PeriodRollover(taskRepository, frequencyRepository, TransactionOperations.withoutTransaction(),
+                events::add, new SimpleMeterRegistry());
+    }
+
+    private Task completed(Frequency frequency, LocalDateTime completedAt) {
+        Task task = new Task(frequency.getName() + " task", null);
+        task.setFrequency(frequency);
+        task.setQuantity(new BigDecimal("10"));
+        task.setProgress(new BigDecimal("10"));
+        task.setCompletedAt(completedAt);
+        return entityManager.persist(task);
+    }
+
+    private Task partial(Frequency frequency) {
+        Task task = new Task(frequency.getName() + " task", null);
+        task.setFrequency(frequency);
+        task.setQuantity(new BigDecimal("10"));
+        task.setProgress(new BigDecimal("4"));
+        return entityManager.persist(task);
+    }
+
+    // progressChangedAt is stamped when progress is set
+    private void backdate(Task task, LocalDateTime progressChangedAt) {
+        entityManager.getEntityManager()
+                .createQuery("UPDATE Task t SET t.progressChangedAt = :changedAt WHERE t.id = :id")
+                .setParameter("changedAt", progressChangedAt)
+                .setParameter("id", task.getId())
+                .executeUpdate();
+    }
+
+    private Task reload(Task task) {
+        return taskRepository.findById(task.getId()).orElseThrow();
+    }
+
+    private long reloadVersion(Task task) {
+        entityManager.clear();
+        return reload(task).getVersion();
+    }
+}
@@ -0,0 +1,174 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.dto.GoalDTO;
+import com.andreadelorenzis.productivityApp.dto.GoalResponseDTO;
+import com.andreadelorenzis.productivityApp.entity.Goal;
+import com.andreadelorenzis.productivityApp.entity.GoalStatus;
+import com.andreadelorenzis.productivityApp.entity.ProgressEvent;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalProgressBucketRepository;
+import com.andreadelorenzis.productivityApp.repository.ProgressEventRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import com.andreadelorenzis.productivityApp.repository.UnitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Folding progress events into the goal row: reads show the same progress
+ * before and after, and every event is folded exactly once.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class ProgressCompactorTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    @Autowired
+    private ProgressEventRepository progressEventRepository;
+
+    @Autowired
+    private GoalProgressBucketRepository progressBucketRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private FrequencyRepository frequencyRepository;
+
+    @Autowired
+    private GoalStatusRepository statusRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    private ProgressCompactor compactor;
+    private GoalService goalService;
+    private Goal reading;
+    private Goal running;
+
+    @BeforeEach
+    void setUp() {
+        // Each test runs in a transaction already
+        TransactionOperations transactions = TransactionOperations.withoutTransaction();
+        compactor = new ProgressCompactor(progressEventRepository, goalRepository,
+                new GoalProgressRollup(progressBucketRepository), transactions, new SimpleMeterRegistry());
+        goalService = new GoalService(goalRepository, progressEventRepository, progressBucketRepository,
+                new GoalProgressRollup(progressBucketRepository),
+                new ReferenceDataRegistry(frequencyRepository, unitRepository, statusRepository), taskRepository,
+                new IdealProgressCache(new SimpleMeterRegistry()), new OptimisticRetry(transactions), event -> {
+                });
+
+        GoalStatus active = entityManager.persist(new GoalStatus("active"));
+        reading = addGoal("Reading", active, "10");
+        running = addGoal("Running", active, "0");
+        entityManager.flush();
+    }
+
+    @Test
+    void testCompact_FoldsEveryBatchOnce() {
+        int events = ProgressCompactor.BATCH_SIZE + 10;
+        for (int i = 0; i < events; i++) {
+            progressEventRepository.save(new ProgressEvent(null, i % 2 == 0 ? reading.getId() : running.getId(),
+                    BigDecimal.ONE));
+        }
+
+        assertEquals(List.of(new BigDecimal("265"), new BigDecimal("255")), listedProgress());
+
+        assertEquals(events, compactor.compact());
+        assertEquals(0, compactor.compact());
+
+        entityManager.clear();
+        assertEquals(0, new BigDecimal("265").compareTo(goalRepository.findById(reading.getId()).orElseThrow()
+                .getCurrentProgress()));
+        assertEquals(List.of(new BigDecimal("265"), new BigDecimal("255")), listedProgress());
+        assertEquals(0, progressEventRepository.findPendingIds(Limit.of(1)).size());
+        assertEquals(events, progressEventRepository.count());
+    }
+
+    @Test
+    void testReads_ClampTheRunningTotalAtZero() {
+        progressEventRepository.save(new ProgressEvent(null, reading.getId(), new BigDecimal("-25")));
+
+        assertEquals(0, goalService.getGoal(reading.getId()).getCurrentProgress().signum());
+        assertEquals(0, listedProgress().get(0).signum());
+
+        compactor.compact();
+        entityManager.clear();
+
+        assertEquals(0, goalService.getGoal(reading.getId()).getCurrentProgress().signum());
+        assertEquals(0, listedProgress().get(0).signum());
+    }
+
+    @Test
+    void testCompact_NegativeDeltaFoldedAloneReadsTheSame() {
+        // Reading's -15 closes the first batch, its +5 lands alone in the second
+        progressEventRepository.save(new ProgressEvent(null, reading.getId(), new BigDecimal("-15")));
+        for (int i = 1; i < ProgressCompactor.BATCH_SIZE; i++) {
+            progressEventRepository.save(new ProgressEvent(null, running.getId(), BigDecimal.ZERO));
+        }
+        progressEventRepository.save(new ProgressEvent(null, reading.getId(), new BigDecimal("5")));
+
+        assertEquals(0, listedProgress().get(0).signum());
+
+        assertEquals(ProgressCompactor.BATCH_SIZE + 1, compactor.compact());
+        entityManager.clear();
+
+        assertEquals(0, listedProgress().get(0).signum());
+        assertEquals(0, goalService.getGoal(reading.getId()).getCurrentProgress().signum());
+    }
+
+    @Test
+    void testUpdateGoal_ExplicitProgressDiscardsPendingEvents() {
+        progressEventRepository.save(new ProgressEvent(null, reading.getId(), new BigDecimal("5")));
+
+        GoalDTO dto = new GoalDTO();
+        dto.setName("Reading");
+        dto.setTargetQuantity(new BigDecimal("100"));
+        dto.setCurrentProgress(new BigDecimal("42"));
+        dto.setDeadline(LocalDateTime.now().plusMonths(1));
+
+        GoalResponseDTO updated = goalService.updateGoal(reading.getId(), dto);
+
+        assertEquals(0, new BigDecimal("42").compareTo(updated.getCurrentProgress()));
+        assertEquals(0, compactor.compact());
+        assertEquals(0, new BigDecimal("42").compareTo(listedProgress().get(0)));
+    }
+
+    // Progress of Reading then Running, as the listing query computes it
+    private List<BigDecimal> listedProgress() {
+        return goalService.listGoals().stream()
+                .sorted((a, b) -> a.getName().compareTo(b.getName()))
+                .map(g -> g.getCurrentProgress().stripTrailingZeros())
+                .map(p -> p.scale() < 0 ? p.setScale(0) : p)
+                .toList();
+    }
+
+    private Goal addGoal(String name, GoalStatus status, String progress) {
+        Goal goal = new Goal();
+        goal.setName(name);
+        goal.setStatus(status);
+        goal.setTargetQuantity(new BigDecimal("1000"));
+        goal.setCurrentProgress(new BigDecimal(progress));
+        goal.setDeadline(LocalDateTime.now().plusMonths(1));
+        return entityManager.persist(goal);
+    }
+}
@@ -0,0 +1,84 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.GoalStatus;
+import com.andreadelorenzis.productivityApp.entity.Unit;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
+import com.andreadelorenzis.productivityApp.repository.UnitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReferenceDataRegistryTest {
+
+    @Mock
+    private FrequencyRepository frequencyRepository;
+
+    @Mock
+    private UnitRepository unitRepository;
+
+    @Mock
+    private GoalStatusRepository statusRepository;
+
+    @InjectMocks
+    private ReferenceDataRegistry referenceData;
+
+    private Frequency daily;
+    private Unit pages;
+    private GoalStatus active;
+
+    @BeforeEach
+    void setUp() {
+        daily = new Frequency("daily");
+        daily.setId(1L);
+        pages = new Unit();
+        pages.setId(5L);
+        pages.setCode("p");
+        active = new GoalStatus("active");
+        active.setId(1L);
+
+        when(frequencyRepository.findAll(any(Sort.class))).thenReturn(List.of(daily));
+        when(unitRepository.findAll(any(Sort.class))).thenReturn(List.of(pages));
+        when(statusRepository.findAll(any(Sort.class))).thenReturn(List.of(active));
+    }
+
+    @Test
+    void testLookups_LoadOnceOnFirstUse() {
+        assertEquals(daily, referenceData.findFrequency(1L).orElseThrow());
+        assertEquals(pages, referenceData.findUnitByCode("p").orElseThrow());
+        assertEquals(active, referenceData.findGoalStatus(1L).orElseThrow());
+        assertEquals(active, referenceData.findGoalStatusByName("active").orElseThrow());
+        assertEquals(List.of(daily), referenceData.getFrequencies());
+
+        assertTrue(referenceData.findFrequency(2L).isEmpty());
+        assertTrue(referenceData.findFrequency(null).isEmpty());
+        assertTrue(referenceData.findGoalStatusByName("Active").isEmpty());
+
+        verify(frequencyRepository, times(1)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void testRefresh_SwapsSnapshotAndBumpsVersion() {
+        assertEquals(1, referenceData.getVersion());
+
+        Frequency weekly = new Frequency("weekly");
+        weekly.setId(2L);
+        when(frequencyRepository.findAll(any(Sort.class))).thenReturn(List.of(daily, weekly));
+
+        assertEquals(2, referenceData.refresh());
+        assertEquals(2, referenceData.getVersion());
+        assertEquals(weekly, referenceData.findFrequency(2L).orElseThrow());
+    }
+}
@@ -0,0 +1,46 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.event.GoalChangedEvent;
+import com.andreadelorenzis.productivityApp.event.TaskChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ResourceVersionTest {
+
+    @Mock
+    private ReferenceDataRegistry referenceData;
+
+    @InjectMocks
+    private ResourceVersion resourceVersion;
+
+    @Test
+    void testCurrentTag_StableUntilAWriteOrReferenceRefresh() {
+        when(referenceData.getVersion()).thenReturn(1L);
+        String tag = resourceVersion.currentTag();
+        assertEquals(tag, resourceVersion.currentTag());
+
+        resourceVersion.onTaskChanged(new TaskChangedEvent(1L));
+        String afterTask = resourceVersion.currentTag();
+        assertNotEquals(tag, afterTask);
+
+        resourceVersion.onGoalChanged(new GoalChangedEvent(1L));
+        String afterGoal = resourceVersion.currentTag();
+        assertNotEquals(afterTask, afterGoal);
+
+        when(referenceData.getVersion()).thenReturn(2L);
+        assertNotEquals(afterGoal, resourceVersion.currentTag());
+    }
+
+    @Test
+    void testCurrentTag_DiffersBetweenInstances() {
+        when(referenceData.getVersion()).thenReturn(1L);
+        assertNotEquals(resourceVersion.currentTag(), new ResourceVersion(referenceData).currentTag());
+    }
+}
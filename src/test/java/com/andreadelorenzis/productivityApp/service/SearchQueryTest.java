@@ -0,0 +1,167 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.dto.GoalResponseDTO;
+import com.andreadelorenzis.productivityApp.dto.TaskResponseDTO;
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.Goal;
+import com.andreadelorenzis.productivityApp.entity.GoalStatus;
+import com.andreadelorenzis.productivityApp.entity.Task;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalProgressBucketRepository;
+import com.andreadelorenzis.productivityApp.repository.ProgressEventRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskCompletionRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import com.andreadelorenzis.productivityApp.repository.UnitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The ranked task and goal search: case-insensitive matching over the text
+ * fields, ranking by where the text matched, LIKE wildcards taken literally,
+ * and the result limit.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class SearchQueryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private FrequencyRepository frequencyRepository;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    @Autowired
+    private ProgressEventRepository progressEventRepository;
+
+    @Autowired
+    private GoalProgressBucketRepository progressBucketRepository;
+
+    @Autowired
+    private TaskCompletionRepository taskCompletionRepository;
+
+    @Autowired
+    private GoalStatusRepository statusRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    private TaskService taskService;
+    private GoalService goalService;
+    private Frequency daily;
+
+    @BeforeEach
+    void setUp() {
+        // Each test runs in a transaction already
+        OptimisticRetry retry = new OptimisticRetry(TransactionOperations.withoutTransaction());
+        ReferenceDataRegistry referenceData = new ReferenceDataRegistry(frequencyRepository, unitRepository,
+                statusRepository);
+        taskService = new TaskService(taskRepository, referenceData, goalRepository, progressEventRepository,
+                taskCompletionRepository, new DueTodayCache(new SimpleMeterRegistry()), new TaskScheduleIndex(taskRepository), retry, event -> {
+                });
+        goalService = new GoalService(goalRepository, progressEventRepository, progressBucketRepository,
+                new GoalProgressRollup(progressBucketRepository), referenceData, taskRepository,
+                new IdealProgressCache(new SimpleMeterRegistry()), retry, event -> {
+                });
+
+        daily = entityManager.persist(new Frequency("daily"));
+        GoalStatus active = entityManager.persist(new GoalStatus("Active"));
+
+        addTask("Morning run", "Easy pace");
+        addTask("Run", null);
+        addTask("Running drills", null);
+        addTask("Read", "A chapter, then a short RUN");
+        addTask("Groceries", "Milk and eggs");
+        addTask("100% focus block", null);
+        addTask("1000 steps", null);
+        addTask("Run", null).setDeletedAt(LocalDateTime.now());
+
+        addGoal(active, "Marathon", "Finish a marathon", null);
+        addGoal(active, "Learn Spanish", null, "Run a trip to Madrid");
+        addGoal(active, "Run 500 km", null, null);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testSearchTasks_RanksExactThenPrefixThenContainsThenDescription() {
+        List<TaskResponseDTO> results = taskService.searchTasks("RUN", 20);
+
+        assertEquals(List.of("Run", "Running drills", "Morning run", "Read"),
+                results.stream().map(TaskResponseDTO::getName).toList());
+    }
+
+    @Test
+    void testSearchTasks_AppliesLimit() {
+        assertEquals(List.of("Run", "Running drills"),
+                taskService.searchTasks("run", 2).stream().map(TaskResponseDTO::getName).toList());
+    }
+
+    @Test
+    void testSearchTasks_TreatsWildcardsLiterally() {
+        assertEquals(List.of("100% focus block"),
+                taskService.searchTasks("100%", 20).stream().map(TaskResponseDTO::getName).toList());
+        assertEquals(List.of(), taskService.searchTasks("_", 20));
+    }
+
+    @Test
+    void testSearchTasks_RejectsBlankTextAndBadLimit() {
+        assertThrows(IllegalArgumentException.class, () -> taskService.searchTasks("  ", 20));
+        assertThrows(IllegalArgumentException.class, () -> taskService.searchTasks("run", 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.searchTasks("run", SearchTerm.MAX_RESULTS + 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.searchTasks("x".repeat(SearchTerm.MAX_LENGTH + 1), 20));
+    }
+
+    @Test
+    void testSearchGoals_MatchesNameDescriptionAndReason() {
+        assertEquals(List.of("Run 500 km", "Learn Spanish"),
+                goalService.searchGoals("run", 20).stream().map(GoalResponseDTO::getName).toList());
+        assertEquals(List.of("Marathon"),
+                goalService.searchGoals("marathon", 20).stream().map(GoalResponseDTO::getName).toList());
+    }
+
+    @Test
+    void testSearchTasksByName_IgnoresCaseAndDescriptions() {
+        assertEquals(List.of("Morning run", "Run", "Running drills").stream().sorted().toList(),
+                taskService.searchTasks("rUn").stream().map(TaskResponseDTO::getName).sorted().toList());
+    }
+
+    private Task addTask(String name, String description) {
+        Task task = new Task(name, description);
+        task.setFrequency(daily);
+        return entityManager.persist(task);
+    }
+
+    private void addGoal(GoalStatus status, String name, String description, String reason) {
+        Goal goal = new Goal();
+        goal.setName(name);
+        goal.setDescription(description);
+        goal.setReason(reason);
+        goal.setStatus(status);
+        goal.setTargetQuantity(new BigDecimal("100"));
+        goal.setDeadline(LocalDateTime.now().plusMonths(1));
+        entityManager.persist(goal);
+    }
+}
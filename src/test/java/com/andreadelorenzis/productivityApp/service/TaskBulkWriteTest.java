@@ -0,0 +1,374 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.dto.TaskBulkUpdateDTO;
+import com.andreadelorenzis.productivityApp.dto.TaskDTO;
+import com.andreadelorenzis.productivityApp.dto.TaskResponseDTO;
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.Goal;
+import com.andreadelorenzis.productivityApp.entity.GoalStatus;
+import com.andreadelorenzis.productivityApp.entity.Task;
+import com.andreadelorenzis.productivityApp.entity.TaskCompletion;
+import com.andreadelorenzis.productivityApp.entity.TaskStreak;
+import com.andreadelorenzis.productivityApp.entity.Unit;
+import com.andreadelorenzis.productivityApp.event.TaskChangedEvent;
+import com.andreadelorenzis.productivityApp.exception.ResourceNotFoundException;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
+import com.andreadelorenzis.productivityApp.repository.ProgressEventRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskCompletionRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import com.andreadelorenzis.productivityApp.repository.UnitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk task creation, update and completion: all or nothing, and a number
+ * of statements that grows with the JDBC batches, not with the tasks.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class TaskBulkWriteTest {
+
+    private static final int TASKS = 200;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    @Autowired
+    private ProgressEventRepository progressEventRepository;
+
+    @Autowired
+    private TaskCompletionRepository taskCompletionRepository;
+
+    @Autowired
+    private FrequencyRepository frequencyRepository;
+
+    @Autowired
+    private GoalStatusRepository statusRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    private TaskService taskService;
+    private Statistics statistics;
+    private final List<TaskChangedEvent> events = new ArrayList<>();
+    private Frequency weekly;
+    private Goal goal;
+
+    @BeforeEach
+    void setUp() {
+        // Each test runs in a transaction already
+        taskService = new TaskService(taskRepository,
+                new ReferenceDataRegistry(frequencyRepository, unitRepository, statusRepository), goalRepository,
+                progressEventRepository, taskCompletionRepository, new DueTodayCache(new SimpleMeterRegistry()),
+                new TaskScheduleIndex(taskRepository),
+                new OptimisticRetry(TransactionOperations.withoutTransaction()), event -> {
+                    if (event instanceof TaskChangedEvent changed) {
+                        events.add(changed);
+                    }
+                });
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        weekly = entityManager.persist(new Frequency("weekly"));
+        goal = new Goal();
+        goal.setName("Fitness");
+        goal.setUnit(entityManager.persist(new Unit("km", "Kilometers")));
+        goal.setStatus(entityManager.persist(new GoalStatus("active")));
+        goal.setImportance(4);
+        goal.setTargetQuantity(new BigDecimal("1000"));
+        goal.setDeadline(LocalDateTime.now().plusMonths(6));
+        entityManager.persist(goal);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testCreateTasks_InsertsInJdbcBatches() {
+        List<TaskDTO> dtos = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            TaskDTO dto = new TaskDTO("Habit " + i, null, weekly.getId());
+            dto.setGoalId(goal.getId());
+            dto.setSelectedDays(List.of(1 + i % 7));
+            dtos.add(dto);
+        }
+
+        statistics.clear();
+        List<TaskResponseDTO> created = taskService.createTasks(dtos);
+        entityManager.flush();
+
+        assertEquals(TASKS, created.size());
+        assertEquals("Habit 7", created.get(7).getName());
+        assertEquals(List.of(1), created.get(7).getSelectedDays());
+        assertEquals(TASKS, statistics.getEntityInsertCount());
+        // Reference data and goal lookups, a sequence call per 50 ids and one statement per insert batch
+        assertTrue(statistics.getPrepareStatementCount() <= 4 + 2 * (TASKS / 50),
+                "statements: " + statistics.getPrepareStatementCount());
+
+        assertEquals(1, events.size());
+        assertEquals(TASKS, events.get(0).getTaskIds().size());
+        assertEquals(TASKS, taskRepository.findByGoalId(goal.getId()).size());
+    }
+
+    @Test
+    void testCreateTasks_AllOrNothing() {
+        TaskDTO valid = new TaskDTO("Run", null, weekly.getId());
+        TaskDTO unknownGoal = new TaskDTO("Swim", null, weekly.getId());
+        unknownGoal.setGoalId(-1L);
+
+        ResourceNotFoundException notFound = assertThrows(ResourceNotFoundException.class,
+                () -> taskService.createTasks(List.of(valid, unknownGoal)));
+        assertEquals("tasks[1]: Goal not found", notFound.getMessage());
+
+        IllegalArgumentException invalid = assertThrows(IllegalArgumentException.class,
+                () -> taskService.createTasks(List.of(valid, new TaskDTO(" ", null, weekly.getId()))));
+        assertEquals("tasks[1]: Task name is required", invalid.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> taskService.createTasks(List.of()));
+        assertEquals(0, taskRepository.count());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testUpdateTasks_UpdatesInJdbcBatchesAndRecordsCompletions() {
+        List<TaskBulkUpdateDTO> dtos = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task("Habit " + i, null);
+            task.setFrequency(weekly);
+            task.setQuantity(new BigDecimal("5"));
+            entityManager.persist(task);
+
+            TaskBulkUpdateDTO dto = new TaskBulkUpdateDTO();
+            dto.setId(task.getId());
+            dto.setName("Renamed " + i);
+            dto.setFrequencyId(weekly.getId());
+            dto.setGoalId(goal.getId());
+            dto.setQuantity(new BigDecimal("5"));
+            // Every other task completed by the update
+            dto.setProgress(new BigDecimal(i % 2 == 0 ? "5" : "1"));
+            dtos.add(dto);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics.clear();
+        List<TaskResponseDTO> updated = taskService.updateTasks(dtos);
+        entityManager.flush();
+
+        assertEquals("Renamed 3", updated.get(3).getName());
+        assertNotNull(updated.get(4).getCompletedAt());
+        assertNull(updated.get(5).getCompletedAt());
+        assertEquals(TASKS, statistics.getEntityUpdateCount());
+        // A progress event and a history row per completed task
+        assertEquals(TASKS, statistics.getEntityInsertCount());
+        // Task, goal and history lookups, then batched updates, event and history inserts
+        assertTrue(statistics.getPrepareStatementCount() <= 5 + 4 * (TASKS / 50),
+                "statements: " + statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        assertEquals(TASKS / 2, progressEventRepository.count());
+        assertEquals(0, new BigDecimal(5 * TASKS / 2).compareTo(goalRepository.findCurrentProgress(goal.getId())));
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    void testUpdateTasks_RejectsDuplicatesAndUnknownTasks() {
+        Task task = new Task("Walk", null);
+        task.setFrequency(weekly);
+        entityManager.persist(task);
+        entityManager.flush();
+
+        TaskBulkUpdateDTO dto = new TaskBulkUpdateDTO();
+        dto.setId(task.getId());
+        dto.setName("Walk more");
+        dto.setFrequencyId(weekly.getId());
+
+        IllegalArgumentException duplicate = assertThrows(IllegalArgumentException.class,
+                () -> taskService.updateTasks(List.of(dto, dto)));
+        assertEquals("tasks[1]: Task " + task.getId() + " appears more than once", duplicate.getMessage());
+
+        TaskBulkUpdateDTO missing = new TaskBulkUpdateDTO();
+        missing.setId(-1L);
+        missing.setName("Ghost");
+        missing.setFrequencyId(weekly.getId());
+        ResourceNotFoundException notFound = assertThrows(ResourceNotFoundException.class,
+                () -> taskService.updateTasks(List.of(dto, missing)));
+        assertEquals("tasks[1]: Task not found", notFound.getMessage());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testCompleteTasks_MatchesPerTaskCallsInFixedStatements() {
+        List<Task> bulk = completionTasks();
+        List<Task> single = completionTasks();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            bulk.addAll(completionTasks());
+        }
+        bulk.forEach(task -> ids.add(task.getId()));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics.clear();
+        List<TaskResponseDTO> completed = taskService.completeTasks(ids);
+        entityManager.flush();
+        // Quantities summed per goal, one update, one batched event insert and the rows read back, then
+        // today's completion history replaced: a delete and an insert (and sequence call) per 50 tasks
+        assertTrue(statistics.getPrepareStatementCount() <= 7 + 2 * (ids.size() / 50),
+                "statements: " + statistics.getPrepareStatementCount());
+        assertEquals(1 + ids.size(), statistics.getEntityInsertCount());
+
+        List<TaskResponseDTO> perTask = single.stream().map(task -> taskService.completeTask(task.getId())).toList();
+        for (int i = 0; i < perTask.size(); i++) {
+            assertEquals(ids.get(i), completed.get(i).getId());
+            assertNotNull(completed.get(i).getCompletedAt());
+            assertEquals(perTask.get(i).getProgress(), completed.get(i).getProgress());
+        }
+        assertEquals(0, new BigDecimal("5").compareTo(completed.get(0).getProgress()));
+        assertNull(completed.get(1).getProgress());
+
+        // Quantity 5 and one for the task without quantity, per set of three tasks
+        entityManager.flush();
+        assertEquals(0, new BigDecimal(6 * (TASKS + 2)).compareTo(goalRepository.findCurrentProgress(goal.getId())));
+        assertEquals(1, events.stream().filter(e -> e.getTaskIds().size() == ids.size()).count());
+    }
+
+    @Test
+    void testUncompleteTasks_UndoesCompleteTasks() {
+        List<Task> tasks = completionTasks();
+        List<Long> ids = tasks.stream().map(Task::getId).toList();
+        entityManager.flush();
+        entityManager.clear();
+
+        taskService.completeTasks(ids);
+        List<TaskResponseDTO> uncompleted = taskService.uncompleteTasks(ids);
+
+        assertTrue(uncompleted.stream().allMatch(t -> t.getCompletedAt() == null));
+        assertEquals(0, uncompleted.get(0).getProgress().signum());
+        assertEquals(0, uncompleted.get(2).getProgress().signum());
+        entityManager.flush();
+        assertEquals(0, goalRepository.findCurrentProgress(goal.getId()).signum());
+    }
+
+    @Test
+    void testCompleteTasks_RecordsStreaksWithoutLoadingTasks() {
+        LocalDate today = LocalDate.now();
+        Frequency daily = entityManager.persist(new Frequency("daily"));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task("Read " + i, null);
+            if (i % 2 == 0) {
+                task.setFrequency(daily);
+            } else {
+                task.setFrequency(entityManager.find(Frequency.class, weekly.getId()));
+                task.getSchedule().setWeekDays(List.of(today.getDayOfWeek().getValue()));
+            }
+            entityManager.persist(task);
+            if (i % 4 == 0) {
+                LocalDate yesterday = today.minusDays(1);
+                entityManager.persist(new TaskCompletion(task.getId(), yesterday, null, yesterday.atTime(20, 0)));
+            }
+            ids.add(task.getId());
+        }
+        taskService.rebuildStreaks();
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics.clear();
+        taskService.completeTasks(ids);
+        entityManager.flush();
+        // As without streaks, plus the schedules read and one streak update per distinct schedule
+        assertTrue(statistics.getPrepareStatementCount() <= 7 + 2 * (ids.size() / 50) + 3,
+                "statements: " + statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+
+        entityManager.clear();
+        assertStreak(2, 2, ids.get(0));
+        assertStreak(1, 1, ids.get(1));
+        assertStreak(1, 1, ids.get(2));
+        taskService.completeTasks(ids);
+        entityManager.clear();
+        assertStreak(2, 2, ids.get(0));
+
+        events.clear();
+        statistics.clear();
+        List<TaskResponseDTO> uncompleted = taskService.uncompleteTasks(ids);
+        entityManager.flush();
+        // Streaks are rebuilt in the same transaction: the history read and batched updates
+        assertTrue(statistics.getPrepareStatementCount() <= 8 + ids.size() / 50,
+                "statements: " + statistics.getPrepareStatementCount());
+        assertEquals(List.of(ids), events.stream().map(TaskChangedEvent::getTaskIds).toList());
+        entityManager.clear();
+        assertStreak(1, 1, ids.get(0));
+        assertStreak(0, 0, ids.get(1));
+        assertEquals(1, uncompleted.get(0).getCurrentStreak());
+        assertEquals(0, uncompleted.get(1).getLongestStreak());
+    }
+
+    @Test
+    void testCompleteTasks_RejectsDuplicatesAndUnknownTasks() {
+        Long id = completionTasks().get(0).getId();
+        entityManager.flush();
+
+        IllegalArgumentException duplicate = assertThrows(IllegalArgumentException.class,
+                () -> taskService.completeTasks(List.of(id, id)));
+        assertEquals("tasks[1]: Task " + id + " appears more than once", duplicate.getMessage());
+
+        ResourceNotFoundException notFound = assertThrows(ResourceNotFoundException.class,
+                () -> taskService.uncompleteTasks(List.of(id, -1L)));
+        assertEquals("tasks[1]: Task not found", notFound.getMessage());
+        assertTrue(events.isEmpty());
+    }
+
+    private void assertStreak(int current, int longest, Long id) {
+        TaskStreak streak = taskRepository.findById(id).orElseThrow().getStreak();
+        assertEquals(current, streak.getCurrentLength(LocalDate.now()), "current of " + id);
+        assertEquals(longest, streak.getLongestLength(), "longest of " + id);
+    }
+
+    // A goal task with a quantity, a goal task without one and a task with no goal
+    private List<Task> completionTasks() {
+        Task measured = new Task("Run 5 km", null);
+        measured.setQuantity(new BigDecimal("5"));
+        measured.setGoal(entityManager.find(Goal.class, goal.getId()));
+        Task unmeasured = new Task("Stretch", null);
+        unmeasured.setGoal(measured.getGoal());
+        Task standalone = new Task("Water plants", null);
+        standalone.setQuantity(new BigDecimal("2"));
+
+        List<Task> tasks = new ArrayList<>(List.of(measured, unmeasured, standalone));
+        for (Task task : tasks) {
+            task.setFrequency(entityManager.find(Frequency.class, weekly.getId()));
+            entityManager.persist(task);
+        }
+        return tasks;
+    }
+}
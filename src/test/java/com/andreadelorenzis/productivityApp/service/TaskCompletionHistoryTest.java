@@ -0,0 +1,208 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.dto.TaskCompletionDTO;
+import com.andreadelorenzis.productivityApp.dto.TaskDTO;
+import com.andreadelorenzis.productivityApp.dto.TaskProgressUpdateDTO;
+import com.andreadelorenzis.productivityApp.dto.TaskResponseDTO;
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.Goal;
+import com.andreadelorenzis.productivityApp.entity.GoalStatus;
+import com.andreadelorenzis.productivityApp.entity.Task;
+import com.andreadelorenzis.productivityApp.entity.TaskCompletion;
+import com.andreadelorenzis.productivityApp.entity.Unit;
+import com.andreadelorenzis.productivityApp.exception.ResourceNotFoundException;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
+import com.andreadelorenzis.productivityApp.repository.ProgressEventRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskCompletionRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import com.andreadelorenzis.productivityApp.repository.UnitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The per-occurrence completion history: a new day's completion adds a row
+ * instead of overwriting the previous one, and undoing a completion only
+ * removes the row of the day it was made.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class TaskCompletionHistoryTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final LocalDateTime YESTERDAY_EVENING = TODAY.minusDays(1).atTime(21, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    @Autowired
+    private ProgressEventRepository progressEventRepository;
+
+    @Autowired
+    private TaskCompletionRepository taskCompletionRepository;
+
+    @Autowired
+    private FrequencyRepository frequencyRepository;
+
+    @Autowired
+    private GoalStatusRepository statusRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    private TaskService taskService;
+    private Task reading;
+    private Task stretching;
+
+    @BeforeEach
+    void setUp() {
+        // Each test runs in a transaction already
+        taskService = new TaskService(taskRepository,
+                new ReferenceDataRegistry(frequencyRepository, unitRepository, statusRepository), goalRepository,
+                progressEventRepository, taskCompletionRepository, new DueTodayCache(new SimpleMeterRegistry()),
+                new TaskScheduleIndex(taskRepository),
+                new OptimisticRetry(TransactionOperations.withoutTransaction()), event -> {
+                });
+
+        Frequency daily = entityManager.persist(new Frequency("daily"));
+        Goal goal = new Goal();
+        goal.setName("Reading");
+        goal.setUnit(entityManager.persist(new Unit("pg", "Pages")));
+        goal.setStatus(entityManager.persist(new GoalStatus("active")));
+        goal.setTargetQuantity(new BigDecimal("1000"));
+        goal.setDeadline(LocalDateTime.now().plusMonths(3));
+        entityManager.persist(goal);
+
+        // Completed yesterday evening, as recorded then
+        reading = new Task("Read 20 pages", null);
+        reading.setFrequency(daily);
+        reading.setGoal(goal);
+        reading.setQuantity(new BigDecimal("20"));
+        reading.setProgress(new BigDecimal("20"));
+        reading.setCompletedAt(YESTERDAY_EVENING);
+        entityManager.persist(reading);
+        entityManager.persist(new TaskCompletion(reading.getId(), YESTERDAY_EVENING.toLocalDate(),
+                new BigDecimal("20"), YESTERDAY_EVENING));
+
+        stretching = new Task("Stretch", null);
+        stretching.setFrequency(daily);
+        entityManager.persist(stretching);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testCompleteTask_KeepsEarlierOccurrences() {
+        taskService.completeTask(reading.getId());
+        taskService.completeTask(reading.getId());
+
+        List<TaskCompletionDTO> history = taskService.getCompletions(reading.getId(), TODAY.minusDays(7), TODAY);
+        assertEquals(List.of(TODAY.minusDays(1), TODAY), history.stream().map(TaskCompletionDTO::getOccurrenceDate).toList());
+        assertEquals(0, new BigDecimal("20").compareTo(history.get(1).getQuantity()));
+
+        taskService.uncompleteTask(reading.getId());
+
+        assertEquals(List.of(TODAY.minusDays(1)), taskService.getCompletions(reading.getId(), TODAY.minusDays(7), TODAY)
+                .stream().map(TaskCompletionDTO::getOccurrenceDate).toList());
+    }
+
+    @Test
+    void testUncompleteTask_RemovesTheOccurrenceItUndoes() {
+        taskService.uncompleteTask(reading.getId());
+
+        assertTrue(taskService.getCompletions(reading.getId(), TODAY.minusDays(7), TODAY).isEmpty());
+    }
+
+    @Test
+    void testAddTaskProgress_FollowsCompletionOfTheDay() {
+        taskService.uncompleteTask(reading.getId());
+
+        taskService.addTaskProgress(reading.getId(), new TaskProgressUpdateDTO(new BigDecimal("15")));
+        assertTrue(taskService.getCompletionsOn(TODAY).isEmpty());
+
+        taskService.addTaskProgress(reading.getId(), new TaskProgressUpdateDTO(new BigDecimal("10")));
+        taskService.addTaskProgress(reading.getId(), new TaskProgressUpdateDTO(new BigDecimal("5")));
+        List<TaskCompletionDTO> today = taskService.getCompletionsOn(TODAY);
+        assertEquals(1, today.size());
+        assertEquals(0, new BigDecimal("30").compareTo(today.get(0).getQuantity()));
+
+        taskService.addTaskProgress(reading.getId(), new TaskProgressUpdateDTO(new BigDecimal("-20")));
+        assertTrue(taskService.getCompletionsOn(TODAY).isEmpty());
+    }
+
+    @Test
+    void testCompleteTasks_RecordsTheSameHistoryAsPerTaskCalls() {
+        List<Long> ids = List.of(reading.getId(), stretching.getId());
+
+        taskService.completeTasks(ids);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<TaskCompletionDTO> today = taskService.getCompletionsOn(TODAY);
+        assertEquals(ids, today.stream().map(TaskCompletionDTO::getTaskId).toList());
+        assertEquals(0, new BigDecimal("20").compareTo(today.get(0).getQuantity()));
+        assertNull(today.get(1).getQuantity());
+        assertEquals(1, taskService.getCompletionsOn(TODAY.minusDays(1)).size());
+
+        taskService.uncompleteTasks(ids);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(taskService.getCompletionsOn(TODAY).isEmpty());
+        assertEquals(1, taskService.getCompletionsOn(TODAY.minusDays(1)).size());
+    }
+
+    @Test
+    void testCreateTasks_RecordsTasksCreatedCompleted() {
+        TaskResponseDTO created = taskService.createTask(completedDto("Read 10 pages"));
+        List<TaskResponseDTO> bulk = taskService.createTasks(List.of(completedDto("Read 5 pages"),
+                new TaskDTO("Meditate", null, reading.getFrequency().getId())));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<TaskCompletionDTO> today = taskService.getCompletionsOn(TODAY);
+        assertEquals(List.of(created.getId(), bulk.get(0).getId()),
+                today.stream().map(TaskCompletionDTO::getTaskId).toList());
+        assertEquals(0, new BigDecimal("10").compareTo(today.get(0).getQuantity()));
+        assertEquals(1, created.getCurrentStreak());
+        assertEquals(1, taskService.getTask(bulk.get(0).getId()).getLongestStreak());
+        assertEquals(0, bulk.get(1).getCurrentStreak());
+    }
+
+    @Test
+    void testGetCompletions_RejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.getCompletions(reading.getId(), TODAY, TODAY.minusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> taskService.getCompletions(reading.getId(), null, TODAY));
+        assertThrows(IllegalArgumentException.class, () -> taskService.getCompletionsOn(null));
+        assertThrows(ResourceNotFoundException.class, () -> taskService.getCompletions(-1L, TODAY, TODAY));
+    }
+
+    private TaskDTO completedDto(String name) {
+        TaskDTO dto = new TaskDTO(name, null, reading.getFrequency().getId());
+        dto.setQuantity(new BigDecimal("10"));
+        dto.setProgress(new BigDecimal("10"));
+        return dto;
+    }
+}
@@ -0,0 +1,137 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.Task;
+import com.andreadelorenzis.productivityApp.repository.TaskListRow;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that TaskRepository.findTasksDueOn selects exactly the tasks that
+ * TaskService.isTaskDue accepts, for every day of a non-leap and a leap year.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class TaskDueTodayQueryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private final List<Task> tasks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Frequency oneTime = entityManager.persist(new Frequency("one-time"));
+        Frequency daily = entityManager.persist(new Frequency("daily"));
+        Frequency weekly = entityManager.persist(new Frequency("weekly"));
+        Frequency monthly = entityManager.persist(new Frequency("monthly"));
+        Frequency yearly = entityManager.persist(new Frequency("yearly"));
+        Frequency custom = entityManager.persist(new Frequency("custom"));
+
+        addTask(oneTime, Set.of(), Set.of(), Set.of());
+        addTask(daily, Set.of(), Set.of(), Set.of());
+        addTask(custom, Set.of(1), Set.of(1), Set.of(1));
+
+        // Clamping edge cases
+        addTask(weekly, Set.of(), Set.of(), Set.of());
+        addTask(monthly, Set.of(), Set.of(29), Set.of());
+        addTask(monthly, Set.of(), Set.of(30), Set.of());
+        addTask(monthly, Set.of(), Set.of(31), Set.of());
+        addTask(monthly, Set.of(), Set.of(1, 31), Set.of());
+        addTask(yearly, Set.of(), Set.of(), Set.of(60));
+        addTask(yearly, Set.of(), Set.of(), Set.of(365));
+        addTask(yearly, Set.of(), Set.of(), Set.of(366));
+
+        // Randomised schedules, seeded so failures are reproducible
+        Random random = new Random(42);
+        for (int i = 0; i < 60; i++) {
+            addTask(weekly, randomDays(random, 7), Set.of(), Set.of());
+            addTask(monthly, Set.of(), randomDays(random, 31), Set.of());
+            addTask(yearly, Set.of(), Set.of(), randomDays(random, 366));
+        }
+
+        Task deleted = addTask(daily, Set.of(), Set.of(), Set.of());
+        deleted.setDeletedAt(LocalDateTime.now());
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testFindTasksDueToday_MatchesIsTaskDue_NonLeapYear() {
+        assertQueryMatchesReference(2023);
+    }
+
+    @Test
+    void testFindTasksDueToday_MatchesIsTaskDue_LeapYear() {
+        assertQueryMatchesReference(2024);
+    }
+
+    private void assertQueryMatchesReference(int year) {
+        for (LocalDate day = LocalDate.of(year, 1, 1); day.getYear() == year; day = day.plusDays(1)) {
+            for (boolean includeOneTimeTasks : new boolean[] { true, false }) {
+                int dayOfWeek = day.getDayOfWeek().getValue();
+                int dayOfMonth = day.getDayOfMonth();
+                int dayOfYear = day.getDayOfYear();
+                boolean isLastDayOfMonth = dayOfMonth == day.lengthOfMonth();
+                boolean isLastDayOfYear = dayOfYear == day.lengthOfYear();
+
+                Set<Long> expected = new TreeSet<>();
+                for (Task t : tasks) {
+                    if (t.getDeletedAt() == null && TaskService.isTaskDue(t, dayOfWeek, dayOfMonth,
+                            isLastDayOfMonth, dayOfYear, isLastDayOfYear, includeOneTimeTasks)) {
+                        expected.add(t.getId());
+                    }
+                }
+
+                Set<Long> actual = new TreeSet<>();
+                for (TaskListRow t : taskRepository.findTasksDueOn(day, includeOneTimeTasks)) {
+                    assertTrue(actual.add(t.id()), "duplicate task " + t.id() + " on " + day);
+                }
+
+                assertEquals(expected, actual, "due tasks differ on " + day
+                        + " (includeOneTimeTasks=" + includeOneTimeTasks + ")");
+            }
+        }
+    }
+
+    private Task addTask(Frequency frequency, Set<Integer> weekDays, Set<Integer> monthDays, Set<Integer> yearDays) {
+        Task task = new Task("Task " + tasks.size(), null);
+        task.setFrequency(frequency);
+        task.getSchedule().setWeekDays(weekDays);
+        task.getSchedule().setMonthDays(monthDays);
+        task.getSchedule().setYearDays(yearDays);
+        entityManager.persist(task);
+        tasks.add(task);
+        return task;
+    }
+
+    private static Set<Integer> randomDays(Random random, int maxDay) {
+        Set<Integer> days = new HashSet<>();
+        int count = random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            // Bias towards the end of the range so the clamping rules get exercised
+            days.add(random.nextBoolean() ? maxDay - random.nextInt(4) : 1 + random.nextInt(maxDay));
+        }
+        return days;
+    }
+}
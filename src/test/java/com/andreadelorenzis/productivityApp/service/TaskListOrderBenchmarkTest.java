@@ -0,0 +1,137 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.repository.TaskListRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Time to put 10k, 100k and 1M listing rows in view order, comparing the
+ * former comparator-based double sort with TaskListOrder. Rows arrive either
+ * newest first (as the list queries return them) or shuffled. Each case is
+ * warmed up before timing and the median of the timed runs is reported.
+ *
+ * Run with: mvn test -Dtest=TaskListOrderBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class TaskListOrderBenchmarkTest {
+
+    private static final int[] SIZES = { 10_000, 100_000, 1_000_000 };
+    private static final int WARMUP_RUNS = 5;
+    private static final int TIMED_RUNS = 9;
+
+    @Test
+    void benchmarkOrdering() {
+        System.out.printf("%-10s %-9s %14s %14s %8s%n", "rows", "input", "comparator ms", "keyed ms", "speedup");
+        for (int size : SIZES) {
+            List<TaskListRow> newestFirst = rows(size);
+            List<TaskListRow> shuffled = new ArrayList<>(newestFirst);
+            Collections.shuffle(shuffled, new Random(1));
+
+            report(size, "newest", newestFirst);
+            report(size, "shuffled", shuffled);
+        }
+    }
+
+    private static void report(int size, String label, List<TaskListRow> rows) {
+        // Both orderings must agree before their timings mean anything
+        assertArrayEquals(comparatorOrder(new ArrayList<>(rows)), keyedOrder(rows));
+
+        double comparator = medianMillis(() -> comparatorOrder(new ArrayList<>(rows)));
+        double keyed = medianMillis(() -> keyedOrder(rows));
+        System.out.printf("%-10d %-9s %14.2f %14.2f %7.1fx%n", size, label, comparator, keyed, comparator / keyed);
+    }
+
+    // The ordering as it was: sort by importance and createdAt, number the
+    // rows, then sort again by urgency and the boxed taskOrder
+    private static long[] comparatorOrder(List<TaskListRow> tasks) {
+        tasks.sort((t1, t2) -> {
+            int impCompare = Integer.compare(t2.goalImportance(), t1.goalImportance());
+            if (impCompare != 0)
+                return impCompare;
+            LocalDateTime cat1 = t1.createdAt();
+            LocalDateTime cat2 = t2.createdAt();
+            if (cat1 != null && cat2 != null) {
+                return cat2.compareTo(cat1);
+            }
+            return 0;
+        });
+
+        List<Ordered> ordered = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            ordered.add(new Ordered(tasks.get(i), i + 1));
+        }
+        ordered.sort((a, b) -> {
+            if (a.row.urgent() && !b.row.urgent())
+                return -1;
+            if (!a.row.urgent() && b.row.urgent())
+                return 1;
+            return a.taskOrder.compareTo(b.taskOrder);
+        });
+
+        long[] result = new long[ordered.size() * 2];
+        for (int i = 0; i < ordered.size(); i++) {
+            result[2 * i] = ordered.get(i).row.id();
+            result[2 * i + 1] = ordered.get(i).taskOrder;
+        }
+        return result;
+    }
+
+    private static long[] keyedOrder(List<TaskListRow> rows) {
+        int[] order = TaskListOrder.baseOrder(rows);
+        int[] positions = TaskListOrder.viewPositions(rows, order);
+
+        long[] result = new long[order.length * 2];
+        for (int rank = 0; rank < order.length; rank++) {
+            result[2 * positions[rank]] = rows.get(order[rank]).id();
+            result[2 * positions[rank] + 1] = rank + 1;
+        }
+        return result;
+    }
+
+    private static double medianMillis(Runnable run) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            run.run();
+        }
+        double[] millis = new double[TIMED_RUNS];
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            long start = System.nanoTime();
+            run.run();
+            millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(millis);
+        return millis[TIMED_RUNS / 2];
+    }
+
+    // Newest first, importance -1 (no goal) to 5, roughly one urgent task in ten
+    private static List<TaskListRow> rows(int size) {
+        Random random = new Random(42);
+        LocalDateTime newest = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<TaskListRow> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(new TaskListRow((long) i, "Task " + i, null, 1L, "daily", null, null, null, null,
+                    random.nextInt(7) - 1, newest.minusSeconds(i), null, null, null, null, null, null,
+                    random.nextInt(10) == 0, null, null));
+        }
+        return rows;
+    }
+
+    private static final class Ordered {
+
+        final TaskListRow row;
+        final Integer taskOrder;
+
+        Ordered(TaskListRow row, Integer taskOrder) {
+            this.row = row;
+            this.taskOrder = taskOrder;
+        }
+    }
+}
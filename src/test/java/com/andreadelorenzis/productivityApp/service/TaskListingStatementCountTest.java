@@ -0,0 +1,229 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.dto.TaskResponseDTO;
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.FrequencyKind;
+import com.andreadelorenzis.productivityApp.entity.Goal;
+import com.andreadelorenzis.productivityApp.entity.GoalStatus;
+import com.andreadelorenzis.productivityApp.entity.Task;
+import com.andreadelorenzis.productivityApp.entity.Unit;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalProgressBucketRepository;
+import com.andreadelorenzis.productivityApp.repository.ProgressEventRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalTrackingRow;
+import com.andreadelorenzis.productivityApp.repository.TaskCompletionRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import com.andreadelorenzis.productivityApp.repository.UnitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every task listing must run a fixed number of SQL statements, however many
+ * tasks, goals, units and statuses it returns, and read rows without
+ * hydrating entities.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class TaskListingStatementCountTest {
+
+    private static final int TASKS = 40;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private FrequencyRepository frequencyRepository;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    @Autowired
+    private ProgressEventRepository progressEventRepository;
+
+    @Autowired
+    private GoalProgressBucketRepository progressBucketRepository;
+
+    @Autowired
+    private TaskCompletionRepository taskCompletionRepository;
+
+    @Autowired
+    private GoalStatusRepository statusRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    private TaskService taskService;
+    private GoalService goalService;
+    private Statistics statistics;
+    private Frequency daily;
+    private Goal firstGoal;
+
+    @BeforeEach
+    void setUp() {
+        // Each test runs in a transaction already
+        OptimisticRetry retry = new OptimisticRetry(TransactionOperations.withoutTransaction());
+        ReferenceDataRegistry referenceData = new ReferenceDataRegistry(frequencyRepository, unitRepository,
+                statusRepository);
+        taskService = new TaskService(taskRepository, referenceData, goalRepository, progressEventRepository,
+                taskCompletionRepository, new DueTodayCache(new SimpleMeterRegistry()), new TaskScheduleIndex(taskRepository), retry, event -> {
+                });
+        goalService = new GoalService(goalRepository, progressEventRepository, progressBucketRepository,
+                new GoalProgressRollup(progressBucketRepository), referenceData, taskRepository,
+                new IdealProgressCache(new SimpleMeterRegistry()), retry, event -> {
+                });
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Frequency oneTime = entityManager.persist(new Frequency("one-time"));
+        daily = entityManager.persist(new Frequency("daily"));
+
+        // A distinct goal, unit and status per task, so any lazy or
+        // secondary loading would show up as one statement per task
+        for (int i = 0; i < TASKS; i++) {
+            Unit unit = entityManager.persist(new Unit("u" + i, "Unit " + i));
+            GoalStatus status = entityManager.persist(new GoalStatus("status " + i));
+
+            Goal goal = new Goal();
+            goal.setName("Goal " + i);
+            goal.setUnit(unit);
+            goal.setStatus(status);
+            goal.setImportance(1 + i % 5);
+            goal.setTargetQuantity(new BigDecimal("100"));
+            goal.setDeadline(LocalDateTime.now().plusMonths(1));
+            entityManager.persist(goal);
+            if (firstGoal == null) {
+                firstGoal = goal;
+            }
+
+            Task task = new Task("Task " + i, null);
+            task.setFrequency(i % 2 == 0 ? daily : oneTime);
+            task.setGoal(goal);
+            task.setUrgent(i % 7 == 0);
+            entityManager.persist(task);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testListTasks_SingleStatement() {
+        assertStatements(1, TASKS, () -> taskService.listTasks());
+    }
+
+    @Test
+    void testListHabits_SingleStatement() {
+        assertStatements(1, TASKS / 2, () -> taskService.listHabits());
+    }
+
+    @Test
+    void testListOneTimeTasks_SingleStatement() {
+        assertStatements(1, TASKS / 2, () -> taskService.listOneTimeTasks());
+    }
+
+    @Test
+    void testListTasksByFrequency_SingleStatement() {
+        assertStatements(1, TASKS / 2, () -> taskService.listTasksByFrequency(daily.getId()));
+    }
+
+    @Test
+    void testSearchTasks_SingleStatement() {
+        assertStatements(1, TASKS, () -> taskService.searchTasks("Task"));
+    }
+
+    @Test
+    void testListTasksByGoal_GoalLookupPlusOneStatement() {
+        assertStatements(2, 1, () -> taskService.listTasksByGoal(firstGoal.getId()));
+    }
+
+    @Test
+    void testGetTasksDueToday_SingleStatement() {
+        assertStatements(1, TASKS, () -> taskService.getTasksDueToday(true));
+    }
+
+    @Test
+    void testGetAgenda_IndexLoadPlusOneStatement() {
+        LocalDate today = LocalDate.now();
+        statistics.clear();
+
+        int tasks = taskService.getAgenda(today, today.plusDays(6), true).getTasks().size();
+
+        assertEquals(TASKS, tasks);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testListGoals_OneTrackingStatementThenMemoized() {
+        statistics.clear();
+        assertEquals(TASKS, goalService.listGoals().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        goalService.listGoals();
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindTrackingFrequencies_OldestActiveTaskPerGoal() {
+        Frequency custom = entityManager.persist(new Frequency("custom"));
+        Task newer = new Task("Newer", null);
+        newer.setFrequency(custom);
+        newer.setGoal(entityManager.find(Goal.class, firstGoal.getId()));
+        entityManager.persist(newer);
+        entityManager.flush();
+
+        List<GoalTrackingRow> rows = taskRepository.findTrackingFrequencies(List.of(firstGoal.getId()));
+
+        assertEquals(List.of(new GoalTrackingRow(firstGoal.getId(), FrequencyKind.DAILY)), rows);
+    }
+
+    @Test
+    void testListings_HydrateNoEntities() {
+        statistics.clear();
+
+        taskService.listTasks();
+        taskService.listTasksPage(null, 10);
+        taskService.getTasksDueToday(true);
+        taskService.streamTasks(dto -> {
+        });
+        goalService.listGoals();
+
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private void assertStatements(long expected, int expectedTasks, Supplier<List<TaskResponseDTO>> listing) {
+        statistics.clear();
+
+        List<TaskResponseDTO> tasks = listing.get();
+
+        assertEquals(expectedTasks, tasks.size());
+        for (TaskResponseDTO dto : tasks) {
+            assertNotNull(dto.getGoalUnitCode());
+        }
+        assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+}
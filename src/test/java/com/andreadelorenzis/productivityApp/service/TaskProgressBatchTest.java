@@ -0,0 +1,243 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.dto.TaskProgressEntryDTO;
+import com.andreadelorenzis.productivityApp.dto.TaskProgressResultDTO;
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.Goal;
+import com.andreadelorenzis.productivityApp.entity.GoalStatus;
+import com.andreadelorenzis.productivityApp.entity.ProgressEvent;
+import com.andreadelorenzis.productivityApp.entity.Task;
+import com.andreadelorenzis.productivityApp.entity.TaskCompletion;
+import com.andreadelorenzis.productivityApp.entity.Unit;
+import com.andreadelorenzis.productivityApp.event.TaskChangedEvent;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
+import com.andreadelorenzis.productivityApp.repository.ProgressEventRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskCompletionRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import com.andreadelorenzis.productivityApp.repository.UnitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Batch progress ingestion: every affected task is written once, with one
+ * summed progress event per day, in a fixed number of JDBC statements, and
+ * buffered entries are recorded on the day they were made.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class TaskProgressBatchTest {
+
+    private static final int TASKS = 20;
+    private static final int ENTRIES_PER_TASK = 10;
+    // Noon, so the entries of a test stay on one day
+    private static final LocalDateTime START = LocalDate.now().minusDays(1).atTime(12, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    @Autowired
+    private ProgressEventRepository progressEventRepository;
+
+    @Autowired
+    private TaskCompletionRepository taskCompletionRepository;
+
+    @Autowired
+    private FrequencyRepository frequencyRepository;
+
+    @Autowired
+    private GoalStatusRepository statusRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    private TaskService taskService;
+    private Goal goal;
+    private List<Task> tasks;
+    private Task unlinked;
+    private final List<Object> published = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Each test runs in a transaction already
+        taskService = new TaskService(taskRepository,
+                new ReferenceDataRegistry(frequencyRepository, unitRepository, statusRepository), goalRepository,
+                progressEventRepository, taskCompletionRepository, new DueTodayCache(new SimpleMeterRegistry()),
+                new TaskScheduleIndex(taskRepository),
+                new OptimisticRetry(TransactionOperations.withoutTransaction()), published::add);
+
+        Frequency daily = entityManager.persist(new Frequency("daily"));
+        Unit minutes = entityManager.persist(new Unit("min", "Minutes"));
+        GoalStatus active = entityManager.persist(new GoalStatus("active"));
+
+        goal = new Goal();
+        goal.setName("Practice");
+        goal.setUnit(minutes);
+        goal.setStatus(active);
+        goal.setTargetQuantity(new BigDecimal("10000"));
+        goal.setDeadline(LocalDateTime.now().plusMonths(1));
+        entityManager.persist(goal);
+
+        tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task("Task " + i, null);
+            task.setFrequency(daily);
+            task.setGoal(goal);
+            task.setQuantity(new BigDecimal("25"));
+            tasks.add(entityManager.persist(task));
+        }
+        unlinked = new Task("No goal", null);
+        unlinked.setFrequency(daily);
+        entityManager.persist(unlinked);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testAddTaskProgressBatch_WritesEachTaskOnceInBatches() {
+        List<TaskProgressEntryDTO> entries = new ArrayList<>();
+        for (int n = 0; n < ENTRIES_PER_TASK; n++) {
+            for (Task task : tasks) {
+                entries.add(new TaskProgressEntryDTO(task.getId(), new BigDecimal("3"), START.plusMinutes(n)));
+            }
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<TaskProgressResultDTO> results = taskService.addTaskProgressBatch(entries);
+        entityManager.flush();
+
+        assertEquals(entries.size(), results.size());
+        assertTrue(results.stream().allMatch(TaskProgressResultDTO::isApplied));
+
+        // Task and completion history selects, sequence calls, then batched updates and inserts
+        // (a progress event and a completion per task): not one per entry or task
+        assertEquals(TASKS, statistics.getEntityUpdateCount());
+        assertEquals(2 * TASKS, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 7, "statements: " + statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        Task first = taskRepository.findById(tasks.get(0).getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("30").compareTo(first.getProgress()));
+        assertNotNull(first.getCompletedAt());
+
+        List<ProgressEvent> events = progressEventRepository.findAll();
+        assertEquals(TASKS, events.size());
+        assertTrue(events.stream().allMatch(e -> new BigDecimal("30").compareTo(e.getDelta()) == 0));
+        assertEquals(0, new BigDecimal("600").compareTo(goalRepository.findCurrentProgress(goal.getId())));
+
+        assertEquals(1, published.size());
+        assertEquals(TASKS, ((TaskChangedEvent) published.get(0)).getTaskIds().size());
+    }
+
+    @Test
+    void testAddTaskProgressBatch_RecordsEntriesOnTheDayTheyWereMade() {
+        Long taskId = tasks.get(0).getId();
+        LocalDateTime twoDaysAgo = START.minusDays(1);
+        List<TaskProgressEntryDTO> entries = List.of(
+                new TaskProgressEntryDTO(taskId, new BigDecimal("5"), twoDaysAgo),
+                new TaskProgressEntryDTO(taskId, new BigDecimal("15"), START),
+                new TaskProgressEntryDTO(taskId, new BigDecimal("10"), START.plusMinutes(30)),
+                new TaskProgressEntryDTO(taskId, new BigDecimal("1"), LocalDateTime.now().plusDays(3)));
+
+        taskService.addTaskProgressBatch(entries);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ProgressEvent> events = progressEventRepository.findAll().stream()
+                .sorted((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()))
+                .toList();
+        assertEquals(3, events.size());
+        assertEquals(twoDaysAgo, events.get(0).getCreatedAt());
+        assertEquals(START.plusMinutes(30), events.get(1).getCreatedAt());
+        assertEquals(0, new BigDecimal("25").compareTo(events.get(1).getDelta()));
+        // A timestamp ahead of the server's clock counts as now
+        assertEquals(LocalDate.now(), events.get(2).getCreatedAt().toLocalDate());
+
+        // Completed by the entry that reached the quantity, yesterday
+        assertEquals(START.plusMinutes(30), taskRepository.findById(taskId).orElseThrow().getCompletedAt());
+        List<TaskCompletion> history = taskCompletionRepository.findAll();
+        assertEquals(1, history.size());
+        assertEquals(START.toLocalDate(), history.get(0).getOccurrenceDate());
+        assertEquals(START.plusMinutes(30), history.get(0).getCompletedAt());
+    }
+
+    @Test
+    void testAddTaskProgressBatch_AppliesInTimestampOrderPerTask() {
+        Long taskId = tasks.get(0).getId();
+        // Sent out of order: applied in order, the removal clamps at zero before the additions
+        List<TaskProgressEntryDTO> entries = List.of(
+                new TaskProgressEntryDTO(taskId, new BigDecimal("4"), START.plusMinutes(2)),
+                new TaskProgressEntryDTO(taskId, new BigDecimal("-10"), START),
+                new TaskProgressEntryDTO(taskId, new BigDecimal("5"), START.plusMinutes(1)));
+
+        taskService.addTaskProgressBatch(entries);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(0, new BigDecimal("9").compareTo(taskRepository.findById(taskId).orElseThrow().getProgress()));
+    }
+
+    @Test
+    void testAddTaskProgressBatch_ReportsFailedEntriesAndAppliesTheRest() {
+        Long taskId = tasks.get(0).getId();
+        List<TaskProgressEntryDTO> entries = new ArrayList<>(List.of(
+                new TaskProgressEntryDTO(taskId, new BigDecimal("2"), null),
+                new TaskProgressEntryDTO(-1L, new BigDecimal("2"), null),
+                new TaskProgressEntryDTO(unlinked.getId(), new BigDecimal("2"), null),
+                new TaskProgressEntryDTO(taskId, null, null),
+                new TaskProgressEntryDTO(null, new BigDecimal("2"), null)));
+        entries.add(null);
+
+        List<TaskProgressResultDTO> results = taskService.addTaskProgressBatch(entries);
+
+        assertEquals(List.of(true, false, false, false, false, false),
+                results.stream().map(TaskProgressResultDTO::isApplied).toList());
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), results.stream().map(TaskProgressResultDTO::getIndex).toList());
+        assertEquals("Task not found", results.get(1).getError());
+        assertEquals("Task is not linked to any goal", results.get(2).getError());
+        assertEquals("Quantity must be provided", results.get(3).getError());
+        assertEquals("Task id must be provided", results.get(4).getError());
+
+        entityManager.flush();
+        assertEquals(1, progressEventRepository.count());
+    }
+
+    @Test
+    void testAddTaskProgressBatch_RejectsEmptyOrOversizedBatches() {
+        assertThrows(IllegalArgumentException.class, () -> taskService.addTaskProgressBatch(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> taskService.addTaskProgressBatch(Collections.nCopies(
+                TaskService.MAX_PROGRESS_BATCH + 1,
+                new TaskProgressEntryDTO(tasks.get(0).getId(), BigDecimal.ONE, null))));
+    }
+}
@@ -0,0 +1,203 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.Task;
+import com.andreadelorenzis.productivityApp.entity.TaskSchedule;
+import com.andreadelorenzis.productivityApp.event.TaskChangedEvent;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskScheduleRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks that TaskScheduleIndex.dueTaskIds agrees with TaskService.isTaskDue
+ * for every day of a non-leap and a leap year, and that it follows task
+ * changes without a full reload.
+ */
+@ExtendWith(MockitoExtension.class)
+public class TaskScheduleIndexTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @InjectMocks
+    private TaskScheduleIndex index;
+
+    private final List<Task> tasks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Frequency oneTime = new Frequency("one-time");
+        Frequency daily = new Frequency("daily");
+        Frequency weekly = new Frequency("weekly");
+        Frequency monthly = new Frequency("monthly");
+        Frequency yearly = new Frequency("yearly");
+        Frequency custom = new Frequency("custom");
+
+        addTask(oneTime, Set.of(), Set.of(), Set.of());
+        addTask(daily, Set.of(), Set.of(), Set.of());
+        addTask(custom, Set.of(1), Set.of(1), Set.of(1));
+
+        // Clamping edge cases
+        addTask(weekly, Set.of(), Set.of(), Set.of());
+        addTask(monthly, Set.of(), Set.of(29), Set.of());
+        addTask(monthly, Set.of(), Set.of(30), Set.of());
+        addTask(monthly, Set.of(), Set.of(31), Set.of());
+        addTask(monthly, Set.of(), Set.of(1, 31), Set.of());
+        addTask(yearly, Set.of(), Set.of(), Set.of(60));
+        addTask(yearly, Set.of(), Set.of(), Set.of(64, 65, 128));
+        addTask(yearly, Set.of(), Set.of(), Set.of(365));
+        addTask(yearly, Set.of(), Set.of(), Set.of(366));
+
+        Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            addTask(weekly, randomDays(random, 7), Set.of(), Set.of());
+            addTask(monthly, Set.of(), randomDays(random, 31), Set.of());
+            addTask(yearly, Set.of(), Set.of(), randomDays(random, 366));
+        }
+    }
+
+    @Test
+    void testDueTaskIds_MatchesIsTaskDue_NonLeapYear() {
+        stubAllRows();
+        assertIndexMatchesReference(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31));
+    }
+
+    @Test
+    void testDueTaskIds_MatchesIsTaskDue_LeapYear() {
+        stubAllRows();
+        assertIndexMatchesReference(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+    }
+
+    @Test
+    void testDueTaskIds_MatchesIsTaskDue_AcrossYearEnd() {
+        stubAllRows();
+        assertIndexMatchesReference(LocalDate.of(2023, 12, 1), LocalDate.of(2024, 3, 31));
+    }
+
+    @Test
+    void testDueTaskIds_RejectsInvalidRanges() {
+        assertThrows(IllegalArgumentException.class,
+                () -> index.dueTaskIds(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 1), true));
+        assertThrows(IllegalArgumentException.class,
+                () -> index.dueTaskIds(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1), true));
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void testOnTaskChanged_UpdatesAndRemovesRows() {
+        stubAllRows();
+        LocalDate monday = LocalDate.of(2024, 1, 1);
+        index.dueTaskIds(monday, monday, false);
+
+        // Task 4 (weekly, no days) now runs on Mondays
+        Task changed = tasks.get(3);
+        changed.getSchedule().setWeekDays(Set.of(1));
+        when(taskRepository.findScheduleRowById(changed.getId())).thenReturn(Optional.of(rowOf(changed)));
+        index.onTaskChanged(new TaskChangedEvent(changed.getId()));
+        assertTrue(contains(index.dueTaskIds(monday, monday, false)[0], changed.getId()));
+
+        // Task 2 (daily) is deleted
+        Task deleted = tasks.get(1);
+        when(taskRepository.findScheduleRowById(deleted.getId())).thenReturn(Optional.empty());
+        index.onTaskChanged(new TaskChangedEvent(deleted.getId()));
+        assertFalse(contains(index.dueTaskIds(monday, monday, false)[0], deleted.getId()));
+
+        tasks.remove(deleted);
+        assertIndexMatchesReference(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+        verify(taskRepository, times(1)).findAllScheduleRows();
+    }
+
+    private void assertIndexMatchesReference(LocalDate from, LocalDate to) {
+        for (boolean includeOneTimeTasks : new boolean[] { true, false }) {
+            long[][] due = index.dueTaskIds(from, to, includeOneTimeTasks);
+
+            LocalDate day = from;
+            for (int i = 0; i < due.length; i++, day = day.plusDays(1)) {
+                int dayOfWeek = day.getDayOfWeek().getValue();
+                int dayOfMonth = day.getDayOfMonth();
+                int dayOfYear = day.getDayOfYear();
+                boolean isLastDayOfMonth = dayOfMonth == day.lengthOfMonth();
+                boolean isLastDayOfYear = dayOfYear == day.lengthOfYear();
+
+                Set<Long> expected = new TreeSet<>();
+                for (Task t : tasks) {
+                    if (TaskService.isTaskDue(t, dayOfWeek, dayOfMonth, isLastDayOfMonth, dayOfYear,
+                            isLastDayOfYear, includeOneTimeTasks)) {
+                        expected.add(t.getId());
+                    }
+                }
+
+                Set<Long> actual = new TreeSet<>();
+                for (long id : due[i]) {
+                    assertTrue(actual.add(id), "duplicate task " + id + " on " + day);
+                }
+
+                assertEquals(expected, actual, "due tasks differ on " + day
+                        + " (includeOneTimeTasks=" + includeOneTimeTasks + ")");
+            }
+            assertEquals(to.plusDays(1), day);
+        }
+    }
+
+    private void stubAllRows() {
+        List<TaskScheduleRow> rows = new ArrayList<>();
+        for (Task t : tasks) {
+            rows.add(rowOf(t));
+        }
+        when(taskRepository.findAllScheduleRows()).thenReturn(rows);
+    }
+
+    private static TaskScheduleRow rowOf(Task task) {
+        // Copy the schedule, as the index must not depend on the entity instance
+        TaskSchedule copy = new TaskSchedule();
+        copy.setWeekDays(task.getSchedule().getWeekDays());
+        copy.setMonthDays(task.getSchedule().getMonthDays());
+        copy.setYearDays(task.getSchedule().getYearDays());
+        return new TaskScheduleRow(task.getId(), task.getFrequency().getKind(), copy);
+    }
+
+    private static boolean contains(long[] ids, long id) {
+        for (long candidate : ids) {
+            if (candidate == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addTask(Frequency frequency, Set<Integer> weekDays, Set<Integer> monthDays, Set<Integer> yearDays) {
+        Task task = new Task();
+        task.setId((long) tasks.size() + 1);
+        task.setFrequency(frequency);
+        task.getSchedule().setWeekDays(weekDays);
+        task.getSchedule().setMonthDays(monthDays);
+        task.getSchedule().setYearDays(yearDays);
+        tasks.add(task);
+    }
+
+    private static Set<Integer> randomDays(Random random, int maxDay) {
+        Set<Integer> days = new HashSet<>();
+        int count = random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            days.add(random.nextBoolean() ? maxDay - random.nextInt(4) : 1 + random.nextInt(maxDay));
+        }
+        return days;
+    }
+}
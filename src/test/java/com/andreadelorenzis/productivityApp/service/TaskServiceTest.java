@@ -1,30 +1,43 @@
 package com.andreadelorenzis.productivityApp.service;
 
+import com.andreadelorenzis.productivityApp.dto.AgendaDTO;
+import com.andreadelorenzis.productivityApp.dto.TaskDTO;
 import com.andreadelorenzis.productivityApp.dto.TaskProgressUpdateDTO;
 import com.andreadelorenzis.productivityApp.dto.TaskResponseDTO;
 import com.andreadelorenzis.productivityApp.entity.Goal;
 import com.andreadelorenzis.productivityApp.entity.Task;
 import com.andreadelorenzis.productivityApp.entity.Unit;
-import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.event.TaskChangedEvent;
 import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.ProgressEventRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskListRow;
+import com.andreadelorenzis.productivityApp.repository.TaskCompletionRepository;
 import com.andreadelorenzis.productivityApp.repository.TaskRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.Random;
 import com.andreadelorenzis.productivityApp.entity.Frequency;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,11 +47,29 @@ public class TaskServiceTest {
     private TaskRepository taskRepository;
 
     @Mock
-    private FrequencyRepository frequencyRepository;
+    private ReferenceDataRegistry referenceData;
 
     @Mock
     private GoalRepository goalRepository;
 
+    @Mock
+    private ProgressEventRepository progressEventRepository;
+
+    @Mock
+    private TaskCompletionRepository taskCompletionRepository;
+
+    @Mock
+    private TaskScheduleIndex scheduleIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private DueTodayCache dueTodayCache = new DueTodayCache(new SimpleMeterRegistry());
+
+    @Spy
+    private OptimisticRetry retry = new OptimisticRetry(TransactionOperations.withoutTransaction());
+
     @InjectMocks
     private TaskService taskService;
 
@@ -65,17 +96,17 @@ public class TaskServiceTest {
     void testCompleteTask_Success() {
         when(taskRepository.findById(1L)).thenReturn(Optional.of(mockTask));
         when(taskRepository.save(any(Task.class))).thenAnswer(i -> i.getArguments()[0]);
-        when(goalRepository.save(any(Goal.class))).thenAnswer(i -> i.getArguments()[0]);
 
         TaskResponseDTO response = taskService.completeTask(1L);
 
         assertNotNull(response.getCompletedAt());
         assertEquals(new BigDecimal("5"), response.getProgress());
 
-        // 10 + 5 = 15
-        assertEquals(new BigDecimal("15"), mockGoal.getCurrentProgress());
+        // + 5 is appended to the goal's progress events
         verify(taskRepository).save(mockTask);
-        verify(goalRepository).save(mockGoal);
+        verify(progressEventRepository).save(argThat(e -> e.getGoalId().equals(1L)
+                && e.getDelta().equals(new BigDecimal("5"))));
+        verify(goalRepository, never()).addProgress(any(), any());
     }
 
     @Test
@@ -86,24 +117,23 @@ public class TaskServiceTest {
 
         when(taskRepository.findById(1L)).thenReturn(Optional.of(mockTask));
         when(taskRepository.save(any(Task.class))).thenAnswer(i -> i.getArguments()[0]);
-        when(goalRepository.save(any(Goal.class))).thenAnswer(i -> i.getArguments()[0]);
 
         TaskResponseDTO response = taskService.uncompleteTask(1L);
 
         assertNull(response.getCompletedAt());
         assertEquals(new BigDecimal("0"), response.getProgress());
 
-        // 15 - 5 = 10
-        assertEquals(new BigDecimal("10"), mockGoal.getCurrentProgress());
+        // - 5 is appended to the goal's progress events
         verify(taskRepository).save(mockTask);
-        verify(goalRepository).save(mockGoal);
+        verify(progressEventRepository).save(argThat(e -> e.getGoalId().equals(1L)
+                && e.getDelta().equals(new BigDecimal("-5"))));
+        verify(goalRepository, never()).addProgress(any(), any());
     }
 
     @Test
     void testAddTaskProgress_Success() {
         when(taskRepository.findById(1L)).thenReturn(Optional.of(mockTask));
         when(taskRepository.save(any(Task.class))).thenAnswer(i -> i.getArguments()[0]);
-        when(goalRepository.save(any(Goal.class))).thenAnswer(i -> i.getArguments()[0]);
 
         TaskProgressUpdateDTO updateDTO = new TaskProgressUpdateDTO();
         updateDTO.setQuantity(new BigDecimal("2")); // add 2 progress
@@ -113,17 +143,16 @@ public class TaskServiceTest {
         assertEquals(new BigDecimal("2"), response.getProgress());
         assertNull(response.getCompletedAt()); // Not yet completed (2 < 5)
 
-        // 10 + 2 = 12
-        assertEquals(new BigDecimal("12"), mockGoal.getCurrentProgress());
         verify(taskRepository).save(mockTask);
-        verify(goalRepository).save(mockGoal);
+        verify(progressEventRepository).save(argThat(e -> e.getGoalId().equals(1L)
+                && e.getDelta().equals(new BigDecimal("2"))));
+        verify(goalRepository, never()).addProgress(any(), any());
     }
 
     @Test
     void testAddTaskProgress_GoalUpdateAndCompletion() {
         when(taskRepository.findById(1L)).thenReturn(Optional.of(mockTask));
         when(taskRepository.save(any(Task.class))).thenAnswer(i -> i.getArguments()[0]);
-        when(goalRepository.save(any(Goal.class))).thenAnswer(i -> i.getArguments()[0]);
 
         TaskProgressUpdateDTO updateDTO = new TaskProgressUpdateDTO();
         updateDTO.setQuantity(new BigDecimal("5")); // add 5 progress, equals required quantity
@@ -133,19 +162,15 @@ public class TaskServiceTest {
         assertEquals(new BigDecimal("5"), response.getProgress());
         assertNotNull(response.getCompletedAt()); // Completed (5 = 5)
 
-        // 10 + 5 = 15
-        assertEquals(new BigDecimal("15"), mockGoal.getCurrentProgress());
+        // + 5 is appended to the goal's progress events
         verify(taskRepository).save(mockTask);
-        verify(goalRepository).save(mockGoal);
+        verify(progressEventRepository).save(argThat(e -> e.getGoalId().equals(1L)
+                && e.getDelta().equals(new BigDecimal("5"))));
+        verify(goalRepository, never()).addProgress(any(), any());
     }
 
     @Test
-    void testGetTasksDueToday_Scheduling() {
-        LocalDate today = LocalDate.now();
-        int dayOfWeek = today.getDayOfWeek().getValue();
-        int dayOfMonth = today.getDayOfMonth();
-        int dayOfYear = today.getDayOfYear();
-
+    void testIsTaskDue_Scheduling() {
         Frequency freqOneTime = new Frequency();
         freqOneTime.setName("one-time");
         Frequency freqDaily = new Frequency();
@@ -158,50 +183,93 @@ public class TaskServiceTest {
         freqYearly.setName("yearly");
 
         Task tOneTime = new Task();
-        tOneTime.setId(101L);
         tOneTime.setFrequency(freqOneTime);
 
         Task tDaily = new Task();
-        tDaily.setId(102L);
         tDaily.setFrequency(freqDaily);
 
-        Task tWeeklyDue = new Task();
-        tWeeklyDue.setId(103L);
-        tWeeklyDue.setFrequency(freqWeekly);
-        tWeeklyDue.setWeekDays(Set.of(dayOfWeek));
+        Task tWeekly = new Task();
+        tWeekly.setFrequency(freqWeekly);
+        tWeekly.getSchedule().setWeekDays(List.of(3));
+
+        Task tMonthly = new Task();
+        tMonthly.setFrequency(freqMonthly);
+        tMonthly.getSchedule().setMonthDays(List.of(31));
+
+        Task tYearly = new Task();
+        tYearly.setFrequency(freqYearly);
+        tYearly.getSchedule().setYearDays(List.of(366));
+
+        // Wednesday 2023-02-15: not the last day of the month or year
+        assertTrue(TaskService.isTaskDue(tOneTime, 3, 15, false, 46, false, true));
+        assertFalse(TaskService.isTaskDue(tOneTime, 3, 15, false, 46, false, false));
+        assertTrue(TaskService.isTaskDue(tDaily, 3, 15, false, 46, false, false));
+        assertTrue(TaskService.isTaskDue(tWeekly, 3, 15, false, 46, false, false));
+        assertFalse(TaskService.isTaskDue(tWeekly, 4, 16, false, 47, false, false));
+        assertFalse(TaskService.isTaskDue(tMonthly, 3, 15, false, 46, false, false));
+        assertFalse(TaskService.isTaskDue(tYearly, 3, 15, false, 46, false, false));
+
+        // Tuesday 2023-02-28: day 31 clamps to the last day of a short month
+        assertTrue(TaskService.isTaskDue(tMonthly, 2, 28, true, 59, false, false));
+
+        // Sunday 2023-12-31: day 366 clamps to the last day of a non-leap year
+        assertTrue(TaskService.isTaskDue(tYearly, 7, 31, true, 365, true, false));
+        assertFalse(TaskService.isTaskDue(tYearly, 6, 30, false, 364, false, false));
+    }
 
-        Task tWeeklyNotDue = new Task();
-        tWeeklyNotDue.setId(104L);
-        tWeeklyNotDue.setFrequency(freqWeekly);
-        tWeeklyNotDue.setWeekDays(Set.of(dayOfWeek == 1 ? 2 : 1));
+    @Test
+    void testGetTasksDueToday_QueriesTodaysSchedule() {
+        when(taskRepository.findTasksDueOn(any(LocalDate.class), anyBoolean())).thenReturn(new ArrayList<>());
+
+        taskService.getTasksDueToday(true);
+
+        verify(taskRepository).findTasksDueOn(LocalDate.now(), true);
+        verify(taskRepository, never()).findAllActive();
+    }
 
-        Task tMonthlyDue = new Task();
-        tMonthlyDue.setId(105L);
-        tMonthlyDue.setFrequency(freqMonthly);
-        tMonthlyDue.setMonthDays(Set.of(dayOfMonth));
+    @Test
+    void testGetTasksDueToday_ServedFromCacheUntilTaskChanges() {
+        when(taskRepository.findTasksDueOn(any(LocalDate.class), anyBoolean()))
+                .thenAnswer(i -> new ArrayList<>());
 
-        Task tYearlyDue = new Task();
-        tYearlyDue.setId(106L);
-        tYearlyDue.setFrequency(freqYearly);
-        tYearlyDue.setYearDays(Set.of(dayOfYear));
+        taskService.getTasksDueToday(false);
+        taskService.getTasksDueToday(false);
+        verify(taskRepository, times(1)).findTasksDueOn(LocalDate.now(), false);
 
-        when(taskRepository.findAllActive()).thenReturn(List.of(
-                tOneTime, tDaily, tWeeklyDue, tWeeklyNotDue, tMonthlyDue, tYearlyDue));
+        // The other includeOneTimeTasks flag is cached separately
+        taskService.getTasksDueToday(true);
+        verify(taskRepository, times(1)).findTasksDueOn(LocalDate.now(), true);
 
-        List<TaskResponseDTO> results = taskService.getTasksDueToday(true);
+        dueTodayCache.onTaskChanged(new TaskChangedEvent(1L));
 
-        assertEquals(5, results.size());
-        assertTrue(results.stream().anyMatch(dto -> dto.getId().equals(101L)));
-        assertTrue(results.stream().anyMatch(dto -> dto.getId().equals(102L)));
-        assertTrue(results.stream().anyMatch(dto -> dto.getId().equals(103L)));
-        assertFalse(results.stream().anyMatch(dto -> dto.getId().equals(104L)));
-        assertTrue(results.stream().anyMatch(dto -> dto.getId().equals(105L)));
-        assertTrue(results.stream().anyMatch(dto -> dto.getId().equals(106L)));
-
-        // Test includeOneTimeTasks = false
-        results = taskService.getTasksDueToday(false);
-        assertEquals(4, results.size());
-        assertFalse(results.stream().anyMatch(dto -> dto.getId().equals(101L)));
+        taskService.getTasksDueToday(false);
+        verify(taskRepository, times(2)).findTasksDueOn(LocalDate.now(), false);
+    }
+
+    @Test
+    void testCompleteTask_PublishesTaskChangedEvent() {
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(mockTask));
+        when(taskRepository.save(any(Task.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        taskService.completeTask(1L);
+
+        ArgumentCaptor<TaskChangedEvent> captor = ArgumentCaptor.forClass(TaskChangedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertEquals(1L, captor.getValue().getTaskId());
+    }
+
+    @Test
+    void testCreateTask_RejectsOutOfRangeSelectedDays() {
+        Frequency freqWeekly = new Frequency();
+        freqWeekly.setId(2L);
+        freqWeekly.setName("weekly");
+        when(referenceData.findFrequency(2L)).thenReturn(Optional.of(freqWeekly));
+
+        TaskDTO dto = new TaskDTO("Gym", null, 2L);
+        dto.setSelectedDays(List.of(1, 8));
+
+        assertThrows(IllegalArgumentException.class, () -> taskService.createTask(dto));
+        verify(taskRepository, never()).save(any(Task.class));
     }
 
     @Test
@@ -266,7 +334,8 @@ public class TaskServiceTest {
         t7.setCreatedAt(LocalDateTime.now());
 
         // We put them in a random order
-        when(taskRepository.findAllActive()).thenReturn(List.of(t1, t2, t3, t4, t5, t6, t7));
+        when(taskRepository.findTasksDueOn(any(LocalDate.class), anyBoolean()))
+                .thenReturn(rows(t1, t2, t3, t4, t5, t6, t7));
 
         List<TaskResponseDTO> results = taskService.getTasksDueToday(true);
 
@@ -286,4 +355,108 @@ public class TaskServiceTest {
         // Rank 7: No goal -> t5
         assertEquals(5L, results.get(6).getId());
     }
+
+    @Test
+    void testListTasks_OrderMatchesComparatorSort() {
+        Frequency freqDaily = new Frequency();
+        freqDaily.setName("daily");
+        Random random = new Random(7);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        // Sizes below and above the insertion sort cut-off; the last round
+        // spreads importance wide enough to skip the counting sort
+        int[] sizes = { 0, 1, 5, 40, 1_000, 1_000 };
+        int[] importanceRanges = { 7, 7, 7, 7, 7, 200 };
+        for (int round = 0; round < sizes.length; round++) {
+            int size = sizes[round];
+            int importanceRange = importanceRanges[round];
+            List<TaskListRow> rows = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                Task t = new Task();
+                t.setId((long) i);
+                t.setFrequency(freqDaily);
+                t.setUrgent(random.nextInt(4) == 0);
+                int importance = random.nextInt(importanceRange) - 1;
+                if (importance >= 0) {
+                    Goal goal = new Goal();
+                    goal.setId((long) importance);
+                    goal.setImportance(importance);
+                    t.setGoal(goal);
+                }
+                // Few distinct timestamps, so ties have to keep the input order
+                t.setCreatedAt(base.plusNanos(random.nextInt(50) * 1_000L));
+                rows.add(TaskListRow.of(t));
+            }
+
+            List<TaskListRow> expected = new ArrayList<>(rows);
+            expected.sort(Comparator.comparingInt(TaskListRow::goalImportance).reversed()
+                    .thenComparing(TaskListRow::createdAt, Comparator.reverseOrder()));
+            List<Long> expectedIds = new ArrayList<>();
+            List<Integer> expectedOrder = new ArrayList<>();
+            for (boolean urgentPass : new boolean[] { true, false }) {
+                for (int i = 0; i < expected.size(); i++) {
+                    if (expected.get(i).urgent() == urgentPass) {
+                        expectedIds.add(expected.get(i).id());
+                        expectedOrder.add(i + 1);
+                    }
+                }
+            }
+
+            when(taskRepository.findAllActive()).thenReturn(new ArrayList<>(rows));
+            List<TaskResponseDTO> results = taskService.listTasks();
+
+            assertEquals(expectedIds, results.stream().map(TaskResponseDTO::getId).toList(), "size " + size);
+            assertEquals(expectedOrder, results.stream().map(TaskResponseDTO::getTaskOrder).toList(),
+                    "size " + size);
+        }
+    }
+
+    @Test
+    void testGetAgenda_GroupsIndexResultsByDayInListingOrder() {
+        LocalDate from = LocalDate.of(2024, 2, 28);
+        LocalDate to = LocalDate.of(2024, 3, 1);
+
+        Goal important = new Goal();
+        important.setId(2L);
+        important.setImportance(5);
+
+        Task older = new Task();
+        older.setId(10L);
+        older.setCreatedAt(LocalDateTime.now().minusDays(2));
+
+        Task urgent = new Task();
+        urgent.setId(11L);
+        urgent.setUrgent(true);
+        urgent.setGoal(important);
+        urgent.setCreatedAt(LocalDateTime.now());
+
+        when(scheduleIndex.dueTaskIds(from, to, false))
+                .thenReturn(new long[][] { { 10L, 11L }, {}, { 10L } });
+        when(taskRepository.findRowsByIdIn(any())).thenReturn(rows(older, urgent));
+
+        AgendaDTO agenda = taskService.getAgenda(from, to, false);
+
+        assertEquals(List.of(11L, 10L), agenda.getTasks().stream().map(TaskResponseDTO::getId).toList());
+        assertEquals(3, agenda.getDays().size());
+        assertEquals(from, agenda.getDays().get(0).getDate());
+        assertEquals(List.of(11L, 10L), agenda.getDays().get(0).getTaskIds());
+        assertEquals(List.of(), agenda.getDays().get(1).getTaskIds());
+        assertEquals(LocalDate.of(2024, 3, 1), agenda.getDays().get(2).getDate());
+        assertEquals(List.of(10L), agenda.getDays().get(2).getTaskIds());
+    }
+
+    @Test
+    void testGetAgenda_RejectsReversedRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.getAgenda(LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 1), false));
+        verifyNoInteractions(scheduleIndex);
+    }
+
+    private static List<TaskListRow> rows(Task... tasks) {
+        List<TaskListRow> rows = new ArrayList<>();
+        for (Task t : tasks) {
+            rows.add(TaskListRow.of(t));
+        }
+        return rows;
+    }
 }
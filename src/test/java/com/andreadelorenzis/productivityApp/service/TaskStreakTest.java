@@ -0,0 +1,220 @@
+package com.andreadelorenzis.productivityApp.service;
+
+import com.andreadelorenzis.productivityApp.dto.TaskResponseDTO;
+import com.andreadelorenzis.productivityApp.entity.Frequency;
+import com.andreadelorenzis.productivityApp.entity.FrequencyKind;
+import com.andreadelorenzis.productivityApp.entity.Task;
+import com.andreadelorenzis.productivityApp.entity.TaskCompletion;
+import com.andreadelorenzis.productivityApp.entity.TaskSchedule;
+import com.andreadelorenzis.productivityApp.entity.TaskStreak;
+import com.andreadelorenzis.productivityApp.repository.FrequencyRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalRepository;
+import com.andreadelorenzis.productivityApp.repository.GoalStatusRepository;
+import com.andreadelorenzis.productivityApp.repository.ProgressEventRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskCompletionRepository;
+import com.andreadelorenzis.productivityApp.repository.TaskRepository;
+import com.andreadelorenzis.productivityApp.repository.UnitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streaks move one completion at a time, follow the selected days and
+ * clamping of the schedule, and are rebuilt from the completion history when
+ * a completion is undone or on repair.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class TaskStreakTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    @Autowired
+    private ProgressEventRepository progressEventRepository;
+
+    @Autowired
+    private TaskCompletionRepository taskCompletionRepository;
+
+    @Autowired
+    private FrequencyRepository frequencyRepository;
+
+    @Autowired
+    private GoalStatusRepository statusRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    private TaskService taskService;
+    private Frequency daily;
+    private Frequency weekly;
+
+    @BeforeEach
+    void setUp() {
+        // Each test runs in a transaction already
+        taskService = new TaskService(taskRepository,
+                new ReferenceDataRegistry(frequencyRepository, unitRepository, statusRepository), goalRepository,
+                progressEventRepository, taskCompletionRepository, new DueTodayCache(new SimpleMeterRegistry()),
+                new TaskScheduleIndex(taskRepository),
+                new OptimisticRetry(TransactionOperations.withoutTransaction()), event -> {
+                });
+
+        daily = entityManager.persist(new Frequency("daily"));
+        weekly = entityManager.persist(new Frequency("weekly"));
+    }
+
+    @Test
+    void testCompleteAndUncomplete_MoveTheStreakByOne() {
+        Task reading = task(daily, TODAY.minusDays(3), TODAY.minusDays(2), TODAY.minusDays(1));
+        taskService.rebuildStreaks();
+
+        assertStreak(3, 3, taskService.getTask(reading.getId()));
+        assertStreak(4, 4, taskService.completeTask(reading.getId()));
+        assertStreak(4, 4, taskService.completeTask(reading.getId()));
+        assertStreak(3, 3, taskService.uncompleteTask(reading.getId()));
+    }
+
+    @Test
+    void testCompleteTask_StartsOverAfterAMissedOccurrence() {
+        Task reading = task(daily, TODAY.minusDays(5), TODAY.minusDays(4));
+        taskService.rebuildStreaks();
+
+        assertStreak(0, 2, taskService.getTask(reading.getId()));
+        assertStreak(1, 2, taskService.completeTask(reading.getId()));
+    }
+
+    @Test
+    void testWeeklyStreak_CountsSelectedDaysOnly() {
+        // Due on today's weekday only; the first completion came a day late
+        Task review = task(weekly, TODAY.minusDays(13), TODAY.minusDays(7));
+        review.getSchedule().setWeekDays(List.of(TODAY.getDayOfWeek().getValue()));
+        entityManager.flush();
+        taskService.rebuildStreaks();
+
+        assertStreak(2, 2, taskService.getTask(review.getId()));
+        assertStreak(3, 3, taskService.completeTask(review.getId()));
+    }
+
+    @Test
+    void testMonthlyStreak_FollowsClampedDays() {
+        TaskSchedule lastDay = new TaskSchedule();
+        lastDay.setMonthDays(List.of(31));
+        TaskStreak streak = new TaskStreak();
+
+        streak.recompute(FrequencyKind.MONTHLY, lastDay,
+                List.of(LocalDate.of(2026, 1, 31), LocalDate.of(2026, 2, 28), LocalDate.of(2026, 3, 31)));
+        streak.recordCompletion(FrequencyKind.MONTHLY, lastDay, LocalDate.of(2026, 4, 30));
+
+        assertEquals(4, streak.getCurrentLength(LocalDate.of(2026, 6, 29)));
+        assertEquals(0, streak.getCurrentLength(LocalDate.of(2026, 6, 30)));
+        assertEquals(4, streak.getLongestLength());
+    }
+
+    @Test
+    void testDueDayLookups_AgreeWithIsDueOn() {
+        List<List<Integer>> weekDays = List.of(List.of(), List.of(1), List.of(7), List.of(3, 5),
+                List.of(1, 2, 3, 4, 5, 6, 7));
+        List<List<Integer>> monthDays = List.of(List.of(1), List.of(15), List.of(29), List.of(31), List.of(1, 30),
+                List.of(28, 31));
+        List<List<Integer>> yearDays = List.of(List.of(1), List.of(60), List.of(64, 65), List.of(200), List.of(365),
+                List.of(366), List.of(2, 366));
+        for (List<Integer> days : weekDays) {
+            assertDueDayLookups(FrequencyKind.WEEKLY, days);
+        }
+        for (List<Integer> days : monthDays) {
+            assertDueDayLookups(FrequencyKind.MONTHLY, days);
+        }
+        for (List<Integer> days : yearDays) {
+            assertDueDayLookups(FrequencyKind.YEARLY, days);
+        }
+        assertDueDayLookups(FrequencyKind.DAILY, List.of());
+        assertNull(FrequencyKind.ONE_TIME.lastDueOnOrBefore(new TaskSchedule(), TODAY));
+        assertNull(FrequencyKind.CUSTOM.nextDueAfter(new TaskSchedule(), TODAY));
+    }
+
+    @Test
+    void testListings_ReadStoredStreaks() {
+        Task reading = task(daily, TODAY.minusDays(2), TODAY.minusDays(1));
+        taskService.rebuildStreaks();
+        entityManager.flush();
+        entityManager.clear();
+
+        TaskResponseDTO listed = taskService.listHabits().stream()
+                .filter(t -> t.getId().equals(reading.getId()))
+                .findFirst().orElseThrow();
+        assertStreak(2, 2, listed);
+    }
+
+    @Test
+    void testPeriodRollover_ZeroesBrokenStreaks() {
+        Task reading = task(daily, TODAY.minusDays(5), TODAY.minusDays(4));
+        Task writing = task(daily, TODAY.minusDays(1));
+        taskService.rebuildStreaks();
+        entityManager.flush();
+
+        new PeriodRollover(taskRepository, frequencyRepository, TransactionOperations.withoutTransaction(),
+                event -> {
+                }, new SimpleMeterRegistry()).rollOver(TODAY.atStartOfDay());
+        entityManager.clear();
+
+        TaskStreak broken = taskRepository.findById(reading.getId()).orElseThrow().getStreak();
+        assertEquals(0, broken.getCurrentLength(broken.getBrokenOn().minusDays(1)));
+        assertEquals(2, broken.getLongestLength());
+        assertEquals(1, taskRepository.findById(writing.getId()).orElseThrow().getStreak().getCurrentLength(TODAY));
+    }
+
+    private Task task(Frequency frequency, LocalDate... completedOn) {
+        Task task = new Task(frequency.getName() + " task", null);
+        task.setFrequency(frequency);
+        entityManager.persist(task);
+        for (LocalDate day : completedOn) {
+            entityManager.persist(new TaskCompletion(task.getId(), day, BigDecimal.ONE, day.atTime(20, 0)));
+        }
+        return task;
+    }
+
+    // Every day of 2027 to 2029, leap year included, against a day-by-day scan
+    private static void assertDueDayLookups(FrequencyKind kind, List<Integer> selectedDays) {
+        TaskSchedule schedule = new TaskSchedule();
+        kind.setSelectedDays(schedule, selectedDays);
+        for (LocalDate day = LocalDate.of(2027, 1, 1); day.getYear() < 2030; day = day.plusDays(1)) {
+            LocalDate last = null;
+            LocalDate next = null;
+            for (int i = 0; i <= TaskSchedule.MAX_YEAR_DAY + 1; i++) {
+                if (last == null && kind.isDueOn(schedule, day.minusDays(i))) {
+                    last = day.minusDays(i);
+                }
+                if (next == null && i > 0 && kind.isDueOn(schedule, day.plusDays(i))) {
+                    next = day.plusDays(i);
+                }
+            }
+            String label = kind + " " + selectedDays + " on " + day;
+            assertEquals(last, kind.lastDueOnOrBefore(schedule, day), "last due, " + label);
+            assertEquals(next, kind.nextDueAfter(schedule, day), "next due, " + label);
+        }
+    }
+
+    private static void assertStreak(int current, int longest, TaskResponseDTO task) {
+        assertEquals(current, task.getCurrentStreak(), "current");
+        assertEquals(longest, task.getLongestStreak(), "longest");
+    }
+}